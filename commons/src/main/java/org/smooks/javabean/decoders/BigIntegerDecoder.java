@@ -59,11 +59,11 @@ import java.text.ParseException;
 public class BigIntegerDecoder extends NumberDecoder {
 
     public Object decode(String data) throws DataDecodeException {
-        NumberFormat format = getNumberFormat();
+        NumberFormat format = getThreadNumberFormat();
 
         if(format != null) {
             try {
-                Number number = format.parse(data.trim());
+                Number number = parse(format, data.trim());
 
                 if(number instanceof BigInteger) {
                     return number;
@@ -56,7 +56,7 @@ import org.smooks.javabean.DecodeType;
  * Decodes the supplied string into a {@link java.util.Calendar} value
  * based on the supplied "{@link java.text.SimpleDateFormat format}" parameter.
  * <p/>
- * This decoder is synchronized on its underlying {@link SimpleDateFormat} instance.
+ * This decoder is thread safe.  Each thread decodes using its own copy of the underlying {@link SimpleDateFormat} instance.
  *
  * @see {@link LocaleAwareDateDecoder}
  *
@@ -73,11 +73,10 @@ public class CalendarDecoder extends LocaleAwareDateDecoder implements DataDecod
             throw new IllegalStateException("Calendar decoder not initialised.  A decoder for this type (" + getClass().getName() + ") must be explicitly configured (unlike the primitive type decoders) with a date 'format'. See Javadoc.");
         }
         try {
-            // Must be sync'd - DateFormat is not synchronized.
-            synchronized(decoder) {
-                decoder.parse(data.trim());
-                return decoder.getCalendar().clone();
-            }
+            SimpleDateFormat threadDecoder = getThreadDecoder();
+
+            threadDecoder.parse(data.trim());
+            return threadDecoder.getCalendar().clone();
         } catch (ParseException e) {
             throw new DataDecodeException("Error decoding Date data value '" + data + "' with decode format '" + format + "'.", e);
         }
@@ -62,7 +62,7 @@ import org.smooks.javabean.DecodeType;
  * This format is based on the <a href="http://www.w3.org/TR/2004/REC-xmlschema-2-20041028/#isoformats">ISO 8601</a>
  * standard as used by the XML Schema type "<a href="http://www.w3.org/TR/xmlschema-2/#dateTime">dateTime</a>".
  * <p/>
- * This decoder is synchronized on its underlying {@link SimpleDateFormat} instance.
+ * This decoder is thread safe.  Each thread decodes using its own copy of the underlying {@link SimpleDateFormat} instance.
  * @see LocaleAwareDateDecoder
  *
  * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
@@ -72,10 +72,7 @@ public class DateDecoder extends LocaleAwareDateDecoder implements DataDecoder,
 
     public Object decode(String data) throws DataDecodeException {
         try {
-            // Must be sync'd - DateFormat is not synchronized.
-            synchronized(decoder) {
-                return decoder.parse(data.trim());
-            }
+            return getThreadDecoder().parse(data.trim());
         } catch (ParseException e) {
             throw new DataDecodeException("Error decoding Date data value '" + data + "' with decode format '" + format + "'.", e);
         }
@@ -86,9 +83,6 @@ public class DateDecoder extends LocaleAwareDateDecoder implements DataDecoder,
         if(!(date instanceof Date)) {
             throw new DataDecodeException("Cannot encode Object type '" + date.getClass().getName() + "'.  Must be type '" + Date.class.getName() + "'.");
         }
-        // Must be sync'd - DateFormat is not synchronized.
-        synchronized(decoder) {
-            return decoder.format((Date) date);
-        }
+        return getThreadDecoder().format((Date) date);
     }
 }
@@ -57,11 +57,11 @@ import java.text.ParseException;
 public class DoubleDecoder extends NumberDecoder {
 
     public Object decode(String data) throws DataDecodeException {
-        NumberFormat format = getNumberFormat();
+        NumberFormat format = getThreadNumberFormat();
 
         if(format != null) {
             try {
-                Number number = format.parse(data.trim());
+                Number number = parse(format, data.trim());
                 return number.doubleValue();
             } catch (ParseException e) {
                 throw new DataDecodeException("Failed to decode Double value '" + data + "' using NumberFormat instance " + format + ".", e);
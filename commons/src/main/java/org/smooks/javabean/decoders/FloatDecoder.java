@@ -57,11 +57,11 @@ import java.text.ParseException;
 public class FloatDecoder extends NumberDecoder {
 
     public Object decode(String data) throws DataDecodeException {
-        NumberFormat format = getNumberFormat();
+        NumberFormat format = getThreadNumberFormat();
 
         if(format != null) {
             try {
-                Number number = format.parse(data.trim());
+                Number number = parse(format, data.trim());
                 return number.floatValue();
             } catch (ParseException e) {
                 throw new DataDecodeException("Failed to decode Float value '" + data + "' using NumberFormat instance " + format + ".", e);
@@ -85,6 +85,12 @@ public abstract class LocaleAwareDateDecoder extends LocaleAwareDecoder
      */
     protected SimpleDateFormat decoder = new SimpleDateFormat( DEFAULT_DATE_FORMAT );
 
+    /*
+     *  Per-thread copies of the decoder, so as to avoid synchronizing on the shared (non thread safe)
+     *  SimpleDateFormat instance.
+     */
+    private transient ThreadLocal<ThreadDateFormat> threadDecoders;
+
     public void setConfiguration(Properties resourceConfig) throws SmooksConfigurationException {
         super.setConfiguration(resourceConfig);
 
@@ -100,4 +106,39 @@ public abstract class LocaleAwareDateDecoder extends LocaleAwareDecoder
             decoder = new SimpleDateFormat(format.trim());
         }
     }
+
+    /**
+     * Get the calling thread's copy of the configured {@link SimpleDateFormat} {@link #decoder}.
+     * <p/>
+     * The returned instance can be used without synchronization, but must not be shared with other threads.
+     *
+     * @return The calling thread's {@link SimpleDateFormat} instance.
+     */
+    protected SimpleDateFormat getThreadDecoder() {
+        ThreadLocal<ThreadDateFormat> threadDecoders = this.threadDecoders;
+        if (threadDecoders == null) {
+            threadDecoders = new ThreadLocal<ThreadDateFormat>();
+            this.threadDecoders = threadDecoders;
+        }
+
+        ThreadDateFormat threadDecoder = threadDecoders.get();
+        SimpleDateFormat prototype = decoder;
+        if (threadDecoder == null || threadDecoder.prototype != prototype) {
+            // First use on this thread, or the decoder has been reconfigured...
+            threadDecoder = new ThreadDateFormat(prototype);
+            threadDecoders.set(threadDecoder);
+        }
+
+        return threadDecoder.format;
+    }
+
+    private static class ThreadDateFormat {
+        private final SimpleDateFormat prototype;
+        private final SimpleDateFormat format;
+
+        private ThreadDateFormat(SimpleDateFormat prototype) {
+            this.prototype = prototype;
+            this.format = (SimpleDateFormat) prototype.clone();
+        }
+    }
 }
@@ -0,0 +1,170 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Commons
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.javabean.decoders;
+
+import org.smooks.assertion.AssertArgument;
+import org.smooks.cdr.SmooksConfigurationException;
+import org.smooks.javabean.DataDecodeException;
+import org.smooks.javabean.DataEncoder;
+
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * LocaleAwareTemporalDecoder is a decoder 'helper' that can be subclassed by <code>java.time</code> decoders
+ * to enable them to use locale specific date/time formats.
+ * <p/>
+ * Decoding and encoding use an immutable {@link DateTimeFormatter}, so these decoders are thread safe
+ * and never synchronize.
+ * <p/>
+ * Usage (on Java Binding value config using the {@link org.smooks.javabean.decoders.LocalDateTimeDecoder}):
+ * <pre>
+ * &lt;jb:value property="date" decoder="LocalDateTime" data="order/@date"&gt;
+ *     &lt;-- Format: Defaults to the decoder's ISO 8601 format --&gt;
+ *     &lt;jb:decodeParam name="format"&gt;EEE MMM dd HH:mm:ss yyyy&lt;/jb:decodeParam&gt;
+ *     &lt;-- Locale: Defaults to machine Locale --&gt;
+ *     &lt;jb:decodeParam name="locale"&gt;sv-SE&lt;/jb:decodeParam&gt;
+ *     &lt;-- Zone: Optional. Overrides the zone of decoded values, where relevant --&gt;
+ *     &lt;jb:decodeParam name="zone"&gt;Europe/Stockholm&lt;/jb:decodeParam&gt;
+ * &lt;/jb:value&gt;
+ * </pre>
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public abstract class LocaleAwareTemporalDecoder extends LocaleAwareDecoder implements DataEncoder {
+
+    /**
+     * Date/time format configuration key.  See {@link DateTimeFormatter} for the pattern syntax.
+     */
+    public static final String FORMAT = "format";
+
+    /**
+     * Zone configuration key.  A {@link ZoneId} e.g. "UTC", "+01:00" or "Europe/Dublin".
+     */
+    public static final String ZONE = "zone";
+
+    private final Class<?> type;
+    private String format;
+    private DateTimeFormatter formatter;
+
+    /**
+     * Constructor.
+     * @param type The decoded type.
+     * @param defaultFormatter The formatter used if a format is not configured.
+     */
+    protected LocaleAwareTemporalDecoder(Class<?> type, DateTimeFormatter defaultFormatter) {
+        this.type = type;
+        this.formatter = defaultFormatter;
+    }
+
+    public void setConfiguration(Properties resourceConfig) throws SmooksConfigurationException {
+        super.setConfiguration(resourceConfig);
+
+        format = resourceConfig.getProperty(FORMAT);
+        if (format != null) {
+            Locale configuredLocale = getLocale();
+
+            try {
+                if (configuredLocale != null) {
+                    formatter = DateTimeFormatter.ofPattern(format.trim(), configuredLocale);
+                } else {
+                    formatter = DateTimeFormatter.ofPattern(format.trim());
+                }
+            } catch (IllegalArgumentException e) {
+                throw new SmooksConfigurationException("Invalid " + type.getSimpleName() + " decoder 'format' parameter '" + format + "'.", e);
+            }
+        } else if (getLocale() != null) {
+            formatter = formatter.withLocale(getLocale());
+        }
+
+        String zone = resourceConfig.getProperty(ZONE);
+        if (zone != null) {
+            try {
+                formatter = formatter.withZone(ZoneId.of(zone.trim()));
+            } catch (DateTimeException e) {
+                throw new SmooksConfigurationException("Invalid " + type.getSimpleName() + " decoder 'zone' parameter '" + zone + "'.", e);
+            }
+        }
+    }
+
+    /**
+     * Get the {@link DateTimeFormatter} used by this decoder.
+     * @return The formatter.
+     */
+    public DateTimeFormatter getFormatter() {
+        return formatter;
+    }
+
+    public Object decode(String data) throws DataDecodeException {
+        try {
+            return parse(data.trim(), formatter);
+        } catch (DateTimeException e) {
+            throw new DataDecodeException("Error decoding " + type.getSimpleName() + " data value '" + data + "' with decode format '" + (format != null ? format : formatter) + "'.", e);
+        }
+    }
+
+    public String encode(Object object) throws DataDecodeException {
+        AssertArgument.isNotNull(object, "object");
+        if (!type.isInstance(object)) {
+            throw new DataDecodeException("Cannot encode Object type '" + object.getClass().getName() + "'.  Must be type '" + type.getName() + "'.");
+        }
+        try {
+            return formatter.format((TemporalAccessor) object);
+        } catch (DateTimeException e) {
+            throw new DataDecodeException("Error encoding " + type.getSimpleName() + " value '" + object + "' with format '" + (format != null ? format : formatter) + "'.", e);
+        }
+    }
+
+    /**
+     * Parse the supplied data.
+     * @param data The (trimmed) data.
+     * @param formatter The formatter.
+     * @return The decoded value.
+     * @throws DateTimeException Error parsing the data.
+     */
+    protected abstract Object parse(String data, DateTimeFormatter formatter) throws DateTimeException;
+}
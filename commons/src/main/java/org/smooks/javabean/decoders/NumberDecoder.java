@@ -47,12 +47,18 @@ import org.smooks.javabean.DataDecodeException;
 import org.smooks.javabean.DataEncoder;
 
 import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
 import java.text.NumberFormat;
+import java.text.ParseException;
 import java.util.Locale;
 import java.util.Properties;
 
 /**
  * Abstract {@link Number} based DataDecoder.
+ * <p/>
+ * Decoders configured with a locale and/or format parse using a per-thread copy of the
+ * configured {@link NumberFormat}.  Where that format would interpret it in the standard way,
+ * plain "<i>[-]digits[.digits]</i>" input is parsed directly, without the {@link NumberFormat}.
  * 
  * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
  */
@@ -76,6 +82,10 @@ public abstract class NumberDecoder extends LocaleAwareDecoder implements DataEn
 
     private NumberFormat numberFormat;
 
+    private boolean plainDecimalFastPath;
+
+    private transient ThreadLocal<NumberFormat> threadNumberFormats;
+
     public void setConfiguration(Properties config) throws SmooksConfigurationException {
         super.setConfiguration(config);
         String pattern = config.getProperty(FORMAT);
@@ -114,6 +124,9 @@ public abstract class NumberDecoder extends LocaleAwareDecoder implements DataEn
                 ((DecimalFormat) numberFormat).applyPattern(pattern);
             }
         }
+
+        plainDecimalFastPath = isPlainDecimalFormat(numberFormat);
+        threadNumberFormats = null;
     }
 
     /**
@@ -128,6 +141,54 @@ public abstract class NumberDecoder extends LocaleAwareDecoder implements DataEn
         }
     }
 
+    /**
+     * Get the calling thread's copy of the {@link NumberFormat} instance, if one exists.
+     * <p/>
+     * The returned instance can be used without synchronization, but must not be shared with other threads.
+     *
+     * @return The calling thread's {@link NumberFormat} instance, otherwise null.
+     */
+    protected NumberFormat getThreadNumberFormat() {
+        if(numberFormat == null) {
+            return null;
+        }
+
+        ThreadLocal<NumberFormat> threadNumberFormats = this.threadNumberFormats;
+        if(threadNumberFormats == null) {
+            threadNumberFormats = new ThreadLocal<NumberFormat>();
+            this.threadNumberFormats = threadNumberFormats;
+        }
+
+        NumberFormat threadNumberFormat = threadNumberFormats.get();
+        if(threadNumberFormat == null) {
+            threadNumberFormat = getNumberFormat();
+            threadNumberFormats.set(threadNumberFormat);
+        }
+
+        return threadNumberFormat;
+    }
+
+    /**
+     * Parse the supplied data using the supplied {@link NumberFormat}.
+     * <p/>
+     * Plain "<i>[-]digits[.digits]</i>" data is parsed directly (producing the same result as the
+     * {@link NumberFormat}), if the configured format allows it.
+     *
+     * @param format The calling thread's {@link NumberFormat} instance.
+     * @param data The (trimmed) data to be parsed.
+     * @return The parsed {@link Number}.
+     * @throws ParseException Error parsing the data.
+     */
+    protected Number parse(NumberFormat format, String data) throws ParseException {
+        if(plainDecimalFastPath) {
+            Number number = parsePlainDecimal(data);
+            if(number != null) {
+                return number;
+            }
+        }
+        return format.parse(data);
+    }
+
     public NumberType getType() {
         return type;
     }
@@ -138,9 +199,72 @@ public abstract class NumberDecoder extends LocaleAwareDecoder implements DataEn
 
     public String encode(Object object) throws DataDecodeException {
         if(numberFormat != null) {
-            return getNumberFormat().format(object);
+            return getThreadNumberFormat().format(object);
         } else {
             return object.toString();
         }
     }
+
+    private boolean isPlainDecimalFormat(NumberFormat numberFormat) {
+        if(type != NumberType.RAW || !(numberFormat instanceof DecimalFormat)) {
+            return false;
+        }
+
+        DecimalFormat decimalFormat = (DecimalFormat) numberFormat;
+        DecimalFormatSymbols symbols = decimalFormat.getDecimalFormatSymbols();
+
+        return symbols.getDecimalSeparator() == '.' && symbols.getMinusSign() == '-' &&
+                decimalFormat.getPositivePrefix().isEmpty() && decimalFormat.getPositiveSuffix().isEmpty() &&
+                decimalFormat.getNegativePrefix().equals("-") && decimalFormat.getNegativeSuffix().isEmpty() &&
+                decimalFormat.getMultiplier() == 1 && !decimalFormat.isParseBigDecimal() && !decimalFormat.isParseIntegerOnly();
+    }
+
+    /**
+     * Parse "[-]digits[.digits]" the way {@link DecimalFormat#parse(String)} does i.e. to a {@link Long} if the
+     * value is integral (other than negative zero), otherwise to a {@link Double}.
+     * @return The parsed value, or null if the data is not a plain decimal (or is too long for the fast path).
+     */
+    private static Number parsePlainDecimal(String data) {
+        int length = data.length();
+        boolean negative = (length > 0 && data.charAt(0) == '-');
+        int i = (negative ? 1 : 0);
+        long integral = 0;
+        int integralDigits = 0;
+
+        for(; i < length; i++) {
+            char c = data.charAt(i);
+            if(c < '0' || c > '9') {
+                break;
+            }
+            integral = integral * 10 + (c - '0');
+            integralDigits++;
+        }
+        if(integralDigits == 0 || integralDigits > 18) {
+            return null;
+        }
+
+        boolean fractionIsZero = true;
+        if(i < length) {
+            if(data.charAt(i) != '.' || i == length - 1) {
+                return null;
+            }
+            for(i++; i < length; i++) {
+                char c = data.charAt(i);
+                if(c < '0' || c > '9') {
+                    return null;
+                }
+                if(c != '0') {
+                    fractionIsZero = false;
+                }
+            }
+        }
+
+        if(!fractionIsZero) {
+            return Double.parseDouble(data);
+        } else if(negative && integral == 0) {
+            return -0.0d;
+        } else {
+            return (negative ? -integral : integral);
+        }
+    }
 }
@@ -61,7 +61,7 @@ import java.util.GregorianCalendar;
  * href="http://www.w3.org/TR/2004/REC-xmlschema-2-20041028/#isoformats">ISO 8601</a> standard as used by the XML Schema type "<a
  * href="http://www.w3.org/TR/xmlschema-2/#dateTime">dateTime</a>".
  * <p/>
- * This decoder is synchronized on its underlying {@link java.text.SimpleDateFormat} instance.
+ * This decoder is thread safe.  Each thread decodes using its own copy of the underlying {@link java.text.SimpleDateFormat} instance.
  *
  * @author <a href="mailto:stefano.maestri@javalinux.it">stefano.maestri@javalinux.it</a>
  */
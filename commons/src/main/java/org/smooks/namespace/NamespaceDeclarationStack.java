@@ -183,6 +183,14 @@ public class NamespaceDeclarationStack {
         return readerStack.pop();
     }
 
+    /**
+     * Clear the namespace and XMLReader stacks, making the instance reusable.
+     */
+    public void clear() {
+        namespaceStack.clear();
+        readerStack.clear();
+    }
+
     public String getPrefix(String uri) {
         int stackDepth = namespaceStack.size();
 
@@ -45,11 +45,16 @@ package org.smooks.thread;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.EmptyStackException;
-import java.util.Stack;
+import java.util.Arrays;
 
 /**
  * Stacked ThreadLocal.
+ * <p/>
+ * Each thread gets its own stack, so the stack is a plain (unsynchronized) array rather than
+ * a {@link java.util.Stack}.  Popped slots are cleared so the stack doesn't hold on to values
+ * after they have been removed, and the stack itself is removed from the thread once it is empty,
+ * so pooled threads don't pin the classloader that loaded this class.
+ *
  * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
  */
 public class StackedThreadLocal<T> {
@@ -57,51 +62,56 @@ public class StackedThreadLocal<T> {
     private static final Logger LOGGER = LoggerFactory.getLogger(StackedThreadLocal.class);
 
     private String resourceName;
-    private ThreadLocal<Stack<T>> stackTL = new ThreadLocal<Stack<T>>();
+    private ThreadLocal<ArrayStack> stackTL = new ThreadLocal<ArrayStack>();
 
     public StackedThreadLocal(String resourceName) {
         this.resourceName = resourceName;
     }
 
+    @SuppressWarnings("unchecked")
     public T get() {
-        Stack<T> execContextStack = getExecutionContextStack();
-        try {
-            return execContextStack.peek();
-        } catch (EmptyStackException e) {
+        ArrayStack stack = stackTL.get();
+
+        if(stack == null) {
             if(LOGGER.isDebugEnabled()) {
-                LOGGER.debug("No currently stacked '" + resourceName + "' instance on active Thread.", e);
+                LOGGER.debug("No currently stacked '" + resourceName + "' instance on active Thread.");
             }
             return null;
         }
+
+        return (T) stack.elements[stack.size - 1];
     }
 
     public void set(T value) {
-        Stack<T> execContextStack = getExecutionContextStack();
-        execContextStack.push(value);
+        ArrayStack stack = stackTL.get();
+
+        if(stack == null) {
+            stack = new ArrayStack();
+            stackTL.set(stack);
+        } else if(stack.size == stack.elements.length) {
+            stack.elements = Arrays.copyOf(stack.elements, stack.size * 2);
+        }
+        stack.elements[stack.size++] = value;
     }
 
     public void remove() {
-        Stack<T> execContextStack = getExecutionContextStack();
-        try {
-            execContextStack.pop();
-        } catch (EmptyStackException e) {
+        ArrayStack stack = stackTL.get();
+
+        if(stack == null) {
             if(LOGGER.isDebugEnabled()) {
-                LOGGER.debug("No currently stacked '" + resourceName + "' instance on active Thread.", e);
+                LOGGER.debug("No currently stacked '" + resourceName + "' instance on active Thread.");
             }
+            return;
         }
-    }
 
-    private Stack<T> getExecutionContextStack() {
-        Stack<T> stack = stackTL.get();
-        if(stack == null) {
-            synchronized (this) {
-                stack = stackTL.get();
-                if(stack == null) {
-                    stack = new Stack<T>();
-                    stackTL.set(stack);
-                }
-            }
+        stack.elements[--stack.size] = null;
+        if(stack.size == 0) {
+            stackTL.remove();
         }
-        return stack;
+    }
+
+    private static final class ArrayStack {
+        private Object[] elements = new Object[4];
+        private int size;
     }
 }
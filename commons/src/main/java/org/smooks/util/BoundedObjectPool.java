@@ -0,0 +1,216 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Commons
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.util;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, lock-free object pool.
+ * <p/>
+ * Pooled instances are held in a fixed size array of slots that are claimed and released using
+ * compare-and-set operations, so {@link #borrow()} and {@link #release(Object)} never block and never
+ * copy the backing store.  A {@link #borrow()} on an empty pool returns <code>null</code> (the caller
+ * creates a new instance) and a {@link #release(Object)} on a full pool discards the instance.
+ * <p/>
+ * The pool keeps hit, miss, wait (contended slot claim) and discard counts.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class BoundedObjectPool<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int capacity;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder discards = new LongAdder();
+
+    /**
+     * Public constructor.
+     * @param capacity The maximum number of idle instances held by the pool.  A capacity of zero
+     * disables pooling.
+     */
+    public BoundedObjectPool(int capacity) {
+        if(capacity < 0) {
+            throw new IllegalArgumentException("Invalid pool capacity '" + capacity + "'.  Must be zero or greater.");
+        }
+        this.capacity = capacity;
+        this.slots = new AtomicReferenceArray<T>(capacity);
+    }
+
+    /**
+     * Is pooling enabled i.e. does the pool have a non zero capacity.
+     * @return True if pooling is enabled, otherwise false.
+     */
+    public boolean isEnabled() {
+        return capacity > 0;
+    }
+
+    /**
+     * Get the pool capacity.
+     * @return The maximum number of idle instances held by the pool.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Borrow an idle instance from the pool.
+     * @return An idle instance, or null if the pool is empty.
+     */
+    public T borrow() {
+        if(capacity == 0) {
+            return null;
+        }
+
+        int start = startSlot();
+        for(int i = 0; i < capacity; i++) {
+            int slot = (start + i) % capacity;
+            T object = slots.get(slot);
+
+            if(object != null) {
+                if(slots.compareAndSet(slot, object, null)) {
+                    hits.increment();
+                    return object;
+                }
+                waits.increment();
+            }
+        }
+
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Release an instance back to the pool.
+     * @param object The instance to be released.
+     * @return True if the instance was pooled, false if the pool is full and the instance was discarded.
+     */
+    public boolean release(T object) {
+        if(object == null || capacity == 0) {
+            return false;
+        }
+
+        int start = startSlot();
+        for(int i = 0; i < capacity; i++) {
+            int slot = (start + i) % capacity;
+
+            if(slots.get(slot) == null) {
+                if(slots.compareAndSet(slot, null, object)) {
+                    return true;
+                }
+                waits.increment();
+            }
+        }
+
+        discards.increment();
+        return false;
+    }
+
+    /**
+     * Remove all idle instances from the pool.
+     */
+    public void clear() {
+        for(int i = 0; i < capacity; i++) {
+            slots.set(i, null);
+        }
+    }
+
+    /**
+     * Get the number of idle instances currently held by the pool.
+     * @return The idle instance count.
+     */
+    public int getIdleCount() {
+        int count = 0;
+        for(int i = 0; i < capacity; i++) {
+            if(slots.get(i) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get the number of {@link #borrow()} calls satisfied from the pool.
+     * @return The hit count.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of {@link #borrow()} calls that found the pool empty.
+     * @return The miss count.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Get the number of times a slot claim lost a race with another thread and had to move on.
+     * @return The wait count.
+     */
+    public long getWaitCount() {
+        return waits.sum();
+    }
+
+    /**
+     * Get the number of released instances discarded because the pool was full.
+     * @return The discard count.
+     */
+    public long getDiscardCount() {
+        return discards.sum();
+    }
+
+    public String toString() {
+        return "BoundedObjectPool[capacity=" + capacity + ", idle=" + getIdleCount() + ", hits=" + getHitCount() + ", misses=" + getMissCount() + ", waits=" + getWaitCount() + ", discards=" + getDiscardCount() + "]";
+    }
+
+    private int startSlot() {
+        // Spread threads across the slots to reduce CAS contention...
+        int hash = (int) Thread.currentThread().getId();
+        hash ^= (hash >>> 16);
+        return (hash & 0x7fffffff) % capacity;
+    }
+}
@@ -49,9 +49,18 @@ import org.smooks.SmooksException;
 import org.smooks.assertion.AssertArgument;
 
 import java.io.*;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  *  FreeMarker template.
+ * <p/>
+ * Templates created without a {@link Configuration} share a single, default {@link Configuration}
+ * (which is never modified after it is created, and so is thread-safe).  Templates loaded from the classpath
+ * share one {@link Configuration} per base class, so they are also cached by that {@link Configuration}'s
+ * template cache.  Inline templates are compiled once per template text and cached (least recently
+ * used first out, up to {@link #TEMPLATE_CACHE_SIZE} templates).
  *
  * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
 */
@@ -59,33 +68,61 @@ public class FreeMarkerTemplate {
 
     public static final String DEFAULT_MACHINE_READABLE_NUMBER_FORMAT = "#.##########";
 
+    /**
+     * Maximum number of compiled inline templates held in the template cache.
+     */
+    public static final int TEMPLATE_CACHE_SIZE = 256;
+
+    private static final Configuration DEFAULT_CONFIGURATION = createDefaultConfiguration();
+
+    private static final ClassValue<Configuration> CLASS_CONFIGURATIONS = new ClassValue<Configuration>() {
+        protected Configuration computeValue(Class<?> basePath) {
+            Configuration config = createDefaultConfiguration();
+            config.setClassForTemplateLoading(basePath, "");
+            return config;
+        }
+    };
+
+    @SuppressWarnings("serial")
+    private static final Map<String, Template> TEMPLATE_CACHE = Collections.synchronizedMap(new LinkedHashMap<String, Template>(16, 0.75f, true) {
+        protected boolean removeEldestEntry(Map.Entry<String, Template> eldest) {
+            return size() > TEMPLATE_CACHE_SIZE;
+        }
+    });
+
     private final String templateText;
     private final Template template;
 
     public FreeMarkerTemplate(final String templateText) {
-        this(templateText, createDefaultConfiguration());
+        AssertArgument.isNotNullAndNotEmpty(templateText, "templateText");
+        this.templateText = templateText;
+
+        Template cachedTemplate = TEMPLATE_CACHE.get(templateText);
+        if (cachedTemplate == null) {
+            cachedTemplate = createTemplate(templateText, DEFAULT_CONFIGURATION);
+            TEMPLATE_CACHE.put(templateText, cachedTemplate);
+        }
+        template = cachedTemplate;
     }
 
     public FreeMarkerTemplate(final String templateText, final Configuration config) {
         AssertArgument.isNotNullAndNotEmpty(templateText, "templateText");
         this.templateText = templateText;
-        final Reader templateReader = new StringReader(templateText);
+        template = createTemplate(templateText, config);
+    }
 
+    public FreeMarkerTemplate(final String templatePath, final Class basePath) {
+        AssertArgument.isNotNullAndNotEmpty(templatePath, "templatePath");
+        this.templateText = templatePath;
+
+        final Configuration config = (basePath != null ? CLASS_CONFIGURATIONS.get(basePath) : DEFAULT_CONFIGURATION);
         try {
-            try {
-                template = new Template("free-marker-template", templateReader, config);
-            } finally {
-                templateReader.close();
-            }
+            template = config.getTemplate(templatePath);
         } catch (IOException e) {
-            throw new IllegalStateException("Exception creating FreeMarker Template instance for template:\n\n[" + templateText + "]\n\n", e);
+            throw new IllegalStateException("Unexpected IOException.", e);
         }
     }
 
-    public FreeMarkerTemplate(final String templatePath, final Class basePath) {
-        this(templatePath, basePath, createDefaultConfiguration());
-    }
-
     public FreeMarkerTemplate(final String templatePath, Class basePath, final Configuration config) {
         AssertArgument.isNotNullAndNotEmpty(templatePath, "templatePath");
         this.templateText = templatePath;
@@ -120,6 +157,20 @@ public class FreeMarkerTemplate {
         }
     }
 
+    private static Template createTemplate(final String templateText, final Configuration config) {
+        final Reader templateReader = new StringReader(templateText);
+
+        try {
+            try {
+                return new Template("free-marker-template", templateReader, config);
+            } finally {
+                templateReader.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Exception creating FreeMarker Template instance for template:\n\n[" + templateText + "]\n\n", e);
+        }
+    }
+
     private static Configuration createDefaultConfiguration() {
         final Configuration config = new Configuration(Configuration.VERSION_2_3_30);
         config.setNumberFormat(DEFAULT_MACHINE_READABLE_NUMBER_FORMAT);
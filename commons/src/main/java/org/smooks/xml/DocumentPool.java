@@ -0,0 +1,251 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Commons
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.xml;
+
+import org.smooks.util.BoundedObjectPool;
+import org.w3c.dom.Document;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DOM {@link DocumentBuilder} and {@link Document} pool.
+ * <p/>
+ * {@link DocumentBuilder} instances are not thread-safe, so the pool holds one builder per thread,
+ * created on first use.  {@link Document} instances created through {@link #newDocument()} can be
+ * handed back through {@link #recycle(Document)} once the caller is finished with them (i.e. nothing
+ * holds a reference to the document, or to any of its nodes).  Recycled documents have their child nodes
+ * removed and are held in a {@link BoundedObjectPool}, from which subsequent {@link #newDocument()} calls
+ * are satisfied.
+ * <p/>
+ * Use {@link #getInstance()} to get the shared pool.  The pool's hit, miss and discard counts, along with the
+ * number of builders created, are available for monitoring.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class DocumentPool {
+
+    /**
+     * Default maximum number of idle documents held by the pool.
+     */
+    public static final int DEFAULT_CAPACITY = 32;
+
+    private static final DocumentPool INSTANCE = new DocumentPool(DEFAULT_CAPACITY);
+
+    private final DocumentBuilderFactory documentBuilderFactory;
+    private final ThreadLocal<DocumentBuilder> documentBuilder = new ThreadLocal<DocumentBuilder>();
+    private final BoundedObjectPool<Document> documents;
+    private final LongAdder builderCount = new LongAdder();
+    private final LongAdder recycleCount = new LongAdder();
+
+    /**
+     * Public constructor.
+     * @param capacity The maximum number of idle documents held by the pool.  A capacity of zero disables
+     * document recycling.
+     */
+    public DocumentPool(int capacity) {
+        this(DocumentBuilderFactory.newInstance(), capacity);
+    }
+
+    /**
+     * Public constructor.
+     * @param documentBuilderFactory The factory used to create the per-thread builders.  The factory must not be
+     * reconfigured after it is passed to the pool.
+     * @param capacity The maximum number of idle documents held by the pool.  A capacity of zero disables
+     * document recycling.
+     */
+    public DocumentPool(DocumentBuilderFactory documentBuilderFactory, int capacity) {
+        this.documentBuilderFactory = documentBuilderFactory;
+        this.documents = new BoundedObjectPool<Document>(capacity);
+    }
+
+    /**
+     * Get the shared pool instance.
+     * @return The shared pool instance.
+     */
+    public static DocumentPool getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get the {@link DocumentBuilder} for the calling thread.
+     * <p/>
+     * The builder must not be handed to other threads.  Callers that change the builder's
+     * {@link org.xml.sax.EntityResolver} or {@link org.xml.sax.ErrorHandler} must {@link DocumentBuilder#reset() reset}
+     * it when done.
+     *
+     * @return The calling thread's {@link DocumentBuilder}.
+     */
+    public DocumentBuilder getDocumentBuilder() {
+        DocumentBuilder builder = documentBuilder.get();
+
+        if(builder == null) {
+            try {
+                synchronized (documentBuilderFactory) {
+                    // DocumentBuilderFactory is not guaranteed to be thread-safe either...
+                    builder = documentBuilderFactory.newDocumentBuilder();
+                }
+            } catch (ParserConfigurationException e) {
+                throw new IllegalStateException("XML DOM Parsing environment not configured properly.", e);
+            }
+            builderCount.increment();
+            documentBuilder.set(builder);
+        }
+
+        return builder;
+    }
+
+    /**
+     * Get an empty {@link Document}.
+     * <p/>
+     * The document is taken from the pool of recycled documents if one is available.  Otherwise, a new
+     * document is created using the calling thread's {@link DocumentBuilder}.
+     *
+     * @return An empty {@link Document}.
+     */
+    public Document newDocument() {
+        Document document = documents.borrow();
+
+        if(document != null) {
+            return document;
+        }
+
+        return getDocumentBuilder().newDocument();
+    }
+
+    /**
+     * Recycle a {@link Document} obtained from {@link #newDocument()}.
+     * <p/>
+     * The document's child nodes are removed.  The caller must not use the document, or any of the nodes
+     * it contained, after recycling it.
+     *
+     * @param document The document to be recycled.
+     * @return True if the document was added to the pool, false if it was discarded (pool full or disabled).
+     */
+    public boolean recycle(Document document) {
+        if(document == null || !documents.isEnabled()) {
+            return false;
+        }
+
+        // Clear the child list...
+        while(document.hasChildNodes()) {
+            document.removeChild(document.getFirstChild());
+        }
+        document.setDocumentURI(null);
+
+        if(documents.release(document)) {
+            recycleCount.increment();
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Get the underlying document pool.
+     * @return The document pool.
+     */
+    public BoundedObjectPool<Document> getDocuments() {
+        return documents;
+    }
+
+    /**
+     * Get the number of {@link #newDocument()} calls satisfied by a recycled document.
+     * @return The hit count.
+     */
+    public long getHitCount() {
+        return documents.getHitCount();
+    }
+
+    /**
+     * Get the number of {@link #newDocument()} calls that had to create a new document.
+     * @return The miss count.
+     */
+    public long getMissCount() {
+        return documents.getMissCount();
+    }
+
+    /**
+     * Get the ratio of {@link #newDocument()} calls satisfied by a recycled document.
+     * @return The hit ratio (0.0 to 1.0), or 0.0 if no documents have been requested.
+     */
+    public double getHitRatio() {
+        long hits = getHitCount();
+        long total = hits + getMissCount();
+
+        if(total == 0) {
+            return 0.0;
+        }
+        return (double) hits / total;
+    }
+
+    /**
+     * Get the number of documents recycled back into the pool.
+     * @return The recycle count.
+     */
+    public long getRecycleCount() {
+        return recycleCount.sum();
+    }
+
+    /**
+     * Get the number of recycled documents discarded because the pool was full.
+     * @return The discard count.
+     */
+    public long getDiscardCount() {
+        return documents.getDiscardCount();
+    }
+
+    /**
+     * Get the number of {@link DocumentBuilder} instances created (one per thread).
+     * @return The builder count.
+     */
+    public long getBuilderCount() {
+        return builderCount.sum();
+    }
+
+    public String toString() {
+        return "DocumentPool[builders=" + getBuilderCount() + ", recycled=" + getRecycleCount() + ", " + documents + "]";
+    }
+}
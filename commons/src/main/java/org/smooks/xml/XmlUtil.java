@@ -104,6 +104,12 @@ public class XmlUtil {
         XSD,
     }
 
+    /**
+     * Shared {@link DocumentBuilder}.
+     * @deprecated {@link DocumentBuilder} is not thread-safe.  Use {@link DocumentPool#getDocumentBuilder()} on
+     * the {@link DocumentPool#getInstance() shared pool}.
+     */
+    @Deprecated
     public static final DocumentBuilder documentBuilder;
 
     static {
@@ -551,7 +557,7 @@ public class XmlUtil {
      * @return Element instance.
      */
     public static Element createElementNS(String namespace, String localPart) {
-        Document document = documentBuilder.newDocument();
+        Document document = DocumentPool.getInstance().getDocumentBuilder().newDocument();
         return document.createElementNS(namespace, localPart);
     }
 
@@ -761,46 +767,70 @@ public class XmlUtil {
     }
 
     public static void encodeTextValue(char[] characters, int offset, int length, Writer writer) throws IOException {
-        for(int i = offset; i < offset + length; i++) {
-            char c = characters[i];
-            switch(c) {
+        // Unencoded runs of characters are written in one call, not character by character...
+        int runStart = offset;
+        int end = offset + length;
+
+        for(int i = offset; i < end; i++) {
+            char[] encoded;
+            switch(characters[i]) {
                 case '<' :
-                    writer.write(LT, 0, LT.length);
+                    encoded = LT;
                     break;
                 case '>' :
-                    writer.write(GT, 0, GT.length);
+                    encoded = GT;
                     break;
                 case '&' :
-                    writer.write(AMP, 0, AMP.length);
+                    encoded = AMP;
                     break;
                 default:
-                    writer.write(c);
+                    continue;
+            }
+            if(i > runStart) {
+                writer.write(characters, runStart, i - runStart);
             }
+            writer.write(encoded, 0, encoded.length);
+            runStart = i + 1;
+        }
+        if(end > runStart) {
+            writer.write(characters, runStart, end - runStart);
         }
     }
 
     public static void encodeAttributeValue(char[] characters, int offset, int length, Writer writer) throws IOException {
-        for(int i = offset; i < offset + length; i++) {
-            char c = characters[i];
-            switch(c) {
+        // Unencoded runs of characters are written in one call, not character by character...
+        int runStart = offset;
+        int end = offset + length;
+
+        for(int i = offset; i < end; i++) {
+            char[] encoded;
+            switch(characters[i]) {
                 case '<' :
-                    writer.write(LT, 0, LT.length);
+                    encoded = LT;
                     break;
                 case '>' :
-                    writer.write(GT, 0, GT.length);
+                    encoded = GT;
                     break;
                 case '&' :
-                    writer.write(AMP, 0, AMP.length);
+                    encoded = AMP;
                     break;
                 case '\'' :
-                    writer.write(APOS, 0, APOS.length);
+                    encoded = APOS;
                     break;
                 case '\"' :
-                    writer.write(QUOT, 0, QUOT.length);
+                    encoded = QUOT;
                     break;
                 default:
-                    writer.write(c);
+                    continue;
             }
+            if(i > runStart) {
+                writer.write(characters, runStart, i - runStart);
+            }
+            writer.write(encoded, 0, encoded.length);
+            runStart = i + 1;
+        }
+        if(end > runStart) {
+            writer.write(characters, runStart, end - runStart);
         }
     }
 
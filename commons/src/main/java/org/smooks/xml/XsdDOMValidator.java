@@ -48,15 +48,13 @@ import org.smooks.util.ClassUtil;
 import org.smooks.assertion.AssertArgument;
 
 import javax.xml.XMLConstants;
-import javax.xml.transform.Source;
-import javax.xml.transform.stream.StreamSource;
 import javax.xml.transform.dom.DOMSource;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.net.URL;
 import java.util.List;
 import java.util.ArrayList;
 import java.io.IOException;
-import java.io.InputStream;
 
 /**
  * XSD DOM Validator.
@@ -92,16 +90,19 @@ public class XsdDOMValidator extends XsdValidator {
         // Get the full namespace list...
         gatherNamespaces(document.getDocumentElement(), namespaces);
 
-        // Using the namespace URI list, create the XSD Source array used to
-        // create the merged Schema instance...
-    	List<Source> sources = new ArrayList<Source>();
+        // Using the namespace URI list, locate the XSDs used to create the merged
+        // Schema instance.  The compiled Schema is shared via the schema cache...
+    	List<URL> xsdResources = new ArrayList<URL>();
         for (int i = 0; i < namespaces.size(); i++) {
             URI namespace = namespaces.get(i);
             if(!XmlUtil.isXMLReservedNamespace(namespace.toString())) {
-            	sources.add(getNamespaceSource(namespace));
+                URL xsdResource = getNamespaceXSDResource(namespace);
+                if(!xsdResources.contains(xsdResource)) {
+                    xsdResources.add(xsdResource);
+                }
             }
         }
-        setXSDSources(sources);
+        setXSDResources(xsdResources);
     }
 
     public URI getDefaultNamespace() {
@@ -169,15 +170,20 @@ public class XsdDOMValidator extends XsdValidator {
         }
     }
 
-    private Source getNamespaceSource(URI namespace) throws SAXException {
+    private URL getNamespaceXSDResource(URI namespace) throws SAXException {
         String resourcePath = "/META-INF" + namespace.getPath();
-        InputStream xsdStream = ClassUtil.getResourceAsStream(resourcePath, getClass());
+        List<URL> xsdResources;
 
-        if(xsdStream == null) {
+        try {
+            xsdResources = ClassUtil.getResources(resourcePath, getClass());
+        } catch (IOException e) {
+            throw new SAXException("Failed to locate XSD resource '" + resourcePath + "' on classpath. Namespace: '" + namespace + "'.", e);
+        }
+        if(xsdResources.isEmpty()) {
             throw new SAXException("Failed to locate XSD resource '" + resourcePath + "' on classpath. Namespace: '" + namespace + "'.");
         }
 
-        return new StreamSource(xsdStream);
+        return xsdResources.get(0);
     }
 
 }
@@ -53,11 +53,27 @@ import javax.xml.transform.Source;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
+import javax.xml.validation.ValidatorHandler;
+import javax.xml.transform.stream.StreamSource;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * XSD Validator.
+ * <p/>
+ * {@link Schema} instances compiled from XSD resources (see {@link #setXSDResources(java.util.List)})
+ * are immutable and thread-safe, so they are shared process-wide through a schema cache, keyed by the
+ * {@link SchemaFactory} class and the XSD resource URLs (least recently used first out, up to
+ * {@link #SCHEMA_CACHE_SIZE} schemas).  Schemas compiled with an installed {@link SchemaFactory}
+ * (see {@link #setSchemaFactory(SchemaFactory)}) are not cached, since the factory may be configured
+ * in ways that the cache key can't capture.
  *
  * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
  */
@@ -65,6 +81,18 @@ public class XsdValidator {
 
     public static final String SCHEMA_FACTORY = XsdValidator.class.getName() + ".SchemaFactory";
 
+    /**
+     * Maximum number of compiled schemas held in the schema cache.
+     */
+    public static final int SCHEMA_CACHE_SIZE = 64;
+
+    @SuppressWarnings("serial")
+    private static final Map<String, Schema> SCHEMA_CACHE = Collections.synchronizedMap(new LinkedHashMap<String, Schema>(16, 0.75f, true) {
+        protected boolean removeEldestEntry(Map.Entry<String, Schema> eldest) {
+            return size() > SCHEMA_CACHE_SIZE;
+        }
+    });
+
     private SchemaFactory installedSchemaFactory;
 
     private LSResourceResolver schemaSourceResolver;
@@ -98,6 +126,43 @@ public class XsdValidator {
         this.schema = schemaFactory.newSchema(xsdSourcesArray);
     }
 
+    /**
+     * Set the XSD resources.
+     * <p/>
+     * The compiled {@link Schema} is taken from the schema cache if the same resources have already
+     * been compiled with the same type of {@link SchemaFactory}, unless a {@link SchemaFactory} has been
+     * installed.
+     *
+     * @param xsdResources The XSD resource URLs.
+     */
+    public void setXSDResources(List<URL> xsdResources) throws SAXException {
+        assertSchemaNotInitialized();
+
+        AssertArgument.isNotNullAndNotEmpty(xsdResources, "xsdResources");
+        SchemaFactory schemaFactory = newSchemaFactory();
+
+        if (installedSchemaFactory != null) {
+            this.schema = newSchema(schemaFactory, xsdResources);
+            return;
+        }
+
+        String cacheKey = getSchemaCacheKey(schemaFactory, xsdResources);
+        Schema cachedSchema = SCHEMA_CACHE.get(cacheKey);
+
+        if (cachedSchema == null) {
+            cachedSchema = newSchema(schemaFactory, xsdResources);
+            SCHEMA_CACHE.put(cacheKey, cachedSchema);
+        }
+        this.schema = cachedSchema;
+    }
+
+    /**
+     * Clear the process-wide schema cache.
+     */
+    public static void clearSchemaCache() {
+        SCHEMA_CACHE.clear();
+    }
+
     /**
      * Set the validation error handler.
      * @param errorHandler The validation error handler.
@@ -132,6 +197,78 @@ public class XsdValidator {
         validator.validate(source);
     }
 
+    /**
+     * Get the compiled {@link Schema}.
+     * @return The schema, or null if the XSD sources have not been set.
+     */
+    protected Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Create a new {@link ValidatorHandler} for validating a stream of SAX events.
+     * <p/>
+     * Allows a document to be validated while it is being parsed for some other purpose
+     * (e.g. filtering), so it doesn't need to be parsed twice.
+     *
+     * @return A new {@link ValidatorHandler} instance.
+     */
+    public ValidatorHandler newValidatorHandler() {
+        if (schema == null) {
+            throw new IllegalStateException("Invalid call to newValidatorHandler.  XSD sources not set.");
+        }
+
+        ValidatorHandler validatorHandler = schema.newValidatorHandler();
+
+        if(schemaSourceResolver != null) {
+            validatorHandler.setResourceResolver(schemaSourceResolver);
+        }
+        if(errorHandler != null) {
+            validatorHandler.setErrorHandler(errorHandler);
+        }
+
+        return validatorHandler;
+    }
+
+    private Schema newSchema(SchemaFactory schemaFactory, List<URL> xsdResources) throws SAXException {
+        List<InputStream> xsdStreams = new ArrayList<InputStream>();
+
+        try {
+            Source[] xsdSources = new Source[xsdResources.size()];
+
+            for (int i = 0; i < xsdSources.length; i++) {
+                URL xsdResource = xsdResources.get(i);
+
+                try {
+                    xsdStreams.add(xsdResource.openStream());
+                } catch (IOException e) {
+                    throw new SAXException("Failed to read XSD resource '" + xsdResource + "'.", e);
+                }
+                xsdSources[i] = new StreamSource(xsdStreams.get(i));
+            }
+
+            return schemaFactory.newSchema(xsdSources);
+        } finally {
+            for (InputStream xsdStream : xsdStreams) {
+                try {
+                    xsdStream.close();
+                } catch (IOException e) {
+                    // Ignore...
+                }
+            }
+        }
+    }
+
+    private String getSchemaCacheKey(SchemaFactory schemaFactory, List<URL> xsdResources) {
+        StringBuilder cacheKey = new StringBuilder(schemaFactory.getClass().getName());
+
+        for (URL xsdResource : xsdResources) {
+            cacheKey.append('\n').append(xsdResource.toExternalForm());
+        }
+
+        return cacheKey.toString();
+    }
+
     private void assertSchemaNotInitialized() {
         if (this.schema != null) {
             throw new IllegalStateException("Schema already initialised.");
@@ -50,6 +50,10 @@ import org.smooks.javabean.DataDecoder;
 import java.io.File;
 import java.math.BigDecimal;
 import java.nio.charset.Charset;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
@@ -77,6 +81,12 @@ public class InstalledDecodersTest {
         assertTrue(DataDecoder.Factory.create(Charset.class) instanceof CharsetDecoder);
         assertTrue(DataDecoder.Factory.create(File.class) instanceof FileDecoder);
         assertTrue(DataDecoder.Factory.create(Class.class) instanceof ClassDecoder);
+        assertTrue(DataDecoder.Factory.create(LocalDateTime.class) instanceof LocalDateTimeDecoder);
+        assertTrue(DataDecoder.Factory.create(LocalDate.class) instanceof LocalDateDecoder);
+        assertTrue(DataDecoder.Factory.create(OffsetDateTime.class) instanceof OffsetDateTimeDecoder);
+        assertTrue(DataDecoder.Factory.create(Instant.class) instanceof InstantDecoder);
+        assertTrue(DataDecoder.Factory.create("LocalDateTime") instanceof LocalDateTimeDecoder);
+        assertTrue(DataDecoder.Factory.create("Instant") instanceof InstantDecoder);
         assertNull(DataDecoder.Factory.create(getClass()));
     }
 
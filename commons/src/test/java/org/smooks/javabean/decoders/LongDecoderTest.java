@@ -50,6 +50,8 @@ import static org.junit.Assert.*;
 
 import org.smooks.javabean.DataDecodeException;
 
+import java.text.NumberFormat;
+import java.text.ParseException;
 import java.util.Locale;
 import java.util.Properties;
 
@@ -145,4 +147,24 @@ public class LongDecoderTest {
 
         assertEquals("1234", decoder.encode(1234L));
     }
+
+    @Test
+    public void test_decode_plain_decimal() throws ParseException {
+        LongDecoder longDecoder = new LongDecoder();
+        DoubleDecoder doubleDecoder = new DoubleDecoder();
+        Properties config = new Properties();
+
+        config.setProperty(LongDecoder.LOCALE, "en-IE");
+        longDecoder.setConfiguration(config);
+        doubleDecoder.setConfiguration(config);
+
+        // Must decode exactly as the NumberFormat does...
+        NumberFormat numberFormat = longDecoder.getNumberFormat();
+        String[] values = {"0", "-0", "7", "007", "-1234", "1234.0", "1234.45", "-0.5", "12.", "999999999999999999", "9999999999999999999", "12abc", "1e3"};
+        for (String value : values) {
+            Number expected = numberFormat.parse(value);
+            assertEquals(value, expected.longValue(), longDecoder.decode(value));
+            assertEquals(value, expected.doubleValue(), doubleDecoder.decode(value));
+        }
+    }
 }
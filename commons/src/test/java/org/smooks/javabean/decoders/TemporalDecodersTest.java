@@ -0,0 +1,149 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Commons
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.javabean.decoders;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import org.smooks.cdr.SmooksConfigurationException;
+import org.smooks.javabean.DataDecodeException;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Properties;
+
+/**
+ * Tests for the java.time decoders.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class TemporalDecodersTest {
+
+    @Test
+    public void test_LocalDateTimeDecoder_default() {
+        LocalDateTimeDecoder decoder = new LocalDateTimeDecoder();
+
+        assertEquals(LocalDateTime.of(2006, 11, 15, 13, 45, 28), decoder.decode(" 2006-11-15T13:45:28 "));
+        assertEquals("2006-11-15T13:45:28", decoder.encode(LocalDateTime.of(2006, 11, 15, 13, 45, 28)));
+    }
+
+    @Test
+    public void test_LocalDateTimeDecoder_format_and_locale() {
+        LocalDateTimeDecoder decoder = new LocalDateTimeDecoder();
+        Properties config = new Properties();
+
+        config.setProperty(LocaleAwareTemporalDecoder.FORMAT, "EEE MMM dd HH:mm:ss yyyy");
+        config.setProperty(LocaleAwareDecoder.LOCALE, "en-IE");
+        decoder.setConfiguration(config);
+
+        assertEquals(LocalDateTime.of(2006, 11, 15, 13, 45, 28), decoder.decode("Wed Nov 15 13:45:28 2006"));
+        assertEquals("Wed Nov 15 13:45:28 2006", decoder.encode(LocalDateTime.of(2006, 11, 15, 13, 45, 28)));
+    }
+
+    @Test
+    public void test_LocalDateDecoder() {
+        LocalDateDecoder decoder = new LocalDateDecoder();
+        Properties config = new Properties();
+
+        assertEquals(LocalDate.of(2006, 11, 15), decoder.decode("2006-11-15"));
+
+        config.setProperty(LocaleAwareTemporalDecoder.FORMAT, "dd/MM/yyyy");
+        decoder.setConfiguration(config);
+        assertEquals(LocalDate.of(2006, 11, 15), decoder.decode("15/11/2006"));
+        assertEquals("15/11/2006", decoder.encode(LocalDate.of(2006, 11, 15)));
+    }
+
+    @Test
+    public void test_OffsetDateTimeDecoder() {
+        OffsetDateTimeDecoder decoder = new OffsetDateTimeDecoder();
+
+        assertEquals(OffsetDateTime.of(2006, 11, 15, 13, 45, 28, 0, ZoneOffset.ofHours(-5)), decoder.decode("2006-11-15T13:45:28-05:00"));
+    }
+
+    @Test
+    public void test_InstantDecoder() {
+        InstantDecoder decoder = new InstantDecoder();
+        Properties config = new Properties();
+
+        assertEquals(Instant.ofEpochMilli(1163616328000L), decoder.decode("2006-11-15T18:45:28Z"));
+        assertEquals("2006-11-15T18:45:28Z", decoder.encode(Instant.ofEpochMilli(1163616328000L)));
+
+        config.setProperty(LocaleAwareTemporalDecoder.FORMAT, "yyyy-MM-dd HH:mm:ss");
+        config.setProperty(LocaleAwareTemporalDecoder.ZONE, "-05:00");
+        decoder.setConfiguration(config);
+        assertEquals(Instant.ofEpochMilli(1163616328000L), decoder.decode("2006-11-15 13:45:28"));
+    }
+
+    @Test
+    public void test_decode_error() {
+        try {
+            new LocalDateDecoder().decode("15/11/2006");
+            fail("Expected DataDecodeException");
+        } catch (DataDecodeException e) {
+            assertTrue(e.getMessage().startsWith("Error decoding LocalDate data value '15/11/2006'"));
+        }
+        try {
+            new LocalDateDecoder().encode(new java.util.Date());
+            fail("Expected DataDecodeException");
+        } catch (DataDecodeException e) {
+            assertEquals("Cannot encode Object type 'java.util.Date'.  Must be type 'java.time.LocalDate'.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void test_invalid_config() {
+        Properties config = new Properties();
+
+        config.setProperty(LocaleAwareTemporalDecoder.ZONE, "Nowhere/Nothing");
+        try {
+            new InstantDecoder().setConfiguration(config);
+            fail("Expected SmooksConfigurationException");
+        } catch (SmooksConfigurationException e) {
+            assertEquals("Invalid Instant decoder 'zone' parameter 'Nowhere/Nothing'.", e.getMessage());
+        }
+    }
+}
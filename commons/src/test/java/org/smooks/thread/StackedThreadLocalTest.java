@@ -0,0 +1,117 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Commons
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.thread;
+
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class StackedThreadLocalTest {
+
+    @Test
+    public void test_push_pop() {
+        StackedThreadLocal<String> stackedThreadLocal = new StackedThreadLocal<String>("test");
+
+        assertNull(stackedThreadLocal.get());
+        for (int i = 0; i < 10; i++) {
+            stackedThreadLocal.set("v" + i);
+            assertEquals("v" + i, stackedThreadLocal.get());
+        }
+        for (int i = 9; i >= 0; i--) {
+            assertEquals("v" + i, stackedThreadLocal.get());
+            stackedThreadLocal.remove();
+        }
+        assertNull(stackedThreadLocal.get());
+
+        // Removing from an empty stack is a no-op...
+        stackedThreadLocal.remove();
+        assertNull(stackedThreadLocal.get());
+    }
+
+    @Test
+    public void test_empty_stack_removed_from_thread() throws Exception {
+        StackedThreadLocal<String> stackedThreadLocal = new StackedThreadLocal<String>("test");
+        Field stackTLField = StackedThreadLocal.class.getDeclaredField("stackTL");
+
+        stackTLField.setAccessible(true);
+        ThreadLocal<?> stackTL = (ThreadLocal<?>) stackTLField.get(stackedThreadLocal);
+
+        stackedThreadLocal.set("v1");
+        stackedThreadLocal.set("v2");
+        assertNotNull(stackTL.get());
+        stackedThreadLocal.remove();
+        assertNotNull(stackTL.get());
+        stackedThreadLocal.remove();
+        assertNull(stackTL.get());
+
+        // Reading an empty stack doesn't allocate one...
+        assertNull(stackedThreadLocal.get());
+        assertNull(stackTL.get());
+    }
+
+    @Test
+    public void test_thread_isolation() throws InterruptedException {
+        final StackedThreadLocal<String> stackedThreadLocal = new StackedThreadLocal<String>("test");
+        final AtomicReference<String> otherThreadValue = new AtomicReference<String>("unset");
+
+        stackedThreadLocal.set("main");
+
+        Thread thread = new Thread(new Runnable() {
+            public void run() {
+                otherThreadValue.set(stackedThreadLocal.get());
+            }
+        });
+        thread.start();
+        thread.join();
+
+        assertNull(otherThreadValue.get());
+        assertEquals("main", stackedThreadLocal.get());
+        stackedThreadLocal.remove();
+    }
+}
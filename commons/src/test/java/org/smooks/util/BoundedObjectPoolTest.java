@@ -0,0 +1,134 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Commons
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class BoundedObjectPoolTest {
+
+    @Test
+    public void test_disabled() {
+        BoundedObjectPool<String> pool = new BoundedObjectPool<String>(0);
+
+        assertFalse(pool.isEnabled());
+        assertFalse(pool.release("a"));
+        assertNull(pool.borrow());
+        assertEquals(0, pool.getIdleCount());
+    }
+
+    @Test
+    public void test_borrow_release() {
+        BoundedObjectPool<String> pool = new BoundedObjectPool<String>(2);
+
+        assertNull(pool.borrow());
+        assertTrue(pool.release("a"));
+        assertTrue(pool.release("b"));
+        assertFalse(pool.release("c"));
+        assertEquals(2, pool.getIdleCount());
+
+        List<String> borrowed = new ArrayList<String>();
+        borrowed.add(pool.borrow());
+        borrowed.add(pool.borrow());
+        assertNull(pool.borrow());
+        assertTrue(borrowed.contains("a"));
+        assertTrue(borrowed.contains("b"));
+
+        assertEquals(2, pool.getHitCount());
+        assertEquals(2, pool.getMissCount());
+        assertEquals(1, pool.getDiscardCount());
+        assertEquals(0, pool.getIdleCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_invalid_capacity() {
+        new BoundedObjectPool<String>(-1);
+    }
+
+    @Test
+    public void test_concurrent() throws InterruptedException {
+        final BoundedObjectPool<AtomicBoolean> pool = new BoundedObjectPool<AtomicBoolean>(4);
+        final AtomicInteger errors = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(8);
+
+        for(int t = 0; t < 8; t++) {
+            new Thread() {
+                public void run() {
+                    try {
+                        for(int i = 0; i < 10000; i++) {
+                            AtomicBoolean object = pool.borrow();
+                            if(object == null) {
+                                object = new AtomicBoolean();
+                            }
+                            // No other thread should be holding the same instance...
+                            if(!object.compareAndSet(false, true)) {
+                                errors.incrementAndGet();
+                            }
+                            object.set(false);
+                            pool.release(object);
+                        }
+                    } catch(Throwable t) {
+                        errors.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }.start();
+        }
+
+        done.await();
+        assertEquals(0, errors.get());
+        assertEquals(80000, pool.getHitCount() + pool.getMissCount());
+        assertTrue(pool.getIdleCount() <= 4);
+    }
+}
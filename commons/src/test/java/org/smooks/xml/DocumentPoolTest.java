@@ -0,0 +1,113 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Commons
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.xml;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import javax.xml.parsers.DocumentBuilder;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class DocumentPoolTest {
+
+    @Test
+    public void test_recycle() {
+        DocumentPool pool = new DocumentPool(1);
+
+        Document document = pool.newDocument();
+        document.appendChild(document.createElement("a")).appendChild(document.createTextNode("text"));
+        assertEquals(0, pool.getHitCount());
+        assertEquals(1, pool.getMissCount());
+
+        assertTrue(pool.recycle(document));
+        assertFalse(document.hasChildNodes());
+
+        // Reused...
+        assertSame(document, pool.newDocument());
+        assertEquals(1, pool.getHitCount());
+        assertEquals(0.5, pool.getHitRatio(), 0.0);
+
+        // Pool full...
+        assertTrue(pool.recycle(document));
+        assertFalse(pool.recycle(pool.getDocumentBuilder().newDocument()));
+        assertEquals(2, pool.getRecycleCount());
+        assertEquals(1, pool.getDiscardCount());
+    }
+
+    @Test
+    public void test_disabled() {
+        DocumentPool pool = new DocumentPool(0);
+        Document document = pool.newDocument();
+
+        document.appendChild(document.createElement("a"));
+        assertFalse(pool.recycle(document));
+        assertTrue(document.hasChildNodes());
+        assertNotSame(document, pool.newDocument());
+    }
+
+    @Test
+    public void test_builder_per_thread() throws InterruptedException {
+        final DocumentPool pool = new DocumentPool(1);
+        final AtomicReference<DocumentBuilder> otherThreadBuilder = new AtomicReference<DocumentBuilder>();
+
+        DocumentBuilder builder = pool.getDocumentBuilder();
+        assertSame(builder, pool.getDocumentBuilder());
+
+        Thread thread = new Thread() {
+            public void run() {
+                otherThreadBuilder.set(pool.getDocumentBuilder());
+            }
+        };
+        thread.start();
+        thread.join();
+
+        assertNotNull(otherThreadBuilder.get());
+        assertNotSame(builder, otherThreadBuilder.get());
+        assertEquals(2, pool.getBuilderCount());
+    }
+}
@@ -635,4 +635,17 @@ public class XmlUtilTest {
 
         assertEquals(StreamUtils.normalizeLines(indentedXmlExpected, false), StreamUtils.normalizeLines(indentedXML, false));
     }
+
+    @Test
+    public void test_encodeTextValue() throws IOException {
+        StringWriter writer = new StringWriter();
+        char[] text = "x<a & b>y".toCharArray();
+
+        XmlUtil.encodeTextValue(text, 1, 7, writer);
+        assertEquals("&lt;a &amp; b&gt;", writer.toString());
+
+        writer = new StringWriter();
+        XmlUtil.encodeAttributeValue("'a' \"b\"".toCharArray(), 0, 7, writer);
+        assertEquals("&apos;a&apos; &quot;b&quot;", writer.toString());
+    }
 }
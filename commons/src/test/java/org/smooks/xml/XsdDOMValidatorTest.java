@@ -85,4 +85,18 @@ public class XsdDOMValidatorTest {
             assertEquals("cvc-complex-type.4: Attribute 'myName' must appear on element 'a:myNVP'.", e.getMessage());
         }
     }
+
+	@Test
+    public void test_schema_cache() throws IOException, SAXException, ParserConfigurationException {
+        Document document = XmlUtil.parseStream(getClass().getResourceAsStream("xsdDomValidator-test-01.xml"));
+        XsdDOMValidator validator1 = new XsdDOMValidator(document);
+        XsdDOMValidator validator2 = new XsdDOMValidator(XmlUtil.parseStream(getClass().getResourceAsStream("xsdDomValidator-test-01.xml")));
+
+        // Same XSDs, so the compiled schema is shared...
+        assertSame(validator1.getSchema(), validator2.getSchema());
+        validator2.validate();
+
+        XsdValidator.clearSchemaCache();
+        assertNotSame(validator1.getSchema(), new XsdDOMValidator(document).getSchema());
+    }
 }
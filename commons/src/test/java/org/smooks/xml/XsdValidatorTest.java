@@ -55,11 +55,15 @@ import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamSource;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static org.junit.Assert.*;
+
 /**
  * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
  */
@@ -107,6 +111,28 @@ public class XsdValidatorTest {
         validator.validate(new StreamSource(getClass().getResourceAsStream("xsdDomValidator-test-01.xml")));
     }
 
+	@Test
+    public void test_schema_cache_not_used_with_installed_factory() throws IOException, SAXException {
+        List<URL> xsdResources = Arrays.asList(getClass().getResource("/META-INF/xsd/test-xsd-01.xsd"));
+        XsdValidator validator1 = new XsdValidator();
+        XsdValidator validator2 = new XsdValidator();
+
+        validator1.setXSDResources(xsdResources);
+        validator2.setXSDResources(xsdResources);
+        assertSame(validator1.getSchema(), validator2.getSchema());
+
+        XMLSchemaFactory schemaFactory = new XMLSchemaFactory();
+        XsdValidator validator3 = new XsdValidator();
+        XsdValidator validator4 = new XsdValidator();
+
+        validator3.setSchemaFactory(schemaFactory);
+        validator3.setXSDResources(xsdResources);
+        validator4.setSchemaFactory(schemaFactory);
+        validator4.setXSDResources(xsdResources);
+        assertNotSame(validator1.getSchema(), validator3.getSchema());
+        assertNotSame(validator3.getSchema(), validator4.getSchema());
+    }
+
     public class MyLSResourceResolver implements LSResourceResolver {
 
         private Map<String, StreamSourceLSInput> resources = new HashMap<String, StreamSourceLSInput>();
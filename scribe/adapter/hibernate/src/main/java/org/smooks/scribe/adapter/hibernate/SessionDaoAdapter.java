@@ -42,12 +42,14 @@
  */
 package org.smooks.scribe.adapter.hibernate;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.Map.Entry;
 
 import org.hibernate.Query;
 import org.hibernate.Session;
 import org.smooks.assertion.AssertArgument;
+import org.smooks.scribe.BatchDao;
 import org.smooks.scribe.Dao;
 import org.smooks.scribe.Flushable;
 import org.smooks.scribe.Locator;
@@ -58,7 +60,7 @@ import org.smooks.scribe.Queryable;
  * @author <a href="mailto:maurice.zeijen@smies.com">maurice.zeijen@smies.com</a>
  *
  */
-class SessionDaoAdapter implements Dao<Object>, Locator, Queryable, Flushable {
+class SessionDaoAdapter implements Dao<Object>, BatchDao<Object>, Locator, Queryable, Flushable {
 
 	private final Session session;
 
@@ -100,6 +102,33 @@ class SessionDaoAdapter implements Dao<Object>, Locator, Queryable, Flushable {
 		return null;
 	}
 
+	/* (non-Javadoc)
+	 * @see org.smooks.scribe.BatchDao#insertBatch(java.util.Collection)
+	 */
+	public void insertBatch(final Collection<Object> entities) {
+		AssertArgument.isNotNull(entities, "entities");
+
+		for(final Object entity : entities) {
+			session.save(entity);
+		}
+		// Flush and clear the session per batch, so as to keep the session small...
+		session.flush();
+		session.clear();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.smooks.scribe.BatchDao#updateBatch(java.util.Collection)
+	 */
+	public void updateBatch(final Collection<Object> entities) {
+		AssertArgument.isNotNull(entities, "entities");
+
+		for(final Object entity : entities) {
+			session.update(entity);
+		}
+		session.flush();
+		session.clear();
+	}
+
 	/* (non-Javadoc)
 	 * @see org.smooks.scribe.Dao#delete(java.lang.Object)
 	 */
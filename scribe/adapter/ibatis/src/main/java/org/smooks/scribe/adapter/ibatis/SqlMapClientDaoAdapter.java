@@ -48,6 +48,7 @@ import java.util.Map;
 
 import org.smooks.scribe.DaoException;
 import org.smooks.scribe.Locator;
+import org.smooks.scribe.MappingBatchDao;
 import org.smooks.scribe.MappingDao;
 
 import com.ibatis.sqlmap.client.SqlMapClient;
@@ -56,7 +57,7 @@ import com.ibatis.sqlmap.client.SqlMapClient;
  * @author <a href="mailto:maurice.zeijen@smies.com">maurice.zeijen@smies.com</a>
  *
  */
-class SqlMapClientDaoAdapter implements MappingDao<Object>, Locator  {
+class SqlMapClientDaoAdapter implements MappingDao<Object>, MappingBatchDao<Object>, Locator  {
 
 	private final SqlMapClient sqlMapClient;
 
@@ -93,6 +94,36 @@ class SqlMapClientDaoAdapter implements MappingDao<Object>, Locator  {
 	}
 
 
+	/* (non-Javadoc)
+	 * @see org.smooks.scribe.MappingBatchDao#insertBatch(java.lang.String, java.util.Collection)
+	 */
+	public void insertBatch(String id, Collection<Object> entities) {
+		try {
+			sqlMapClient.startBatch();
+			for(Object entity : entities) {
+				sqlMapClient.insert(id, entity);
+			}
+			sqlMapClient.executeBatch();
+		} catch (SQLException e) {
+			throw new DaoException("Exception throw while executing batch insert of " + entities.size() + " entities with statement id '" + id + "'", e);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.smooks.scribe.MappingBatchDao#updateBatch(java.lang.String, java.util.Collection)
+	 */
+	public void updateBatch(String id, Collection<Object> entities) {
+		try {
+			sqlMapClient.startBatch();
+			for(Object entity : entities) {
+				sqlMapClient.update(id, entity);
+			}
+			sqlMapClient.executeBatch();
+		} catch (SQLException e) {
+			throw new DaoException("Exception throw while executing batch update of " + entities.size() + " entities with statement id '" + id + "'", e);
+		}
+	}
+
 	/* (non-Javadoc)
 	 * @see org.smooks.scribe.MappingDao#delete(java.lang.String, java.lang.Object)
 	 */
@@ -42,14 +42,20 @@
  */
 package org.smooks.scribe.adapter.jpa;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 import javax.persistence.EntityManager;
 import javax.persistence.Query;
 
 import org.smooks.assertion.AssertArgument;
+import org.smooks.scribe.BatchDao;
 import org.smooks.scribe.Dao;
+import org.smooks.scribe.DaoException;
 import org.smooks.scribe.Flushable;
 import org.smooks.scribe.Locator;
 import org.smooks.scribe.Queryable;
@@ -61,12 +67,23 @@ import org.smooks.scribe.Queryable;
  * <br>
  * Prefixing a query with a @ makes sure that
  * the query is handled as a named query. The @
- * is off course removed before the named query is called
+ * is off course removed before the named query is called<br>
+ * <br>
+ * Batches are written with a persist/merge per entity, followed by a
+ * flush of the EntityManager. On a JPA 2.0 (or later) runtime, the
+ * written entities are then detached, so as to keep the persistence
+ * context small when loading large numbers of entities. The other
+ * entities managed by the persistence context are left attached.
  *
  * @author <a href="mailto:maurice.zeijen@smies.com">maurice.zeijen@smies.com</a>
  *
  */
-class EntityManagerDaoAdapter implements Dao<Object>, Locator, Queryable, Flushable {
+class EntityManagerDaoAdapter implements Dao<Object>, BatchDao<Object>, Locator, Queryable, Flushable {
+
+	/**
+	 * EntityManager.detach(Object), if the JPA runtime provides it (JPA 2.0 and later).
+	 */
+	private static final Method DETACH_METHOD = getDetachMethod();
 
 	private final EntityManager entityManager;
 
@@ -104,6 +121,34 @@ class EntityManagerDaoAdapter implements Dao<Object>, Locator, Queryable, Flusha
 		return null;
 	}
 
+	/* (non-Javadoc)
+	 * @see org.smooks.scribe.BatchDao#insertBatch(java.util.Collection)
+	 */
+	public void insertBatch(final Collection<Object> entities) {
+		AssertArgument.isNotNull(entities, "entities");
+
+		for(final Object entity : entities) {
+			entityManager.persist(entity);
+		}
+		entityManager.flush();
+		detach(entities);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.smooks.scribe.BatchDao#updateBatch(java.util.Collection)
+	 */
+	public void updateBatch(final Collection<Object> entities) {
+		AssertArgument.isNotNull(entities, "entities");
+
+		final List<Object> merged = new ArrayList<Object>(entities.size());
+
+		for(final Object entity : entities) {
+			merged.add(entityManager.merge(entity));
+		}
+		entityManager.flush();
+		detach(merged);
+	}
+
 	/* (non-Javadoc)
 	 * @see org.smooks.scribe.Dao#delete(java.lang.Object)
 	 */
@@ -209,6 +254,30 @@ class EntityManagerDaoAdapter implements Dao<Object>, Locator, Queryable, Flusha
 		return entityManager;
 	}
 
+	private void detach(final Collection<Object> entities) {
+		if(DETACH_METHOD == null) {
+			return;
+		}
 
+		for(final Object entity : entities) {
+			try {
+				DETACH_METHOD.invoke(entityManager, entity);
+			} catch (final IllegalAccessException e) {
+				throw new DaoException("Failed to detach entity from the EntityManager.", e);
+			} catch (final InvocationTargetException e) {
+				if(e.getTargetException() instanceof RuntimeException) {
+					throw (RuntimeException) e.getTargetException();
+				}
+				throw new DaoException("Failed to detach entity from the EntityManager.", e.getTargetException());
+			}
+		}
+	}
 
+	private static Method getDetachMethod() {
+		try {
+			return EntityManager.class.getMethod("detach", Object.class);
+		} catch (final NoSuchMethodException e) {
+			return null;
+		}
+	}
 }
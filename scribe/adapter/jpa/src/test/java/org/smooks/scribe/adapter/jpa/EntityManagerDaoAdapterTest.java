@@ -46,6 +46,7 @@ import static org.junit.Assert.*;
 import static org.mockito.Matchers.*;
 import static org.mockito.Mockito.*;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -116,6 +117,46 @@ public class EntityManagerDaoAdapterTest extends BaseTestCase {
 
 	}
 
+	@Test( groups = "unit" )
+	public void test_insertBatch() {
+
+		// EXECUTE
+
+		Object entity1 = new Object();
+		Object entity2 = new Object();
+
+		adapter.insertBatch(Arrays.asList(entity1, entity2));
+
+		// VERIFY
+
+		verify(entityManager).persist(same(entity1));
+		verify(entityManager).persist(same(entity2));
+		verify(entityManager).flush();
+
+		// The other entities of the persistence context stay attached...
+		verify(entityManager, never()).clear();
+
+	}
+
+	@Test( groups = "unit" )
+	public void test_updateBatch() {
+
+		// EXECUTE
+
+		Object entity1 = new Object();
+		Object entity2 = new Object();
+
+		adapter.updateBatch(Arrays.asList(entity1, entity2));
+
+		// VERIFY
+
+		verify(entityManager).merge(same(entity1));
+		verify(entityManager).merge(same(entity2));
+		verify(entityManager).flush();
+		verify(entityManager, never()).clear();
+
+	}
+
 	@Test( groups = "unit" )
 	public void test_lookupByQuery_map_parameters() {
 
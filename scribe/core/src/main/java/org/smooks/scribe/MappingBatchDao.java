@@ -0,0 +1,77 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Scribe :: Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.scribe;
+
+import java.util.Collection;
+
+/**
+ * The Mapping Batch DAO interface
+ * <p>
+ * The {@link MappingDao} equivalent of the {@link BatchDao} interface. The
+ * id determines how the implementation should execute the operation.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public interface MappingBatchDao<E> {
+
+	/**
+	 * Inserts the entity instances in to the datasource
+	 *
+	 * @param id The id
+	 * @param entities The entity objects to insert, in insert order
+	 * @throws UnsupportedOperationException Indicates that this Dao doesn't support
+	 *         the insert operation.
+	 */
+	void insertBatch(String id, Collection<E> entities);
+
+	/**
+	 * Updates the entity instances in the datasource
+	 *
+	 * @param id The id
+	 * @param entities The entity objects to update, in update order
+	 * @throws UnsupportedOperationException Indicates that this Dao doesn't support
+	 *         the update operation.
+	 */
+	void updateBatch(String id, Collection<E> entities);
+
+}
@@ -0,0 +1,103 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Scribe :: Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.scribe.invoker;
+
+import java.util.List;
+
+import org.smooks.scribe.DaoException;
+
+/**
+ * Thrown by a {@link BatchingDaoInvoker} when writing buffered entities fails.
+ * <p>
+ * The entities of the failed write are removed from the buffer, so they are not written again by
+ * the next batch write. They are available through {@link #getEntities()}, e.g. to be logged or
+ * written again by the caller.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class BatchWriteException extends DaoException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final boolean insert;
+
+	private final String name;
+
+	private final List<Object> entities;
+
+	/**
+	 * @param insert True if the failed write is an insert, false if it is an update.
+	 * @param name The name of the insert or update method, or <code>null</code> for the default method.
+	 * @param entities The entities that were not written.
+	 * @param cause The cause of the failure.
+	 */
+	public BatchWriteException(final boolean insert, final String name, final List<Object> entities, final Throwable cause) {
+		super("Failed to " + (insert ? "insert" : "update") + " " + entities.size() + " buffered entities"
+				+ (name != null ? " through '" + name + "'" : "") + ". The entities are removed from the batch.", cause);
+
+		this.insert = insert;
+		this.name = name;
+		this.entities = entities;
+	}
+
+	/**
+	 * @return True if the failed write is an insert, false if it is an update.
+	 */
+	public boolean isInsert() {
+		return insert;
+	}
+
+	/**
+	 * @return The name of the insert or update method, or <code>null</code> for the default method.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return The entities that were not written.
+	 */
+	public List<Object> getEntities() {
+		return entities;
+	}
+}
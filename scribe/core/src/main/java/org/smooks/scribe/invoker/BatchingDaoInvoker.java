@@ -0,0 +1,331 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Scribe :: Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.scribe.invoker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.smooks.assertion.AssertArgument;
+import org.smooks.scribe.BatchDao;
+import org.smooks.scribe.MappingBatchDao;
+
+/**
+ * Write-behind {@link DaoInvoker} that buffers inserted and updated entities and writes them in batches.
+ * <p>
+ * The buffered entities are written when the batch size is reached, when {@link #flushBatch()} is called
+ * (e.g. at the end of a message fragment, or when the execution context finishes), and before any
+ * other DAO operation (delete, lookup or flush), so that the operation sees the buffered writes.
+ * <p>
+ * Consecutive writes of the same kind (same operation and same name) are written as one batch through the
+ * {@link BatchDao} or {@link MappingBatchDao} interface, if the DAO implements it. Otherwise they are
+ * written one at a time through the wrapped invoker.
+ * <p>
+ * Because the writes are deferred, the insert and update methods always return <code>null</code>, as
+ * permitted by the {@link org.smooks.scribe.Dao} contract. Errors are raised by the operation that
+ * triggers the batch write, as a {@link BatchWriteException}. The entities of the failed write (the
+ * whole batch, or the single entity for DAOs written one at a time) are removed from the buffer and
+ * made available on the exception, so they are not written again. The entities buffered after them
+ * stay buffered and are written by the next batch write. Not thread safe.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class BatchingDaoInvoker implements DaoInvoker {
+
+	private final DaoInvoker daoInvoker;
+
+	private final BatchDao<Object> batchDao;
+
+	private final MappingBatchDao<Object> mappingBatchDao;
+
+	private final int batchSize;
+
+	private final DaoBatchMetrics metrics;
+
+	private final List<Write> pendingWrites;
+
+	/**
+	 * @param daoInvoker The invoker of the DAO.
+	 * @param dao The DAO.
+	 * @param batchSize The maximum number of buffered entities.
+	 * @param metrics The metrics of the DAO.
+	 */
+	@SuppressWarnings("unchecked")
+	public BatchingDaoInvoker(final DaoInvoker daoInvoker, final Object dao, final int batchSize, final DaoBatchMetrics metrics) {
+		AssertArgument.isNotNull(daoInvoker, "daoInvoker");
+		AssertArgument.isNotNull(dao, "dao");
+		AssertArgument.isNotNull(metrics, "metrics");
+		if(batchSize < 1) {
+			throw new IllegalArgumentException("Invalid batchSize '" + batchSize + "'.  Must be at least 1.");
+		}
+
+		this.daoInvoker = daoInvoker;
+		this.batchDao = dao instanceof BatchDao ? (BatchDao<Object>) dao : null;
+		this.mappingBatchDao = dao instanceof MappingBatchDao ? (MappingBatchDao<Object>) dao : null;
+		this.batchSize = batchSize;
+		this.metrics = metrics;
+		this.pendingWrites = new ArrayList<Write>(batchSize);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.smooks.scribe.invoker.DaoInvoker#insert(java.lang.Object)
+	 */
+	public Object insert(final Object entity) {
+		return buffer(true, null, entity);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.smooks.scribe.invoker.DaoInvoker#insert(java.lang.String, java.lang.Object)
+	 */
+	public Object insert(final String name, final Object entity) {
+		AssertArgument.isNotNull(name, "name");
+
+		return buffer(true, name, entity);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.smooks.scribe.invoker.DaoInvoker#update(java.lang.Object)
+	 */
+	public Object update(final Object entity) {
+		return buffer(false, null, entity);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.smooks.scribe.invoker.DaoInvoker#update(java.lang.String, java.lang.Object)
+	 */
+	public Object update(final String name, final Object entity) {
+		AssertArgument.isNotNull(name, "name");
+
+		return buffer(false, name, entity);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.smooks.scribe.invoker.DaoInvoker#delete(java.lang.Object)
+	 */
+	public Object delete(final Object entity) {
+		flushBatch();
+		return daoInvoker.delete(entity);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.smooks.scribe.invoker.DaoInvoker#delete(java.lang.String, java.lang.Object)
+	 */
+	public Object delete(final String name, final Object entity) {
+		flushBatch();
+		return daoInvoker.delete(name, entity);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.smooks.scribe.invoker.DaoInvoker#flush()
+	 */
+	public void flush() {
+		flushBatch();
+		daoInvoker.flush();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.smooks.scribe.invoker.DaoInvoker#lookupByQuery(java.lang.String, java.lang.Object[])
+	 */
+	public Object lookupByQuery(final String query, final Object... parameters) {
+		flushBatch();
+		return daoInvoker.lookupByQuery(query, parameters);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.smooks.scribe.invoker.DaoInvoker#lookupByQuery(java.lang.String, java.util.Map)
+	 */
+	public Object lookupByQuery(final String query, final Map<String, ?> parameters) {
+		flushBatch();
+		return daoInvoker.lookupByQuery(query, parameters);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.smooks.scribe.invoker.DaoInvoker#lookup(java.lang.String, java.util.Map)
+	 */
+	public Object lookup(final String name, final Map<String, ?> parameters) {
+		flushBatch();
+		return daoInvoker.lookup(name, parameters);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.smooks.scribe.invoker.DaoInvoker#lookup(java.lang.String, java.lang.Object[])
+	 */
+	public Object lookup(final String name, final Object... parameters) {
+		flushBatch();
+		return daoInvoker.lookup(name, parameters);
+	}
+
+	/**
+	 * Write the buffered entities.
+	 *
+	 * @throws BatchWriteException A write failed. The entities of the failed write are removed from the
+	 * buffer. The entities buffered after them stay buffered.
+	 */
+	public void flushBatch() {
+		while(!pendingWrites.isEmpty()) {
+			final Write first = pendingWrites.get(0);
+			int runEnd = 1;
+
+			while(runEnd < pendingWrites.size() && pendingWrites.get(runEnd).isSameKind(first)) {
+				runEnd++;
+			}
+			write(first.insert, first.name, pendingWrites.subList(0, runEnd));
+		}
+	}
+
+	/**
+	 * Get the number of buffered entities.
+	 * @return The number of entities waiting to be written.
+	 */
+	public int getPendingCount() {
+		return pendingWrites.size();
+	}
+
+	/**
+	 * Get the batch metrics of the DAO.
+	 * @return The metrics.
+	 */
+	public DaoBatchMetrics getMetrics() {
+		return metrics;
+	}
+
+	private Object buffer(final boolean insert, final String name, final Object entity) {
+		AssertArgument.isNotNull(entity, "entity");
+
+		pendingWrites.add(new Write(insert, name, entity));
+		if(pendingWrites.size() >= batchSize) {
+			flushBatch();
+		}
+
+		return null;
+	}
+
+	/**
+	 * Write a run of writes of the same kind, removing them from the buffer as they are written, or
+	 * when the write fails.
+	 */
+	private void write(final boolean insert, final String name, final List<Write> writes) {
+		final long start = System.nanoTime();
+		final List<Object> entities = new ArrayList<Object>(writes.size());
+
+		for(final Write write : writes) {
+			entities.add(write.entity);
+		}
+
+		if((name == null && batchDao != null) || (name != null && mappingBatchDao != null)) {
+			// A failed batch is not written again...
+			writes.clear();
+			try {
+				writeBatch(insert, name, entities);
+			} catch (final RuntimeException e) {
+				throw new BatchWriteException(insert, name, entities, e);
+			}
+		} else {
+			for(final Iterator<Write> iterator = writes.iterator(); iterator.hasNext();) {
+				final Object entity = iterator.next().entity;
+
+				iterator.remove();
+				try {
+					writeEntity(insert, name, entity);
+				} catch (final RuntimeException e) {
+					throw new BatchWriteException(insert, name, Collections.singletonList(entity), e);
+				}
+			}
+		}
+
+		metrics.batchWritten(insert, entities.size(), System.nanoTime() - start);
+	}
+
+	private void writeBatch(final boolean insert, final String name, final List<Object> entities) {
+		if(name == null) {
+			if(insert) {
+				batchDao.insertBatch(entities);
+			} else {
+				batchDao.updateBatch(entities);
+			}
+		} else {
+			if(insert) {
+				mappingBatchDao.insertBatch(name, entities);
+			} else {
+				mappingBatchDao.updateBatch(name, entities);
+			}
+		}
+	}
+
+	private void writeEntity(final boolean insert, final String name, final Object entity) {
+		if(insert) {
+			if(name == null) {
+				daoInvoker.insert(entity);
+			} else {
+				daoInvoker.insert(name, entity);
+			}
+		} else {
+			if(name == null) {
+				daoInvoker.update(entity);
+			} else {
+				daoInvoker.update(name, entity);
+			}
+		}
+	}
+
+	private static class Write {
+
+		private final boolean insert;
+
+		private final String name;
+
+		private final Object entity;
+
+		private Write(final boolean insert, final String name, final Object entity) {
+			this.insert = insert;
+			this.name = name;
+			this.entity = entity;
+		}
+
+		private boolean isSameKind(final Write other) {
+			return insert == other.insert && (name == null ? other.name == null : name.equals(other.name));
+		}
+	}
+}
@@ -0,0 +1,151 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Scribe :: Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.scribe.invoker;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Batch write metrics for a DAO, as recorded by the {@link BatchingDaoInvoker BatchingDaoInvokers} of the DAO.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class DaoBatchMetrics {
+
+	private static final LongBinaryOperator MAX = new LongBinaryOperator() {
+		public long applyAsLong(long left, long right) {
+			return Math.max(left, right);
+		}
+	};
+
+	private final LongAdder batchCount = new LongAdder();
+	private final LongAdder insertCount = new LongAdder();
+	private final LongAdder updateCount = new LongAdder();
+	private final LongAccumulator maxBatchSize = new LongAccumulator(MAX, 0);
+	private final LongAdder flushNanos = new LongAdder();
+	private final LongAccumulator maxFlushNanos = new LongAccumulator(MAX, 0);
+
+	/**
+	 * Get the number of batches written.
+	 * @return The batch count.
+	 */
+	public long getBatchCount() {
+		return batchCount.sum();
+	}
+
+	/**
+	 * Get the number of entities inserted through batches.
+	 * @return The insert count.
+	 */
+	public long getInsertCount() {
+		return insertCount.sum();
+	}
+
+	/**
+	 * Get the number of entities updated through batches.
+	 * @return The update count.
+	 */
+	public long getUpdateCount() {
+		return updateCount.sum();
+	}
+
+	/**
+	 * Get the largest batch written.
+	 * @return The max batch size.
+	 */
+	public long getMaxBatchSize() {
+		return maxBatchSize.get();
+	}
+
+	/**
+	 * Get the mean number of entities per batch.
+	 * @return The mean batch size, or zero if no batches have been written.
+	 */
+	public double getMeanBatchSize() {
+		long batches = batchCount.sum();
+
+		if(batches == 0) {
+			return 0;
+		}
+		return (double) (insertCount.sum() + updateCount.sum()) / batches;
+	}
+
+	/**
+	 * Get the total time spent writing batches.
+	 * @param unit The time unit.
+	 * @return The total flush time.
+	 */
+	public long getTotalFlushTime(TimeUnit unit) {
+		return unit.convert(flushNanos.sum(), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Get the longest time spent writing a single batch.
+	 * @param unit The time unit.
+	 * @return The max flush time.
+	 */
+	public long getMaxFlushTime(TimeUnit unit) {
+		return unit.convert(maxFlushNanos.get(), TimeUnit.NANOSECONDS);
+	}
+
+	void batchWritten(boolean insert, int size, long nanos) {
+		batchCount.increment();
+		if(insert) {
+			insertCount.add(size);
+		} else {
+			updateCount.add(size);
+		}
+		maxBatchSize.accumulate(size);
+		flushNanos.add(nanos);
+		maxFlushNanos.accumulate(nanos);
+	}
+
+	@Override
+	public String toString() {
+		return "DaoBatchMetrics[batches=" + getBatchCount() + ", inserts=" + getInsertCount() + ", updates=" + getUpdateCount() +
+				", maxBatchSize=" + getMaxBatchSize() + ", totalFlushMillis=" + getTotalFlushTime(TimeUnit.MILLISECONDS) +
+				", maxFlushMillis=" + getMaxFlushTime(TimeUnit.MILLISECONDS) + "]";
+	}
+}
@@ -63,8 +63,12 @@ public class DaoInvokerFactory {
 
 	private static final DaoInvokerFactory instance = new DaoInvokerFactory();
 
+	private static final AnnotatedDaoRuntimeInfoFactory runtimeInfoFactory = new AnnotatedDaoRuntimeInfoFactory();
+
 	public static final String REPOSITORY_KEY = DaoInvokerFactory.class.getName() + "#REPOSITORY_KEY";
 
+	public static final String BATCH_METRICS_KEY_PREFIX = DaoInvokerFactory.class.getName() + "#BATCH_METRICS_KEY:";
+
 	/**
 	 * Returns the DaoInvokerFactory instance
 	 *
@@ -85,8 +89,13 @@ public class DaoInvokerFactory {
 	 * then a {@link AnnotatedDaoInvoker} is created and returned. If neither is the case then a
 	 * {@link IllegalArgumentException} exception is thrown.
 	 *
+	 * <p>
+	 * The runtime info of an annotated DAO class is analyzed once and shared JVM wide. The
+	 * {@link AnnotatedDaoRuntimeInfoFactory} is still bound to the object store under the
+	 * {@link #REPOSITORY_KEY} key, for backward compatibility.
+	 *
 	 * @param dao The DAO for which the invoker instantiated
-	 * @param objectStore An object store for caching and retrieving a cached {@link AnnotatedDaoRuntimeInfoFactory} object.
+	 * @param objectStore An object store for binding the {@link AnnotatedDaoRuntimeInfoFactory} object.
 	 * @return the DaoInvoker for the specified DAO
 	 * @throws IllegalArgumentException if the DAO object doesn't match for a {@link InterfaceDaoInvoker} or {@link AnnotatedDaoInvoker}.
 	 */
@@ -119,6 +128,55 @@ public class DaoInvokerFactory {
 		}
 	}
 
+	/**
+	 * Creates a DaoInvoker depending on the DAO object (see {@link #create(Object, ObjectStore)}), that
+	 * buffers inserts and updates and writes them in batches of the specified size.
+	 * <p>
+	 * If the batch size is greater than 1, a {@link BatchingDaoInvoker} wrapping the DaoInvoker is returned.
+	 * The caller must call {@link BatchingDaoInvoker#flushBatch()} to write any remaining buffered entities
+	 * e.g. at the end of the fragment or when the execution context finishes.
+	 *
+	 * @param dao The DAO for which the invoker instantiated
+	 * @param objectStore An object store for caching and retrieving a cached {@link AnnotatedDaoRuntimeInfoFactory}
+	 * object and the {@link DaoBatchMetrics} of the DAO.
+	 * @param batchSize The maximum number of buffered entities.
+	 * @return the DaoInvoker for the specified DAO
+	 * @throws IllegalArgumentException if the DAO object doesn't match for a {@link InterfaceDaoInvoker} or {@link AnnotatedDaoInvoker}.
+	 */
+	public DaoInvoker create(final Object dao, final ObjectStore objectStore, final int batchSize) {
+		final DaoInvoker daoInvoker = create(dao, objectStore);
+
+		if(batchSize <= 1) {
+			return daoInvoker;
+		}
+		return new BatchingDaoInvoker(daoInvoker, dao, batchSize, getBatchMetrics(dao.getClass(), objectStore));
+	}
+
+	/**
+	 * Get the {@link DaoBatchMetrics} of the DAO class, as recorded by the {@link BatchingDaoInvoker BatchingDaoInvokers}
+	 * created through this factory with the same object store.
+	 *
+	 * @param daoClass The DAO class.
+	 * @param objectStore The object store.
+	 * @return The batch metrics of the DAO class.
+	 */
+	public DaoBatchMetrics getBatchMetrics(final Class<?> daoClass, final ObjectStore objectStore) {
+		AssertArgument.isNotNull(daoClass, "daoClass");
+		AssertArgument.isNotNull(objectStore, "objectStore");
+
+		final String key = BATCH_METRICS_KEY_PREFIX + daoClass.getName();
+
+		synchronized (objectStore) {
+			DaoBatchMetrics metrics = (DaoBatchMetrics) objectStore.get(key);
+
+			if(metrics == null) {
+				metrics = new DaoBatchMetrics();
+				objectStore.set(key, metrics);
+			}
+			return metrics;
+		}
+	}
+
 	/**
 	 * @param attributestore
 	 * @return
@@ -127,7 +185,7 @@ public class DaoInvokerFactory {
 		AnnotatedDaoRuntimeInfoFactory repository = (AnnotatedDaoRuntimeInfoFactory) objectStore.get(REPOSITORY_KEY);
 
 		if(repository == null) {
-			repository = new AnnotatedDaoRuntimeInfoFactory();
+			repository = runtimeInfoFactory;
 
 			objectStore.set(REPOSITORY_KEY, repository);
 		}
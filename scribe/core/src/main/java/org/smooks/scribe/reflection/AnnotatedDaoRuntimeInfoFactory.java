@@ -42,31 +42,26 @@
  */
 package org.smooks.scribe.reflection;
 
-import java.util.HashMap;
-
 /**
+ * Creates the {@link AnnotatedDaoRuntimeInfo} of annotated DAO classes.
+ * <p>
+ * The runtime info is analyzed once per DAO class and cached JVM wide, in a {@link ClassValue},
+ * so it is shared by all factory instances and doesn't prevent the DAO class from being unloaded.
+ *
  * @author <a href="mailto:maurice.zeijen@smies.com">maurice.zeijen@smies.com</a>
  *
  */
 public class AnnotatedDaoRuntimeInfoFactory {
 
-	private final HashMap<String, AnnotatedDaoRuntimeInfo> repository = new HashMap<String, AnnotatedDaoRuntimeInfo>();
-
-	public AnnotatedDaoRuntimeInfo create(final Class<?> daoClass) {
-
-		final String daoClassName = daoClass.getName();
-
-		AnnotatedDaoRuntimeInfo runtimeInfo = repository.get(daoClassName);
-
-		if(runtimeInfo == null) {
-
-			runtimeInfo = new AnnotatedDaoRuntimeInfo(daoClass);
-
-			repository.put(daoClassName, runtimeInfo);
-
+	private static final ClassValue<AnnotatedDaoRuntimeInfo> repository = new ClassValue<AnnotatedDaoRuntimeInfo>() {
+		@Override
+		protected AnnotatedDaoRuntimeInfo computeValue(final Class<?> daoClass) {
+			return new AnnotatedDaoRuntimeInfo(daoClass);
 		}
+	};
 
-		return runtimeInfo;
+	public AnnotatedDaoRuntimeInfo create(final Class<?> daoClass) {
+		return repository.get(daoClass);
 	}
 
 
@@ -0,0 +1,106 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Scribe :: Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.scribe.reflection;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * Creates the {@link MethodHandle MethodHandles} through which the DAO methods are invoked.
+ * <p>
+ * The handles are adapted to an erased (Object based) type, so that they can be invoked with
+ * {@link MethodHandle#invokeExact(Object...)} without reflective argument checks, boxing of the
+ * argument array or wrapping of exceptions on every call.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+final class DaoMethodHandles {
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	private DaoMethodHandles() {
+	}
+
+	/**
+	 * Create a handle for the method, with the DAO object as first parameter, adapted to the specified type.
+	 * A void method returns <code>null</code> when adapted to an Object return type.
+	 *
+	 * @param method The DAO method.
+	 * @param type The type of the handle.
+	 * @return The handle.
+	 */
+	static MethodHandle unreflect(final Method method, final MethodType type) {
+		MethodHandle handle;
+
+		try {
+			handle = LOOKUP.unreflect(method);
+		} catch (final IllegalAccessException e) {
+			// e.g. public method of a non public DAO class...
+			try {
+				method.setAccessible(true);
+				handle = LOOKUP.unreflect(method);
+			} catch (final IllegalAccessException e2) {
+				throw new RuntimeException("The method [" + method + "] of the class [" + method.getDeclaringClass().getName() + "] isn't accessible.", e2);
+			} catch (final SecurityException e2) {
+				throw new RuntimeException("The method [" + method + "] of the class [" + method.getDeclaringClass().getName() + "] isn't accessible.", e2);
+			}
+		}
+
+		return handle.asType(type);
+	}
+
+	/**
+	 * Create a handle for the method, with the DAO object as first parameter and all the
+	 * method arguments spread from an Object array as second parameter.
+	 *
+	 * @param method The DAO method.
+	 * @return The handle of type <code>(Object, Object[])Object</code>.
+	 */
+	static MethodHandle unreflectSpreader(final Method method) {
+		final int parameterCount = method.getParameterTypes().length;
+
+		return unreflect(method, MethodType.genericMethodType(parameterCount + 1)).asSpreader(Object[].class, parameterCount);
+	}
+}
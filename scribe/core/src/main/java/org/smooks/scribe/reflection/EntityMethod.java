@@ -42,7 +42,8 @@
  */
 package org.smooks.scribe.reflection;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 
 import org.smooks.assertion.AssertArgument;
@@ -53,10 +54,18 @@ import org.smooks.assertion.AssertArgument;
  */
 public class EntityMethod {
 
+	private static final MethodType ENTITY_TYPE = MethodType.methodType(Object.class, Object.class, Object.class);
+
+	private static final MethodType ID_ENTITY_TYPE = MethodType.methodType(Object.class, Object.class, String.class, Object.class);
+
 	private final Method method;
 
 	private final boolean returnsEntity;
 
+	private final MethodHandle entityHandle;
+
+	private final MethodHandle idEntityHandle;
+
 	/**
 	 *
 	 */
@@ -65,6 +74,11 @@ public class EntityMethod {
 
 		this.method = method;
 		this.returnsEntity = returnsEntity;
+
+		final int parameterCount = method.getParameterTypes().length;
+
+		entityHandle = parameterCount == 1 ? DaoMethodHandles.unreflect(method, ENTITY_TYPE) : null;
+		idEntityHandle = parameterCount == 2 ? DaoMethodHandles.unreflect(method, ID_ENTITY_TYPE) : null;
 	}
 
 
@@ -72,9 +86,13 @@ public class EntityMethod {
 	 * @see org.smooks.scribe.method.DAOMethod#invoke()
 	 */
 	public Object invoke(final Object obj, final Object entity){
+		if(entityHandle == null) {
+			throw new RuntimeException("The method [" + method + "] of the class [" + method.getDeclaringClass().getName() + "] can't be invoked with only the entity [" + entity + "].");
+		}
+
 		try {
 
-			Object result = method.invoke(obj, entity);
+			Object result = (Object) entityHandle.invokeExact(obj, entity);
 
 			if(returnsEntity) {
 				return result;
@@ -82,11 +100,11 @@ public class EntityMethod {
 				return null;
 			}
 
-		} catch (final IllegalArgumentException e) {
-			throw new RuntimeException("The method [" + method + "] of the class [" + method.getDeclaringClass().getName() + "] threw an exception, while invoking it with the object [" + obj + "].", e);
-		} catch (final IllegalAccessException e) {
-			throw new RuntimeException("The method [" + method + "] of the class [" + method.getDeclaringClass().getName() + "] threw an exception, while invoking it with the object [" + obj + "].", e);
-		} catch (final InvocationTargetException e) {
+		} catch (final RuntimeException e) {
+			throw e;
+		} catch (final Error e) {
+			throw e;
+		} catch (final Throwable e) {
 			throw new RuntimeException("The method [" + method + "] of the class [" + method.getDeclaringClass().getName() + "] threw an exception, while invoking it with the object [" + obj + "].", e);
 		}
 	}
@@ -95,9 +113,13 @@ public class EntityMethod {
 	 * @see org.smooks.scribe.method.DAOMethod#invoke()
 	 */
 	public Object invoke(final Object obj, final String id, final Object entity){
+		if(idEntityHandle == null) {
+			throw new RuntimeException("The method [" + method + "] of the class [" + method.getDeclaringClass().getName() + "] can't be invoked with the id '" + id + "' and the entity [" + entity + "].");
+		}
+
 		try {
 
-			Object result = method.invoke(obj, id, entity);
+			Object result = (Object) idEntityHandle.invokeExact(obj, id, entity);
 
 			if(returnsEntity) {
 				return result;
@@ -105,11 +127,11 @@ public class EntityMethod {
 				return null;
 			}
 
-		} catch (final IllegalArgumentException e) {
-			throw new RuntimeException("The method [" + method + "] of the class [" + method.getDeclaringClass().getName() + "] threw an exception, while invoking it with the object [" + obj + "] and using the id '"+ id +"'.", e);
-		} catch (final IllegalAccessException e) {
-			throw new RuntimeException("The method [" + method + "] of the class [" + method.getDeclaringClass().getName() + "] threw an exception, while invoking it with the object [" + obj + "] and using the id '"+ id +"'.", e);
-		} catch (final InvocationTargetException e) {
+		} catch (final RuntimeException e) {
+			throw e;
+		} catch (final Error e) {
+			throw e;
+		} catch (final Throwable e) {
 			throw new RuntimeException("The method [" + method + "] of the class [" + method.getDeclaringClass().getName() + "] threw an exception, while invoking it with the object [" + obj + "] and using the id '"+ id +"'.", e);
 		}
 	}
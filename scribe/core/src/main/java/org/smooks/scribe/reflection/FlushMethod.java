@@ -42,7 +42,8 @@
  */
 package org.smooks.scribe.reflection;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 
 import org.smooks.assertion.AssertArgument;
@@ -55,6 +56,8 @@ public class FlushMethod {
 
 	final Method method;
 
+	private final MethodHandle handle;
+
 	/**
 	 *
 	 */
@@ -62,6 +65,7 @@ public class FlushMethod {
 		AssertArgument.isNotNull(method, "method");
 
 		this.method = method;
+		this.handle = DaoMethodHandles.unreflect(method, MethodType.methodType(void.class, Object.class));
 	}
 
 	/* (non-Javadoc)
@@ -69,12 +73,12 @@ public class FlushMethod {
 	 */
 	public void invoke(final Object obj){
 		try {
-			method.invoke(obj);
-		} catch (final IllegalArgumentException e) {
-			throw new RuntimeException("The method [" + method + "] of the class [" + method.getDeclaringClass().getName() + "] threw an exception, while invoking it with the object [" + obj + "].", e);
-		} catch (final IllegalAccessException e) {
-			throw new RuntimeException("The method [" + method + "] of the class [" + method.getDeclaringClass().getName() + "] threw an exception, while invoking it with the object [" + obj + "].", e);
-		} catch (final InvocationTargetException e) {
+			handle.invokeExact(obj);
+		} catch (final RuntimeException e) {
+			throw e;
+		} catch (final Error e) {
+			throw e;
+		} catch (final Throwable e) {
 			throw new RuntimeException("The method [" + method + "] of the class [" + method.getDeclaringClass().getName() + "] threw an exception, while invoking it with the object [" + obj + "].", e);
 		}
 	}
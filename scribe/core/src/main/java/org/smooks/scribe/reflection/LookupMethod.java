@@ -43,7 +43,7 @@
 package org.smooks.scribe.reflection;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.Map;
@@ -63,6 +63,8 @@ public class LookupMethod {
 
 	final Method method;
 
+	private final MethodHandle handle;
+
 	Map<String, Integer> parameterPositions;
 
 	private boolean namedParameters = false;
@@ -74,6 +76,7 @@ public class LookupMethod {
 		AssertArgument.isNotNull(method, "method");
 
 		this.method = method;
+		this.handle = DaoMethodHandles.unreflectSpreader(method);
 
 		analyzeParameters();
 	}
@@ -163,12 +166,12 @@ public class LookupMethod {
 	 */
 	public Object invoke(final Object obj, Object ... args) {
 		try {
-			return method.invoke(obj, args);
-		} catch (final IllegalArgumentException e) {
-			throw new RuntimeException("The method '" + method + "' of the class '" + method.getDeclaringClass().getName() + "' threw an exception, while invoking it with the object '" + obj + "'.", e);
-		} catch (final IllegalAccessException e) {
-			throw new RuntimeException("The method '" + method + "' of the class '" + method.getDeclaringClass().getName() + "' threw an exception, while invoking it with the object '" + obj + "'.", e);
-		} catch (final InvocationTargetException e) {
+			return (Object) handle.invokeExact(obj, args);
+		} catch (final RuntimeException e) {
+			throw e;
+		} catch (final Error e) {
+			throw e;
+		} catch (final Throwable e) {
 			throw new RuntimeException("The method '" + method + "' of the class '" + method.getDeclaringClass().getName() + "' threw an exception, while invoking it with the object '" + obj + "'.", e);
 		}
 	}
@@ -42,7 +42,7 @@
  */
 package org.smooks.scribe.reflection;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.Map;
@@ -60,6 +60,8 @@ public class LookupWithNamedQueryMethod {
 	final int queryIndex;
 	final int parameterIndex;
 
+	private final MethodHandle handle;
+
 	/**
 	 *
 	 */
@@ -85,6 +87,7 @@ public class LookupWithNamedQueryMethod {
 		this.method = method;
 		this.queryIndex = queryIndex;
 		this.parameterIndex = parameterIndex;
+		this.handle = DaoMethodHandles.unreflectSpreader(method);
 	}
 
 	/* (non-Javadoc)
@@ -97,12 +100,12 @@ public class LookupWithNamedQueryMethod {
 
 
 		try {
-			return (Collection<?>) method.invoke(obj, args);
-		} catch (final IllegalArgumentException e) {
-			throw new RuntimeException("The method [" + method + "] of the class [" + method.getDeclaringClass().getName() + "] threw an exception, while invoking it with the object [" + obj + "].", e);
-		} catch (final IllegalAccessException e) {
-			throw new RuntimeException("The method [" + method + "] of the class [" + method.getDeclaringClass().getName() + "] threw an exception, while invoking it with the object [" + obj + "].", e);
-		} catch (final InvocationTargetException e) {
+			return (Collection<?>) (Object) handle.invokeExact(obj, args);
+		} catch (final RuntimeException e) {
+			throw e;
+		} catch (final Error e) {
+			throw e;
+		} catch (final Throwable e) {
 			throw new RuntimeException("The method [" + method + "] of the class [" + method.getDeclaringClass().getName() + "] threw an exception, while invoking it with the object [" + obj + "].", e);
 		}
 	}
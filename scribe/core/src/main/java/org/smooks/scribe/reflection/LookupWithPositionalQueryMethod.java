@@ -42,7 +42,7 @@
  */
 package org.smooks.scribe.reflection;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Collection;
@@ -65,6 +65,8 @@ public class LookupWithPositionalQueryMethod {
 
 	final int queryIndex;
 	final int parameterIndex;
+
+	private final MethodHandle handle;
 	final ParameterType parameterType;
 
 
@@ -102,6 +104,7 @@ public class LookupWithPositionalQueryMethod {
 		this.method = method;
 		this.queryIndex = queryIndex;
 		this.parameterIndex = parameterIndex;
+		this.handle = DaoMethodHandles.unreflectSpreader(method);
 
 	}
 
@@ -119,12 +122,12 @@ public class LookupWithPositionalQueryMethod {
 		}
 
 		try {
-			return (Collection<?>) method.invoke(obj, args);
-		} catch (final IllegalArgumentException e) {
-			throw new RuntimeException("The method [" + method + "] of the class [" + method.getDeclaringClass().getName() + "] threw an exception, while invoking it with the object [" + obj + "].", e);
-		} catch (final IllegalAccessException e) {
-			throw new RuntimeException("The method [" + method + "] of the class [" + method.getDeclaringClass().getName() + "] threw an exception, while invoking it with the object [" + obj + "].", e);
-		} catch (final InvocationTargetException e) {
+			return (Collection<?>) (Object) handle.invokeExact(obj, args);
+		} catch (final RuntimeException e) {
+			throw e;
+		} catch (final Error e) {
+			throw e;
+		} catch (final Throwable e) {
 			throw new RuntimeException("The method [" + method + "] of the class [" + method.getDeclaringClass().getName() + "] threw an exception, while invoking it with the object [" + obj + "].", e);
 		}
 	}
@@ -0,0 +1,276 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Scribe :: Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.scribe.invoker;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.smooks.scribe.BatchDao;
+import org.smooks.scribe.Dao;
+import org.smooks.scribe.Flushable;
+import org.smooks.scribe.MapObjectStore;
+import org.smooks.scribe.ObjectStore;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+@Test(groups = "unit")
+public class BatchingDaoInvokerTest {
+
+	private ObjectStore objectStore;
+
+	public void test_buffers_until_batch_size() {
+		RecordingBatchDao dao = new RecordingBatchDao();
+		BatchingDaoInvoker invoker = createInvoker(dao, 3);
+
+		assertNull(invoker.insert("a"));
+		assertNull(invoker.insert("b"));
+
+		assertEquals(2, invoker.getPendingCount());
+		assertTrue(dao.operations.isEmpty());
+
+		invoker.insert("c");
+
+		assertEquals(0, invoker.getPendingCount());
+		assertEquals(Arrays.asList("insertBatch[a, b, c]"), dao.operations);
+
+		DaoBatchMetrics metrics = invoker.getMetrics();
+		assertEquals(1, metrics.getBatchCount());
+		assertEquals(3, metrics.getInsertCount());
+		assertEquals(3, metrics.getMaxBatchSize());
+	}
+
+	public void test_flushBatch_splits_runs_by_kind() {
+		RecordingBatchDao dao = new RecordingBatchDao();
+		BatchingDaoInvoker invoker = createInvoker(dao, 10);
+
+		invoker.insert("a");
+		invoker.insert("b");
+		invoker.update("c");
+		invoker.insert("d");
+		invoker.flushBatch();
+
+		assertEquals(Arrays.asList("insertBatch[a, b]", "updateBatch[c]", "insertBatch[d]"), dao.operations);
+		assertEquals(3, invoker.getMetrics().getInsertCount());
+		assertEquals(1, invoker.getMetrics().getUpdateCount());
+
+		// Nothing left to write...
+		invoker.flushBatch();
+		assertEquals(3, dao.operations.size());
+	}
+
+	public void test_other_operations_write_buffered_entities_first() {
+		RecordingBatchDao dao = new RecordingBatchDao();
+		BatchingDaoInvoker invoker = createInvoker(dao, 10);
+
+		invoker.insert("a");
+		invoker.delete("b");
+		invoker.update("c");
+		invoker.flush();
+
+		assertEquals(Arrays.asList("insertBatch[a]", "delete b", "updateBatch[c]", "flush"), dao.operations);
+	}
+
+	public void test_non_batch_dao_written_per_entity() {
+		RecordingDao dao = new RecordingDao();
+		BatchingDaoInvoker invoker = createInvoker(dao, 2);
+
+		invoker.insert("a");
+		invoker.insert("b");
+
+		assertEquals(Arrays.asList("insert a", "insert b"), dao.operations);
+		assertEquals(1, invoker.getMetrics().getBatchCount());
+	}
+
+	public void test_failed_batch_removed_from_buffer() {
+		FailingBatchDao dao = new FailingBatchDao();
+		BatchingDaoInvoker invoker = createInvoker(dao, 10);
+
+		invoker.insert("a");
+		invoker.insert("b");
+		invoker.update("c");
+		try {
+			invoker.flushBatch();
+			fail("Expected BatchWriteException");
+		} catch (BatchWriteException e) {
+			assertTrue(e.isInsert());
+			assertNull(e.getName());
+			assertEquals(Arrays.asList("a", "b"), e.getEntities());
+			assertEquals("insertBatch[a, b] failed", e.getCause().getMessage());
+		}
+
+		// The failed batch is not written again, but the update is still buffered...
+		assertEquals(1, invoker.getPendingCount());
+		assertTrue(dao.operations.isEmpty());
+		assertEquals(0, invoker.getMetrics().getBatchCount());
+
+		invoker.flushBatch();
+
+		assertEquals(0, invoker.getPendingCount());
+		assertEquals(Arrays.asList("updateBatch[c]"), dao.operations);
+	}
+
+	public void test_permanent_entity_failure() {
+		FailingDao dao = new FailingDao("b");
+		BatchingDaoInvoker invoker = createInvoker(dao, 10);
+
+		invoker.insert("a");
+		invoker.insert("b");
+		invoker.insert("c");
+		try {
+			invoker.flushBatch();
+			fail("Expected BatchWriteException");
+		} catch (BatchWriteException e) {
+			assertEquals(Arrays.asList("b"), e.getEntities());
+			assertEquals("insert b failed", e.getCause().getMessage());
+		}
+
+		// "a" was written and "b" is dropped, so only "c" is left...
+		assertEquals(1, invoker.getPendingCount());
+		assertEquals(Arrays.asList("insert a"), dao.operations);
+
+		// "b" always fails, but doesn't stop the invoker from being used...
+		invoker.insert("d");
+		invoker.flush();
+
+		assertEquals(0, invoker.getPendingCount());
+		assertEquals(Arrays.asList("insert a", "insert c", "insert d", "flush"), dao.operations);
+	}
+
+	public void test_factory_creates_batching_invoker() {
+		DaoInvokerFactory factory = DaoInvokerFactory.getInstance();
+		RecordingBatchDao dao = new RecordingBatchDao();
+
+		assertFalse(factory.create(dao, objectStore, 1) instanceof BatchingDaoInvoker);
+
+		DaoInvoker invoker = factory.create(dao, objectStore, 5);
+		assertTrue(invoker instanceof BatchingDaoInvoker);
+
+		invoker.insert("a");
+		((BatchingDaoInvoker) invoker).flushBatch();
+
+		assertSame(((BatchingDaoInvoker) invoker).getMetrics(), factory.getBatchMetrics(RecordingBatchDao.class, objectStore));
+		assertEquals(1, factory.getBatchMetrics(RecordingBatchDao.class, objectStore).getInsertCount());
+	}
+
+	private BatchingDaoInvoker createInvoker(Dao<Object> dao, int batchSize) {
+		return new BatchingDaoInvoker(new InterfaceDaoInvoker(dao), dao, batchSize, new DaoBatchMetrics());
+	}
+
+	@BeforeMethod
+	public void setup() {
+		objectStore = new MapObjectStore();
+	}
+
+	private static class RecordingDao implements Dao<Object>, Flushable {
+
+		protected final List<String> operations = new ArrayList<String>();
+
+		public Object insert(Object entity) {
+			operations.add("insert " + entity);
+			return null;
+		}
+
+		public Object update(Object entity) {
+			operations.add("update " + entity);
+			return null;
+		}
+
+		public Object delete(Object entity) {
+			operations.add("delete " + entity);
+			return null;
+		}
+
+		public void flush() {
+			operations.add("flush");
+		}
+	}
+
+	private static class RecordingBatchDao extends RecordingDao implements BatchDao<Object> {
+
+		public void insertBatch(Collection<Object> entities) {
+			operations.add("insertBatch" + entities);
+		}
+
+		public void updateBatch(Collection<Object> entities) {
+			operations.add("updateBatch" + entities);
+		}
+	}
+
+	private static class FailingDao extends RecordingDao {
+
+		private final String failOn;
+
+		private FailingDao(String failOn) {
+			this.failOn = failOn;
+		}
+
+		@Override
+		public Object insert(Object entity) {
+			if(entity.equals(failOn)) {
+				throw new RuntimeException("insert " + entity + " failed");
+			}
+			return super.insert(entity);
+		}
+	}
+
+	private static class FailingBatchDao extends RecordingBatchDao {
+
+		private boolean failed;
+
+		@Override
+		public void insertBatch(Collection<Object> entities) {
+			if(!failed) {
+				failed = true;
+				throw new RuntimeException("insertBatch" + entities + " failed");
+			}
+			super.insertBatch(entities);
+		}
+	}
+}
@@ -44,6 +44,13 @@ package org.smooks.scribe.reflection;
 
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.smooks.scribe.annotation.Dao;
+import org.smooks.scribe.annotation.Flush;
+import org.smooks.scribe.annotation.Insert;
+import org.smooks.scribe.annotation.Lookup;
 import org.smooks.scribe.test.dao.FullAnnotatedDao;
 import org.smooks.scribe.test.dao.MinimumAnnotatedDao;
 import org.testng.annotations.Test;
@@ -72,4 +79,60 @@ public class AnnotatedDaoRuntimeInfoFactoryTest {
 		assertNotSame(runtimeInfo, runtimeInfo3);
 	}
 
+	public void test_create_shared_between_factories() {
+
+		AnnotatedDaoRuntimeInfo runtimeInfo = new AnnotatedDaoRuntimeInfoFactory().create(FullAnnotatedDao.class);
+		AnnotatedDaoRuntimeInfo runtimeInfo2 = new AnnotatedDaoRuntimeInfoFactory().create(FullAnnotatedDao.class);
+
+		assertSame(runtimeInfo, runtimeInfo2);
+	}
+
+	public void test_invoke_non_public_dao() {
+
+		AnnotatedDaoRuntimeInfo runtimeInfo = new AnnotatedDaoRuntimeInfoFactory().create(PrivateDao.class);
+		PrivateDao dao = new PrivateDao();
+
+		assertSame("entity", runtimeInfo.getDefaultInsertMethod().invoke(dao, "entity"));
+		assertEquals(Arrays.asList("a", 2), runtimeInfo.getLookupWithNamedParametersMethod("find").invoke(dao, "a", 2));
+
+		runtimeInfo.getFlushMethod().invoke(dao);
+		assertTrue(dao.flushed);
+	}
+
+	public void test_invoke_wraps_dao_exception() {
+
+		AnnotatedDaoRuntimeInfo runtimeInfo = new AnnotatedDaoRuntimeInfoFactory().create(PrivateDao.class);
+
+		try {
+			runtimeInfo.getDefaultInsertMethod().invoke(new PrivateDao(), null);
+			fail("Expected RuntimeException");
+		} catch (RuntimeException e) {
+			assertTrue(e.getCause() instanceof IllegalArgumentException);
+		}
+	}
+
+	@Dao
+	private static class PrivateDao {
+
+		private boolean flushed;
+
+		@Insert(isDefault = true)
+		public Object insert(Object entity) {
+			if(entity == null) {
+				throw new IllegalArgumentException("null entity");
+			}
+			return entity;
+		}
+
+		@Lookup(name = "find")
+		public Collection<?> find(String param1, int param2) {
+			return Arrays.asList(param1, param2);
+		}
+
+		@Flush
+		public void flush() {
+			flushed = true;
+		}
+	}
+
 }
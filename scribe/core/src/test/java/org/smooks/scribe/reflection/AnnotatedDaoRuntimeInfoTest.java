@@ -52,6 +52,7 @@ import java.util.Map;
 import org.smooks.scribe.IllegalAnnotationUsageException;
 import org.smooks.scribe.annotation.Dao;
 import org.smooks.scribe.annotation.Delete;
+import org.smooks.scribe.annotation.Flush;
 import org.smooks.scribe.annotation.Insert;
 import org.smooks.scribe.annotation.Lookup;
 import org.smooks.scribe.annotation.Update;
@@ -215,6 +216,38 @@ public class AnnotatedDaoRuntimeInfoTest extends BaseTestCase{
 		assertNotNull(runtimeInfo.getDefaultDeleteMethod());
 	}
 
+	public void test_unchecked_exceptions_not_wrapped() {
+		FlushMethod method = new AnnotatedDaoRuntimeInfo(ThrowingDao.class).getFlushMethod();
+
+		IllegalStateException runtimeException = new IllegalStateException();
+		try {
+			method.invoke(new ThrowingDao(runtimeException));
+			fail("Expected IllegalStateException");
+		} catch (IllegalStateException e) {
+			assertSame(runtimeException, e);
+		}
+
+		AssertionError error = new AssertionError();
+		try {
+			method.invoke(new ThrowingDao(error));
+			fail("Expected AssertionError");
+		} catch (AssertionError e) {
+			assertSame(error, e);
+		}
+	}
+
+	public void test_checked_exceptions_wrapped() {
+		FlushMethod method = new AnnotatedDaoRuntimeInfo(ThrowingDao.class).getFlushMethod();
+
+		Exception checkedException = new Exception();
+		try {
+			method.invoke(new ThrowingDao(checkedException));
+			fail("Expected RuntimeException");
+		} catch (RuntimeException e) {
+			assertSame(checkedException, e.getCause());
+		}
+	}
+
 	@Test(expectedExceptions = IllegalAnnotationUsageException.class)
 	public void test_exception_on_same_named_insert_method() {
 		new AnnotatedDaoRuntimeInfo(IncorrectInsertDao.class);
@@ -236,6 +269,21 @@ public class AnnotatedDaoRuntimeInfoTest extends BaseTestCase{
 	}
 
 
+	@Dao
+	public static class ThrowingDao {
+
+		private final Throwable throwable;
+
+		public ThrowingDao(Throwable throwable) {
+			this.throwable = throwable;
+		}
+
+		@Flush
+		public void flush() throws Throwable {
+			throw throwable;
+		}
+	}
+
 	@Dao
 	private class IncorrectInsertDao {
 
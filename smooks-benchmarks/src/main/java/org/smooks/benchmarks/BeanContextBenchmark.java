@@ -0,0 +1,136 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Benchmarks
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.smooks.Smooks;
+import org.smooks.javabean.context.BeanContext;
+import org.smooks.javabean.context.BeanIdStore;
+import org.smooks.javabean.repository.BeanId;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link org.smooks.javabean.context.StandaloneBeanContext} benchmark.  Adds a set of beans to the bean context,
+ * looks them all up again and then clears the context, by {@link BeanId} and by bean ID name.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeanContextBenchmark {
+
+    @Param({"4", "64"})
+    public int beans;
+
+    private Smooks smooks;
+    private BeanContext beanContext;
+    private BeanId[] beanIds;
+    private String[] beanIdNames;
+    private Object[] beanValues;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        smooks = new Smooks();
+
+        BeanIdStore beanIdStore = smooks.getApplicationContext().getBeanIdStore();
+
+        beanIds = new BeanId[beans];
+        beanIdNames = new String[beans];
+        beanValues = new Object[beans];
+        for (int i = 0; i < beans; i++) {
+            beanIdNames[i] = "bean" + i;
+            beanIds[i] = beanIdStore.register(beanIdNames[i]);
+            beanValues[i] = new Object();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void createBeanContext() {
+        beanContext = smooks.createExecutionContext().getBeanContext();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        smooks.close();
+    }
+
+    @Benchmark
+    public void addGetByBeanId(Blackhole blackhole) {
+        for (int i = 0; i < beans; i++) {
+            beanContext.addBean(beanIds[i], beanValues[i]);
+        }
+        for (int i = 0; i < beans; i++) {
+            blackhole.consume(beanContext.getBean(beanIds[i]));
+        }
+        beanContext.clear();
+    }
+
+    @Benchmark
+    public void addGetByName(Blackhole blackhole) {
+        for (int i = 0; i < beans; i++) {
+            beanContext.addBean(beanIdNames[i], beanValues[i]);
+        }
+        for (int i = 0; i < beans; i++) {
+            blackhole.consume(beanContext.getBean(beanIdNames[i]));
+        }
+        beanContext.clear();
+    }
+}
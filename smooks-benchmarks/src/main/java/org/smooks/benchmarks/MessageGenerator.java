@@ -0,0 +1,142 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Benchmarks
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.benchmarks;
+
+/**
+ * Synthetic message generator.
+ * <p/>
+ * Generates messages of the form:
+ * <pre>
+ * &lt;order&gt;
+ *     &lt;record id="1" type="A"&gt;
+ *         &lt;level1&gt;&lt;level2&gt; ... &lt;level<i>depth</i>&gt;value-1&lt;/level<i>depth</i>&gt; ... &lt;/level2&gt;&lt;/level1&gt;
+ *     &lt;/record&gt;
+ *     ...
+ * &lt;/order&gt;
+ * </pre>
+ * The number of &lt;record&gt; elements is the message "size".
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public final class MessageGenerator {
+
+    public static final String ROOT = "order";
+    public static final String RECORD = "record";
+    public static final String LEVEL = "level";
+
+    private MessageGenerator() {
+    }
+
+    /**
+     * Generate a message.
+     * @param records The number of &lt;record&gt; elements in the message.
+     * @param depth The depth of the "level" element nesting inside each &lt;record&gt; element.
+     * @return The message.
+     */
+    public static String generate(int records, int depth) {
+        StringBuilder message = new StringBuilder(records * (depth * 24 + 64) + 32);
+
+        message.append('<').append(ROOT).append(">\n");
+        for (int i = 1; i <= records; i++) {
+            message.append("    <").append(RECORD).append(" id=\"").append(i).append("\" type=\"").append((char) ('A' + i % 4)).append("\">");
+            for (int level = 1; level <= depth; level++) {
+                message.append('<').append(LEVEL).append(level).append('>');
+            }
+            message.append("value-").append(i);
+            for (int level = depth; level >= 1; level--) {
+                message.append("</").append(LEVEL).append(level).append('>');
+            }
+            message.append("</").append(RECORD).append(">\n");
+        }
+        message.append("</").append(ROOT).append('>');
+
+        return message.toString();
+    }
+
+    /**
+     * Generate a contextual selector targeting the deepest "level" element of every &lt;record&gt;.
+     * @param depth The message "level" depth.
+     * @return The selector e.g. "order/record/level1/level2" for a depth of 2.
+     */
+    public static String contextualSelector(int depth) {
+        StringBuilder selector = new StringBuilder(ROOT).append('/').append(RECORD);
+
+        for (int level = 1; level <= depth; level++) {
+            selector.append('/').append(LEVEL).append(level);
+        }
+
+        return selector.toString();
+    }
+
+    /**
+     * Generate an indexed selector targeting the first "level" element of the supplied &lt;record&gt;.
+     * @param recordIndex The &lt;record&gt; index (1 based).
+     * @return The selector e.g. "order/record[2]/level1".
+     */
+    public static String indexedSelector(int recordIndex) {
+        return ROOT + '/' + RECORD + '[' + recordIndex + "]/" + LEVEL + 1;
+    }
+
+    /**
+     * Generate a Smooks configuration containing the specified number of &lt;resource-config&gt; elements.
+     * @param resources The number of &lt;resource-config&gt; elements.
+     * @return The configuration.
+     */
+    public static String generateConfig(int resources) {
+        StringBuilder config = new StringBuilder(resources * 256 + 256);
+
+        config.append("<smooks-resource-list xmlns=\"https://www.smooks.org/xsd/smooks-1.2.xsd\">\n");
+        config.append("    <resource-config selector=\"global-parameters\">\n");
+        config.append("        <param name=\"stream.filter.type\">SAX</param>\n");
+        config.append("    </resource-config>\n");
+        for (int i = 1; i <= resources; i++) {
+            config.append("    <resource-config selector=\"").append(ROOT).append('/').append(RECORD).append('/').append(LEVEL).append(i).append("\">\n");
+            config.append("        <resource>").append(NoOpVisitor.class.getName()).append("</resource>\n");
+            config.append("        <param name=\"index\">").append(i).append("</param>\n");
+            config.append("    </resource-config>\n");
+        }
+        config.append("</smooks-resource-list>");
+
+        return config.toString();
+    }
+}
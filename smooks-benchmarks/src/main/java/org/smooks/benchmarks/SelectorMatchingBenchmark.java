@@ -0,0 +1,125 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Benchmarks
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.smooks.FilterSettings;
+import org.smooks.Smooks;
+import org.smooks.payload.ByteSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SAX visitor selector matching benchmark.  Filters the same message through a set of visitors targeted
+ * using simple (element name only), contextual (e.g. "order/record/level1/level2") or indexed
+ * (e.g. "order/record[2]/level1") selectors.  Default serialization is off, so the selector
+ * matching and visitor dispatch dominate.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SelectorMatchingBenchmark {
+
+    @Param({"simple", "contextual", "indexed"})
+    public String selectorType;
+
+    @Param({"1", "32"})
+    public int visitors;
+
+    @Param({"100"})
+    public int records;
+
+    @Param({"4", "16"})
+    public int depth;
+
+    private Smooks smooks;
+    private byte[] message;
+
+    @Setup
+    public void setUp() {
+        smooks = new Smooks();
+        smooks.setFilterSettings(FilterSettings.newSAXSettings().setDefaultSerializationOn(false));
+        for (int i = 1; i <= visitors; i++) {
+            smooks.addVisitor(new NoOpVisitor(), selector(i));
+        }
+        message = MessageGenerator.generate(records, depth).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String selector(int visitorIndex) {
+        if (selectorType.equals("simple")) {
+            return MessageGenerator.LEVEL + depth;
+        } else if (selectorType.equals("contextual")) {
+            return MessageGenerator.contextualSelector(depth);
+        } else if (selectorType.equals("indexed")) {
+            return MessageGenerator.indexedSelector(visitorIndex);
+        }
+        throw new IllegalArgumentException("Unknown selector type '" + selectorType + "'.");
+    }
+
+    @TearDown
+    public void tearDown() {
+        smooks.close();
+    }
+
+    @Benchmark
+    public void filterSource() {
+        smooks.filterSource(new ByteSource(message));
+    }
+}
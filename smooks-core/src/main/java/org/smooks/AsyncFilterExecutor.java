@@ -0,0 +1,348 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks;
+
+import org.smooks.container.ExecutionContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.transform.Result;
+import javax.xml.transform.Source;
+import java.lang.reflect.Method;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Asynchronous filter executor for a {@link Smooks} instance.
+ * <p/>
+ * Runs filter operations on an {@link ExecutorService}, bounding the number of in-flight operations.  The
+ * default executor creates a virtual thread per task on JDKs that support virtual threads (JDK 21+), and
+ * otherwise uses a fixed pool of daemon threads, one per available processor.
+ * <p/>
+ * The thread context classloader is set once per carrier task, not once per filter operation.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+final class AsyncFilterExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncFilterExecutor.class);
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    private final Smooks smooks;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final int maxInFlight;
+    private final Semaphore permits;
+    private final AsyncFilterMetrics metrics;
+
+    /**
+     * Constructor.
+     * @param smooks The Smooks instance.
+     * @param executor The executor, or null to use the default executor.
+     * @param maxInFlight The maximum number of in-flight filter operations, or zero for the default.
+     * @param metrics The metrics to be updated by this executor.
+     */
+    AsyncFilterExecutor(Smooks smooks, ExecutorService executor, int maxInFlight, AsyncFilterMetrics metrics) {
+        this.smooks = smooks;
+        this.metrics = metrics;
+        if(executor != null) {
+            this.executor = executor;
+            ownsExecutor = false;
+        } else {
+            this.executor = newDefaultExecutor();
+            ownsExecutor = true;
+        }
+        if(maxInFlight <= 0) {
+            maxInFlight = Runtime.getRuntime().availableProcessors() * 4;
+        }
+        this.maxInFlight = maxInFlight;
+        permits = new Semaphore(maxInFlight);
+    }
+
+    private static ExecutorService newDefaultExecutor() {
+        try {
+            Method factoryMethod = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factoryMethod.invoke(null);
+        } catch (NoSuchMethodException e) {
+            // Virtual threads not supported on this JDK...
+        } catch (Exception e) {
+            LOGGER.debug("Failed to create virtual thread executor.  Using a platform thread pool.", e);
+        }
+
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "smooks-filter-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Submit a filter operation.
+     * <p/>
+     * Blocks the caller while the maximum number of filter operations are in-flight.
+     *
+     * @param executionContext The execution context.
+     * @param source The source.
+     * @param results The results.
+     * @return The filter operation future, completed with the execution context.
+     */
+    CompletableFuture<ExecutionContext> submit(final ExecutionContext executionContext, final Source source, final Result[] results) {
+        final CompletableFuture<ExecutionContext> future = new CompletableFuture<ExecutionContext>();
+
+        acquirePermit();
+        final long submitTime = System.nanoTime();
+        metrics.recordSubmitted();
+        try {
+            executor.execute(new Runnable() {
+                public void run() {
+                    Throwable failure = null;
+
+                    metrics.recordStarted();
+                    ClassLoader contextClassLoader = setContextClassLoader();
+                    try {
+                        smooks.filterOnCurrentThread(executionContext, source, results);
+                    } catch (Throwable t) {
+                        failure = t;
+                    } finally {
+                        restoreContextClassLoader(contextClassLoader);
+                        metrics.recordFinished(submitTime, failure != null);
+                        permits.release();
+                    }
+
+                    if(failure != null) {
+                        future.completeExceptionally(failure);
+                    } else {
+                        future.complete(executionContext);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            metrics.recordStarted();
+            metrics.recordFinished(submitTime, true);
+            permits.release();
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    /**
+     * Submit a batch of filter operations.
+     * <p/>
+     * The sources are pulled from the stream by up to "max in-flight" carrier tasks, each of which filters
+     * sources until the stream is exhausted, so the stream is only consumed as fast as it can be filtered.
+     * The stream is closed once the batch completes.  The batch stops pulling sources after the first failure.
+     * <p/>
+     * Each carrier holds an in-flight permit until it finishes.  The caller blocks until the first carrier's
+     * permit is acquired, and the batch then starts as many further carriers as there are free permits.
+     *
+     * @param sources The sources.
+     * @param resultFactory The result factory, called for each source.  May be null.
+     * @return The batch future, completed with the number of filtered sources.
+     */
+    CompletableFuture<Long> submitBatch(Stream<? extends Source> sources, Function<? super Source, Result[]> resultFactory) {
+        Batch batch = new Batch(sources, resultFactory);
+
+        // The submitting thread holds a carrier "slot" until all carriers are submitted, so the batch
+        // can't complete before then...
+        batch.activeCarriers.incrementAndGet();
+        try {
+            acquirePermit();
+            for(int i = 0; i < maxInFlight; i++) {
+                if(i > 0 && !permits.tryAcquire()) {
+                    break;
+                }
+                batch.activeCarriers.incrementAndGet();
+                try {
+                    executor.execute(batch);
+                } catch (RejectedExecutionException e) {
+                    permits.release();
+                    batch.fail(e);
+                    batch.carrierDone();
+                    break;
+                }
+            }
+        } finally {
+            batch.carrierDone();
+        }
+
+        return batch.future;
+    }
+
+    void shutdown() {
+        if(ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    private void acquirePermit() {
+        if(permits.tryAcquire()) {
+            return;
+        }
+
+        metrics.recordWaiting();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SmooksException("Interrupted while waiting to submit filter operation.", e);
+        } finally {
+            metrics.recordWaitingDone();
+        }
+    }
+
+    private ClassLoader setContextClassLoader() {
+        ClassLoader classLoader = smooks.getContextClassLoader();
+
+        if(classLoader == null) {
+            return null;
+        }
+
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(classLoader);
+
+        return contextClassLoader;
+    }
+
+    private void restoreContextClassLoader(ClassLoader contextClassLoader) {
+        if(contextClassLoader != null) {
+            Thread.currentThread().setContextClassLoader(contextClassLoader);
+        }
+    }
+
+    /**
+     * Batch carrier task.  The same instance is run by each carrier.
+     */
+    private class Batch implements Runnable {
+
+        private final Stream<? extends Source> sources;
+        private final Iterator<? extends Source> sourceIterator;
+        private final Function<? super Source, Result[]> resultFactory;
+        private final CompletableFuture<Long> future = new CompletableFuture<Long>();
+        private final AtomicInteger activeCarriers = new AtomicInteger();
+        private final AtomicLong filteredCount = new AtomicLong();
+        private volatile Throwable failure;
+
+        private Batch(Stream<? extends Source> sources, Function<? super Source, Result[]> resultFactory) {
+            this.sources = sources;
+            this.sourceIterator = sources.iterator();
+            this.resultFactory = resultFactory;
+        }
+
+        public void run() {
+            ClassLoader contextClassLoader = setContextClassLoader();
+            try {
+                Source source;
+
+                while((source = nextSource()) != null) {
+                    long submitTime = System.nanoTime();
+                    boolean failed = true;
+
+                    metrics.recordSubmitted();
+                    metrics.recordStarted();
+                    try {
+                        Result[] results = (resultFactory != null ? resultFactory.apply(source) : null);
+                        smooks.filterOnCurrentThread(smooks.createExecutionContext(), source, results);
+                        filteredCount.incrementAndGet();
+                        failed = false;
+                    } catch (Throwable t) {
+                        fail(t);
+                    } finally {
+                        metrics.recordFinished(submitTime, failed);
+                    }
+                }
+            } catch (Throwable t) {
+                fail(t);
+            } finally {
+                restoreContextClassLoader(contextClassLoader);
+                permits.release();
+                carrierDone();
+            }
+        }
+
+        private Source nextSource() {
+            synchronized (sourceIterator) {
+                if(failure != null || !sourceIterator.hasNext()) {
+                    return null;
+                }
+                return sourceIterator.next();
+            }
+        }
+
+        private void fail(Throwable t) {
+            synchronized (sourceIterator) {
+                if(failure == null) {
+                    failure = t;
+                }
+            }
+        }
+
+        private void carrierDone() {
+            if(activeCarriers.decrementAndGet() > 0) {
+                return;
+            }
+
+            try {
+                sources.close();
+            } catch (Throwable t) {
+                fail(t);
+            }
+            if(failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(filteredCount.get());
+            }
+        }
+    }
+}
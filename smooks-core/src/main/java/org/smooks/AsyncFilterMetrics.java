@@ -0,0 +1,202 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Asynchronous filtering metrics for a {@link Smooks} instance.
+ * <p/>
+ * Covers the filter operations submitted through {@link Smooks#filterAsync(javax.xml.transform.Source, javax.xml.transform.Result...)}
+ * and {@link Smooks#filterBatch(java.util.stream.Stream)}.  Latency is measured from the time a filter
+ * operation is submitted (or pulled from a batch) to the time it completes, so it includes any time
+ * spent queued on the executor.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class AsyncFilterMetrics {
+
+    private static final LongBinaryOperator MAX = new LongBinaryOperator() {
+        public long applyAsLong(long left, long right) {
+            return Math.max(left, right);
+        }
+    };
+
+    private final LongAdder submittedCount = new LongAdder();
+    private final LongAdder completedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final LongAccumulator maxLatencyNanos = new LongAccumulator(MAX, 0);
+    private final AtomicInteger inFlightCount = new AtomicInteger();
+    private final AtomicInteger runningCount = new AtomicInteger();
+    private final AtomicInteger waitingCount = new AtomicInteger();
+    private final LongAccumulator peakInFlightCount = new LongAccumulator(MAX, 0);
+
+    /**
+     * Get the number of filter operations submitted.
+     * @return The submitted count.
+     */
+    public long getSubmittedCount() {
+        return submittedCount.sum();
+    }
+
+    /**
+     * Get the number of filter operations that completed successfully.
+     * @return The completed count.
+     */
+    public long getCompletedCount() {
+        return completedCount.sum();
+    }
+
+    /**
+     * Get the number of filter operations that failed.
+     * @return The failed count.
+     */
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    /**
+     * Get the number of filter operations currently in-flight (queued or running).
+     * @return The in-flight count.
+     */
+    public int getInFlightCount() {
+        return inFlightCount.get();
+    }
+
+    /**
+     * Get the number of in-flight filter operations that are queued on the executor, waiting to run.
+     * @return The queue depth.
+     */
+    public int getQueueDepth() {
+        return Math.max(0, inFlightCount.get() - runningCount.get());
+    }
+
+    /**
+     * Get the number of callers currently blocked on submission because the maximum number of in-flight
+     * filter operations has been reached.
+     * @return The waiting count.
+     */
+    public int getWaitingCount() {
+        return waitingCount.get();
+    }
+
+    /**
+     * Get the highest number of filter operations in-flight at the same time.
+     * @return The peak in-flight count.
+     */
+    public long getPeakInFlightCount() {
+        return peakInFlightCount.get();
+    }
+
+    /**
+     * Get the total latency of all finished (completed or failed) filter operations.
+     * @param unit The time unit.
+     * @return The total latency.
+     */
+    public long getTotalLatency(TimeUnit unit) {
+        return unit.convert(latencyNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the mean latency of the finished (completed or failed) filter operations.
+     * @param unit The time unit.
+     * @return The mean latency, or zero if no filter operations have finished.
+     */
+    public long getMeanLatency(TimeUnit unit) {
+        long finishedCount = completedCount.sum() + failedCount.sum();
+
+        if(finishedCount == 0) {
+            return 0;
+        }
+        return unit.convert(latencyNanos.sum() / finishedCount, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the highest latency of the finished (completed or failed) filter operations.
+     * @param unit The time unit.
+     * @return The max latency.
+     */
+    public long getMaxLatency(TimeUnit unit) {
+        return unit.convert(maxLatencyNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    void recordWaiting() {
+        waitingCount.incrementAndGet();
+    }
+
+    void recordWaitingDone() {
+        waitingCount.decrementAndGet();
+    }
+
+    void recordSubmitted() {
+        submittedCount.increment();
+        peakInFlightCount.accumulate(inFlightCount.incrementAndGet());
+    }
+
+    void recordStarted() {
+        runningCount.incrementAndGet();
+    }
+
+    void recordFinished(long submitTimeNanos, boolean failed) {
+        long latency = System.nanoTime() - submitTimeNanos;
+
+        latencyNanos.add(latency);
+        maxLatencyNanos.accumulate(latency);
+        if(failed) {
+            failedCount.increment();
+        } else {
+            completedCount.increment();
+        }
+        runningCount.decrementAndGet();
+        inFlightCount.decrementAndGet();
+    }
+
+    public String toString() {
+        return "submitted=" + getSubmittedCount() + ", completed=" + getCompletedCount() + ", failed=" + getFailedCount() + ", inFlight=" + getInFlightCount() + ", queueDepth=" + getQueueDepth() + ", meanLatency=" + getMeanLatency(TimeUnit.MICROSECONDS) + "us";
+    }
+}
@@ -63,6 +63,15 @@ public class FilterSettings {
     private boolean closeSource = true;
     private boolean closeResult = true;
     private int readerPoolSize = 0;
+    private String recordSelector;
+    private int recordWorkers = 0;
+    private int recordMaxInFlight = 0;
+    private boolean domWindows = false;
+    private boolean recycleDomWindowDocuments = false;
+    private OutputFlushPolicy outputFlushPolicy;
+    private String outputFlushSelector;
+    private int outputBufferSize = 0;
+    private String inputValidationXSD;
 
     public FilterSettings() {
     }
@@ -128,6 +137,135 @@ public class FilterSettings {
         return this;
     }
 
+    /**
+     * Set the record selector for parallel record processing (SAX filter only).
+     * <p/>
+     * Each element matching the selector is treated as an independent record.  Its events are
+     * buffered on the reader thread and filtered on a pool of worker threads, while the output is
+     * written to the {@link javax.xml.transform.stream.StreamResult} in document order.  The selector
+     * is an element name, optionally qualified by its parent element names e.g. "orders/order".
+     *
+     * @param recordSelector The record selector, or null to turn off parallel record processing.
+     * @return This {@link FilterSettings} instance.
+     */
+    public FilterSettings setRecordSelector(String recordSelector) {
+    	assertNonStaticDecl();
+        this.recordSelector = recordSelector;
+        return this;
+    }
+
+    /**
+     * Set the number of worker threads used for parallel record processing.
+     * @param recordWorkers The number of worker threads.  Defaults to the number of available processors.
+     * @return This {@link FilterSettings} instance.
+     */
+    public FilterSettings setRecordWorkers(int recordWorkers) {
+    	assertNonStaticDecl();
+        this.recordWorkers = recordWorkers;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of records buffered or being filtered at any one time during parallel
+     * record processing.  The reader thread blocks once this limit is reached.
+     * @param recordMaxInFlight The maximum number of in-flight records.  Defaults to 4 per worker.
+     * @return This {@link FilterSettings} instance.
+     */
+    public FilterSettings setRecordMaxInFlight(int recordMaxInFlight) {
+    	assertNonStaticDecl();
+        this.recordMaxInFlight = recordMaxInFlight;
+        return this;
+    }
+
+    /**
+     * Turn on DOM window mode (SAX filter only).
+     * <p/>
+     * Visitors that only support DOM filtering are applied to DOM fragments built for the elements they
+     * target, with the rest of the stream being SAX filtered.  Peak memory is bounded by the largest
+     * fragment, rather than by the document.  Turning this on selects the {@link StreamFilterType#SAX SAX} filter.
+     *
+     * @param domWindows True to turn on DOM window mode, otherwise false.
+     * @return This {@link FilterSettings} instance.
+     */
+    public FilterSettings setDomWindows(boolean domWindows) {
+    	assertNonStaticDecl();
+        this.domWindows = domWindows;
+        if(domWindows) {
+            filterType = StreamFilterType.SAX;
+        }
+        return this;
+    }
+
+    /**
+     * Recycle the {@link org.w3c.dom.Document} of each DOM window (see {@link #setDomWindows(boolean)}).
+     * <p/>
+     * Off by default.  Only turn this on if none of the window visitors keep references to the window's nodes
+     * after the window is serialized, because a recycled Document is reused by other executions.
+     *
+     * @param recycleDomWindowDocuments True to recycle the DOM window Documents, otherwise false.
+     * @return This {@link FilterSettings} instance.
+     */
+    public FilterSettings setRecycleDomWindowDocuments(boolean recycleDomWindowDocuments) {
+    	assertNonStaticDecl();
+        this.recycleDomWindowDocuments = recycleDomWindowDocuments;
+        return this;
+    }
+
+    /**
+     * Set the output flush policy.
+     * <p/>
+     * Defaults to {@link OutputFlushPolicy#END}.
+     *
+     * @param outputFlushPolicy The output flush policy.
+     * @return This {@link FilterSettings} instance.
+     */
+    public FilterSettings setOutputFlushPolicy(OutputFlushPolicy outputFlushPolicy) {
+    	assertNonStaticDecl();
+        this.outputFlushPolicy = outputFlushPolicy;
+        return this;
+    }
+
+    /**
+     * Set the output flush selector, used by the {@link OutputFlushPolicy#FRAGMENT} flush policy.
+     * <p/>
+     * Setting the selector selects the {@link OutputFlushPolicy#FRAGMENT} flush policy.
+     *
+     * @param outputFlushSelector The selector of the elements after which the output is flushed e.g. "order-item".
+     * @return This {@link FilterSettings} instance.
+     */
+    public FilterSettings setOutputFlushSelector(String outputFlushSelector) {
+    	assertNonStaticDecl();
+        this.outputFlushSelector = outputFlushSelector;
+        if(outputFlushSelector != null) {
+            outputFlushPolicy = OutputFlushPolicy.FRAGMENT;
+        }
+        return this;
+    }
+
+    /**
+     * Set the size of the buffer used when writing to a {@link javax.xml.transform.stream.StreamResult}
+     * {@link java.io.OutputStream}.
+     * <p/>
+     * This is also the number of bytes between flushes when using the {@link OutputFlushPolicy#BYTES} flush policy.
+     *
+     * @param outputBufferSize The output buffer size in bytes.  Defaults to 64K.
+     * @return This {@link FilterSettings} instance.
+     */
+    public FilterSettings setOutputBufferSize(int outputBufferSize) {
+    	assertNonStaticDecl();
+        this.outputBufferSize = outputBufferSize;
+        return this;
+    }
+
+    public FilterSettings setInputValidationXSD(String inputValidationXSD) {
+    	assertNonStaticDecl();
+        this.inputValidationXSD = inputValidationXSD;
+        if(inputValidationXSD != null) {
+            filterType = StreamFilterType.SAX;
+        }
+        return this;
+    }
+
     protected void applySettings(Smooks smooks) {
     	// Remove the old params...
         ParameterAccessor.removeParameter(Filter.STREAM_FILTER_TYPE, smooks);        
@@ -138,6 +276,15 @@ public class FilterSettings {
         ParameterAccessor.removeParameter(Filter.CLOSE_SOURCE, smooks);
         ParameterAccessor.removeParameter(Filter.CLOSE_RESULT, smooks);
         ParameterAccessor.removeParameter(Filter.READER_POOL_SIZE, smooks);
+        ParameterAccessor.removeParameter(Filter.RECORD_SELECTOR, smooks);
+        ParameterAccessor.removeParameter(Filter.RECORD_WORKERS, smooks);
+        ParameterAccessor.removeParameter(Filter.RECORD_MAX_IN_FLIGHT, smooks);
+        ParameterAccessor.removeParameter(Filter.DOM_WINDOWS, smooks);
+        ParameterAccessor.removeParameter(Filter.DOM_WINDOWS_RECYCLE_DOCUMENTS, smooks);
+        ParameterAccessor.removeParameter(Filter.OUTPUT_FLUSH_POLICY, smooks);
+        ParameterAccessor.removeParameter(Filter.OUTPUT_FLUSH_SELECTOR, smooks);
+        ParameterAccessor.removeParameter(Filter.OUTPUT_BUFFER_SIZE, smooks);
+        ParameterAccessor.removeParameter(Filter.INPUT_VALIDATION_XSD, smooks);
     	
     	// Set the params...
         ParameterAccessor.setParameter(Filter.STREAM_FILTER_TYPE, filterType.toString(), smooks);        
@@ -148,6 +295,29 @@ public class FilterSettings {
         ParameterAccessor.setParameter(Filter.CLOSE_SOURCE, Boolean.toString(closeSource), smooks);
         ParameterAccessor.setParameter(Filter.CLOSE_RESULT, Boolean.toString(closeResult), smooks);
         ParameterAccessor.setParameter(Filter.READER_POOL_SIZE, Integer.toString(readerPoolSize), smooks);
+        if(recordSelector != null) {
+            ParameterAccessor.setParameter(Filter.RECORD_SELECTOR, recordSelector, smooks);
+            ParameterAccessor.setParameter(Filter.RECORD_WORKERS, Integer.toString(recordWorkers), smooks);
+            ParameterAccessor.setParameter(Filter.RECORD_MAX_IN_FLIGHT, Integer.toString(recordMaxInFlight), smooks);
+        }
+        if(domWindows) {
+            ParameterAccessor.setParameter(Filter.DOM_WINDOWS, Boolean.toString(domWindows), smooks);
+        }
+        if(recycleDomWindowDocuments) {
+            ParameterAccessor.setParameter(Filter.DOM_WINDOWS_RECYCLE_DOCUMENTS, Boolean.toString(recycleDomWindowDocuments), smooks);
+        }
+        if(outputFlushPolicy != null) {
+            ParameterAccessor.setParameter(Filter.OUTPUT_FLUSH_POLICY, outputFlushPolicy.toString(), smooks);
+        }
+        if(outputFlushSelector != null) {
+            ParameterAccessor.setParameter(Filter.OUTPUT_FLUSH_SELECTOR, outputFlushSelector, smooks);
+        }
+        if(outputBufferSize > 0) {
+            ParameterAccessor.setParameter(Filter.OUTPUT_BUFFER_SIZE, Integer.toString(outputBufferSize), smooks);
+        }
+        if(inputValidationXSD != null) {
+            ParameterAccessor.setParameter(Filter.INPUT_VALIDATION_XSD, inputValidationXSD, smooks);
+        }
     }
 
 	private void assertNonStaticDecl() {
@@ -0,0 +1,80 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks;
+
+/**
+ * Filter output flush policy.
+ * <p/>
+ * Defines when the filter flushes the {@link javax.xml.transform.stream.StreamResult} output while
+ * filtering.  Flushing a socket or file output on every element is expensive, so the default
+ * policy is {@link #END}.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ * @see FilterSettings#setOutputFlushPolicy(OutputFlushPolicy)
+ */
+public enum OutputFlushPolicy {
+    /**
+     * Flush the output after every element that has visitors or is default serialized (SAX filter only).
+     */
+    ELEMENT,
+    /**
+     * Flush the output each time the output buffer fills i.e. every
+     * {@link FilterSettings#setOutputBufferSize(int) output buffer size} bytes.  Only applies to
+     * {@link java.io.OutputStream} results.  {@link java.io.Writer} results are flushed at the end of the filter.
+     */
+    BYTES,
+    /**
+     * Flush the output after every element matching the
+     * {@link FilterSettings#setOutputFlushSelector(String) output flush selector} (SAX filter only).
+     */
+    FRAGMENT,
+    /**
+     * Flush the output once, at the end of the filter.
+     */
+    END,
+    /**
+     * Never flush the output.  Buffered output is written to the {@link java.io.OutputStream}
+     * result at the end of the filter, but flushing (or closing) the result is left to the caller.
+     */
+    NEVER;
+}
@@ -49,8 +49,8 @@ import org.smooks.cdr.SmooksResourceConfiguration;
 import org.smooks.classpath.CascadingClassLoaderSet;
 import org.smooks.container.ApplicationContext;
 import org.smooks.container.ExecutionContext;
+import org.smooks.container.standalone.ExecutionContextTemplate;
 import org.smooks.container.standalone.StandaloneApplicationContext;
-import org.smooks.container.standalone.StandaloneExecutionContext;
 import org.smooks.delivery.*;
 import org.smooks.event.ExecutionEventListener;
 import org.smooks.event.types.FilterLifecycleEvent;
@@ -76,12 +76,19 @@ import javax.xml.transform.Result;
 import javax.xml.transform.Source;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * Smooks executor class.
@@ -131,6 +138,21 @@ public class Smooks {
      * after the first execution context has been created.
      */
     private volatile boolean isConfigurable = true;
+    /**
+     * {@link ExecutionContext} templates, keyed by target profile.  A template is created the first time an
+     * execution context is created for a target profile, after which creating an execution context for that
+     * profile doesn't involve any profile or delivery config lookups.
+     */
+    private final ConcurrentMap<String, ExecutionContextTemplate> executionContextTemplates = new ConcurrentHashMap<String, ExecutionContextTemplate>();
+    /**
+     * Asynchronous filter executor settings and the executor itself, which is created on the first
+     * asynchronous filter operation.  The metrics outlive the executor so they can be read (and registered)
+     * before any asynchronous filter operation is submitted.
+     */
+    private ExecutorService asyncFilterExecutorService;
+    private int maxInFlightFilters;
+    private volatile AsyncFilterExecutor asyncFilterExecutor;
+    private final AsyncFilterMetrics asyncFilterMetrics = new AsyncFilterMetrics();
 
     /**
      * Public Default Constructor.
@@ -222,6 +244,39 @@ public class Smooks {
         filterSettings.applySettings(this);
     }
     
+    /**
+     * Set the {@link ExecutorService} on which {@link #filterAsync(Source, Result...) asynchronous} and
+     * {@link #filterBatch(Stream) batch} filter operations are run.
+     * <p/>
+     * By default, a virtual thread is created per filter operation on JDKs that support virtual threads
+     * (JDK 21+).  Otherwise a fixed pool of daemon threads is used, one per available processor.  An executor
+     * supplied through this method is not shut down when the Smooks instance is {@link #close() closed}.
+     *
+     * @param executor The executor.
+     * @throws UnsupportedOperationException An asynchronous filter operation has already been submitted.
+     */
+    public void setAsyncFilterExecutor(ExecutorService executor) {
+        AssertArgument.isNotNull(executor, "executor");
+        assertAsyncFilterConfigurable();
+        asyncFilterExecutorService = executor;
+    }
+
+    /**
+     * Set the maximum number of {@link #filterAsync(Source, Result...) asynchronous} filter operations that
+     * can be in-flight (queued or running) at any one time.
+     * <p/>
+     * Callers submitting filter operations block while this limit is reached.  The limit is shared with
+     * {@link #filterBatch(Stream) batches}, each of which holds one in-flight slot per carrier task, so a batch
+     * is filtered by up to this many carrier tasks.  Defaults to four per available processor.
+     *
+     * @param maxInFlightFilters The maximum number of in-flight filter operations.
+     * @throws UnsupportedOperationException An asynchronous filter operation has already been submitted.
+     */
+    public void setMaxInFlightFilters(int maxInFlightFilters) {
+        assertAsyncFilterConfigurable();
+        this.maxInFlightFilters = maxInFlightFilters;
+    }
+
     /**
      * Set the Exports for this Smooks instance.
      * @param exports The exports that will be created by this Smooks instance.
@@ -341,6 +396,41 @@ public class Smooks {
         }
     }
 
+    /**
+     * Add a set of resource configurations to this Smooks instance, restoring them from a
+     * precompiled snapshot where possible.
+     * <p/>
+     * Behaves as {@link #addConfigurations(String)}, except that the digested configuration is
+     * cached as a {@link org.smooks.cdr.ConfigSnapshot} in the supplied directory.  Subsequent calls
+     * for an unchanged configuration (and unchanged imports) restore the snapshot instead of parsing,
+     * validating and digesting the XML.  The snapshot directory can be populated at build time by
+     * simply loading the configurations once.
+     *
+     * @param resourceURI The URI string for the resource configuration list. See
+     *                    {@link org.smooks.resource.URIResourceLocator}.
+     * @param snapshotDir The directory in which configuration snapshots are stored.
+     * @throws IOException  Error reading resource stream.
+     * @throws SAXException Error parsing the resource stream.
+     */
+    public void addConfigurations(String resourceURI, File snapshotDir) throws IOException, SAXException {
+        AssertArgument.isNotNullAndNotEmpty(resourceURI, "resourceURI");
+        AssertArgument.isNotNull(snapshotDir, "snapshotDir");
+        assertIsConfigurable();
+
+        InputStream resourceConfigStream;
+        URIResourceLocator resourceLocator = new URIResourceLocator();
+
+        resourceConfigStream = resourceLocator.getResource(resourceURI);
+        try {
+            URI resourceURIObj = new URI(resourceURI);
+            context.getStore().registerResources(URIUtil.getParent(resourceURIObj).toString(), resourceConfigStream, snapshotDir);
+        } catch (URISyntaxException e) {
+            LOGGER.error("Failed to load Smooks resource configuration '" + resourceURI + "'.", e);
+        } finally {
+            resourceConfigStream.close();
+        }
+    }
+
     /**
      * Add a set of resource configurations to this Smooks instance.
      * <p/>
@@ -419,6 +509,19 @@ public class Smooks {
      * @throws UnknownProfileMemberException Unknown target profile.
      */
     public ExecutionContext createExecutionContext(String targetProfile) throws UnknownProfileMemberException {
+        AssertArgument.isNotNull(targetProfile, "targetProfile");
+
+        ExecutionContextTemplate template = executionContextTemplates.get(targetProfile);
+        if(template == null) {
+            template = createExecutionContextTemplate(targetProfile);
+        }
+
+        return template.newExecutionContext();
+    }
+
+    private ExecutionContextTemplate createExecutionContextTemplate(String targetProfile) throws UnknownProfileMemberException {
+        ExecutionContextTemplate template;
+
         if(classLoader != null) {
             ClassLoader originalTCCL = Thread.currentThread().getContextClassLoader();
             CascadingClassLoaderSet newTCCL = new CascadingClassLoaderSet();
@@ -431,7 +534,7 @@ public class Smooks {
                 if(isConfigurable) {
                     initializeResourceConfigurations();
                 }
-                return new StandaloneExecutionContext(targetProfile, context, visitorConfigMap);
+                template = new ExecutionContextTemplate(targetProfile, context, visitorConfigMap);
             } finally {
                 Thread.currentThread().setContextClassLoader(originalTCCL);
             }
@@ -439,8 +542,14 @@ public class Smooks {
             if(isConfigurable) {
                 initializeResourceConfigurations();
             }
-            return new StandaloneExecutionContext(targetProfile, context, visitorConfigMap);
+            template = new ExecutionContextTemplate(targetProfile, context, visitorConfigMap);
         }
+
+        ExecutionContextTemplate existingTemplate = executionContextTemplates.putIfAbsent(targetProfile, template);
+        if(existingTemplate != null) {
+            return existingTemplate;
+        }
+        return template;
     }
 
     private synchronized void initializeResourceConfigurations() {
@@ -507,6 +616,149 @@ public class Smooks {
         }
     }
 
+    /**
+     * Asynchronously filter the content in the supplied {@link Source} instance, outputing data
+     * to the supplied {@link Result} instances.
+     * <p/>
+     * The filter operation is run on the {@link #setAsyncFilterExecutor(ExecutorService) async filter executor}.
+     * This method blocks while the {@link #setMaxInFlightFilters(int) maximum number of in-flight filter operations}
+     * is reached.
+     *
+     * @param source           The filter Source.
+     * @param results          The filter Results.
+     * @return A future completed with the {@link ExecutionContext} of the filter operation.
+     */
+    public CompletableFuture<ExecutionContext> filterAsync(Source source, Result... results) {
+        return filterAsync(createExecutionContext(), source, results);
+    }
+
+    /**
+     * Asynchronously filter the content in the supplied {@link Source} instance, outputing data
+     * to the supplied {@link Result} instances.
+     * <p/>
+     * The filter operation is run on the {@link #setAsyncFilterExecutor(ExecutorService) async filter executor}.
+     * This method blocks while the {@link #setMaxInFlightFilters(int) maximum number of in-flight filter operations}
+     * is reached.
+     *
+     * @param executionContext The {@link ExecutionContext} for this filter operation. See
+     *                         {@link #createExecutionContext(String)}.
+     * @param source           The filter Source.
+     * @param results          The filter Results.
+     * @return A future completed with the {@link ExecutionContext} of the filter operation.
+     */
+    public CompletableFuture<ExecutionContext> filterAsync(ExecutionContext executionContext, Source source, Result... results) {
+        AssertArgument.isNotNull(source, "source");
+        AssertArgument.isNotNull(executionContext, "executionContext");
+
+        return getAsyncFilterExecutor().submit(executionContext, source, results);
+    }
+
+    /**
+     * Filter a batch of {@link Source} instances, without producing a {@link Result}.
+     * <p/>
+     * See {@link #filterBatch(Stream, Function)}.
+     *
+     * @param sources The filter Sources.
+     * @return A future completed with the number of filtered sources.
+     */
+    public CompletableFuture<Long> filterBatch(Stream<? extends Source> sources) {
+        return filterBatch(sources, null);
+    }
+
+    /**
+     * Filter a batch of {@link Source} instances.
+     * <p/>
+     * The sources are filtered concurrently on the {@link #setAsyncFilterExecutor(ExecutorService) async filter executor}
+     * by up to {@link #setMaxInFlightFilters(int) "max in-flight"} carrier tasks, each using the default target profile.
+     * Each carrier task takes an in-flight slot, so the caller blocks until at least one slot is free.
+     * The stream is only consumed as fast as the sources can be filtered.  The batch stops after the first failed filter
+     * operation, completing the returned future exceptionally.  The stream is closed once the batch is complete.
+     *
+     * @param sources The filter Sources.
+     * @param resultFactory Creates the filter Results for a Source.  May be null.
+     * @return A future completed with the number of filtered sources.
+     */
+    public CompletableFuture<Long> filterBatch(Stream<? extends Source> sources, Function<? super Source, Result[]> resultFactory) {
+        AssertArgument.isNotNull(sources, "sources");
+
+        return getAsyncFilterExecutor().submitBatch(sources, resultFactory);
+    }
+
+    /**
+     * Get the asynchronous filter metrics for this Smooks instance.
+     * <p/>
+     * Does not create the async filter executor, so the async filter configuration can still be
+     * changed after calling this method.
+     *
+     * @return The asynchronous filter metrics.
+     */
+    public AsyncFilterMetrics getAsyncFilterMetrics() {
+        return asyncFilterMetrics;
+    }
+
+    /**
+     * Enable/disable per visitor timing metrics for this Smooks instance.
+     * <p/>
+     * When enabled, the visitBefore, visitAfter and cleanup invocations of each visitor resource
+     * are counted and timed, along with the total time spent in each filter operation.  When disabled
+     * (the default), the filters do not read the clock at all.
+     *
+     * @param enabled True if visitor metrics are to be collected, otherwise false.
+     */
+    public void setVisitorMetricsEnabled(boolean enabled) {
+        if(enabled) {
+            VisitorMetrics.enable(context);
+        } else {
+            VisitorMetrics.disable(context);
+        }
+    }
+
+    /**
+     * Get the visitor timing metrics for this Smooks instance.
+     * <p/>
+     * The returned instance implements {@link VisitorMetricsMXBean} and can be registered
+     * with an MBeanServer.
+     *
+     * @return The visitor metrics, or null if visitor metrics are not enabled.
+     * @see #setVisitorMetricsEnabled(boolean)
+     */
+    public VisitorMetrics getVisitorMetrics() {
+        return VisitorMetrics.getMetrics(context);
+    }
+
+    /**
+     * Filter on the current thread, without setting the thread context classloader.
+     */
+    void filterOnCurrentThread(ExecutionContext executionContext, Source source, Result... results) {
+        _filter(executionContext, source, results);
+    }
+
+    ClassLoader getContextClassLoader() {
+        return classLoader;
+    }
+
+    private AsyncFilterExecutor getAsyncFilterExecutor() {
+        AsyncFilterExecutor executor = asyncFilterExecutor;
+
+        if(executor == null) {
+            synchronized (this) {
+                executor = asyncFilterExecutor;
+                if(executor == null) {
+                    executor = new AsyncFilterExecutor(this, asyncFilterExecutorService, maxInFlightFilters, asyncFilterMetrics);
+                    asyncFilterExecutor = executor;
+                }
+            }
+        }
+
+        return executor;
+    }
+
+    private synchronized void assertAsyncFilterConfigurable() {
+        if(asyncFilterExecutor != null) {
+            throw new UnsupportedOperationException("Unsupported call to Smooks instance async filter configuration method after an asynchronous filter operation has been submitted.");
+        }
+    }
+
     private void _filter(ExecutionContext executionContext, Source source, Result... results) {
         ExecutionEventListener eventListener = executionContext.getEventListener();
 
@@ -545,10 +797,15 @@ public class Smooks {
                         beanContext.addObserver(observer);
                     }
 
+                    VisitorMetrics visitorMetrics = VisitorMetrics.getMetrics(context);
+                    long startNanos = (visitorMetrics != null ? System.nanoTime() : 0L);
                     try {
                         deliveryConfig.executeHandlerInit(executionContext);
                     	messageFilter.doFilter();
                     } finally {
+                        if(visitorMetrics != null) {
+                            visitorMetrics.recordFilter(startNanos);
+                        }
                         try {
                             // We want to make sure that all the beans from the BeanContext are available in the
                             // JavaResult, if one is supplied by the user...
@@ -601,6 +858,11 @@ public class Smooks {
      * of all allocated {@link org.smooks.delivery.ContentHandler} instances.
      */
     public void close() {
+        AsyncFilterExecutor executor = asyncFilterExecutor;
+        if(executor != null) {
+            executor.shutdown();
+        }
+        executionContextTemplates.clear();
         context.getStore().close();
     }
 
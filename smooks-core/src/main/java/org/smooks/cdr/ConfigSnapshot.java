@@ -0,0 +1,490 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.cdr;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.smooks.assertion.AssertArgument;
+import org.smooks.expression.ExpressionEvaluator;
+import org.smooks.io.StreamUtils;
+import org.smooks.profile.DefaultProfileSet;
+import org.smooks.profile.Profile;
+import org.smooks.profile.ProfileSet;
+import org.smooks.resource.URIResourceLocator;
+import org.smooks.xml.XmlUtil;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import javax.xml.XMLConstants;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary snapshot of a digested {@link SmooksResourceConfigurationList}.
+ * <p/>
+ * Digesting an XML configuration involves parsing and XSD validating the configuration
+ * (and all its imports), as well as spinning up a {@link org.smooks.Smooks} instance for each
+ * extended configuration namespace.  A snapshot captures the result of that work so it can be
+ * restored directly on subsequent startups.
+ * <p/>
+ * Snapshots are keyed by a content hash of the configuration and its base URI (see {@link #createKey(String, byte[])}).
+ * The content hash of each imported configuration is also recorded, and the snapshot is treated
+ * as stale if any of the imports change.  Snapshots do not track the classpath, so the snapshot
+ * directory should be cleared when upgrading Smooks or any of its cartridges.
+ * <p/>
+ * Only the configuration list is captured.  The {@link org.smooks.delivery.ContentDeliveryConfig}
+ * holds live visitor instances and is always rebuilt from the restored list.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public final class ConfigSnapshot {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConfigSnapshot.class);
+
+    /**
+     * Snapshot file extension.
+     */
+    public static final String FILE_EXTENSION = ".smooks-snapshot";
+
+    private static final int MAGIC = 0x534D4B53;
+    private static final int VERSION = 1;
+
+    private ConfigSnapshot() {
+    }
+
+    /**
+     * Create the snapshot key for the supplied configuration.
+     *
+     * @param baseURI The base URI of the configuration.
+     * @param config The raw configuration bytes.
+     * @return The snapshot key.
+     */
+    public static String createKey(String baseURI, byte[] config) {
+        AssertArgument.isNotNull(baseURI, "baseURI");
+        AssertArgument.isNotNull(config, "config");
+
+        MessageDigest digest = newDigest();
+
+        digest.update(toBytes(VERSION + "\u0000" + baseURI + "\u0000"));
+        digest.update(config);
+
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Get the snapshot file for the specified key.
+     *
+     * @param snapshotDir The snapshot directory.
+     * @param key The snapshot key.
+     * @return The snapshot file.
+     */
+    public static File getSnapshotFile(File snapshotDir, String key) {
+        AssertArgument.isNotNull(snapshotDir, "snapshotDir");
+        AssertArgument.isNotNullAndNotEmpty(key, "key");
+
+        return new File(snapshotDir, key + FILE_EXTENSION);
+    }
+
+    /**
+     * Is the supplied configuration list capturable in a snapshot.
+     * <p/>
+     * Lists containing live Java resource objects, decoded parameter objects or
+     * condition evaluators that cannot be recreated from their expression are not capturable.
+     *
+     * @param configList The configuration list.
+     * @return True if the list can be written to a snapshot, otherwise false.
+     */
+    public static boolean isCapturable(SmooksResourceConfigurationList configList) {
+        for (ProfileSet profileSet : configList.getProfiles()) {
+            if (!(profileSet instanceof DefaultProfileSet)) {
+                return false;
+            }
+        }
+
+        for (int i = 0; i < configList.size(); i++) {
+            SmooksResourceConfiguration config = configList.get(i);
+            ExpressionEvaluator evaluator = config.getConditionEvaluator();
+
+            if (config.getSelector() == null || config.getJavaResourceObject() != null) {
+                return false;
+            }
+            if (evaluator != null && evaluator.getExpression() == null) {
+                return false;
+            }
+            for (Parameter parameter : getParameters(config)) {
+                Object objValue = parameter.getObjValue();
+
+                if (objValue != null && !(objValue instanceof String)) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Write a snapshot of the supplied configuration list.
+     * <p/>
+     * The snapshot is written to a temporary file in the target directory and then
+     * moved into place, so concurrent readers never see a partially written snapshot.
+     *
+     * @param configList The configuration list.
+     * @param key The snapshot key.
+     * @param snapshotFile The snapshot file.
+     * @return True if the snapshot was written, false if the configuration list is not {@link #isCapturable(SmooksResourceConfigurationList) capturable}.
+     * @throws IOException Error writing the snapshot.
+     */
+    public static boolean write(SmooksResourceConfigurationList configList, String key, File snapshotFile) throws IOException {
+        AssertArgument.isNotNull(configList, "configList");
+        AssertArgument.isNotNullAndNotEmpty(key, "key");
+        AssertArgument.isNotNull(snapshotFile, "snapshotFile");
+
+        if (!isCapturable(configList)) {
+            LOGGER.debug("Not writing snapshot for Smooks configuration '" + configList.getName() + "'.  The configuration is not capturable.");
+            return false;
+        }
+
+        File snapshotDir = snapshotFile.getAbsoluteFile().getParentFile();
+        if (!snapshotDir.exists() && !snapshotDir.mkdirs() && !snapshotDir.exists()) {
+            throw new IOException("Failed to create snapshot directory '" + snapshotDir.getAbsolutePath() + "'.");
+        }
+
+        File tempFile = File.createTempFile(key, ".tmp", snapshotDir);
+        try {
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+            try {
+                writeList(configList, key, output);
+            } finally {
+                output.close();
+            }
+            Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            if (tempFile.exists() && !tempFile.delete()) {
+                tempFile.deleteOnExit();
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Read a snapshot.
+     *
+     * @param snapshotFile The snapshot file.
+     * @param key The expected snapshot key.
+     * @return The restored configuration list, or null if the snapshot does not exist,
+     * is stale (an import has changed), or cannot be read.
+     */
+    public static SmooksResourceConfigurationList read(File snapshotFile, String key) {
+        AssertArgument.isNotNull(snapshotFile, "snapshotFile");
+        AssertArgument.isNotNullAndNotEmpty(key, "key");
+
+        if (!snapshotFile.isFile()) {
+            return null;
+        }
+
+        try {
+            DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)));
+            try {
+                return readList(key, input);
+            } finally {
+                input.close();
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Ignoring unreadable Smooks configuration snapshot '" + snapshotFile.getAbsolutePath() + "'.", e);
+            return null;
+        }
+    }
+
+    private static void writeList(SmooksResourceConfigurationList configList, String key, DataOutputStream output) throws IOException {
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        writeString(key, output);
+        writeString(configList.getName(), output);
+        output.writeBoolean(configList.isSystemConfigList());
+
+        List<URI> imports = configList.getSourceResourceURIs();
+        output.writeInt(imports.size());
+        for (URI importURI : imports) {
+            writeString(importURI.toString(), output);
+            writeString(hashResource(importURI), output);
+        }
+
+        List<ProfileSet> profiles = configList.getProfiles();
+        output.writeInt(profiles.size());
+        for (ProfileSet profileSet : profiles) {
+            List<String> subProfiles = new ArrayList<String>();
+            Iterator iterator = profileSet.iterator();
+
+            while (iterator.hasNext()) {
+                subProfiles.add(((Profile) iterator.next()).getName());
+            }
+            writeString(profileSet.getBaseProfile(), output);
+            output.writeInt(subProfiles.size());
+            for (String subProfile : subProfiles) {
+                writeString(subProfile, output);
+            }
+        }
+
+        output.writeInt(configList.size());
+        for (int i = 0; i < configList.size(); i++) {
+            writeConfig(configList.get(i), output);
+        }
+    }
+
+    private static SmooksResourceConfigurationList readList(String key, DataInputStream input) throws IOException {
+        if (input.readInt() != MAGIC || input.readInt() != VERSION || !key.equals(readString(input))) {
+            return null;
+        }
+
+        SmooksResourceConfigurationList configList = new SmooksResourceConfigurationList(readString(input));
+        configList.setSystemConfigList(input.readBoolean());
+
+        int importCount = input.readInt();
+        for (int i = 0; i < importCount; i++) {
+            URI importURI = URI.create(readString(input));
+            String importHash = readString(input);
+
+            if (!importHash.equals(hashResource(importURI))) {
+                LOGGER.debug("Smooks configuration snapshot for '" + configList.getName() + "' is stale.  Import '" + importURI + "' has changed.");
+                return null;
+            }
+            configList.addSourceResourceURI(importURI);
+        }
+
+        int profileSetCount = input.readInt();
+        for (int i = 0; i < profileSetCount; i++) {
+            DefaultProfileSet profileSet = new DefaultProfileSet(readString(input));
+            int subProfileCount = input.readInt();
+
+            for (int ii = 0; ii < subProfileCount; ii++) {
+                profileSet.addProfile(readString(input));
+            }
+            configList.add(profileSet);
+        }
+
+        int configCount = input.readInt();
+        for (int i = 0; i < configCount; i++) {
+            configList.add(readConfig(input));
+        }
+
+        return configList;
+    }
+
+    private static void writeConfig(SmooksResourceConfiguration config, DataOutputStream output) throws IOException {
+        ExpressionEvaluator evaluator = config.getConditionEvaluator();
+
+        writeString(config.getSelector(), output);
+        writeString(config.getSelectorNamespaceURI(), output);
+        writeString(config.getTargetProfile(), output);
+        writeString(config.getResource(), output);
+        writeString(config.getDeclaredResourceType(), output);
+        writeString(config.getExtendedConfigNS(), output);
+        output.writeBoolean(config.isDefaultResource());
+        if (evaluator != null) {
+            writeString(evaluator.getClass().getName(), output);
+            writeString(evaluator.getExpression(), output);
+        } else {
+            writeString(null, output);
+        }
+
+        List<Parameter> parameters = getParameters(config);
+        output.writeInt(parameters.size());
+        for (Parameter parameter : parameters) {
+            Element xml = parameter.getXml();
+
+            writeString(parameter.getName(), output);
+            writeString(parameter.getValue(), output);
+            writeString(parameter.getType(), output);
+            writeString((xml != null ? serialize(xml) : null), output);
+        }
+    }
+
+    private static SmooksResourceConfiguration readConfig(DataInputStream input) throws IOException {
+        SmooksResourceConfiguration config = new SmooksResourceConfiguration(readString(input), readString(input), readString(input), readString(input));
+
+        config.setResourceType(readString(input));
+        config.setExtendedConfigNS(readString(input));
+        config.setDefaultResource(input.readBoolean());
+
+        String evaluatorClass = readString(input);
+        if (evaluatorClass != null) {
+            config.setConditionEvaluator(ExpressionEvaluator.Factory.createInstance(evaluatorClass, readString(input)));
+        }
+
+        int parameterCount = input.readInt();
+        for (int i = 0; i < parameterCount; i++) {
+            Parameter parameter = new Parameter(readString(input), readString(input), readString(input));
+            String xml = readString(input);
+
+            if (xml != null) {
+                parameter.setSerializedXml(xml);
+            }
+            config.setParameter(parameter);
+        }
+
+        return config;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Parameter> getParameters(SmooksResourceConfiguration config) {
+        List<Parameter> parameters = new ArrayList<Parameter>();
+        Map<String, Object> parameterMap = config.getParameters();
+
+        if (parameterMap != null) {
+            for (Object parameter : parameterMap.values()) {
+                if (parameter instanceof List) {
+                    parameters.addAll((List<Parameter>) parameter);
+                } else {
+                    parameters.add((Parameter) parameter);
+                }
+            }
+        }
+
+        return parameters;
+    }
+
+    /**
+     * Serialize the parameter xml, carrying the namespace declarations in scope on the
+     * original element so the xml can be parsed standalone.
+     */
+    private static String serialize(Element element) {
+        Element clone = (Element) element.cloneNode(true);
+        Node parent = element.getParentNode();
+
+        while (parent instanceof Element) {
+            NamedNodeMap attributes = parent.getAttributes();
+
+            for (int i = 0; i < attributes.getLength(); i++) {
+                Attr attr = (Attr) attributes.item(i);
+
+                if (XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(attr.getNamespaceURI()) && !clone.hasAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, attr.getLocalName())) {
+                    clone.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, attr.getName(), attr.getValue());
+                }
+            }
+            parent = parent.getParentNode();
+        }
+
+        return XmlUtil.serialize(clone, false);
+    }
+
+    private static String hashResource(URI resourceURI) throws IOException {
+        InputStream resourceStream = new URIResourceLocator().getResource(resourceURI.toString());
+
+        try {
+            MessageDigest digest = newDigest();
+
+            digest.update(StreamUtils.readStream(resourceStream));
+            return toHex(digest.digest());
+        } finally {
+            resourceStream.close();
+        }
+    }
+
+    private static void writeString(String string, DataOutputStream output) throws IOException {
+        if (string == null) {
+            output.writeInt(-1);
+        } else {
+            byte[] bytes = toBytes(string);
+
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+
+        if (length == -1) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] toBytes(String string) {
+        return string.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 MessageDigest not available.", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+            hex.append(Character.forDigit(b & 0xF, 16));
+        }
+
+        return hex.toString();
+    }
+}
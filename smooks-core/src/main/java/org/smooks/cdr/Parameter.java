@@ -42,9 +42,11 @@
  */
 package org.smooks.cdr;
 
+import java.io.StringReader;
 import java.util.List;
 
 import org.smooks.delivery.ContentDeliveryConfig;
+import org.smooks.xml.XmlUtil;
 import org.w3c.dom.Element;
 
 /**
@@ -61,6 +63,7 @@ public class Parameter {
 	private Object objValue;
 
     private Element xml;
+    private String serializedXml;
 
     /**
 	 * Public constructor.
@@ -205,6 +208,27 @@ public class Parameter {
      * @return Parameter configuration xml.
      */
     public Element getXml() {
+        if(xml == null && serializedXml != null) {
+            try {
+                xml = XmlUtil.parseStream(new StringReader(serializedXml)).getDocumentElement();
+            } catch (Exception e) {
+                throw new SmooksConfigurationException("Failed to parse configuration xml for parameter '" + name + "'.", e);
+            }
+            serializedXml = null;
+        }
         return xml;
     }
+
+    /**
+     * Set the serialized form of the parameter configuration xml.
+     * <p/>
+     * Used when restoring a {@link ConfigSnapshot}.  The xml is only parsed if
+     * {@link #getXml()} is called.
+     *
+     * @param serializedXml Serialized parameter configuration xml.
+     */
+    void setSerializedXml(String serializedXml) {
+        this.xml = null;
+        this.serializedXml = serializedXml;
+    }
 }
@@ -822,6 +822,17 @@ public class SmooksResourceConfiguration {
         return restype;
     }
 
+    /**
+     * Get the resource type explicitly set on this configuration, if any.
+     * <p/>
+     * Unlike {@link #getResourceType()}, the type is not derived from the resource.
+     *
+     * @return The explicitly set resource type, or null if not set.
+     */
+    String getDeclaredResourceType() {
+        return resourceType;
+    }
+
     /**
      * Parse the targeting expressions for this configuration.
      *
@@ -1472,7 +1483,7 @@ public class SmooksResourceConfiguration {
      * @return True if this configuration is targeted at the supplied element, otherwise false.
      */
     public boolean isTargetedAtElement(Element element, ExecutionContext executionContext) {
-        if (!assertConditionTrue()) {
+        if (!assertConditionTrue(executionContext)) {
             return false;
         }
 
@@ -1525,7 +1536,24 @@ public class SmooksResourceConfiguration {
      * @return True if this configuration is targeted at the supplied element, otherwise false.
      */
     public boolean isTargetedAtElement(SAXElement element, ExecutionContext executionContext) {
-        if (expressionEvaluator != null && !assertConditionTrue()) {
+        return isTargetedAtElement(element, executionContext, true);
+    }
+
+    /**
+     * Is this configuration targeted at the supplied SAX element.
+     * <p/>
+     * Checks that the element is in the correct namespace and, optionally, that it is a contextual
+     * match for the configuration.  The context check can be skipped by callers that have already
+     * matched the selector context by other means e.g. the
+     * {@link org.smooks.delivery.sax.SelectorAutomaton}.
+     *
+     * @param element The element to be checked.
+     * @param executionContext The current execution context.
+     * @param checkContext Check the element context against the configuration selector steps.
+     * @return True if this configuration is targeted at the supplied element, otherwise false.
+     */
+    public boolean isTargetedAtElement(SAXElement element, ExecutionContext executionContext, boolean checkContext) {
+        if (expressionEvaluator != null && !assertConditionTrue(executionContext)) {
             return false;
         }
 
@@ -1554,7 +1582,7 @@ public class SmooksResourceConfiguration {
             return false;
         }
 
-        if (isContextualSelector && !isTargetedAtElementContext(element, executionContext)) {
+        if (checkContext && isContextualSelector && !isTargetedAtElementContext(element, executionContext)) {
             // Note: If the selector is not contextual, there's no need to perform the
             // isTargetedAtElementContext check because we already know the visitor is targeted at the
             // element by name - because we looked it up by name in the 1st place (at least that's the assumption).
@@ -1568,15 +1596,20 @@ public class SmooksResourceConfiguration {
     }
 
     @SuppressWarnings("BooleanMethodIsAlwaysInverted")
-    private boolean assertConditionTrue() {
+    private boolean assertConditionTrue(ExecutionContext executionContext) {
         if (expressionEvaluator == null) {
             return true;
         }
 
         ExecutionContextExpressionEvaluator evaluator = (ExecutionContextExpressionEvaluator) expressionEvaluator;
-        ExecutionContext execContext = Filter.getCurrentExecutionContext();
 
-        return evaluator.eval(execContext);
+        // The context is passed down the targeting path.  Only fall back to the thread-bound
+        // context for callers that don't supply it...
+        if (executionContext == null) {
+            executionContext = Filter.getCurrentExecutionContext();
+        }
+
+        return evaluator.eval(executionContext);
     }
 
     /**
@@ -237,6 +237,14 @@ public class SmooksResourceConfigurationList {
         return true;
     }
 
+    /**
+     * Get the URIs of the resource configurations imported into this list.
+     * @return The imported resource URIs.
+     */
+    List<URI> getSourceResourceURIs() {
+        return loadedResources;
+    }
+
 	/**
 	 * Lookup a resource configuration from this config list.
 	 * <p/>
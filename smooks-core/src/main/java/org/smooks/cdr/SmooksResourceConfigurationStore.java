@@ -55,6 +55,7 @@ import org.smooks.delivery.ContentHandlerFactory;
 import org.smooks.delivery.JavaContentHandlerFactory;
 import org.smooks.delivery.UnsupportedContentHandlerTypeException;
 import org.smooks.delivery.annotation.Resource;
+import org.smooks.io.StreamUtils;
 import org.smooks.javabean.DataDecoder;
 import org.smooks.profile.ProfileSet;
 import org.smooks.profile.ProfileStore;
@@ -66,6 +67,8 @@ import org.slf4j.LoggerFactory;
 import org.xml.sax.SAXException;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Constructor;
@@ -249,6 +252,51 @@ public class SmooksResourceConfigurationStore {
         return configList;
     }
 
+    /**
+     * Register the set of resources specified in the supplied XML configuration
+     * stream, restoring them from a {@link ConfigSnapshot} where possible.
+     * <p/>
+     * If a valid snapshot of the configuration exists in the snapshot directory, the configuration
+     * list is restored from it, skipping XML parsing, validation and extension digestion.  Otherwise,
+     * the configuration is digested as normal and a snapshot is written for the next startup.
+     *
+     * @param baseURI The base URI to be associated with the configuration stream.
+     * @param resourceConfigStream XML resource configuration stream.
+     * @param snapshotDir The directory in which configuration snapshots are stored.
+     * @return The SmooksResourceConfigurationList created from the added resource configuration.
+     * @throws SAXException Error parsing the resource stream.
+     * @throws IOException Error reading resource stream.
+     * @see ConfigSnapshot
+     */
+    public SmooksResourceConfigurationList registerResources(String baseURI, InputStream resourceConfigStream, File snapshotDir) throws SAXException, IOException, URISyntaxException {
+        if(baseURI == null || baseURI.trim().equals("")) {
+            throw new IllegalArgumentException("null or empty 'name' arg in method call.");
+        }
+        if(resourceConfigStream == null) {
+            throw new IllegalArgumentException("null 'resourceConfigStream' arg in method call.");
+        }
+        AssertArgument.isNotNull(snapshotDir, "snapshotDir");
+
+        byte[] config = StreamUtils.readStream(resourceConfigStream);
+        String snapshotKey = ConfigSnapshot.createKey(baseURI, config);
+        File snapshotFile = ConfigSnapshot.getSnapshotFile(snapshotDir, snapshotKey);
+        SmooksResourceConfigurationList configList = ConfigSnapshot.read(snapshotFile, snapshotKey);
+
+        if(configList != null) {
+            LOGGER.debug("Restored Smooks configuration [" + baseURI + "] from snapshot '" + snapshotFile.getAbsolutePath() + "'.");
+        } else {
+            configList = XMLConfigDigester.digestConfig(new ByteArrayInputStream(config), baseURI, applicationContext.getClassLoader());
+            try {
+                ConfigSnapshot.write(configList, snapshotKey, snapshotFile);
+            } catch (IOException e) {
+                LOGGER.warn("Failed to write Smooks configuration snapshot '" + snapshotFile.getAbsolutePath() + "'.", e);
+            }
+        }
+        addSmooksResourceConfigurationList(configList);
+
+        return configList;
+    }
+
     private void processAppContextInitializers(SmooksResourceConfigurationList configList) {
         for(int i = 0; i < configList.size(); i++) {
             SmooksResourceConfiguration resourceConfig = configList.get(i);
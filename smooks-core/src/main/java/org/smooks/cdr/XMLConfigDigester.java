@@ -315,6 +315,11 @@ public final class XMLConfigDigester {
         try {
             URI fileURI = resourceLocator.resolveURI(file);
 
+            // Record the import so config snapshots can detect when it changes...
+            if(!resourcelist.getSourceResourceURIs().contains(fileURI)) {
+                resourcelist.addSourceResourceURI(fileURI);
+            }
+
             // Add the resource URI to the list.  Will fail if it was already loaded
             pushConfig(file, fileURI);
             try {
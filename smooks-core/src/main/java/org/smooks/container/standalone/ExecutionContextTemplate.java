@@ -0,0 +1,137 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.container.standalone;
+
+import org.smooks.cdr.ParameterAccessor;
+import org.smooks.container.ApplicationContext;
+import org.smooks.container.ExecutionContext;
+import org.smooks.delivery.ContentDeliveryConfig;
+import org.smooks.delivery.ContentDeliveryConfigBuilder;
+import org.smooks.delivery.Filter;
+import org.smooks.delivery.VisitorConfigMap;
+import org.smooks.profile.ProfileSet;
+import org.smooks.profile.UnknownProfileMemberException;
+
+/**
+ * Precomputed {@link StandaloneExecutionContext} template for a target profile.
+ * <p/>
+ * Holds the execution context state that is the same for every execution context created for the same
+ * target profile i.e. the resolved {@link ProfileSet}, the {@link ContentDeliveryConfig} and the
+ * {@link Filter#DEFAULT_SERIALIZATION_ON} setting.  Resolving this state involves profile store lookups,
+ * the {@link ContentDeliveryConfigBuilder} and configuration parameter parsing.  A template does all of that
+ * once, after which {@link #newExecutionContext()} is a simple shallow instantiation.
+ * <p/>
+ * Instances are immutable and thread safe.  A {@link org.smooks.Smooks} instance caches one template per
+ * target profile, created the first time an execution context is created for that profile.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public final class ExecutionContextTemplate {
+
+    private final ApplicationContext context;
+    private final ProfileSet targetProfileSet;
+    private final ContentDeliveryConfig deliveryConfig;
+    private final boolean isDefaultSerializationOn;
+
+    /**
+     * Public Constructor.
+     * @param targetProfile The target profile (base profile) for the execution contexts.
+     * @param context The application context.
+     * @param extendedVisitorConfigMap Preconfigured/extended Visitor Configuration Map.
+     * @throws UnknownProfileMemberException Unknown target profile.
+     */
+    public ExecutionContextTemplate(String targetProfile, ApplicationContext context, VisitorConfigMap extendedVisitorConfigMap) throws UnknownProfileMemberException {
+        if(targetProfile == null) {
+            throw new IllegalArgumentException("null 'targetProfile' arg in constructor call.");
+        }
+        if(context == null) {
+            throw new IllegalArgumentException("null 'context' arg in constructor call.");
+        }
+        this.context = context;
+        targetProfileSet = context.getProfileStore().getProfileSet(targetProfile);
+        deliveryConfig = ContentDeliveryConfigBuilder.getConfig(targetProfileSet, context, extendedVisitorConfigMap);
+        isDefaultSerializationOn = ParameterAccessor.getBoolParameter(Filter.DEFAULT_SERIALIZATION_ON, true, deliveryConfig);
+    }
+
+    /**
+     * Create a template from an existing execution context.
+     * <p/>
+     * Execution contexts created from the template share the application context, target profiles
+     * and delivery configuration of the supplied execution context.
+     *
+     * @param executionContext The execution context.
+     */
+    public ExecutionContextTemplate(ExecutionContext executionContext) {
+        if(executionContext == null) {
+            throw new IllegalArgumentException("null 'executionContext' arg in constructor call.");
+        }
+        context = executionContext.getContext();
+        targetProfileSet = executionContext.getTargetProfiles();
+        deliveryConfig = executionContext.getDeliveryConfig();
+        isDefaultSerializationOn = executionContext.isDefaultSerializationOn();
+    }
+
+    /**
+     * Create a new execution context from this template.
+     * @return The new execution context.
+     */
+    public StandaloneExecutionContext newExecutionContext() {
+        return new StandaloneExecutionContext(this);
+    }
+
+    public ApplicationContext getContext() {
+        return context;
+    }
+
+    public ProfileSet getTargetProfiles() {
+        return targetProfileSet;
+    }
+
+    public ContentDeliveryConfig getDeliveryConfig() {
+        return deliveryConfig;
+    }
+
+    public boolean isDefaultSerializationOn() {
+        return isDefaultSerializationOn;
+    }
+}
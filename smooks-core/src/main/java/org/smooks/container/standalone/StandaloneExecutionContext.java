@@ -46,8 +46,6 @@ import org.smooks.cdr.ParameterAccessor;
 import org.smooks.container.ApplicationContext;
 import org.smooks.container.ExecutionContext;
 import org.smooks.delivery.ContentDeliveryConfig;
-import org.smooks.delivery.ContentDeliveryConfigBuilder;
-import org.smooks.delivery.Filter;
 import org.smooks.delivery.VisitorConfigMap;
 import org.smooks.event.ExecutionEventListener;
 import org.smooks.javabean.context.BeanContext;
@@ -61,12 +59,21 @@ import java.util.Hashtable;
 
 /**
  * Standalone Container Request implementation.
+ * <p/>
+ * Instances are normally created from a per target profile {@link ExecutionContextTemplate}.  The
+ * attribute store is not synchronized.  An execution context is bound to a single thread of execution.
  * @author tfennelly
  */
 public class StandaloneExecutionContext implements ExecutionContext {
 
+    /**
+     * Initial capacity of the attribute store.  Sized to hold the attributes set by the filters and
+     * the common cartridges without rehashing.
+     */
+    private static final int ATTRIBUTES_INITIAL_CAPACITY = 32;
+
     private ProfileSet targetProfileSet;
-    private Hashtable<Object, Object> attributes = new Hashtable<Object, Object>();
+    private Hashtable<Object, Object> attributes = new Hashtable<Object, Object>(ATTRIBUTES_INITIAL_CAPACITY);
     private ContentDeliveryConfig deliveryConfig;
     private URI docSource;
 	private String contentEncoding;
@@ -105,19 +112,28 @@ public class StandaloneExecutionContext implements ExecutionContext {
      * @throws UnknownProfileMemberException Unknown target profile.
 	 */
 	public StandaloneExecutionContext(String targetProfile, ApplicationContext context, String contentEncoding, VisitorConfigMap extendedVisitorConfigMap) throws UnknownProfileMemberException {
-        if(targetProfile == null) {
-            throw new IllegalArgumentException("null 'targetProfile' arg in constructor call.");
-        }
-        if(context == null) {
-            throw new IllegalArgumentException("null 'context' arg in constructor call.");
-        }
-		this.context = context;
+		this(new ExecutionContextTemplate(targetProfile, context, extendedVisitorConfigMap));
 		setContentEncoding(contentEncoding);
-        targetProfileSet = context.getProfileStore().getProfileSet(targetProfile);
-        deliveryConfig = ContentDeliveryConfigBuilder.getConfig(targetProfileSet, context, extendedVisitorConfigMap);
-        isDefaultSerializationOn = ParameterAccessor.getBoolParameter(Filter.DEFAULT_SERIALIZATION_ON, true, deliveryConfig);
     }
 
+	/**
+	 * Public Constructor.
+	 * <p/>
+	 * Creates the execution context from a precomputed {@link ExecutionContextTemplate}.  The content
+	 * encoding defaults to "UTF-8".
+	 * @param template The execution context template.
+	 */
+	public StandaloneExecutionContext(ExecutionContextTemplate template) {
+		if(template == null) {
+			throw new IllegalArgumentException("null 'template' arg in constructor call.");
+		}
+		context = template.getContext();
+		targetProfileSet = template.getTargetProfiles();
+		deliveryConfig = template.getDeliveryConfig();
+		isDefaultSerializationOn = template.isDefaultSerializationOn();
+		contentEncoding = "UTF-8";
+	}
+
     public void setDocumentSource(URI docSource) {
         this.docSource = docSource;
     }
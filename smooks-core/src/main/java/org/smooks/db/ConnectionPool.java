@@ -0,0 +1,515 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.db;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JDBC connection pool used by the {@link PooledDataSource}.
+ * <p/>
+ * Connections are handed out as proxies.  Closing the proxy returns the physical connection to the pool.
+ * Each physical connection keeps an LRU cache of the {@link PreparedStatement PreparedStatements} prepared
+ * through {@link Connection#prepareStatement(String)}.  Closing a cached statement proxy returns the statement
+ * to the cache.
+ * <p/>
+ * Idle connections are reused most-recently-used first, so that connections above the minimum pool size
+ * go idle and are closed once they exceed the idle timeout (checked whenever a connection is returned).
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+class ConnectionPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionPool.class);
+
+    private final String name;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutNanos;
+    private final long maxWaitMillis;
+    private final String validationQuery;
+    private final int statementCacheSize;
+
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledConnection> idleConnections = new LinkedBlockingDeque<PooledConnection>();
+    private final AtomicInteger openCount = new AtomicInteger();
+    private final ConnectionPoolMetrics metrics = new ConnectionPoolMetrics();
+    private volatile boolean closed;
+
+    ConnectionPool(String name, String url, String username, String password, int minSize, int maxSize, long idleTimeoutMillis, long maxWaitMillis, String validationQuery, int statementCacheSize) {
+        this.name = name;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.maxWaitMillis = maxWaitMillis;
+        this.validationQuery = validationQuery;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * Open the minimum number of connections.
+     * <p/>
+     * If a connection cannot be opened, the pool is {@link #close() closed}, closing the connections
+     * already opened.
+     * @throws SQLException Error opening a connection.
+     */
+    void fill() throws SQLException {
+        boolean filled = false;
+
+        try {
+            while(openCount.get() < minSize) {
+                PooledConnection connection = open();
+                idleConnections.offerLast(connection);
+                metrics.idle(1);
+            }
+            filled = true;
+        } finally {
+            if(!filled) {
+                close();
+            }
+        }
+    }
+
+    ConnectionPoolMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Borrow a connection from the pool, waiting up to the max wait time for a connection to become available.
+     * @return The connection.  Close it to return it to the pool.
+     * @throws SQLException Timed out waiting for a connection, or failed to open a connection.
+     */
+    Connection borrow() throws SQLException {
+        long waitStart = System.nanoTime();
+        boolean borrowed = false;
+
+        if(closed) {
+            throw new SQLException("Connection pool for DataSource '" + name + "' is closed.");
+        }
+
+        metrics.waiting();
+        try {
+            if(!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                metrics.timedOut();
+                throw new SQLException("Timed out waiting " + maxWaitMillis + "ms for a connection from the pool for DataSource '" + name + "'.  Pool max size is " + maxSize + ".");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            metrics.timedOut();
+            throw new SQLException("Interrupted while waiting for a connection from the pool for DataSource '" + name + "'.", e);
+        }
+
+        try {
+            PooledConnection connection = takeIdle();
+
+            if(connection == null) {
+                connection = open();
+            }
+
+            Connection handle = connection.newHandle();
+            metrics.borrowed(waitStart);
+            borrowed = true;
+
+            return handle;
+        } finally {
+            if(!borrowed) {
+                metrics.borrowFailed();
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Close the pool.  Idle connections are closed immediately.  Active connections are closed when returned.
+     */
+    void close() {
+        closed = true;
+
+        PooledConnection connection;
+        while((connection = idleConnections.pollFirst()) != null) {
+            metrics.idle(-1);
+            destroy(connection);
+        }
+    }
+
+    private PooledConnection takeIdle() {
+        PooledConnection connection;
+
+        while((connection = idleConnections.pollFirst()) != null) {
+            metrics.idle(-1);
+            if(isValid(connection)) {
+                return connection;
+            }
+            destroy(connection);
+        }
+
+        return null;
+    }
+
+    private PooledConnection open() throws SQLException {
+        Connection physicalConnection = DriverManager.getConnection(url, username, password);
+
+        openCount.incrementAndGet();
+        metrics.created();
+
+        return new PooledConnection(physicalConnection);
+    }
+
+    private boolean isValid(PooledConnection connection) {
+        try {
+            if(connection.physicalConnection.isClosed()) {
+                return false;
+            }
+            if(validationQuery != null) {
+                Statement statement = connection.physicalConnection.createStatement();
+                try {
+                    statement.execute(validationQuery);
+                } finally {
+                    statement.close();
+                }
+            }
+            return true;
+        } catch (SQLException e) {
+            LOGGER.debug("Pooled connection for DataSource '" + name + "' failed validation.  Discarding.", e);
+            return false;
+        }
+    }
+
+    private void release(PooledConnection connection) {
+        try {
+            connection.checkInStatements();
+            if(closed || connection.broken || !reset(connection)) {
+                destroy(connection);
+            } else {
+                connection.lastUsedNanos = System.nanoTime();
+                idleConnections.offerFirst(connection);
+                metrics.idle(1);
+                evictIdle();
+            }
+        } finally {
+            metrics.returned();
+            permits.release();
+        }
+    }
+
+    private boolean reset(PooledConnection connection) {
+        try {
+            if(!connection.physicalConnection.getAutoCommit()) {
+                // Nothing should be pending at this stage (the TransactionManager commits or rolls back), but
+                // make sure nothing leaks into the next borrower's transaction...
+                connection.physicalConnection.rollback();
+            }
+            connection.physicalConnection.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            LOGGER.debug("Failed to reset pooled connection for DataSource '" + name + "'.  Discarding.", e);
+            return false;
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        PooledConnection oldest;
+
+        while((oldest = idleConnections.peekLast()) != null && openCount.get() > minSize && now - oldest.lastUsedNanos > idleTimeoutNanos) {
+            if(idleConnections.removeLastOccurrence(oldest)) {
+                metrics.idle(-1);
+                destroy(oldest);
+            }
+        }
+    }
+
+    private void destroy(PooledConnection connection) {
+        openCount.decrementAndGet();
+        metrics.destroyed();
+        connection.closeStatements();
+        try {
+            connection.physicalConnection.close();
+        } catch (SQLException e) {
+            LOGGER.debug("Error closing pooled connection for DataSource '" + name + "'.", e);
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static boolean isConnectionError(Throwable t) {
+        if(t instanceof SQLException) {
+            String sqlState = ((SQLException) t).getSQLState();
+            return sqlState != null && sqlState.startsWith("08");
+        }
+        return false;
+    }
+
+    /**
+     * Physical pooled connection, plus its statement cache.
+     */
+    private class PooledConnection {
+
+        private final Connection physicalConnection;
+        private final Map<String, CachedStatement> statementCache;
+        private long lastUsedNanos;
+        private boolean broken;
+
+        private PooledConnection(Connection physicalConnection) {
+            this.physicalConnection = physicalConnection;
+            this.statementCache = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                    if(size() > statementCacheSize) {
+                        eldest.getValue().evict();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        private Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(), new Class[] {Connection.class}, new ConnectionHandle(this));
+        }
+
+        private PreparedStatement prepareStatement(String sql, Connection handle) throws SQLException {
+            if(statementCacheSize <= 0) {
+                return physicalConnection.prepareStatement(sql);
+            }
+
+            CachedStatement cachedStatement = statementCache.get(sql);
+            if(cachedStatement != null && !cachedStatement.inUse) {
+                metrics.statementCacheHit();
+            } else {
+                metrics.statementCacheMiss();
+                if(cachedStatement != null) {
+                    // Already checked out (e.g. nested use of the same SQL).  Don't cache the second statement...
+                    return physicalConnection.prepareStatement(sql);
+                }
+                cachedStatement = new CachedStatement(physicalConnection.prepareStatement(sql));
+                statementCache.put(sql, cachedStatement);
+            }
+
+            cachedStatement.inUse = true;
+            cachedStatement.handle = new StatementHandle(cachedStatement, handle);
+            return (PreparedStatement) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(), new Class[] {PreparedStatement.class}, cachedStatement.handle);
+        }
+
+        private void checkInStatements() {
+            for(CachedStatement cachedStatement : statementCache.values()) {
+                if(cachedStatement.inUse) {
+                    // Not closed by the borrower...
+                    cachedStatement.handle.closed = true;
+                    cachedStatement.checkIn();
+                }
+            }
+        }
+
+        private void closeStatements() {
+            Iterator<CachedStatement> statements = statementCache.values().iterator();
+            while(statements.hasNext()) {
+                statements.next().close();
+                statements.remove();
+            }
+        }
+    }
+
+    /**
+     * Borrowed connection proxy handler.
+     */
+    private class ConnectionHandle implements InvocationHandler {
+
+        private final PooledConnection connection;
+        private boolean closed;
+
+        private ConnectionHandle(PooledConnection connection) {
+            this.connection = connection;
+        }
+
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String methodName = method.getName();
+
+            if(methodName.equals("close")) {
+                if(!closed) {
+                    closed = true;
+                    release(connection);
+                }
+                return null;
+            } else if(methodName.equals("isClosed")) {
+                return closed || connection.physicalConnection.isClosed();
+            } else if(methodName.equals("equals")) {
+                return proxy == args[0];
+            } else if(methodName.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            } else if(methodName.equals("toString")) {
+                return "Pooled[" + name + "]" + connection.physicalConnection;
+            } else if(closed) {
+                throw new SQLException("Connection is closed (returned to the pool for DataSource '" + name + "').");
+            }
+
+            try {
+                if(methodName.equals("prepareStatement") && args.length == 1) {
+                    return connection.prepareStatement((String) args[0], (Connection) proxy);
+                }
+                return ConnectionPool.invoke(connection.physicalConnection, method, args);
+            } catch (Throwable t) {
+                if(isConnectionError(t)) {
+                    connection.broken = true;
+                }
+                throw t;
+            }
+        }
+    }
+
+    /**
+     * Cached {@link PreparedStatement}.
+     */
+    private class CachedStatement {
+
+        private final PreparedStatement statement;
+        private StatementHandle handle;
+        private boolean inUse;
+        private boolean evicted;
+
+        private CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        private void checkIn() {
+            inUse = false;
+            handle = null;
+            if(evicted) {
+                close();
+            } else {
+                try {
+                    statement.clearParameters();
+                    statement.clearWarnings();
+                } catch (SQLException e) {
+                    LOGGER.debug("Error resetting cached statement for DataSource '" + name + "'.", e);
+                }
+            }
+        }
+
+        private void evict() {
+            evicted = true;
+            if(!inUse) {
+                close();
+            }
+        }
+
+        private void close() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                LOGGER.debug("Error closing cached statement for DataSource '" + name + "'.", e);
+            }
+        }
+    }
+
+    /**
+     * Checked out {@link PreparedStatement} proxy handler.
+     */
+    private class StatementHandle implements InvocationHandler {
+
+        private final CachedStatement cachedStatement;
+        private final Connection connectionHandle;
+        private boolean closed;
+
+        private StatementHandle(CachedStatement cachedStatement, Connection connectionHandle) {
+            this.cachedStatement = cachedStatement;
+            this.connectionHandle = connectionHandle;
+        }
+
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String methodName = method.getName();
+
+            if(methodName.equals("close")) {
+                if(!closed) {
+                    closed = true;
+                    cachedStatement.checkIn();
+                }
+                return null;
+            } else if(methodName.equals("isClosed")) {
+                return closed;
+            } else if(methodName.equals("getConnection")) {
+                return connectionHandle;
+            } else if(methodName.equals("equals")) {
+                return proxy == args[0];
+            } else if(methodName.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            } else if(methodName.equals("toString")) {
+                return "Cached" + cachedStatement.statement;
+            } else if(closed) {
+                throw new SQLException("Statement is closed.");
+            }
+
+            return ConnectionPool.invoke(cachedStatement.statement, method, args);
+        }
+    }
+}
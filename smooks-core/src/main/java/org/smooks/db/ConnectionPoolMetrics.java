@@ -0,0 +1,238 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.db;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Connection pool metrics for a {@link PooledDataSource}.
+ * <p/>
+ * Wait time is the time spent by callers waiting to borrow a connection from the pool, including
+ * the time spent opening a new physical connection where the pool had no idle connection.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class ConnectionPoolMetrics {
+
+    private static final LongBinaryOperator MAX = new LongBinaryOperator() {
+        public long applyAsLong(long left, long right) {
+            return Math.max(left, right);
+        }
+    };
+
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final AtomicInteger waitingCount = new AtomicInteger();
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder destroyedCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(MAX, 0);
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+
+    /**
+     * Get the number of connections currently borrowed from the pool.
+     * @return The active connection count.
+     */
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    /**
+     * Get the number of open connections currently idle in the pool.
+     * @return The idle connection count.
+     */
+    public int getIdleCount() {
+        return idleCount.get();
+    }
+
+    /**
+     * Get the number of callers currently waiting to borrow a connection.
+     * @return The waiting count.
+     */
+    public int getWaitingCount() {
+        return waitingCount.get();
+    }
+
+    /**
+     * Get the number of times a connection was borrowed from the pool.
+     * @return The borrow count.
+     */
+    public long getBorrowCount() {
+        return borrowCount.sum();
+    }
+
+    /**
+     * Get the number of physical connections opened by the pool.
+     * @return The created count.
+     */
+    public long getCreatedCount() {
+        return createdCount.sum();
+    }
+
+    /**
+     * Get the number of physical connections closed by the pool (idle timeout, failed validation or pool close).
+     * @return The destroyed count.
+     */
+    public long getDestroyedCount() {
+        return destroyedCount.sum();
+    }
+
+    /**
+     * Get the number of borrow attempts that timed out waiting for a connection.
+     * @return The timeout count.
+     */
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    /**
+     * Get the total time callers spent waiting to borrow a connection.
+     * @param unit The time unit.
+     * @return The total wait time.
+     */
+    public long getTotalWaitTime(TimeUnit unit) {
+        return unit.convert(waitNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the mean time callers spent waiting to borrow a connection.
+     * @param unit The time unit.
+     * @return The mean wait time, or zero if no connections have been borrowed.
+     */
+    public long getMeanWaitTime(TimeUnit unit) {
+        long count = borrowCount.sum();
+
+        if(count == 0) {
+            return 0;
+        }
+        return unit.convert(waitNanos.sum() / count, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the longest time a caller spent waiting to borrow a connection.
+     * @param unit The time unit.
+     * @return The max wait time.
+     */
+    public long getMaxWaitTime(TimeUnit unit) {
+        return unit.convert(maxWaitNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the number of {@link java.sql.PreparedStatement PreparedStatements} served from the statement cache.
+     * @return The statement cache hit count.
+     */
+    public long getStatementCacheHits() {
+        return statementCacheHits.sum();
+    }
+
+    /**
+     * Get the number of {@link java.sql.PreparedStatement PreparedStatements} that had to be prepared on the connection.
+     * @return The statement cache miss count.
+     */
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.sum();
+    }
+
+    void waiting() {
+        waitingCount.incrementAndGet();
+    }
+
+    void borrowed(long waitStartNanos) {
+        long wait = System.nanoTime() - waitStartNanos;
+
+        waitingCount.decrementAndGet();
+        borrowCount.increment();
+        activeCount.incrementAndGet();
+        waitNanos.add(wait);
+        maxWaitNanos.accumulate(wait);
+    }
+
+    void borrowFailed() {
+        waitingCount.decrementAndGet();
+    }
+
+    void timedOut() {
+        waitingCount.decrementAndGet();
+        timeoutCount.increment();
+    }
+
+    void returned() {
+        activeCount.decrementAndGet();
+    }
+
+    void idle(int delta) {
+        idleCount.addAndGet(delta);
+    }
+
+    void created() {
+        createdCount.increment();
+    }
+
+    void destroyed() {
+        destroyedCount.increment();
+    }
+
+    void statementCacheHit() {
+        statementCacheHits.increment();
+    }
+
+    void statementCacheMiss() {
+        statementCacheMisses.increment();
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPoolMetrics[active=" + getActiveCount() + ", idle=" + getIdleCount() +
+                ", waiting=" + getWaitingCount() + ", borrowed=" + getBorrowCount() + ", created=" + getCreatedCount() +
+                ", destroyed=" + getDestroyedCount() + ", timeouts=" + getTimeoutCount() +
+                ", meanWaitMillis=" + getMeanWaitTime(TimeUnit.MILLISECONDS) + ", maxWaitMillis=" + getMaxWaitTime(TimeUnit.MILLISECONDS) +
+                ", statementCacheHits=" + getStatementCacheHits() + ", statementCacheMisses=" + getStatementCacheMisses() + "]";
+    }
+}
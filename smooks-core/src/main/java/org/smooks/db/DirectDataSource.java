@@ -146,6 +146,18 @@ public class DirectDataSource extends AbstractDataSource {
         return DriverManager.getConnection(url, username, password);
     }
 
+    protected String getUrl() {
+        return url;
+    }
+
+    protected String getUsername() {
+        return username;
+    }
+
+    protected String getPassword() {
+        return password;
+    }
+
     public boolean isAutoCommit() {
         return autoCommit;
     }
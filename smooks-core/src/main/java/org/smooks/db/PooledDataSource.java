@@ -0,0 +1,196 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.db;
+
+import org.smooks.assertion.AssertArgument;
+import org.smooks.cdr.SmooksConfigurationException;
+import org.smooks.cdr.annotation.ConfigParam;
+import org.smooks.delivery.annotation.Initialize;
+import org.smooks.delivery.annotation.Uninitialize;
+import org.smooks.event.report.annotation.VisitAfterReport;
+import org.smooks.event.report.annotation.VisitBeforeReport;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Pooled DataSource.
+ * <p/>
+ * Configured like the {@link DirectDataSource} (JDBC driver plus username etc), but the connections bound
+ * to the {@link org.smooks.container.ExecutionContext} are borrowed from a connection pool instead of being
+ * opened (and closed) for each ExecutionContext.  The transaction lifecycle is the same as for the
+ * {@link DirectDataSource}: the connection is committed/rolled back on cleanup and then returned to the pool.
+ * <p/>
+ * Each pooled connection caches the {@link java.sql.PreparedStatement PreparedStatements} prepared through
+ * {@link Connection#prepareStatement(String)}.  See {@link #getMetrics()} for pool metrics.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+@VisitBeforeReport(summary = "Bind PooledDataSource <b>${resource.parameters.datasource}</b> to ExecutionContext.", detailTemplate = "reporting/PooledDataSource_before.html")
+@VisitAfterReport(summary = "Cleaning up PooledDataSource <b>${resource.parameters.datasource}</b>. Includes performing commit/rollback and returning the connection to the pool.", detailTemplate = "reporting/PooledDataSource_after.html")
+public class PooledDataSource extends DirectDataSource {
+
+    @ConfigParam(defaultVal = "0")
+    private int minPoolSize;
+
+    @ConfigParam(defaultVal = "10")
+    private int maxPoolSize;
+
+    @ConfigParam(defaultVal = "600000")
+    private long idleTimeout;
+
+    @ConfigParam(defaultVal = "30000")
+    private long maxWait;
+
+    @ConfigParam(use = ConfigParam.Use.OPTIONAL)
+    private String validationQuery;
+
+    @ConfigParam(defaultVal = "50")
+    private int statementCacheSize;
+
+    private ConnectionPool pool;
+
+    /**
+     * Set the number of connections opened when the pool is initialized, and below which idle connections
+     * are not closed.  Default 0.
+     * @param minPoolSize The minimum pool size.
+     * @return This DataSource instance.
+     */
+    public PooledDataSource setMinPoolSize(int minPoolSize) {
+        this.minPoolSize = minPoolSize;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of open connections.  Default 10.
+     * @param maxPoolSize The maximum pool size.
+     * @return This DataSource instance.
+     */
+    public PooledDataSource setMaxPoolSize(int maxPoolSize) {
+        this.maxPoolSize = maxPoolSize;
+        return this;
+    }
+
+    /**
+     * Set the time (milliseconds) after which an idle connection is closed, if the pool is above its
+     * minimum size.  Default 600000 (10 minutes).
+     * @param idleTimeout The idle timeout (milliseconds).
+     * @return This DataSource instance.
+     */
+    public PooledDataSource setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+        return this;
+    }
+
+    /**
+     * Set the maximum time (milliseconds) to wait for a connection when all connections are in use.  Default 30000.
+     * @param maxWait The max wait time (milliseconds).
+     * @return This DataSource instance.
+     */
+    public PooledDataSource setMaxWait(long maxWait) {
+        this.maxWait = maxWait;
+        return this;
+    }
+
+    /**
+     * Set the SQL query used to validate an idle connection before it is borrowed from the pool e.g.
+     * "SELECT 1".  Optional.  If not set, only a closed check is performed.
+     * @param validationQuery The validation query.
+     * @return This DataSource instance.
+     */
+    public PooledDataSource setValidationQuery(String validationQuery) {
+        AssertArgument.isNotNullAndNotEmpty(validationQuery, "validationQuery");
+        this.validationQuery = validationQuery;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of {@link java.sql.PreparedStatement PreparedStatements} cached per connection.
+     * Zero turns off statement caching.  Default 50.
+     * @param statementCacheSize The statement cache size.
+     * @return This DataSource instance.
+     */
+    public PooledDataSource setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+        return this;
+    }
+
+    @Initialize
+    @Override
+    public void registerDriver() throws SQLException {
+        super.registerDriver();
+
+        if(maxPoolSize < 1) {
+            throw new SmooksConfigurationException("Invalid 'maxPoolSize' " + maxPoolSize + " for DataSource '" + getName() + "'.  Must be at least 1.");
+        }
+        if(minPoolSize < 0 || minPoolSize > maxPoolSize) {
+            throw new SmooksConfigurationException("Invalid 'minPoolSize' " + minPoolSize + " for DataSource '" + getName() + "'.  Must be between 0 and 'maxPoolSize' (" + maxPoolSize + ").");
+        }
+
+        pool = new ConnectionPool(getName(), getUrl(), getUsername(), getPassword(), minPoolSize, maxPoolSize, idleTimeout, maxWait, validationQuery, statementCacheSize);
+        pool.fill();
+    }
+
+    @Uninitialize
+    public void closePool() {
+        if(pool != null) {
+            pool.close();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if(pool == null) {
+            throw new SQLException("PooledDataSource '" + getName() + "' is not initialized.");
+        }
+        return pool.borrow();
+    }
+
+    /**
+     * Get the connection pool metrics.
+     * @return The pool metrics, or null if the DataSource is not initialized.
+     */
+    public ConnectionPoolMetrics getMetrics() {
+        return (pool != null ? pool.getMetrics() : null);
+    }
+}
@@ -48,13 +48,13 @@ import org.smooks.container.ApplicationContext;
 import org.smooks.container.ExecutionContext;
 import org.smooks.dtd.DTDStore;
 import org.smooks.event.types.ConfigBuilderEvent;
+import org.smooks.util.BoundedObjectPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.XMLReader;
 
 import java.util.*;
 import java.util.Map.Entry;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Abstract {@link ContentDeliveryConfig}.
@@ -94,13 +94,20 @@ public abstract class AbstractContentDeliveryConfig implements ContentDeliveryCo
 
     private Boolean isDefaultSerializationOn = null;
 
-    private final List<XMLReader> readerPool = new CopyOnWriteArrayList<XMLReader>();
-	private         int             readerPoolSize;
+    private BoundedObjectPool<XMLReader> readerPool = new BoundedObjectPool<XMLReader>(0);
 
     public void setApplicationContext(ApplicationContext applicationContext) {
         this.applicationContext = applicationContext;
     }
 
+    /**
+     * Get the {@link ApplicationContext} associated with this delivery configuration.
+     * @return The application context, or null if not set.
+     */
+    protected ApplicationContext getApplicationContext() {
+        return applicationContext;
+    }
+
     /**
      * Get the list of {@link org.smooks.cdr.SmooksResourceConfiguration}s for the specified selector definition.
      * @param selector The configuration "selector" attribute value from the .cdrl file in the .cdrar.
@@ -223,31 +230,38 @@ public abstract class AbstractContentDeliveryConfig implements ContentDeliveryCo
     }
 
     public void initializeXMLReaderPool() {
-    	try {
-	        readerPoolSize = Integer.parseInt(ParameterAccessor.getStringParameter(Filter.READER_POOL_SIZE, "0", this).trim());
-    	} catch(NumberFormatException e) {
-    		readerPoolSize = 0;
-    	}
+        readerPool = new BoundedObjectPool<XMLReader>(getReaderPoolSize());
+    }
+
+    /**
+     * Get the configured {@link Filter#READER_POOL_SIZE reader pool size}.
+     * @return The reader pool size, or zero if pooling is not configured.
+     */
+    protected int getReaderPoolSize() {
+        try {
+            return Math.max(0, Integer.parseInt(ParameterAccessor.getStringParameter(Filter.READER_POOL_SIZE, "0", this).trim()));
+        } catch(NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    public XMLReader getXMLReader() {
+        return readerPool.borrow();
+    }
+
+    public void returnXMLReader(XMLReader reader) {
+        readerPool.release(reader);
     }
 
-	public XMLReader getXMLReader()
-  {
-		synchronized(readerPool) {
-			if(!readerPool.isEmpty()) {
-				return readerPool.remove(0);
-			} else {
-				return null;
-			}
-		}
-	}
-
-	public void returnXMLReader(XMLReader reader) {
-		synchronized(readerPool) {
-			if(readerPool.size() < readerPoolSize) {
-				readerPool.add(reader);
-			}
-		}
-	}
+    /**
+     * Get the {@link XMLReader} pool associated with this delivery configuration.
+     * <p/>
+     * Provides access to the pool hit, miss and wait metrics.
+     * @return The reader pool.
+     */
+    public BoundedObjectPool<XMLReader> getXMLReaderPool() {
+        return readerPool;
+    }
 
     protected FilterBypass getFilterBypass(ContentHandlerConfigMapTable... visitorTables) {
     	for(ContentHandlerConfigMapTable visitorTable : visitorTables) {
@@ -289,11 +289,7 @@ public class AbstractParser {
             return streamResult.getWriter();
         } else if (streamResult.getOutputStream() != null) {
             try {
-                if (executionContext != null) {
-                    return new OutputStreamWriter(streamResult.getOutputStream(), executionContext.getContentEncoding());
-                } else {
-                    return new OutputStreamWriter(streamResult.getOutputStream(), "UTF-8");
-                }
+                return BufferedStreamResultWriter.newWriter(streamResult.getOutputStream(), executionContext);
             } catch (UnsupportedEncodingException e) {
                 throw new SmooksException("Unable to encode output stream.", e);
             }
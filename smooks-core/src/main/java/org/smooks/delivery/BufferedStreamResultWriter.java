@@ -0,0 +1,455 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.delivery;
+
+import org.smooks.OutputFlushPolicy;
+import org.smooks.SmooksException;
+import org.smooks.cdr.ParameterAccessor;
+import org.smooks.container.ExecutionContext;
+import org.smooks.util.BoundedObjectPool;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+
+/**
+ * Buffered {@link javax.xml.transform.stream.StreamResult} {@link OutputStream} writer.
+ * <p/>
+ * Used by the filters in place of an {@link java.io.OutputStreamWriter}.  Characters are encoded
+ * into a large (pooled) {@link ByteBuffer}, which is only written to the output stream when
+ * it fills, or when the writer is flushed.  UTF-8, ISO-8859-1 and US-ASCII are encoded directly
+ * into the buffer, without going through a {@link CharsetEncoder}.  Other encodings are encoded
+ * through a {@link CharsetEncoder}.  Unmappable characters are replaced with '?'.
+ * <p/>
+ * If the {@link OutputFlushPolicy#BYTES BYTES} flush policy is configured, the output stream is
+ * also flushed each time the buffer fills.
+ * <p/>
+ * Instances are not thread safe.
+ * <p/>
+ * Position changes go through {@link Buffer}, so the class still runs on Java 8 when it is compiled
+ * on a later JDK (which adds covariant {@link ByteBuffer}/{@link CharBuffer} overrides).
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class BufferedStreamResultWriter extends Writer {
+
+    /**
+     * Default output buffer size.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final int MIN_BUFFER_SIZE = 16;
+    private static final int CHAR_BUFFER_SIZE = 1024;
+    private static final BoundedObjectPool<ByteBuffer> BUFFER_POOL = new BoundedObjectPool<ByteBuffer>(16);
+
+    private enum Encoding {
+        UTF_8,
+        ISO_8859_1,
+        US_ASCII,
+        OTHER
+    }
+
+    private final OutputStream outputStream;
+    private final Encoding encoding;
+    private final CharsetEncoder encoder;
+    private final CharBuffer charBuffer;
+    private final int bufferSize;
+    private final boolean flushOnFullBuffer;
+    private ByteBuffer buffer;
+    private char highSurrogate;
+    private boolean closed;
+
+    /**
+     * Public constructor.
+     * @param outputStream The output stream.
+     * @param charset The output encoding.
+     * @param bufferSize The output buffer size.
+     * @param flushOnFullBuffer Flush the output stream each time the buffer fills.
+     */
+    public BufferedStreamResultWriter(OutputStream outputStream, Charset charset, int bufferSize, boolean flushOnFullBuffer) {
+        if(outputStream == null) {
+            throw new IllegalArgumentException("null 'outputStream' arg in method call.");
+        }
+        if(charset == null) {
+            throw new IllegalArgumentException("null 'charset' arg in method call.");
+        }
+        this.outputStream = outputStream;
+        this.bufferSize = Math.max(bufferSize, MIN_BUFFER_SIZE);
+        this.flushOnFullBuffer = flushOnFullBuffer;
+
+        String charsetName = charset.name();
+        if(charsetName.equals("UTF-8")) {
+            encoding = Encoding.UTF_8;
+        } else if(charsetName.equals("ISO-8859-1")) {
+            encoding = Encoding.ISO_8859_1;
+        } else if(charsetName.equals("US-ASCII")) {
+            encoding = Encoding.US_ASCII;
+        } else {
+            encoding = Encoding.OTHER;
+        }
+
+        if(encoding == Encoding.OTHER) {
+            encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+            charBuffer = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+        } else {
+            encoder = null;
+            charBuffer = null;
+        }
+    }
+
+    /**
+     * Create a writer for the supplied {@link javax.xml.transform.stream.StreamResult} output stream.
+     * <p/>
+     * The encoding is the execution context content encoding and the buffer size and flush policy are
+     * taken from the {@link Filter#OUTPUT_BUFFER_SIZE} and {@link Filter#OUTPUT_FLUSH_POLICY} filter parameters.
+     *
+     * @param outputStream The output stream.
+     * @param executionContext The execution context, or null if there is no execution context.
+     * @return The writer.
+     * @throws UnsupportedEncodingException The content encoding is not supported.
+     */
+    public static BufferedStreamResultWriter newWriter(OutputStream outputStream, ExecutionContext executionContext) throws UnsupportedEncodingException {
+        if(executionContext == null || executionContext.getDeliveryConfig() == null) {
+            return new BufferedStreamResultWriter(outputStream, Charset.forName("UTF-8"), DEFAULT_BUFFER_SIZE, false);
+        }
+
+        ContentDeliveryConfig deliveryConfig = executionContext.getDeliveryConfig();
+        int bufferSize = getOutputBufferSize(deliveryConfig);
+        boolean flushOnFullBuffer = (getOutputFlushPolicy(deliveryConfig) == OutputFlushPolicy.BYTES);
+
+        return new BufferedStreamResultWriter(outputStream, toCharset(executionContext.getContentEncoding()), bufferSize, flushOnFullBuffer);
+    }
+
+    /**
+     * Get the configured output flush policy.
+     * @param deliveryConfig The content delivery config.
+     * @return The {@link Filter#OUTPUT_FLUSH_POLICY} filter parameter value.  Defaults to {@link OutputFlushPolicy#END}.
+     */
+    public static OutputFlushPolicy getOutputFlushPolicy(ContentDeliveryConfig deliveryConfig) {
+        String policy = ParameterAccessor.getStringParameter(Filter.OUTPUT_FLUSH_POLICY, deliveryConfig);
+
+        if(policy == null || policy.trim().length() == 0) {
+            return OutputFlushPolicy.END;
+        }
+        try {
+            return OutputFlushPolicy.valueOf(policy.trim().toUpperCase());
+        } catch(IllegalArgumentException e) {
+            throw new SmooksException("Invalid '" + Filter.OUTPUT_FLUSH_POLICY + "' parameter value '" + policy + "'.", e);
+        }
+    }
+
+    private static int getOutputBufferSize(ContentDeliveryConfig deliveryConfig) {
+        String bufferSize = ParameterAccessor.getStringParameter(Filter.OUTPUT_BUFFER_SIZE, deliveryConfig);
+
+        if(bufferSize == null || bufferSize.trim().length() == 0) {
+            return DEFAULT_BUFFER_SIZE;
+        }
+        try {
+            return Integer.parseInt(bufferSize.trim());
+        } catch(NumberFormatException e) {
+            throw new SmooksException("Invalid '" + Filter.OUTPUT_BUFFER_SIZE + "' parameter value '" + bufferSize + "'.  Must be an integer.", e);
+        }
+    }
+
+    private static Charset toCharset(String encoding) throws UnsupportedEncodingException {
+        try {
+            return Charset.forName(encoding);
+        } catch(IllegalCharsetNameException e) {
+            throw new UnsupportedEncodingException(encoding);
+        } catch(UnsupportedCharsetException e) {
+            throw new UnsupportedEncodingException(encoding);
+        }
+    }
+
+    public void write(int c) throws IOException {
+        if(encoder != null) {
+            ensureOpen();
+            if(!charBuffer.hasRemaining()) {
+                encodeChars(false);
+            }
+            charBuffer.put((char) c);
+        } else {
+            encode((char) c);
+        }
+    }
+
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        if(encoder != null) {
+            for(int i = 0; i < len; i++) {
+                write(cbuf[off + i]);
+            }
+            return;
+        }
+
+        ByteBuffer byteBuffer = getBuffer();
+        byte[] bytes = byteBuffer.array();
+        int pos = byteBuffer.position();
+        int end = off + len;
+
+        for(int i = off; i < end; i++) {
+            char c = cbuf[i];
+
+            if(c < 0x80 && highSurrogate == 0) {
+                if(pos == bytes.length) {
+                    ((Buffer) byteBuffer).position(pos);
+                    drainBuffer();
+                    pos = 0;
+                }
+                bytes[pos++] = (byte) c;
+            } else {
+                ((Buffer) byteBuffer).position(pos);
+                encode(c);
+                pos = byteBuffer.position();
+            }
+        }
+        ((Buffer) byteBuffer).position(pos);
+    }
+
+    public void write(String str, int off, int len) throws IOException {
+        if(encoder != null) {
+            for(int i = 0; i < len; i++) {
+                write(str.charAt(off + i));
+            }
+            return;
+        }
+
+        ByteBuffer byteBuffer = getBuffer();
+        byte[] bytes = byteBuffer.array();
+        int pos = byteBuffer.position();
+        int end = off + len;
+
+        for(int i = off; i < end; i++) {
+            char c = str.charAt(i);
+
+            if(c < 0x80 && highSurrogate == 0) {
+                if(pos == bytes.length) {
+                    ((Buffer) byteBuffer).position(pos);
+                    drainBuffer();
+                    pos = 0;
+                }
+                bytes[pos++] = (byte) c;
+            } else {
+                ((Buffer) byteBuffer).position(pos);
+                encode(c);
+                pos = byteBuffer.position();
+            }
+        }
+        ((Buffer) byteBuffer).position(pos);
+    }
+
+    /**
+     * Write the buffered output to the output stream, without flushing the output stream.
+     * @throws IOException Error writing to the output stream.
+     */
+    public void flushBuffer() throws IOException {
+        if(buffer == null && encoder == null) {
+            return;
+        }
+        if(encoder != null) {
+            encodeChars(false);
+        }
+        writeBuffer();
+    }
+
+    public void flush() throws IOException {
+        ensureOpen();
+        flushBuffer();
+        outputStream.flush();
+    }
+
+    /**
+     * Write the buffered output to the output stream and return the output buffer to the buffer pool.
+     * <p/>
+     * The writer can still be used after calling this method, but will need to allocate a new buffer.
+     *
+     * @throws IOException Error writing to the output stream.
+     */
+    public void release() throws IOException {
+        try {
+            flushBuffer();
+        } finally {
+            releaseBuffer();
+        }
+    }
+
+    public void close() throws IOException {
+        if(closed) {
+            return;
+        }
+        try {
+            if(highSurrogate != 0) {
+                highSurrogate = 0;
+                putByte((byte) '?');
+            }
+            if(encoder != null) {
+                encodeChars(true);
+                while(encoder.flush(getBuffer()).isOverflow()) {
+                    writeBuffer();
+                }
+            }
+            writeBuffer();
+            outputStream.flush();
+        } finally {
+            closed = true;
+            releaseBuffer();
+            outputStream.close();
+        }
+    }
+
+    private void encode(char c) throws IOException {
+        ByteBuffer byteBuffer = getBuffer();
+
+        if(byteBuffer.remaining() < 4) {
+            drainBuffer();
+        }
+
+        if(highSurrogate != 0) {
+            char high = highSurrogate;
+
+            highSurrogate = 0;
+            if(Character.isLowSurrogate(c)) {
+                if(encoding == Encoding.UTF_8) {
+                    int codePoint = Character.toCodePoint(high, c);
+                    byteBuffer.put((byte) (0xF0 | (codePoint >> 18)));
+                    byteBuffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                    byteBuffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                    byteBuffer.put((byte) (0x80 | (codePoint & 0x3F)));
+                } else {
+                    byteBuffer.put((byte) '?');
+                }
+                return;
+            }
+            // Unpaired high surrogate...
+            byteBuffer.put((byte) '?');
+        }
+
+        if(Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if(c < 0x80) {
+            byteBuffer.put((byte) c);
+        } else if(encoding == Encoding.ISO_8859_1) {
+            byteBuffer.put(c <= 0xFF ? (byte) c : (byte) '?');
+        } else if(encoding == Encoding.US_ASCII || Character.isLowSurrogate(c)) {
+            byteBuffer.put((byte) '?');
+        } else if(c < 0x800) {
+            byteBuffer.put((byte) (0xC0 | (c >> 6)));
+            byteBuffer.put((byte) (0x80 | (c & 0x3F)));
+        } else {
+            byteBuffer.put((byte) (0xE0 | (c >> 12)));
+            byteBuffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+            byteBuffer.put((byte) (0x80 | (c & 0x3F)));
+        }
+    }
+
+    private void encodeChars(boolean endOfInput) throws IOException {
+        ByteBuffer byteBuffer = getBuffer();
+
+        ((Buffer) charBuffer).flip();
+        while(encoder.encode(charBuffer, byteBuffer, endOfInput).isOverflow()) {
+            drainBuffer();
+        }
+        // Any remaining char is an incomplete surrogate pair...
+        charBuffer.compact();
+    }
+
+    private void putByte(byte b) throws IOException {
+        ByteBuffer byteBuffer = getBuffer();
+
+        if(!byteBuffer.hasRemaining()) {
+            drainBuffer();
+        }
+        byteBuffer.put(b);
+    }
+
+    private void drainBuffer() throws IOException {
+        writeBuffer();
+        if(flushOnFullBuffer) {
+            outputStream.flush();
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        if(buffer != null && buffer.position() > 0) {
+            outputStream.write(buffer.array(), buffer.arrayOffset(), buffer.position());
+            ((Buffer) buffer).clear();
+        }
+    }
+
+    private ByteBuffer getBuffer() throws IOException {
+        if(buffer == null) {
+            ensureOpen();
+            if(bufferSize == DEFAULT_BUFFER_SIZE) {
+                buffer = BUFFER_POOL.borrow();
+            }
+            if(buffer == null) {
+                buffer = ByteBuffer.allocate(bufferSize);
+            }
+        }
+        return buffer;
+    }
+
+    private void releaseBuffer() {
+        if(buffer != null) {
+            if(buffer.capacity() == DEFAULT_BUFFER_SIZE) {
+                ((Buffer) buffer).clear();
+                BUFFER_POOL.release(buffer);
+            }
+            buffer = null;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if(closed) {
+            throw new IOException("Writer closed.");
+        }
+    }
+}
@@ -69,10 +69,6 @@ public class ContentDeliveryConfigBuilder {
 	 * Logger.
 	 */
 	private static final Logger LOGGER = LoggerFactory.getLogger(ContentDeliveryConfigBuilder.class);
-	/**
-	 * Context key for the table of loaded ContentDeliveryConfig instances.
-	 */
-	private static final String DELIVERY_CONFIG_TABLE_CTX_KEY = ContentDeliveryConfig.class.getName() + "#configTable";
 	/**
 	 * Profile set.
 	 */
@@ -122,58 +118,47 @@ public class ContentDeliveryConfigBuilder {
 
 	/**
 	 * Get the ContentDeliveryConfig instance for the specified profile set.
+	 * <p/>
+	 * The config is built on the first call for a profile set and extended visitor config, and then
+	 * served from the application context's {@link ContentDeliveryConfigTable}.
 	 * @param profileSet The profile set with which this delivery config is associated.
 	 * @param applicationContext Application context.
      * @param extendedVisitorConfigMap Preconfigured/extended Visitor Configuration Map.
      * @return The ContentDeliveryConfig instance for the named table.
 	 */
 	public static ContentDeliveryConfig getConfig(ProfileSet profileSet, ApplicationContext applicationContext, VisitorConfigMap extendedVisitorConfigMap) {
-		ContentDeliveryConfig config;
-		LinkedHashMap<String, ContentDeliveryConfig> configTable;
-
 		if(profileSet == null) {
 			throw new IllegalArgumentException("null 'profileSet' arg passed in method call.");
 		} else if(applicationContext == null) {
 			throw new IllegalArgumentException("null 'applicationContext' arg passed in method call.");
 		}
 
-		// Get the delivery config config from container context.
-        configTable = getDeliveryConfigTable(applicationContext);
-        if(configTable == null) {
-            synchronized(ContentDeliveryConfigBuilder.class) {
-                // Try again, just in case we have 1+ threads firing...
-                configTable = getDeliveryConfigTable(applicationContext);
-                if(configTable == null) {
-                    configTable = new LinkedHashMap<String, ContentDeliveryConfig>();
-                    applicationContext.setAttribute(DELIVERY_CONFIG_TABLE_CTX_KEY, configTable);
-                }
-            }
-        }
-		// Get the delivery config instance for the base profile...
-		config = configTable.get(profileSet.getBaseProfile());
-		if(config == null) {
-            synchronized(ContentDeliveryConfigBuilder.class) {
-                // Try again, just in case we have 1+ threads firing on the same profile...
-                config = configTable.get(profileSet.getBaseProfile());
-                if(config == null) {
-                    ContentDeliveryConfigBuilder configBuilder = new ContentDeliveryConfigBuilder(profileSet, applicationContext);
-                    configBuilder.load();
-                    config = configBuilder.createConfig(extendedVisitorConfigMap);
-                    configTable.put(profileSet.getBaseProfile(), config);
-                }
-            }
-        }
+		return ContentDeliveryConfigTable.getInstance(applicationContext).getConfig(profileSet, applicationContext, extendedVisitorConfigMap);
+	}
 
-		return config;
+	/**
+	 * Build a new ContentDeliveryConfig instance for the specified profile set.
+	 * @param profileSet The profile set with which this delivery config is associated.
+	 * @param applicationContext Application context.
+     * @param extendedVisitorConfigMap Preconfigured/extended Visitor Configuration Map.
+     * @return The new ContentDeliveryConfig instance.
+	 */
+	static ContentDeliveryConfig buildConfig(ProfileSet profileSet, ApplicationContext applicationContext, VisitorConfigMap extendedVisitorConfigMap) {
+		ContentDeliveryConfigBuilder configBuilder = new ContentDeliveryConfigBuilder(profileSet, applicationContext);
+
+		configBuilder.load();
+
+		return configBuilder.createConfig(extendedVisitorConfigMap);
 	}
 
     private ContentDeliveryConfig createConfig(VisitorConfigMap extendedVisitorConfigMap) {
         boolean sortVisitors = ParameterAccessor.getBoolParameter(ContentDeliveryConfig.SMOOKS_VISITORS_SORT, true, resourceConfigTable);
+        boolean domWindows = ParameterAccessor.getBoolParameter(Filter.DOM_WINDOWS, false, resourceConfigTable);
         StreamFilterType filterType;
 
         visitorConfig.addAll(extendedVisitorConfigMap);
 
-        filterType = getStreamFilterType();
+        filterType = getStreamFilterType(domWindows);
         configBuilderEvents.add(new ConfigBuilderEvent("SAX/DOM support characteristics of the Resource Configuration map:\n" + getResourceFilterCharacteristics()));
         configBuilderEvents.add(new ConfigBuilderEvent("Using Stream Filter Type: " + filterType));
 
@@ -209,9 +194,13 @@ public class ContentDeliveryConfigBuilder {
             SAXContentDeliveryConfig saxConfig = new SAXContentDeliveryConfig();
 
             LOGGER.debug("Using the SAX Stream Filter.");
+            if(domWindows) {
+                saxConfig.setVisitCleanables(addDOMWindowVisitor(saxConfig, sortVisitors));
+            } else {
+                saxConfig.setVisitCleanables(visitorConfig.getVisitCleanables());
+            }
             saxConfig.setVisitBefores(visitorConfig.getSaxVisitBefores());
             saxConfig.setVisitAfters(visitorConfig.getSaxVisitAfters());
-            saxConfig.setVisitCleanables(visitorConfig.getVisitCleanables());
 
             saxConfig.setApplicationContext(applicationContext);
             saxConfig.setSmooksResourceConfigurations(resourceConfigTable);
@@ -237,7 +226,95 @@ public class ContentDeliveryConfigBuilder {
         }
     }
 
-    private StreamFilterType getStreamFilterType() {
+    /**
+     * Configure DOM window mode.
+     * <p/>
+     * The visitors that only support DOM filtering are moved into a DOM delivery configuration, which is
+     * applied to DOM windows by a {@link DOMWindowVisitor}.  The {@link DOMWindowVisitor} is added to the
+     * SAX visitor tables, targeted using the resource configurations of the DOM visitors.
+     *
+     * @param saxConfig The SAX delivery configuration.
+     * @param sortVisitors Sort the DOM visitors.
+     * @return The {@link VisitLifecycleCleanable} table for the SAX filter i.e. excluding the DOM only visitors.
+     */
+    private ContentHandlerConfigMapTable<VisitLifecycleCleanable> addDOMWindowVisitor(SAXContentDeliveryConfig saxConfig, boolean sortVisitors) {
+        DOMContentDeliveryConfig windowConfig = new DOMContentDeliveryConfig();
+        ContentHandlerConfigMapTable<VisitLifecycleCleanable> saxCleanables = new ContentHandlerConfigMapTable<VisitLifecycleCleanable>();
+        ContentHandlerConfigMapTable<VisitLifecycleCleanable> windowCleanables = new ContentHandlerConfigMapTable<VisitLifecycleCleanable>();
+
+        windowConfig.setAssemblyVisitBefores(getDOMOnlyVisitors(visitorConfig.getDomAssemblyVisitBefores(), null));
+        windowConfig.setAssemblyVisitAfters(getDOMOnlyVisitors(visitorConfig.getDomAssemblyVisitAfters(), null));
+        windowConfig.setProcessingVisitBefores(getDOMOnlyVisitors(visitorConfig.getDomProcessingVisitBefores(), null));
+        windowConfig.setProcessingVisitAfters(getDOMOnlyVisitors(visitorConfig.getDomProcessingVisitAfters(), null));
+        windowConfig.setSerializationVisitors(getDOMOnlyVisitors(visitorConfig.getDomSerializationVisitors(), null));
+        windowCleanables.addAll(getDOMOnlyVisitors(visitorConfig.getVisitCleanables(), saxCleanables));
+        windowConfig.setVisitCleanables(windowCleanables);
+
+        windowConfig.setApplicationContext(applicationContext);
+        windowConfig.setSmooksResourceConfigurations(resourceConfigTable);
+        windowConfig.setDtd(dtd);
+        if(sortVisitors) {
+            windowConfig.sort();
+        }
+
+        boolean recycleDocuments = ParameterAccessor.getBoolParameter(Filter.DOM_WINDOWS_RECYCLE_DOCUMENTS, false, resourceConfigTable);
+        DOMWindowVisitor windowVisitor = new DOMWindowVisitor(windowConfig, recycleDocuments);
+        Set<SmooksResourceConfiguration> windowTargets = Collections.newSetFromMap(new IdentityHashMap<SmooksResourceConfiguration, Boolean>());
+
+        addDOMWindowMappings(windowConfig.getAssemblyVisitBefores(), windowVisitor, windowTargets);
+        addDOMWindowMappings(windowConfig.getAssemblyVisitAfters(), windowVisitor, windowTargets);
+        addDOMWindowMappings(windowConfig.getProcessingVisitBefores(), windowVisitor, windowTargets);
+        addDOMWindowMappings(windowConfig.getProcessingVisitAfters(), windowVisitor, windowTargets);
+        addDOMWindowMappings(windowConfig.getSerializationVisitors(), windowVisitor, windowTargets);
+
+        // The DOM only visitors are not in the SAX tables, so add them to the SAX config's execution lifecycle sets here...
+        saxConfig.addToExecutionLifecycleSets(windowConfig.getAssemblyVisitBefores());
+        saxConfig.addToExecutionLifecycleSets(windowConfig.getAssemblyVisitAfters());
+        saxConfig.addToExecutionLifecycleSets(windowConfig.getProcessingVisitBefores());
+        saxConfig.addToExecutionLifecycleSets(windowConfig.getProcessingVisitAfters());
+        saxConfig.addToExecutionLifecycleSets(windowConfig.getSerializationVisitors());
+
+        configBuilderEvents.add(new ConfigBuilderEvent("DOM window mode.  Applying " + windowTargets.size() + " DOM only resource configurations to DOM windows."));
+
+        return saxCleanables;
+    }
+
+    /**
+     * Get the visitors from the supplied table that don't support SAX filtering.
+     * @param table The visitor table.
+     * @param saxVisitors The table to which the visitors supporting SAX filtering are to be added, or null.
+     * @return The DOM only visitor table.
+     */
+    private <T extends ContentHandler> ContentHandlerConfigMapTable<T> getDOMOnlyVisitors(ContentHandlerConfigMapTable<T> table, ContentHandlerConfigMapTable<T> saxVisitors) {
+        ContentHandlerConfigMapTable<T> domOnlyVisitors = new ContentHandlerConfigMapTable<T>();
+
+        for(Map.Entry<String, List<ContentHandlerConfigMap<T>>> entry : table.getTable().entrySet()) {
+            for(ContentHandlerConfigMap<T> mapping : entry.getValue()) {
+                if(!VisitorConfigMap.isSAXVisitor(mapping.getContentHandler())) {
+                    domOnlyVisitors.addMapping(entry.getKey(), mapping.getResourceConfig(), mapping.getContentHandler());
+                } else if(saxVisitors != null) {
+                    saxVisitors.addMapping(entry.getKey(), mapping.getResourceConfig(), mapping.getContentHandler());
+                }
+            }
+        }
+
+        return domOnlyVisitors;
+    }
+
+    private <T extends ContentHandler> void addDOMWindowMappings(ContentHandlerConfigMapTable<T> table, DOMWindowVisitor windowVisitor, Set<SmooksResourceConfiguration> windowTargets) {
+        for(Map.Entry<String, List<ContentHandlerConfigMap<T>>> entry : table.getTable().entrySet()) {
+            for(ContentHandlerConfigMap<T> mapping : entry.getValue()) {
+                SmooksResourceConfiguration resourceConfig = mapping.getResourceConfig();
+
+                if(windowTargets.add(resourceConfig)) {
+                    visitorConfig.getSaxVisitBefores().addMapping(entry.getKey(), resourceConfig, windowVisitor);
+                    visitorConfig.getSaxVisitAfters().addMapping(entry.getKey(), resourceConfig, windowVisitor);
+                }
+            }
+        }
+    }
+
+    private StreamFilterType getStreamFilterType(boolean domWindows) {
         StreamFilterType filterType;
 
         if(LOGGER.isDebugEnabled()) {
@@ -246,6 +323,14 @@ public class ContentDeliveryConfigBuilder {
 
         String filterTypeParam = ParameterAccessor.getStringParameter(Filter.STREAM_FILTER_TYPE, resourceConfigTable);
 
+        if(domWindows) {
+            // DOM only visitors are applied to DOM windows on the SAX filter...
+            if(filterTypeParam != null && !filterTypeParam.equalsIgnoreCase(StreamFilterType.SAX.name())) {
+                throw new SmooksException("The configured Filter ('" + filterTypeParam + "') cannot be used with the '" + Filter.DOM_WINDOWS + "' filter parameter.  DOM windows are only supported by the SAX Filter.");
+            }
+            return StreamFilterType.SAX;
+        }
+
         if(visitorConfig.getSaxVisitorCount() == visitorConfig.getVisitorCount() && visitorConfig.getDomVisitorCount() == visitorConfig.getVisitorCount()) {
 
             if(filterTypeParam == null) {
@@ -332,11 +417,6 @@ public class ContentDeliveryConfigBuilder {
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private static LinkedHashMap<String, ContentDeliveryConfig> getDeliveryConfigTable(ApplicationContext applicationContext) {
-        return (LinkedHashMap) applicationContext.getAttribute(DELIVERY_CONFIG_TABLE_CTX_KEY);
-    }
-
     /**
 	 * Build the ContentDeliveryConfigBuilder for the specified device.
 	 * <p/>
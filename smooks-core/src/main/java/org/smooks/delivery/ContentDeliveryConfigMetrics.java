@@ -0,0 +1,112 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.delivery;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link ContentDeliveryConfig} lookup metrics for a profile.
+ * <p/>
+ * Counts the {@link ContentDeliveryConfigTable} lookups that were served from the table (hits) and
+ * those that had to build the delivery config (misses), along with the time spent building.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class ContentDeliveryConfigMetrics {
+
+    private final String profile;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder buildTimeNanos = new LongAdder();
+
+    public ContentDeliveryConfigMetrics(String profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * Get the base profile to which these metrics apply.
+     * @return The base profile.
+     */
+    public String getProfile() {
+        return profile;
+    }
+
+    /**
+     * Get the number of lookups served from the config table.
+     * @return The hit count.
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Get the number of lookups that built the delivery config.
+     * @return The miss count.
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Get the total time spent building delivery configs for the profile.
+     * @param unit The time unit.
+     * @return The build time.
+     */
+    public long getBuildTime(TimeUnit unit) {
+        return unit.convert(buildTimeNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    void recordHit() {
+        hitCount.increment();
+    }
+
+    void recordMiss(long buildTimeNanos) {
+        missCount.increment();
+        this.buildTimeNanos.add(buildTimeNanos);
+    }
+
+    public String toString() {
+        return "profile=" + profile + ", hits=" + getHitCount() + ", misses=" + getMissCount() + ", buildTime=" + getBuildTime(TimeUnit.MILLISECONDS) + "ms";
+    }
+}
@@ -0,0 +1,218 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.delivery;
+
+import org.smooks.container.ApplicationContext;
+import org.smooks.profile.ProfileSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Table of built {@link ContentDeliveryConfig} instances for an {@link ApplicationContext}.
+ * <p/>
+ * Delivery configs are keyed by base profile and extended {@link VisitorConfigMap} and are built once.
+ * Lookups of a built config don't take any locks.  Building a config only locks the table entry for that
+ * key, so builds for different keys, and lookups on other application contexts, don't contend.
+ * <p/>
+ * The table also maintains per profile {@link ContentDeliveryConfigMetrics}.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class ContentDeliveryConfigTable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContentDeliveryConfigTable.class);
+    /**
+     * Context key for the table of loaded ContentDeliveryConfig instances.
+     */
+    private static final String CONFIG_TABLE_CTX_KEY = ContentDeliveryConfig.class.getName() + "#configTable";
+
+    private final ConcurrentMap<ConfigKey, ConfigEntry> entries = new ConcurrentHashMap<ConfigKey, ConfigEntry>();
+    private final ConcurrentMap<String, ContentDeliveryConfigMetrics> metrics = new ConcurrentHashMap<String, ContentDeliveryConfigMetrics>();
+
+    /**
+     * Get the config table for the supplied application context, creating it if needed.
+     * @param applicationContext The application context.
+     * @return The config table.
+     */
+    public static ContentDeliveryConfigTable getInstance(ApplicationContext applicationContext) {
+        ContentDeliveryConfigTable table = (ContentDeliveryConfigTable) applicationContext.getAttribute(CONFIG_TABLE_CTX_KEY);
+
+        if(table == null) {
+            // Only ever contended the first time a context is used...
+            synchronized(applicationContext) {
+                table = (ContentDeliveryConfigTable) applicationContext.getAttribute(CONFIG_TABLE_CTX_KEY);
+                if(table == null) {
+                    table = new ContentDeliveryConfigTable();
+                    applicationContext.setAttribute(CONFIG_TABLE_CTX_KEY, table);
+                }
+            }
+        }
+
+        return table;
+    }
+
+    /**
+     * Get the delivery config lookup metrics for the specified base profile.
+     * @param profile The base profile.
+     * @return The metrics, or null if there have been no lookups for the profile.
+     */
+    public ContentDeliveryConfigMetrics getMetrics(String profile) {
+        return metrics.get(profile);
+    }
+
+    /**
+     * Get the delivery config lookup metrics for all profiles.
+     * @return The metrics, keyed by base profile.
+     */
+    public Map<String, ContentDeliveryConfigMetrics> getMetrics() {
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    /**
+     * Get the delivery config for the supplied profile set and extended visitor config, building it if needed.
+     * @param profileSet The profile set.
+     * @param applicationContext The application context.
+     * @param extendedVisitorConfigMap Preconfigured/extended Visitor Configuration Map.
+     * @return The delivery config.
+     */
+    ContentDeliveryConfig getConfig(ProfileSet profileSet, ApplicationContext applicationContext, VisitorConfigMap extendedVisitorConfigMap) {
+        ConfigKey key = new ConfigKey(profileSet.getBaseProfile(), extendedVisitorConfigMap);
+        ConfigEntry entry = entries.get(key);
+
+        if(entry == null) {
+            ConfigEntry newEntry = new ConfigEntry(getOrCreateMetrics(key.profile));
+
+            entry = entries.putIfAbsent(key, newEntry);
+            if(entry == null) {
+                entry = newEntry;
+            }
+        }
+
+        return entry.getConfig(profileSet, applicationContext, extendedVisitorConfigMap);
+    }
+
+    private ContentDeliveryConfigMetrics getOrCreateMetrics(String profile) {
+        ContentDeliveryConfigMetrics profileMetrics = metrics.get(profile);
+
+        if(profileMetrics == null) {
+            ContentDeliveryConfigMetrics newMetrics = new ContentDeliveryConfigMetrics(profile);
+
+            profileMetrics = metrics.putIfAbsent(profile, newMetrics);
+            if(profileMetrics == null) {
+                profileMetrics = newMetrics;
+            }
+        }
+
+        return profileMetrics;
+    }
+
+    /**
+     * Config table key.  The extended visitor config is compared by identity.
+     */
+    private static final class ConfigKey {
+
+        private final String profile;
+        private final VisitorConfigMap extendedVisitorConfigMap;
+
+        private ConfigKey(String profile, VisitorConfigMap extendedVisitorConfigMap) {
+            this.profile = profile;
+            this.extendedVisitorConfigMap = extendedVisitorConfigMap;
+        }
+
+        public int hashCode() {
+            return profile.hashCode() * 31 + System.identityHashCode(extendedVisitorConfigMap);
+        }
+
+        public boolean equals(Object obj) {
+            if(!(obj instanceof ConfigKey)) {
+                return false;
+            }
+
+            ConfigKey other = (ConfigKey) obj;
+            return profile.equals(other.profile) && extendedVisitorConfigMap == other.extendedVisitorConfigMap;
+        }
+    }
+
+    /**
+     * Config table entry.  Builds the delivery config once.  A failed build is retried on the next lookup.
+     */
+    private static final class ConfigEntry {
+
+        private final ContentDeliveryConfigMetrics metrics;
+        private volatile ContentDeliveryConfig config;
+
+        private ConfigEntry(ContentDeliveryConfigMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        private ContentDeliveryConfig getConfig(ProfileSet profileSet, ApplicationContext applicationContext, VisitorConfigMap extendedVisitorConfigMap) {
+            ContentDeliveryConfig builtConfig = config;
+
+            if(builtConfig == null) {
+                synchronized(this) {
+                    builtConfig = config;
+                    if(builtConfig == null) {
+                        long start = System.nanoTime();
+
+                        builtConfig = ContentDeliveryConfigBuilder.buildConfig(profileSet, applicationContext, extendedVisitorConfigMap);
+                        config = builtConfig;
+                        metrics.recordMiss(System.nanoTime() - start);
+                        if(LOGGER.isDebugEnabled()) {
+                            LOGGER.debug("Built delivery config for profile '" + profileSet.getBaseProfile() + "'. " + metrics);
+                        }
+
+                        return builtConfig;
+                    }
+                }
+            }
+            metrics.recordHit();
+
+            return builtConfig;
+        }
+    }
+}
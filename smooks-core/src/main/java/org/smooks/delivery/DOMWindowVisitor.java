@@ -0,0 +1,279 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.delivery;
+
+import org.smooks.SmooksException;
+import org.smooks.assertion.AssertArgument;
+import org.smooks.container.ExecutionContext;
+import org.smooks.delivery.dom.DOMContentDeliveryConfig;
+import org.smooks.delivery.dom.SmooksDOMFilter;
+import org.smooks.delivery.dom.serialize.Serializer;
+import org.smooks.delivery.sax.*;
+import org.smooks.io.NullWriter;
+import org.smooks.xml.DocumentPool;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DOM window visitor.
+ * <p/>
+ * Applies visitors that only support DOM filtering from within the SAX filter, when the
+ * {@link Filter#DOM_WINDOWS} filter parameter is turned on.  The visitor is targeted at the
+ * same elements as the DOM visitors.  When it visits an element and no window is open, it
+ * opens a "window" on the element:
+ * <ol>
+ *     <li>A DOM fragment of the element is built from the SAX events, in the same way as the
+ *         {@link DomModelCreator}.  The element's SAX ancestors are added to the fragment as
+ *         "shell" elements (no content), so that contextual selectors can be applied.</li>
+ *     <li>Serialization of the element to the SAX output is suppressed.</li>
+ *     <li>On the element's visitAfter event, the DOM visitors are applied to the fragment (assembly and
+ *         processing phases), after which the fragment is serialized to the SAX output in place of the element.</li>
+ * </ol>
+ * Elements targeted by DOM visitors within an open window are part of the window's fragment, and are visited
+ * as part of the window.  Only one window is therefore ever open at a time, with the fragment being released as
+ * soon as it is serialized.  Peak memory is bounded by the largest window, rather than by the document.
+ * <p/>
+ * The window's {@link Document} is only recycled through the shared {@link DocumentPool} if the
+ * {@link Filter#DOM_WINDOWS_RECYCLE_DOCUMENTS} parameter is turned on (off by default), because the window
+ * visitors may keep references to the window's nodes (e.g. DOM bean bindings or {@link DOMModel} entries).
+ * <p/>
+ * The visitor is configured by the {@link ContentDeliveryConfigBuilder}.  It should not be configured directly.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class DOMWindowVisitor implements SAXVisitBefore, SAXVisitAfter {
+
+    private final DOMContentDeliveryConfig windowConfig;
+    private final boolean recycleDocuments;
+
+    /**
+     * Public constructor.
+     * <p/>
+     * Window {@link Document Documents} are not recycled.
+     * @param windowConfig The DOM delivery configuration, containing the visitors to be applied to the windows.
+     */
+    public DOMWindowVisitor(DOMContentDeliveryConfig windowConfig) {
+        this(windowConfig, false);
+    }
+
+    /**
+     * Public constructor.
+     * @param windowConfig The DOM delivery configuration, containing the visitors to be applied to the windows.
+     * @param recycleDocuments Return the window {@link Document Documents} to the {@link DocumentPool} once the
+     * windows are serialized.
+     */
+    public DOMWindowVisitor(DOMContentDeliveryConfig windowConfig, boolean recycleDocuments) {
+        AssertArgument.isNotNull(windowConfig, "windowConfig");
+        this.windowConfig = windowConfig;
+        this.recycleDocuments = recycleDocuments;
+    }
+
+    /**
+     * Get the DOM delivery configuration containing the visitors applied to the windows.
+     * @return The DOM delivery configuration.
+     */
+    public DOMContentDeliveryConfig getWindowConfig() {
+        return windowConfig;
+    }
+
+    public void visitBefore(SAXElement element, ExecutionContext executionContext) throws SmooksException, IOException {
+        WindowState state = getState(executionContext);
+
+        if(state.window != null) {
+            // Already in a window.  The element is part of that window...
+            return;
+        }
+
+        Window window = new Window(element);
+
+        // Take ownership of the element writer, swapping it for a NullWriter, so as to suppress
+        // serialization of the element and its children...
+        window.writer = element.getWriter(this);
+        element.setWriter(new NullWriter(window.writer), this);
+
+        state.window = window;
+        DynamicSAXElementVisitorList.addDynamicVisitor(window, executionContext);
+    }
+
+    public void visitAfter(SAXElement element, ExecutionContext executionContext) throws SmooksException, IOException {
+        WindowState state = getState(executionContext);
+        Window window = state.window;
+
+        if(window == null || window.element != element) {
+            // Not the window element...
+            return;
+        }
+
+        // Close the window before filtering it, so as to release it even if filtering fails...
+        state.window = null;
+        DynamicSAXElementVisitorList.removeDynamicVisitor(window, executionContext);
+
+        Element windowElement = window.getWindowElement();
+        if(windowElement == null) {
+            return;
+        }
+
+        SmooksDOMFilter domFilter = new SmooksDOMFilter(executionContext, windowConfig);
+        domFilter.filter(windowElement);
+
+        // Serialize the fragment (what's now in the window element's place, in the parent shell).  No need
+        // to serialize if the output is being discarded...
+        if(!(window.writer instanceof NullWriter)) {
+            Serializer serializer = new Serializer(window.parentShell, executionContext, windowConfig);
+            serializer.serializeChildElements(window.writer);
+        }
+
+        if(recycleDocuments) {
+            DocumentPool.getInstance().recycle(window.document);
+        }
+    }
+
+    private WindowState getState(ExecutionContext executionContext) {
+        WindowState state = (WindowState) executionContext.getAttribute(WindowState.class);
+
+        if(state == null) {
+            state = new WindowState();
+            executionContext.setAttribute(WindowState.class, state);
+        }
+
+        return state;
+    }
+
+    /**
+     * Per execution window state.
+     */
+    private static class WindowState {
+
+        private Window window;
+    }
+
+    /**
+     * DOM window.
+     * <p/>
+     * Installed as a dynamic visitor while the window is open, building the window fragment from the SAX events.
+     */
+    private static class Window implements SAXElementVisitor {
+
+        private final SAXElement element;
+        private final Document document;
+        private final Node parentShell;
+        private Node currentNode;
+        private Writer writer;
+
+        private Window(SAXElement element) {
+            this.element = element;
+            document = DocumentPool.getInstance().newDocument();
+            parentShell = createShells(element.getParent());
+            currentNode = parentShell;
+        }
+
+        private Node createShells(SAXElement parent) {
+            List<SAXElement> ancestors = new ArrayList<SAXElement>();
+            Node shell = document;
+
+            while(parent != null) {
+                ancestors.add(parent);
+                parent = parent.getParent();
+            }
+            for(int i = ancestors.size() - 1; i >= 0; i--) {
+                shell = shell.appendChild(ancestors.get(i).toDOMElement(document));
+            }
+
+            return shell;
+        }
+
+        private Element getWindowElement() {
+            Node child = parentShell.getFirstChild();
+
+            while(child != null) {
+                if(child.getNodeType() == Node.ELEMENT_NODE) {
+                    return (Element) child;
+                }
+                child = child.getNextSibling();
+            }
+
+            return null;
+        }
+
+        public void visitBefore(SAXElement element, ExecutionContext executionContext) throws SmooksException, IOException {
+            Element domElement = element.toDOMElement(document);
+
+            currentNode.appendChild(domElement);
+            currentNode = domElement;
+        }
+
+        public void onChildText(SAXElement element, SAXText childText, ExecutionContext executionContext) throws SmooksException, IOException {
+            if(currentNode == parentShell) {
+                // Text outside the window element...
+                return;
+            }
+
+            switch (childText.getType()) {
+                case CDATA:
+                    currentNode.appendChild(document.createCDATASection(childText.getText()));
+                    break;
+                case COMMENT:
+                    currentNode.appendChild(document.createComment(childText.getText()));
+                    break;
+                default:
+                    currentNode.appendChild(document.createTextNode(childText.getText()));
+                    break;
+            }
+        }
+
+        public void onChildElement(SAXElement element, SAXElement childElement, ExecutionContext executionContext) throws SmooksException, IOException {
+        }
+
+        public void visitAfter(SAXElement element, ExecutionContext executionContext) throws SmooksException, IOException {
+            if(currentNode != parentShell) {
+                currentNode = currentNode.getParentNode();
+            }
+        }
+    }
+}
@@ -45,20 +45,20 @@ package org.smooks.delivery;
 import org.smooks.SmooksException;
 import org.smooks.cdr.SmooksResourceConfiguration;
 import org.smooks.cdr.annotation.Config;
+import org.smooks.cdr.annotation.ConfigParam;
 import org.smooks.container.ExecutionContext;
 import org.smooks.delivery.dom.DOMVisitBefore;
 import org.smooks.delivery.ordering.Producer;
 import org.smooks.delivery.sax.*;
 import org.smooks.util.CollectionsUtil;
+import org.smooks.xml.DocumentPool;
 import org.smooks.xml.DomUtils;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
 import java.io.IOException;
+import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
 
@@ -120,17 +120,29 @@ import java.util.Stack;
  * at any given time, with each new "order-item" model overwriting the previous "order-item" model.
  * All this ensures that the memory footprint is kept to a minimum.
  *
+ * <h2>Document Recycling</h2>
+ * When used with SAX filtering, the model {@link Document Documents} are taken from the shared
+ * {@link DocumentPool}.  Setting the "recycleDocuments" parameter to "true" hands each model
+ * {@link Document} back to the pool (and removes the model from the {@link DOMModel}) at the end of the
+ * fragment visit (see {@link VisitLifecycleCleanable}), allowing it to be reused for the next fragment:
+ * <pre>
+ * &lt;resource-config selector="order-item"&gt;
+ *     &lt;resource&gt;org.smooks.delivery.DomModelCreator&lt;/resource&gt;
+ *     &lt;param name="recycleDocuments"&gt;true&lt;/param&gt;
+ * &lt;/resource-config&gt;
+ * </pre>
+ * Only turn this on if nothing holds on to the model (or any of its nodes) beyond the visitAfter event of
+ * the fragment e.g. the model is only used by templates or bean bindings applied to the fragment.
+ *
  * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
  */
-public class DomModelCreator implements DOMVisitBefore, SAXVisitBefore, SAXVisitAfter, Producer {
-    private DocumentBuilder documentBuilder;
+public class DomModelCreator implements DOMVisitBefore, SAXVisitBefore, SAXVisitAfter, VisitLifecycleCleanable, Producer {
 
     @Config
     private SmooksResourceConfiguration config;
 
-    public DomModelCreator() throws ParserConfigurationException {
-        documentBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-    }
+    @ConfigParam(defaultVal = "false")
+    private boolean recycleDocuments;
 
     public Set<String> getProducts() {
         return CollectionsUtil.toSet(config.getTargetElement());
@@ -149,7 +161,37 @@ public class DomModelCreator implements DOMVisitBefore, SAXVisitBefore, SAXVisit
     public void visitAfter(SAXElement element, ExecutionContext executionContext) throws SmooksException, IOException {
         // Pop the DOMCreator off the DOMCreator stack and uninstall it from the
         // Dynamic Vistor list in the SAX handler...
-        popCreator(executionContext);
+        Document document = popCreator(executionContext);
+
+        if(recycleDocuments && document != null) {
+            // Hold on to the document until the fragment visit is complete...
+            getReleasedDocuments(executionContext).push(document);
+        }
+    }
+
+    public void executeVisitLifecycleCleanup(Fragment fragment, ExecutionContext executionContext) {
+        if(!recycleDocuments) {
+            return;
+        }
+
+        Stack<Document> releasedDocuments = getReleasedDocuments(executionContext);
+        if(releasedDocuments.isEmpty()) {
+            // DOM filtering - the model is part of the main document...
+            return;
+        }
+
+        Document document = releasedDocuments.pop();
+        Element modelElement = document.getDocumentElement();
+
+        if(modelElement != null) {
+            Map<String, Element> models = DOMModel.getModel(executionContext).getModels();
+            String modelName = DomUtils.getName(modelElement);
+
+            if(models.get(modelName) == modelElement) {
+                models.remove(modelName);
+            }
+        }
+        DocumentPool.getInstance().recycle(document);
     }
 
     private void addNodeModel(Element element, ExecutionContext executionContext) {
@@ -204,13 +246,31 @@ public class DomModelCreator implements DOMVisitBefore, SAXVisitBefore, SAXVisit
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private Stack<Document> getReleasedDocuments(ExecutionContext executionContext) {
+        Stack<Document> releasedDocuments = (Stack<Document>) executionContext.getAttribute(ReleasedDocuments.class);
+
+        if(releasedDocuments == null) {
+            releasedDocuments = new Stack<Document>();
+            executionContext.setAttribute(ReleasedDocuments.class, releasedDocuments);
+        }
+
+        return releasedDocuments;
+    }
+
+    /**
+     * ExecutionContext attribute key for the stack of model documents awaiting recycling.
+     */
+    private static class ReleasedDocuments {
+    }
+
     private class DOMCreator implements SAXElementVisitor {
 
         private Document document;
         private Node currentNode;
 
         private DOMCreator() {
-            document = documentBuilder.newDocument();
+            document = DocumentPool.getInstance().newDocument();
             currentNode = document;
         }
 
@@ -42,6 +42,7 @@
  */
 package org.smooks.delivery;
 
+import org.smooks.OutputFlushPolicy;
 import org.smooks.Smooks;
 import org.smooks.SmooksException;
 import org.smooks.cdr.ParameterAccessor;
@@ -109,6 +110,56 @@ public abstract class Filter {
 
     public static final String READER_POOL_SIZE = "reader.pool.size";
 
+    public static final String RECORD_SELECTOR = "record.selector";
+
+    public static final String RECORD_WORKERS = "record.workers";
+
+    public static final String RECORD_MAX_IN_FLIGHT = "record.max.in.flight";
+
+    /**
+     * DOM window mode config parameter (SAX filter only).
+     * <p/>
+     * Visitors that only support DOM filtering are applied to DOM fragments built for the
+     * elements they target, while the rest of the stream is SAX filtered.  See
+     * {@link org.smooks.delivery.DOMWindowVisitor}.
+     */
+    public static final String DOM_WINDOWS = "dom.windows";
+
+    /**
+     * DOM window Document recycling config parameter.  Defaults to false.
+     * <p/>
+     * Return each window's {@link org.w3c.dom.Document} to the shared {@link org.smooks.xml.DocumentPool}
+     * once the window is serialized.  Only turn this on if none of the window visitors keep references to
+     * the window's nodes (e.g. DOM bean bindings or {@link org.smooks.delivery.DOMModel} entries), because
+     * a recycled Document is reused by other executions.
+     */
+    public static final String DOM_WINDOWS_RECYCLE_DOCUMENTS = "dom.windows.recycle.documents";
+
+    /**
+     * Output flush policy config parameter.  One of the {@link org.smooks.OutputFlushPolicy} names.
+     * Defaults to {@link org.smooks.OutputFlushPolicy#END END}.
+     */
+    public static final String OUTPUT_FLUSH_POLICY = "output.flush.policy";
+
+    /**
+     * Output flush selector config parameter.  The selector of the elements after which the
+     * output is flushed, when using the {@link org.smooks.OutputFlushPolicy#FRAGMENT FRAGMENT} flush policy.
+     */
+    public static final String OUTPUT_FLUSH_SELECTOR = "output.flush.selector";
+
+    /**
+     * Output buffer size config parameter.  The size (in bytes) of the buffer used when writing
+     * to a {@link StreamResult} {@link java.io.OutputStream}.  See {@link BufferedStreamResultWriter}.
+     */
+    public static final String OUTPUT_BUFFER_SIZE = "output.buffer.size";
+
+    /**
+     * Input validation XSD config parameter (SAX filter only).  A comma separated list of XSD
+     * resource URIs (classpath, file or URL).  The input is validated against these XSDs inline,
+     * as it is being filtered.  See {@link org.smooks.xml.XsdValidator#newValidatorHandler()}.
+     */
+    public static final String INPUT_VALIDATION_XSD = "input.validation.xsd";
+
     /**
      * Filter the content in the supplied {@link javax.xml.transform.Source} instance, outputing the result
      * to the supplied {@link javax.xml.transform.Result} instance.
@@ -221,11 +272,7 @@ public abstract class Filter {
             return streamResult.getWriter();
         } else if(streamResult.getOutputStream() != null) {
             try {
-                if(executionContext instanceof ExecutionContext) {
-                    return new OutputStreamWriter(streamResult.getOutputStream(), executionContext.getContentEncoding());
-                } else {
-                    return new OutputStreamWriter(streamResult.getOutputStream(), "UTF-8");
-                }
+                return BufferedStreamResultWriter.newWriter(streamResult.getOutputStream(), executionContext);
             } catch(UnsupportedEncodingException e) {
                 throw new SmooksException("Unable to encode output stream.", e);
             }
@@ -234,6 +281,52 @@ public abstract class Filter {
         }
     }
 
+    /**
+     * Flush the filter output writer, as required by the supplied {@link OutputFlushPolicy}.
+     * <p/>
+     * A {@link BufferedStreamResultWriter} always has its buffered output written to the underlying output
+     * stream, but the stream is only flushed if the flush policy is not {@link OutputFlushPolicy#NEVER}.
+     * The {@link BufferedStreamResultWriter} output buffer is then released.
+     *
+     * @param writer The output writer.
+     * @param flushPolicy The output flush policy.
+     * @throws IOException Error writing/flushing the output.
+     */
+    protected void flushOutput(Writer writer, OutputFlushPolicy flushPolicy) throws IOException {
+        if(writer instanceof BufferedStreamResultWriter) {
+            BufferedStreamResultWriter resultWriter = (BufferedStreamResultWriter) writer;
+            try {
+                if(flushPolicy == OutputFlushPolicy.NEVER) {
+                    resultWriter.flushBuffer();
+                } else {
+                    resultWriter.flush();
+                }
+            } finally {
+                resultWriter.release();
+            }
+        } else if(writer != null && flushPolicy != OutputFlushPolicy.NEVER) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Release the {@link BufferedStreamResultWriter} output buffer after a failed filter execution.
+     * <p/>
+     * The output buffered up to the failure is written to the underlying output stream, but the stream
+     * is not flushed.  Errors writing the output are logged, so they don't hide the filter failure.
+     *
+     * @param writer The output writer.
+     */
+    protected void releaseOutput(Writer writer) {
+        if(writer instanceof BufferedStreamResultWriter) {
+            try {
+                ((BufferedStreamResultWriter) writer).release();
+            } catch (IOException e) {
+                LOGGER.debug("Failed to write buffered filter output.", e);
+            }
+        }
+    }
+
     protected void close(Source source) {
         if (source instanceof StreamSource) {
             StreamSource streamSource = (StreamSource) source;
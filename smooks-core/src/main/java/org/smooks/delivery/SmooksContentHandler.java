@@ -81,6 +81,32 @@ public abstract class SmooksContentHandler extends DefaultHandler2 implements SA
         }
     }
 
+    /**
+     * Reset the handler for reuse on a new (top level) execution.
+     * @param executionContext The execution context.
+     */
+    protected void reset(ExecutionContext executionContext) {
+        this.executionContext = executionContext;
+        parentContentHandler = null;
+        nestedContentHandler = null;
+        namespaceDeclarationStack = null;
+        endReplayed = false;
+        lastEvent = null;
+        depth = 0;
+        attachHandler();
+    }
+
+    /**
+     * Release all references to the current execution so the handler can be pooled.
+     */
+    protected void recycle() {
+        executionContext = null;
+        parentContentHandler = null;
+        nestedContentHandler = null;
+        namespaceDeclarationStack = null;
+        lastEvent = null;
+    }
+
     public NamespaceDeclarationStack getNamespaceDeclarationStack() {
         if(namespaceDeclarationStack == null) {
             namespaceDeclarationStack = NamespaceMappings.getNamespaceDeclarationStack(executionContext);
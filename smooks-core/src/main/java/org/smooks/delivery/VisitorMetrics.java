@@ -0,0 +1,348 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.delivery;
+
+import org.smooks.cdr.SmooksResourceConfiguration;
+import org.smooks.container.ApplicationContext;
+import org.smooks.container.ExecutionContext;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Visitor timing metrics for a Smooks {@link ApplicationContext}.
+ * <p/>
+ * Records the invocation count and time of the visitBefore, visitAfter and
+ * {@link VisitLifecycleCleanable cleanup} events of each visitor {@link SmooksResourceConfiguration},
+ * along with the total filter count and time.  The metrics are recorded directly by the SAX and DOM
+ * filters (no {@link org.smooks.event.ExecutionEvent ExecutionEvents} are created), using
+ * {@link LongAdder} counters, so they can be left on in production.  Per visit timings are
+ * also recorded in a base 2 logarithmic histogram, from which the
+ * {@link Timing#getPercentileNanos(double) percentiles} are estimated (to within a factor of 2).
+ * <p/>
+ * Metrics are off by default.  Turn them on through {@link org.smooks.Smooks#setVisitorMetricsEnabled(boolean)}.
+ * When off, the filters do a single null check per visit.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class VisitorMetrics implements VisitorMetricsMXBean {
+
+    private static final LongBinaryOperator MAX = new LongBinaryOperator() {
+        public long applyAsLong(long left, long right) {
+            return Math.max(left, right);
+        }
+    };
+
+    private final ConcurrentMap<SmooksResourceConfiguration, ResourceMetrics> resourceMetrics = new ConcurrentHashMap<SmooksResourceConfiguration, ResourceMetrics>();
+    private final LongAdder filterCount = new LongAdder();
+    private final LongAdder filterNanos = new LongAdder();
+
+    /**
+     * Get the visitor metrics for the supplied {@link ExecutionContext}.
+     * @param executionContext The execution context.
+     * @return The visitor metrics, or null if visitor metrics are not enabled.
+     */
+    public static VisitorMetrics getMetrics(ExecutionContext executionContext) {
+        return getMetrics(executionContext.getContext());
+    }
+
+    /**
+     * Get the visitor metrics for the supplied {@link ApplicationContext}.
+     * @param applicationContext The application context.
+     * @return The visitor metrics, or null if visitor metrics are not enabled.
+     */
+    public static VisitorMetrics getMetrics(ApplicationContext applicationContext) {
+        return (VisitorMetrics) applicationContext.getAttribute(VisitorMetrics.class);
+    }
+
+    /**
+     * Enable visitor metrics on the supplied {@link ApplicationContext}.
+     * @param applicationContext The application context.
+     * @return The visitor metrics.
+     */
+    public static synchronized VisitorMetrics enable(ApplicationContext applicationContext) {
+        VisitorMetrics metrics = getMetrics(applicationContext);
+
+        if(metrics == null) {
+            metrics = new VisitorMetrics();
+            applicationContext.setAttribute(VisitorMetrics.class, metrics);
+        }
+
+        return metrics;
+    }
+
+    /**
+     * Disable visitor metrics on the supplied {@link ApplicationContext}.
+     * @param applicationContext The application context.
+     */
+    public static synchronized void disable(ApplicationContext applicationContext) {
+        applicationContext.removeAttribute(VisitorMetrics.class);
+    }
+
+    /**
+     * Record a visit.
+     * @param resourceConfig The visitor resource configuration.
+     * @param visitSequence The visit sequence (visitBefore, visitAfter or cleanup).
+     * @param startNanos The visit start time, as returned by {@link System#nanoTime()}.
+     */
+    public void record(SmooksResourceConfiguration resourceConfig, VisitSequence visitSequence, long startNanos) {
+        getResourceMetrics(resourceConfig).getTiming(visitSequence).record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Record a filter operation.
+     * @param startNanos The filter start time, as returned by {@link System#nanoTime()}.
+     */
+    public void recordFilter(long startNanos) {
+        filterCount.increment();
+        filterNanos.add(System.nanoTime() - startNanos);
+    }
+
+    public long getFilterCount() {
+        return filterCount.sum();
+    }
+
+    public long getFilterNanos() {
+        return filterNanos.sum();
+    }
+
+    /**
+     * Get the metrics for the supplied visitor resource configuration.
+     * @param resourceConfig The visitor resource configuration.
+     * @return The resource metrics.
+     */
+    public ResourceMetrics getResourceMetrics(SmooksResourceConfiguration resourceConfig) {
+        ResourceMetrics metrics = resourceMetrics.get(resourceConfig);
+
+        if(metrics == null) {
+            ResourceMetrics newMetrics = new ResourceMetrics(resourceConfig);
+
+            metrics = resourceMetrics.putIfAbsent(resourceConfig, newMetrics);
+            if(metrics == null) {
+                metrics = newMetrics;
+            }
+        }
+
+        return metrics;
+    }
+
+    /**
+     * Get the metrics of all the visitor resource configurations visited so far.
+     * @return The resource metrics.
+     */
+    public Map<SmooksResourceConfiguration, ResourceMetrics> getResourceMetrics() {
+        return Collections.unmodifiableMap(resourceMetrics);
+    }
+
+    /**
+     * Get a snapshot of the per resource visit metrics.
+     * <p/>
+     * The snapshot is keyed by resource description ("resource @ selector").  Each resource entry
+     * contains the "count", "totalNanos", "maxNanos", "p50Nanos" and "p99Nanos" of the "visitBefore",
+     * "visitAfter" and "cleanup" events e.g. "visitBefore.count".
+     *
+     * @return The metrics snapshot.
+     */
+    public Map<String, Map<String, Long>> getSnapshot() {
+        Map<String, Map<String, Long>> snapshot = new TreeMap<String, Map<String, Long>>();
+
+        for(ResourceMetrics metrics : resourceMetrics.values()) {
+            String key = metrics.getDescription();
+
+            if(snapshot.containsKey(key)) {
+                int i = 2;
+                while(snapshot.containsKey(key + " #" + i)) {
+                    i++;
+                }
+                key = key + " #" + i;
+            }
+            snapshot.put(key, metrics.getSnapshot());
+        }
+
+        return snapshot;
+    }
+
+    public void reset() {
+        resourceMetrics.clear();
+        filterCount.reset();
+        filterNanos.reset();
+    }
+
+    public String toString() {
+        return "VisitorMetrics[filterCount=" + getFilterCount() + ", filterNanos=" + getFilterNanos() + ", resources=" + resourceMetrics.size() + "]";
+    }
+
+    /**
+     * Visit metrics for a single visitor resource configuration.
+     */
+    public static class ResourceMetrics {
+
+        private final SmooksResourceConfiguration resourceConfig;
+        private final Timing visitBefore = new Timing();
+        private final Timing visitAfter = new Timing();
+        private final Timing cleanup = new Timing();
+
+        private ResourceMetrics(SmooksResourceConfiguration resourceConfig) {
+            this.resourceConfig = resourceConfig;
+        }
+
+        public SmooksResourceConfiguration getResourceConfig() {
+            return resourceConfig;
+        }
+
+        public String getDescription() {
+            return resourceConfig.getResource() + " @ " + resourceConfig.getSelector();
+        }
+
+        public Timing getTiming(VisitSequence visitSequence) {
+            switch (visitSequence) {
+                case BEFORE:
+                    return visitBefore;
+                case AFTER:
+                    return visitAfter;
+                default:
+                    return cleanup;
+            }
+        }
+
+        public Map<String, Long> getSnapshot() {
+            Map<String, Long> snapshot = new LinkedHashMap<String, Long>();
+
+            visitBefore.addToSnapshot("visitBefore", snapshot);
+            visitAfter.addToSnapshot("visitAfter", snapshot);
+            cleanup.addToSnapshot("cleanup", snapshot);
+
+            return snapshot;
+        }
+    }
+
+    /**
+     * Invocation count and timing for a visit event.
+     */
+    public static class Timing {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(MAX, 0);
+        private final LongAdder[] histogram = new LongAdder[64];
+
+        private Timing() {
+            for(int i = 0; i < histogram.length; i++) {
+                histogram[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos) {
+            if(nanos < 0) {
+                nanos = 0;
+            }
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            // Bucket i holds the times from 2^i to 2^(i+1) - 1 (bucket 0 also holds zero)...
+            histogram[nanos == 0 ? 0 : 63 - Long.numberOfLeadingZeros(nanos)].increment();
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        /**
+         * Get an estimate of the supplied visit time percentile.
+         * <p/>
+         * The estimate is the upper bound of the histogram bucket containing the percentile
+         * (capped at the max time), so it is never lower than the actual percentile and is at most
+         * twice the actual percentile.
+         *
+         * @param percentile The percentile (0.0 to 1.0).
+         * @return The percentile visit time estimate in nanoseconds, or zero if nothing has been recorded.
+         */
+        public long getPercentileNanos(double percentile) {
+            long[] buckets = new long[histogram.length];
+            long total = 0;
+
+            for(int i = 0; i < histogram.length; i++) {
+                buckets[i] = histogram[i].sum();
+                total += buckets[i];
+            }
+            if(total == 0) {
+                return 0;
+            }
+
+            long target = Math.max(1, (long) Math.ceil(percentile * total));
+            long cumulative = 0;
+            for(int i = 0; i < buckets.length; i++) {
+                cumulative += buckets[i];
+                if(cumulative >= target) {
+                    long upperBound = (i == 63 ? Long.MAX_VALUE : (1L << (i + 1)) - 1);
+                    return Math.min(upperBound, getMaxNanos());
+                }
+            }
+
+            return getMaxNanos();
+        }
+
+        private void addToSnapshot(String prefix, Map<String, Long> snapshot) {
+            snapshot.put(prefix + ".count", getCount());
+            snapshot.put(prefix + ".totalNanos", getTotalNanos());
+            snapshot.put(prefix + ".maxNanos", getMaxNanos());
+            snapshot.put(prefix + ".p50Nanos", getPercentileNanos(0.5));
+            snapshot.put(prefix + ".p99Nanos", getPercentileNanos(0.99));
+        }
+    }
+}
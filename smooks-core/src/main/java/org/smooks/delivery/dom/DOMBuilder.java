@@ -50,15 +50,13 @@ import org.smooks.delivery.replay.EndElementEvent;
 import org.smooks.delivery.replay.StartElementEvent;
 import org.smooks.dtd.DTDStore;
 import org.smooks.xml.DocType;
+import org.smooks.xml.DocumentPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.*;
 import org.xml.sax.SAXException;
 
 import javax.xml.XMLConstants;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Stack;
@@ -74,7 +72,6 @@ import java.util.Stack;
 public class DOMBuilder extends SmooksContentHandler {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DOMBuilder.class);
-    private static DocumentBuilder documentBuilder;
 
     private ExecutionContext execContext;
     private Document ownerDocument;
@@ -84,14 +81,6 @@ public class DOMBuilder extends SmooksContentHandler {
     private StringBuilder cdataNodeBuilder = new StringBuilder();
     private boolean rewriteEntities;
 
-    static {
-    	try {
-			documentBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-		} catch (ParserConfigurationException e) {
-          throw new IllegalStateException("XML DOM Parsing environment not configured properly.", e);
-		}
-    }
-
     public DOMBuilder(ExecutionContext execContext) {
         this(execContext, null);
     }
@@ -120,7 +109,7 @@ public class DOMBuilder extends SmooksContentHandler {
         if(ownerDocument == null) {
             // Parsing a new ownerDocument from scratch - create the DOM Document
             // instance and set it as the startNode.
-            ownerDocument = documentBuilder.newDocument();
+            ownerDocument = DocumentPool.getInstance().newDocument();
             // Initialise the stack with the Document node.
             nodeStack.push(ownerDocument);
         }
@@ -326,7 +315,7 @@ public class DOMBuilder extends SmooksContentHandler {
 
     @SuppressWarnings("RedundantThrows")
     public void startDTD(String name, String publicId, String systemId) throws SAXException {
-        DocumentType docType = documentBuilder.getDOMImplementation().createDocumentType(name, publicId, systemId);
+        DocumentType docType = DocumentPool.getInstance().getDocumentBuilder().getDOMImplementation().createDocumentType(name, publicId, systemId);
 
         ownerDocument.appendChild(docType);
 
@@ -42,6 +42,7 @@
  */
 package org.smooks.delivery.dom;
 
+import org.smooks.OutputFlushPolicy;
 import org.smooks.SmooksException;
 import org.smooks.cdr.ParameterAccessor;
 import org.smooks.cdr.ResourceConfigurationNotFoundException;
@@ -182,8 +183,10 @@ public class SmooksDOMFilter extends Filter {
      * Event Listener.
      */
     private ExecutionEventListener eventListener;
+    private VisitorMetrics visitorMetrics;
     private boolean closeSource;
     private boolean closeResult;
+    private OutputFlushPolicy outputFlushPolicy;
     private boolean reverseVisitOrderOnVisitAfter;
     private boolean terminateOnVisitorException;
 
@@ -213,18 +216,36 @@ public class SmooksDOMFilter extends Filter {
      *                         is bound to the current Thread of execution.  See <a href="#threading">Threading Issues</a>.
      */
     public SmooksDOMFilter(ExecutionContext executionContext) {
+        this(executionContext, (executionContext != null ? (DOMContentDeliveryConfig) executionContext.getDeliveryConfig() : null));
+    }
+
+    /**
+     * Public constructor.
+     * <p/>
+     * Constructs a SmooksDOMFilter instance for delivering content for the supplied execution context,
+     * using the supplied DOM delivery configuration instead of the execution context's delivery configuration.
+     * Used to filter DOM fragments from within the SAX filter.  See {@link org.smooks.delivery.DOMWindowVisitor}.
+     *
+     * @param executionContext Execution context.
+     * @param deliveryConfig The DOM delivery configuration.
+     */
+    public SmooksDOMFilter(ExecutionContext executionContext, DOMContentDeliveryConfig deliveryConfig) {
         if (executionContext == null) {
             throw new IllegalArgumentException("null 'executionContext' arg passed in constructor call.");
+        } else if (deliveryConfig == null) {
+            throw new IllegalArgumentException("null 'deliveryConfig' arg passed in constructor call.");
         }
         this.executionContext = executionContext;
-        deliveryConfig = (DOMContentDeliveryConfig) executionContext.getDeliveryConfig();
+        this.deliveryConfig = deliveryConfig;
         eventListener = executionContext.getEventListener();
+        visitorMetrics = VisitorMetrics.getMetrics(executionContext);
 
-        closeSource = ParameterAccessor.getBoolParameter(Filter.CLOSE_SOURCE, true, executionContext.getDeliveryConfig());
-        closeResult = ParameterAccessor.getBoolParameter(Filter.CLOSE_RESULT, true, executionContext.getDeliveryConfig());
-        reverseVisitOrderOnVisitAfter = ParameterAccessor.getBoolParameter(Filter.REVERSE_VISIT_ORDER_ON_VISIT_AFTER, true, executionContext.getDeliveryConfig());
+        closeSource = ParameterAccessor.getBoolParameter(Filter.CLOSE_SOURCE, true, deliveryConfig);
+        closeResult = ParameterAccessor.getBoolParameter(Filter.CLOSE_RESULT, true, deliveryConfig);
+        outputFlushPolicy = BufferedStreamResultWriter.getOutputFlushPolicy(deliveryConfig);
+        reverseVisitOrderOnVisitAfter = ParameterAccessor.getBoolParameter(Filter.REVERSE_VISIT_ORDER_ON_VISIT_AFTER, true, deliveryConfig);
         if(!(executionContext.getEventListener() instanceof AbstractReportGenerator)) {
-            terminateOnVisitorException = ParameterAccessor.getBoolParameter(Filter.TERMINATE_ON_VISITOR_EXCEPTION, true, executionContext.getDeliveryConfig());
+            terminateOnVisitorException = ParameterAccessor.getBoolParameter(Filter.TERMINATE_ON_VISITOR_EXCEPTION, true, deliveryConfig);
         } else {
             terminateOnVisitorException = false;
         }
@@ -277,7 +298,7 @@ public class SmooksDOMFilter extends Filter {
 
                 try {
                     serialize(resultNode, writer);
-                    writer.flush();
+                    flushOutput(writer, outputFlushPolicy);
                 } catch (IOException e) {
                     LOGGER.debug("Error writing result to output stream.", e);
                 }
@@ -502,7 +523,12 @@ public class SmooksDOMFilter extends Filter {
                 {
                     LOGGER.debug("(Assembly) Calling visitBefore on element [" + DomUtils.getXPath(element) + "]. Config [" + config + "]");
                 }
+                long startNanos = (visitorMetrics != null ? System.nanoTime() : 0L);
                 assemblyUnit.visitBefore(element, executionContext);
+                if (visitorMetrics != null)
+                {
+                    visitorMetrics.record(config, VisitSequence.BEFORE, startNanos);
+                }
                 if (eventListener != null)
                 {
                     eventListener.onEvent(new ElementVisitEvent(element, configMap, VisitSequence.BEFORE));
@@ -545,7 +571,11 @@ public class SmooksDOMFilter extends Filter {
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("(Assembly) Calling visitAfter on element [" + DomUtils.getXPath(element) + "]. Config [" + config + "]");
             }
+            long startNanos = (visitorMetrics != null ? System.nanoTime() : 0L);
             visitAfter.visitAfter(element, executionContext);
+            if (visitorMetrics != null) {
+                visitorMetrics.record(config, VisitSequence.AFTER, startNanos);
+            }
             if (eventListener != null) {
                 eventListener.onEvent(new ElementVisitEvent(element, configMap, VisitSequence.AFTER));
             }
@@ -653,7 +683,7 @@ public class SmooksDOMFilter extends Filter {
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("Starting serialization phase [" + executionContext.getTargetProfiles().getBaseProfile() + "]");
         }
-        serializer = new Serializer(node, executionContext);
+        serializer = new Serializer(node, executionContext, deliveryConfig);
         try {
             serializer.serialize(writer);
         } catch (ResourceConfigurationNotFoundException e) {
@@ -783,7 +813,11 @@ public class SmooksDOMFilter extends Filter {
                     if (LOGGER.isDebugEnabled()) {
                         LOGGER.debug("Applying processing resource [" + config + "] to element [" + DomUtils.getXPath(element) + "] before applying resources to its child elements.");
                     }
+                    long startNanos = (visitorMetrics != null ? System.nanoTime() : 0L);
                     visitor.visitBefore(element, executionContext);
+                    if (visitorMetrics != null) {
+                        visitorMetrics.record(config, VisitSequence.BEFORE, startNanos);
+                    }
                     if (eventListener != null) {
                         eventListener.onEvent(new ElementVisitEvent(element, configMap, VisitSequence.BEFORE));
                     }
@@ -802,7 +836,11 @@ public class SmooksDOMFilter extends Filter {
                     if (LOGGER.isDebugEnabled()) {
                         LOGGER.debug("Applying processing resource [" + config + "] to element [" + DomUtils.getXPath(element) + "] after applying resources to its child elements.");
                     }
+                    long startNanos = (visitorMetrics != null ? System.nanoTime() : 0L);
                     visitor.visitAfter(element, executionContext);
+                    if (visitorMetrics != null) {
+                        visitorMetrics.record(config, VisitSequence.AFTER, startNanos);
+                    }
                     if (eventListener != null) {
                         eventListener.onEvent(new ElementVisitEvent(element, configMap, VisitSequence.AFTER));
                     }
@@ -823,7 +861,11 @@ public class SmooksDOMFilter extends Filter {
                         if (LOGGER.isDebugEnabled()) {
                             LOGGER.debug("Cleaning up processing resource [" + config + "] that was targeted to element [" + DomUtils.getXPath(element) + "].");
                         }
+                        long startNanos = (visitorMetrics != null ? System.nanoTime() : 0L);
                         visitor.executeVisitLifecycleCleanup(new Fragment(element), executionContext);
+                        if (visitorMetrics != null) {
+                            visitorMetrics.record(config, VisitSequence.CLEAN, startNanos);
+                        }
                         if (eventListener != null) {
                             eventListener.onEvent(new ElementVisitEvent(element, configMap, VisitSequence.CLEAN));
                         }
@@ -111,19 +111,26 @@ public class Serializer {
 	 * @param executionContext Target device context.
 	 */
 	public Serializer(Node node, ExecutionContext executionContext) {
+		this(node, executionContext, (executionContext != null ? (DOMContentDeliveryConfig) executionContext.getDeliveryConfig() : null));
+	}
+
+    /**
+	 * Public constructor.
+	 * @param node Node to be serialized.
+	 * @param executionContext Target device context.
+	 * @param deliveryConfig The DOM delivery configuration providing the serialization units.
+	 */
+	public Serializer(Node node, ExecutionContext executionContext, DOMContentDeliveryConfig deliveryConfig) {
 		if(node == null) {
 			throw new IllegalArgumentException("null 'node' arg passed in method call.");
 		} else if(executionContext == null) {
 			throw new IllegalArgumentException("null 'executionContext' arg passed in method call.");
+		} else if(deliveryConfig == null) {
+			throw new IllegalArgumentException("null 'deliveryConfig' arg passed in method call.");
 		}
 		this.node = node;
 		this.executionContext = executionContext;
         eventListener = executionContext.getEventListener();
-		// Get the delivery context for the device.
-    /*
-      Target content delivery config.
-     */
-    DOMContentDeliveryConfig deliveryConfig = (DOMContentDeliveryConfig) executionContext.getDeliveryConfig();
 		// Initialise the serializationUnits member
 		serializationUnits = deliveryConfig.getSerializationVisitors();
 
@@ -133,13 +140,13 @@ public class Serializer {
     /*
       Turn default serialization on/off.  Default is "true".
      */
-    boolean defaultSerializationOn = ParameterAccessor.getBoolParameter(Filter.DEFAULT_SERIALIZATION_ON, true, executionContext.getDeliveryConfig());
+    boolean defaultSerializationOn = ParameterAccessor.getBoolParameter(Filter.DEFAULT_SERIALIZATION_ON, true, deliveryConfig);
         if(defaultSerializationOn) {
             defaultSerializationUnit = new DefaultSerializationUnit();
-            boolean rewriteEntities = ParameterAccessor.getBoolParameter(Filter.ENTITIES_REWRITE, true, executionContext.getDeliveryConfig());
+            boolean rewriteEntities = ParameterAccessor.getBoolParameter(Filter.ENTITIES_REWRITE, true, deliveryConfig);
             defaultSerializationUnit.setRewriteEntities(rewriteEntities);
         }
-        terminateOnVisitorException = ParameterAccessor.getBoolParameter(Filter.TERMINATE_ON_VISITOR_EXCEPTION, true, executionContext.getDeliveryConfig());
+        terminateOnVisitorException = ParameterAccessor.getBoolParameter(Filter.TERMINATE_ON_VISITOR_EXCEPTION, true, deliveryConfig);
 	}
 
 	/**
@@ -192,6 +199,31 @@ public class Serializer {
         }
     }
 
+    /**
+	 * Serialise the child elements of the node to the supplied output writer instance.
+	 * <p/>
+	 * Unlike {@link #serialize(Writer)}, no DOCTYPE decl is added, even if the node is a Document node.
+	 * Used to serialise DOM fragments into the output of the SAX filter.
+	 * @param writer Output writer.
+	 * @throws IOException Unable to write to output writer.
+	 */
+	public void serializeChildElements(Writer writer) throws IOException {
+        if(writer == null) {
+			throw new IllegalArgumentException("null 'writer' arg passed in method call.");
+		}
+
+        Document ownerDocument = (node instanceof Document ? (Document) node : node.getOwnerDocument());
+        NodeList childNodes = node.getChildNodes();
+        int nodeCount = childNodes.getLength();
+
+        for(int i = 0; i < nodeCount; i++) {
+            Node childNode = childNodes.item(i);
+            if(childNode.getNodeType() == Node.ELEMENT_NODE) {
+                recursiveDOMWrite((Element)childNode, writer, (ownerDocument != null && childNode == ownerDocument.getDocumentElement()));
+            }
+        }
+    }
+
   /**
 	 * Recursively write the DOM tree to the supplied writer.
 	 * @param element Element to write.
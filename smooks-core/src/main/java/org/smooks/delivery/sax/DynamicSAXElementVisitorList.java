@@ -60,9 +60,34 @@ public class DynamicSAXElementVisitorList {
     private List<SAXVisitAfter> visitAfters = new ArrayList<SAXVisitAfter>();
 
     public DynamicSAXElementVisitorList(ExecutionContext executionContext) {
+        attach(executionContext);
+    }
+
+    /**
+     * Attach this list to the supplied execution context.
+     * @param executionContext The execution context.
+     */
+    void attach(ExecutionContext executionContext) {
         executionContext.setAttribute(DynamicSAXElementVisitorList.class, this);
     }
 
+    /**
+     * Remove all dynamic visitors from the list.
+     */
+    void clear() {
+        visitBefores.clear();
+        childVisitors.clear();
+        visitAfters.clear();
+    }
+
+    /**
+     * Are there no dynamic visitors in the list.
+     * @return True if the list contains no dynamic visitors, otherwise false.
+     */
+    public boolean isEmpty() {
+        return visitBefores.isEmpty() && childVisitors.isEmpty() && visitAfters.isEmpty();
+    }
+
     public List<SAXVisitBefore> getVisitBefores() {
         return visitBefores;
     }
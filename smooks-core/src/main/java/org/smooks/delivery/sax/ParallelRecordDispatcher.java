@@ -0,0 +1,397 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.delivery.sax;
+
+import org.smooks.SmooksException;
+import org.smooks.cdr.ParameterAccessor;
+import org.smooks.container.ExecutionContext;
+import org.smooks.container.standalone.ExecutionContextTemplate;
+import org.smooks.delivery.ContentDeliveryConfig;
+import org.smooks.delivery.Filter;
+import org.smooks.delivery.replay.EndElementEvent;
+import org.smooks.delivery.replay.SAXEventReplay;
+import org.smooks.delivery.replay.StartElementEvent;
+import org.smooks.io.NullWriter;
+import org.smooks.javabean.context.BeanContext;
+import org.smooks.namespace.NamespaceDeclarationStack;
+import org.smooks.xml.NamespaceMappings;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Parallel record dispatcher.
+ * <p/>
+ * Cuts the SAX event stream into independent record fragments, identified by the
+ * {@link Filter#RECORD_SELECTOR record selector}, and filters each record on the delivery configuration's
+ * {@link RecordWorkerPool}.
+ * <p/>
+ * The reader thread's {@link SAXHandler} diverts the events of each record to this dispatcher, which
+ * buffers them as {@link SAXEventReplay} events.  All other events are filtered on the reader thread
+ * as normal.  Each record is replayed on a worker {@link SAXHandler} with its own child
+ * {@link ExecutionContext}.  The record's ancestor elements are pushed onto the worker handler's element
+ * stack (without being visited or serialized), so contextual selectors match as they would on the
+ * reader thread.  The output of the records is written to the result in document order by a
+ * {@link RecordOutputSequencer}.
+ * <p/>
+ * Records must be independent of each other:
+ * <ul>
+ *  <li>The child {@link BeanContext} of each record is seeded with the beans in the reader thread's bean
+ *      context at the end of the record (registered bean IDs with no bean bound are skipped).  Beans created while filtering a record are not visible outside
+ *      the record.</li>
+ *  <li>Visitors on the record's ancestors are not notified of the record element (e.g. no onChildElement
+ *      event).</li>
+ *  <li>The execution event listener is not notified of record events.</li>
+ *  <li>Nested content handlers are not supported within records.</li>
+ * </ul>
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+final class ParallelRecordDispatcher {
+
+    private static final StartElementEvent[] NO_ANCESTORS = new StartElementEvent[0];
+
+    private final ExecutionContext executionContext;
+    private final ExecutionContextTemplate recordContextTemplate;
+    private final String[] recordPath;
+    private final boolean discardOutput;
+    private final RecordOutputSequencer sequencer;
+    private final RecordWorkerPool workers;
+    private SAXHandler handler;
+    private final List<StartElementEvent> ancestors = new ArrayList<StartElementEvent>();
+    private StartElementEvent[] ancestorSnapshot = NO_ANCESTORS;
+    private List<SAXEventReplay> recordEvents;
+    private int recordDepth;
+
+    private ParallelRecordDispatcher(ExecutionContext executionContext, String recordSelector, int workerCount, int maxInFlight, Writer writer) {
+        this.executionContext = executionContext;
+        recordContextTemplate = new ExecutionContextTemplate(executionContext);
+        recordPath = parseSelector(recordSelector);
+        discardOutput = (writer instanceof NullWriter);
+        sequencer = new RecordOutputSequencer(writer, maxInFlight);
+        workers = ((SAXContentDeliveryConfig) executionContext.getDeliveryConfig()).getRecordWorkerPool(workerCount);
+    }
+
+    /**
+     * Create a dispatcher for the supplied execution, if a {@link Filter#RECORD_SELECTOR record selector}
+     * is configured.
+     *
+     * @param executionContext The reader thread's execution context.
+     * @param writer The result writer.
+     * @return The dispatcher, or null if parallel record processing is not configured.
+     */
+    static ParallelRecordDispatcher newDispatcher(ExecutionContext executionContext, Writer writer) {
+        ContentDeliveryConfig deliveryConfig = executionContext.getDeliveryConfig();
+        String recordSelector = ParameterAccessor.getStringParameter(Filter.RECORD_SELECTOR, deliveryConfig);
+
+        if(recordSelector == null || recordSelector.trim().length() == 0) {
+            return null;
+        }
+
+        int workerCount = getIntParameter(Filter.RECORD_WORKERS, deliveryConfig);
+        if(workerCount <= 0) {
+            workerCount = Runtime.getRuntime().availableProcessors();
+        }
+        int maxInFlight = getIntParameter(Filter.RECORD_MAX_IN_FLIGHT, deliveryConfig);
+        if(maxInFlight <= 0) {
+            maxInFlight = workerCount * 4;
+        }
+
+        return new ParallelRecordDispatcher(executionContext, recordSelector, workerCount, maxInFlight, writer);
+    }
+
+    private static int getIntParameter(String name, ContentDeliveryConfig deliveryConfig) {
+        try {
+            return Integer.parseInt(ParameterAccessor.getStringParameter(name, "0", deliveryConfig).trim());
+        } catch(NumberFormatException e) {
+            throw new SmooksException("Invalid '" + name + "' parameter value.  Must be an integer.", e);
+        }
+    }
+
+    private static String[] parseSelector(String recordSelector) {
+        List<String> steps = new ArrayList<String>();
+
+        for(String step : recordSelector.split("/")) {
+            step = step.trim();
+            if(step.length() > 0) {
+                steps.add(step);
+            }
+        }
+        if(steps.isEmpty()) {
+            throw new SmooksException("Invalid '" + Filter.RECORD_SELECTOR + "' parameter value '" + recordSelector + "'.");
+        }
+
+        return steps.toArray(new String[steps.size()]);
+    }
+
+    /**
+     * Get the writer to be used by the reader thread's {@link SAXHandler}.
+     * @return The reader thread writer.
+     */
+    Writer getWriter() {
+        return sequencer;
+    }
+
+    /**
+     * Attach the dispatcher to the reader thread's {@link SAXHandler}.
+     * @param handler The reader thread's handler.
+     */
+    void attach(SAXHandler handler) {
+        this.handler = handler;
+        handler.setRecordDispatcher(this);
+    }
+
+    /**
+     * Start element event.
+     * @param startEvent The start event.
+     * @return True if the event was consumed by the dispatcher, otherwise false.
+     */
+    boolean onStartElement(StartElementEvent startEvent) {
+        if(recordEvents != null) {
+            recordEvents.add(copyOf(startEvent));
+            recordDepth++;
+            return true;
+        }
+
+        if(isRecord(startEvent)) {
+            // The record output goes after the output of the reader thread so far...
+            handler.onDetachedChildElement();
+            recordEvents = new ArrayList<SAXEventReplay>();
+            recordEvents.add(copyOf(startEvent));
+            recordDepth = 1;
+            return true;
+        }
+
+        ancestors.add(copyOf(startEvent));
+        ancestorSnapshot = null;
+
+        return false;
+    }
+
+    /**
+     * End element event.
+     * @param endEvent The end event.
+     * @return True if the event was consumed by the dispatcher, otherwise false.
+     */
+    boolean onEndElement(EndElementEvent endEvent) {
+        if(recordEvents != null) {
+            EndElementEvent recordEndEvent = new EndElementEvent();
+
+            recordEndEvent.set(endEvent.uri, endEvent.localName, endEvent.qName);
+            recordEvents.add(recordEndEvent);
+            recordDepth--;
+            if(recordDepth == 0) {
+                dispatch();
+            }
+            return true;
+        }
+
+        if(!ancestors.isEmpty()) {
+            ancestors.remove(ancestors.size() - 1);
+            ancestorSnapshot = null;
+        }
+
+        return false;
+    }
+
+    /**
+     * Text event.
+     * @param ch The characters.
+     * @param start The start offset.
+     * @param length The number of characters.
+     * @param textType The text type.
+     * @return True if the event was consumed by the dispatcher, otherwise false.
+     */
+    boolean onText(char[] ch, int start, int length, TextType textType) {
+        if(recordEvents == null) {
+            return false;
+        }
+
+        recordEvents.add(new TextEvent(ch, start, length, textType));
+
+        return true;
+    }
+
+    /**
+     * Wait for all dispatched records and write the remaining output.
+     * @throws IOException Error writing the output.
+     */
+    void finish() throws IOException {
+        sequencer.finish();
+    }
+
+    /**
+     * Detach from the reader thread's handler and cancel any pending records.
+     * <p/>
+     * The worker pool is shared by the delivery configuration and is not shut down.
+     */
+    void shutdown() {
+        if(handler != null) {
+            handler.setRecordDispatcher(null);
+            handler = null;
+        }
+        sequencer.cancel();
+    }
+
+    private boolean isRecord(StartElementEvent startEvent) {
+        if(!recordPath[recordPath.length - 1].equals(getName(startEvent))) {
+            return false;
+        }
+
+        int ancestorIndex = ancestors.size() - 1;
+        for(int i = recordPath.length - 2; i >= 0; i--, ancestorIndex--) {
+            if(ancestorIndex < 0 || !recordPath[i].equals(getName(ancestors.get(ancestorIndex)))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static String getName(StartElementEvent startEvent) {
+        if(startEvent.localName != null && startEvent.localName.length() > 0) {
+            return startEvent.localName;
+        }
+        return startEvent.qName;
+    }
+
+    private static StartElementEvent copyOf(StartElementEvent startEvent) {
+        StartElementEvent copy = new StartElementEvent();
+
+        // The reader reuses its Attributes instance, so the event needs its own copy...
+        copy.set(startEvent.uri, startEvent.localName, startEvent.qName, new AttributesImpl(startEvent.atts));
+
+        return copy;
+    }
+
+    private void dispatch() {
+        if(ancestorSnapshot == null) {
+            ancestorSnapshot = ancestors.toArray(new StartElementEvent[ancestors.size()]);
+        }
+
+        final StartElementEvent[] recordAncestors = ancestorSnapshot;
+        final List<SAXEventReplay> events = recordEvents;
+        final Map<String, Object> beans = new LinkedHashMap<String, Object>();
+
+        // Registered bean IDs with no bean bound are in the bean map with a null value...
+        for(Map.Entry<String, Object> bean : executionContext.getBeanContext().getBeanMap().entrySet()) {
+            if(bean.getValue() != null) {
+                beans.put(bean.getKey(), bean.getValue());
+            }
+        }
+
+        recordEvents = null;
+        try {
+            sequencer.addRecord(workers.submit(new Callable<CharArrayWriter>() {
+                public CharArrayWriter call() throws Exception {
+                    return filterRecord(recordAncestors, events, beans);
+                }
+            }));
+        } catch (IOException e) {
+            throw new SmooksException("Failed to write record output.", e);
+        }
+    }
+
+    private CharArrayWriter filterRecord(StartElementEvent[] recordAncestors, List<SAXEventReplay> events, Map<String, Object> beans) throws SAXException {
+        ExecutionContext recordContext = recordContextTemplate.newExecutionContext();
+        CharArrayWriter recordWriter = (discardOutput ? null : new CharArrayWriter());
+        ContentDeliveryConfig deliveryConfig = recordContext.getDeliveryConfig();
+
+        if(executionContext.getContentEncoding() != null) {
+            recordContext.setContentEncoding(executionContext.getContentEncoding());
+        }
+
+        BeanContext beanContext = recordContext.getBeanContext();
+        for(Map.Entry<String, Object> bean : beans.entrySet()) {
+            beanContext.addBean(bean.getKey(), bean.getValue());
+        }
+        NamespaceMappings.setNamespaceDeclarationStack(new NamespaceDeclarationStack(), recordContext);
+
+        Writer writer = (recordWriter != null ? recordWriter : new NullWriter());
+        SAXHandler recordHandler = workers.getWorkerHandler();
+        if(recordHandler == null) {
+            recordHandler = new SAXHandler(recordContext, writer);
+            workers.setWorkerHandler(recordHandler);
+        } else {
+            recordHandler.reset(recordContext, writer);
+        }
+
+        // Each record has its own filter, bound to the record's execution context...
+        Filter.setCurrentExecutionContext(recordContext);
+        Filter.setFilter(deliveryConfig.newFilter(recordContext));
+        try {
+            deliveryConfig.executeHandlerInit(recordContext);
+            try {
+                for(StartElementEvent ancestor : recordAncestors) {
+                    recordHandler.pushContextElement(ancestor);
+                }
+                for(SAXEventReplay event : events) {
+                    event.replay(recordHandler);
+                }
+            } finally {
+                deliveryConfig.executeHandlerCleanup(recordContext);
+            }
+        } catch (SAXException e) {
+            recordContext.setTerminationError(e);
+            throw e;
+        } catch (RuntimeException e) {
+            recordContext.setTerminationError(e);
+            throw e;
+        } finally {
+            Filter.removeCurrentFilter();
+            Filter.removeCurrentExecutionContext();
+            recordHandler.detachHandler();
+            recordHandler.recycle();
+        }
+
+        return recordWriter;
+    }
+}
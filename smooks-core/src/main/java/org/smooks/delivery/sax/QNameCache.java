@@ -0,0 +1,104 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.delivery.sax;
+
+import javax.xml.namespace.QName;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per {@link SAXHandler} {@link QName} cache.
+ * <p/>
+ * Documents tend to use a small set of element names over and over, so rather than
+ * creating a new {@link QName} for every start element event, the {@link SAXHandler}
+ * resolves element names through this cache.  The cache is bounded so as to protect
+ * against documents with an unbounded set of element names.  It is not thread safe.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+final class QNameCache {
+
+    static final int MAX_ENTRIES = 1024;
+
+    private final Map<String, Map<String, QName>> namespaces = new HashMap<String, Map<String, QName>>();
+    private int size;
+
+    /**
+     * Get the {@link QName} for the supplied SAX naming details.
+     *
+     * @param namespaceURI The Namespace URI.
+     * @param localName    The local name.
+     * @param qName        The qualified name.
+     * @return The {@link QName}.
+     * @see SAXUtil#toQName(String, String, String)
+     */
+    QName get(String namespaceURI, String localName, String qName) {
+        String nameKey = (qName != null && qName.length() != 0 ? qName : localName);
+        Map<String, QName> names = namespaces.get(namespaceURI);
+        QName name = (names != null ? names.get(nameKey) : null);
+
+        if(name != null) {
+            if(localName == null || localName.length() == 0 || localName.equals(name.getLocalPart())) {
+                return name;
+            }
+            // Naming details not consistent with the cached entry, so don't cache...
+            return SAXUtil.toQName(namespaceURI, localName, qName);
+        }
+
+        name = SAXUtil.toQName(namespaceURI, localName, qName);
+        if(size < MAX_ENTRIES) {
+            if(names == null) {
+                names = new HashMap<String, QName>();
+                namespaces.put(namespaceURI, names);
+            }
+            names.put(nameKey, name);
+            size++;
+        }
+
+        return name;
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,184 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.delivery.sax;
+
+import org.smooks.SmooksException;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Record output reorder buffer.
+ * <p/>
+ * Sequences the output of the record fragments filtered by a {@link ParallelRecordDispatcher} and
+ * the output written by the reader thread's {@link SAXHandler} (through this writer), so that the
+ * target writer receives everything in document order.
+ * <p/>
+ * While no records are pending, writes go straight through to the target writer.  Otherwise they
+ * are buffered behind the pending records.  Only the reader thread uses this writer.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+class RecordOutputSequencer extends Writer {
+
+    private final Writer target;
+    private final int maxInFlight;
+    private final ArrayDeque<Object> pending = new ArrayDeque<Object>();
+    private CharArrayWriter tail;
+    private int inFlight;
+
+    /**
+     * Constructor.
+     * @param target The target writer.
+     * @param maxInFlight The maximum number of pending records.  {@link #addRecord(Future)} blocks
+     * the reader thread while this number is exceeded.
+     */
+    RecordOutputSequencer(Writer target, int maxInFlight) {
+        this.target = target;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Add a record to the sequence, after everything written to this writer up to now.
+     * @param record The record output.  A null output is ignored.
+     * @throws IOException Error writing completed output to the target writer.
+     */
+    void addRecord(Future<CharArrayWriter> record) throws IOException {
+        tail = null;
+        pending.add(record);
+        inFlight++;
+        drain(maxInFlight);
+    }
+
+    /**
+     * Wait for all pending records and write all remaining output to the target writer.
+     * @throws IOException Error writing to the target writer.
+     */
+    void finish() throws IOException {
+        drain(0);
+    }
+
+    /**
+     * Cancel all pending records and discard all buffered output.
+     */
+    @SuppressWarnings("unchecked")
+    void cancel() {
+        for(Object record : pending) {
+            if(record instanceof Future) {
+                ((Future<CharArrayWriter>) record).cancel(false);
+            }
+        }
+        pending.clear();
+        tail = null;
+        inFlight = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void drain(int maxPendingRecords) throws IOException {
+        while(!pending.isEmpty()) {
+            Object head = pending.peek();
+
+            if(head instanceof CharArrayWriter) {
+                if(head == tail) {
+                    tail = null;
+                }
+                ((CharArrayWriter) head).writeTo(target);
+            } else {
+                Future<CharArrayWriter> record = (Future<CharArrayWriter>) head;
+
+                if(!record.isDone() && inFlight <= maxPendingRecords) {
+                    return;
+                }
+
+                CharArrayWriter recordOutput = getOutput(record);
+                if(recordOutput != null) {
+                    recordOutput.writeTo(target);
+                }
+                inFlight--;
+            }
+            pending.poll();
+        }
+    }
+
+    private CharArrayWriter getOutput(Future<CharArrayWriter> record) throws IOException {
+        try {
+            return record.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting on record output.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if(cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new SmooksException("Failed to filter record.", cause);
+        }
+    }
+
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        if(pending.isEmpty()) {
+            target.write(cbuf, off, len);
+        } else {
+            if(tail == null) {
+                tail = new CharArrayWriter();
+                pending.add(tail);
+            }
+            tail.write(cbuf, off, len);
+        }
+    }
+
+    public void flush() throws IOException {
+        if(pending.isEmpty()) {
+            target.flush();
+        }
+    }
+
+    public void close() throws IOException {
+        // The target writer is closed by the filter...
+    }
+}
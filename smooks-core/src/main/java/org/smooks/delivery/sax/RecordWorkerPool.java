@@ -0,0 +1,118 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.delivery.sax;
+
+import org.smooks.delivery.annotation.Uninitialize;
+
+import java.io.CharArrayWriter;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Record worker thread pool.
+ * <p/>
+ * Shared by all the {@link ParallelRecordDispatcher ParallelRecordDispatchers} of a
+ * {@link SAXContentDeliveryConfig} that use the same number of workers, so the worker threads (and
+ * their {@link SAXHandler SAXHandlers}) are created once and not for every filter execution.  The pool is shut down when the
+ * {@link org.smooks.Smooks} instance is closed.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public final class RecordWorkerPool {
+
+    private static final AtomicInteger workerThreadCount = new AtomicInteger();
+
+    private final ExecutorService workers;
+    private final ThreadLocal<SAXHandler> workerHandlers = new ThreadLocal<SAXHandler>();
+
+    /**
+     * Constructor.
+     * @param workerCount The number of worker threads.
+     */
+    RecordWorkerPool(int workerCount) {
+        workers = Executors.newFixedThreadPool(workerCount, new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "smooks-record-worker-" + workerThreadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Submit a record for filtering.
+     * @param record The record task.
+     * @return The record output.
+     */
+    Future<CharArrayWriter> submit(Callable<CharArrayWriter> record) {
+        return workers.submit(record);
+    }
+
+    /**
+     * Get the calling worker thread's {@link SAXHandler}.
+     * @return The worker handler, or null if the worker has not created one yet.
+     */
+    SAXHandler getWorkerHandler() {
+        return workerHandlers.get();
+    }
+
+    /**
+     * Set the calling worker thread's {@link SAXHandler}.
+     * @param handler The worker handler.
+     */
+    void setWorkerHandler(SAXHandler handler) {
+        workerHandlers.set(handler);
+    }
+
+    /**
+     * Stop the worker threads.
+     */
+    @Uninitialize
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -42,18 +42,29 @@
  */
 package org.smooks.delivery.sax;
 
+import org.smooks.OutputFlushPolicy;
 import org.smooks.cdr.ParameterAccessor;
 import org.smooks.cdr.SmooksConfigurationException;
 import org.smooks.cdr.SmooksResourceConfiguration;
 import org.smooks.cdr.xpath.SelectorStep;
 import org.smooks.cdr.xpath.evaluators.equality.ElementIndexCounter;
 import org.smooks.cdr.xpath.evaluators.equality.IndexEvaluator;
+import org.smooks.container.ApplicationContext;
 import org.smooks.container.ExecutionContext;
 import org.smooks.delivery.*;
 import org.smooks.delivery.ordering.Sorter;
+import org.smooks.resource.URIResourceLocator;
+import org.smooks.util.BoundedObjectPool;
+import org.smooks.util.ClassUtil;
+import org.smooks.xml.XsdValidator;
+import org.xml.sax.SAXException;
 
 import javax.xml.XMLConstants;
 import javax.xml.namespace.QName;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
 import java.util.*;
 
 /**
@@ -72,9 +83,15 @@ public class SAXContentDeliveryConfig extends AbstractContentDeliveryConfig {
     private boolean maintainElementStack;
     private boolean reverseVisitOrderOnVisitAfter;
     private boolean terminateOnVisitorException;
+    private OutputFlushPolicy outputFlushPolicy;
+    private SmooksResourceConfiguration outputFlushSelector;
+    private XsdValidator inputValidator;
     private FilterBypass filterBypass;
+    private BoundedObjectPool<SAXFilterPipeline> filterPipelinePool = new BoundedObjectPool<SAXFilterPipeline>(0);
+    private final Map<Integer, RecordWorkerPool> recordWorkerPools = new HashMap<Integer, RecordWorkerPool>();
 
     private Map<String, SAXElementVisitorMap> optimizedVisitorConfig = new HashMap<String, SAXElementVisitorMap>();
+    private SelectorAutomaton selectorAutomaton = new SelectorAutomaton();
 
     public ContentHandlerConfigMapTable<SAXVisitBefore> getVisitBefores() {
         return visitBefores;
@@ -108,10 +125,63 @@ public class SAXContentDeliveryConfig extends AbstractContentDeliveryConfig {
         return optimizedVisitorConfig;
     }
 
+    /**
+     * Get the compiled contextual selector automaton.
+     * @return The selector automaton.
+     * @see SelectorAutomaton
+     */
+    public SelectorAutomaton getSelectorAutomaton() {
+        return selectorAutomaton;
+    }
+
     public FilterBypass getFilterBypass() {
     	return filterBypass;
     }
 
+    /**
+     * Initialize the {@link SAXFilterPipeline} pool.
+     * <p/>
+     * The pool is sized by the {@link Filter#READER_POOL_SIZE} parameter.  The SAX filter pools the complete
+     * filter pipeline (reader, handler, serializer and namespace stack), not just the reader.
+     */
+    public void initializeXMLReaderPool() {
+        filterPipelinePool = new BoundedObjectPool<SAXFilterPipeline>(getReaderPoolSize());
+    }
+
+    /**
+     * Get the {@link SAXFilterPipeline} pool associated with this delivery configuration.
+     * <p/>
+     * Provides access to the pool hit, miss and wait metrics.
+     * @return The filter pipeline pool.
+     */
+    public BoundedObjectPool<SAXFilterPipeline> getFilterPipelinePool() {
+        return filterPipelinePool;
+    }
+
+    /**
+     * Get the {@link RecordWorkerPool} of the specified size, shared by the parallel record dispatchers of
+     * this delivery configuration.
+     * <p/>
+     * Pools are created on first use and registered with the resource store, so they are shut down
+     * when the {@link org.smooks.Smooks} instance is closed.
+     * @param workerCount The number of worker threads.
+     * @return The record worker pool.
+     */
+    synchronized RecordWorkerPool getRecordWorkerPool(int workerCount) {
+        RecordWorkerPool recordWorkerPool = recordWorkerPools.get(workerCount);
+
+        if(recordWorkerPool == null) {
+            recordWorkerPool = new RecordWorkerPool(workerCount);
+            recordWorkerPools.put(workerCount, recordWorkerPool);
+
+            ApplicationContext applicationContext = getApplicationContext();
+            if(applicationContext != null && applicationContext.getStore().getInitializedObjects() != null) {
+                applicationContext.getStore().getInitializedObjects().add(recordWorkerPool);
+            }
+        }
+        return recordWorkerPool;
+    }
+
     public Filter newFilter(ExecutionContext executionContext) {
         return new SmooksSAXFilter(executionContext);
     }
@@ -206,14 +276,85 @@ public class SAXContentDeliveryConfig extends AbstractContentDeliveryConfig {
             optimizedVisitorConfig.put(elementName, entry);
         }
 
+        // Compile the contextual selectors...
+        for (SAXElementVisitorMap entry : optimizedVisitorConfig.values()) {
+            compileSelectors(entry.getVisitBefores());
+            compileSelectors(entry.getChildVisitors());
+            compileSelectors(entry.getVisitAfters());
+            compileSelectors(entry.getVisitCleanables());
+        }
+
         rewriteEntities = ParameterAccessor.getBoolParameter(Filter.ENTITIES_REWRITE, true, this);
         maintainElementStack = ParameterAccessor.getBoolParameter(Filter.MAINTAIN_ELEMENT_STACK, true, this);
         reverseVisitOrderOnVisitAfter = ParameterAccessor.getBoolParameter(Filter.REVERSE_VISIT_ORDER_ON_VISIT_AFTER, true, this);
         terminateOnVisitorException = ParameterAccessor.getBoolParameter(Filter.TERMINATE_ON_VISITOR_EXCEPTION, true, this);
+        outputFlushPolicy = BufferedStreamResultWriter.getOutputFlushPolicy(this);
+        if(outputFlushPolicy == OutputFlushPolicy.FRAGMENT) {
+            String selector = ParameterAccessor.getStringParameter(Filter.OUTPUT_FLUSH_SELECTOR, this);
+            if(selector == null || selector.trim().length() == 0) {
+                throw new SmooksConfigurationException("The '" + OutputFlushPolicy.FRAGMENT + "' output flush policy requires the '" + Filter.OUTPUT_FLUSH_SELECTOR + "' filter parameter to be configured.");
+            }
+            outputFlushSelector = new SmooksResourceConfiguration(selector.trim());
+        }
+        String inputValidationXSD = ParameterAccessor.getStringParameter(Filter.INPUT_VALIDATION_XSD, this);
+        if(inputValidationXSD != null && inputValidationXSD.trim().length() > 0) {
+            inputValidator = createInputValidator(inputValidationXSD);
+        }
 
 		filterBypass = getFilterBypass(visitBefores, visitAfters);
     }
 
+    private XsdValidator createInputValidator(String inputValidationXSD) {
+        List<URL> xsdResources = new ArrayList<URL>();
+
+        for(String xsd : inputValidationXSD.split(",")) {
+            if(xsd.trim().length() > 0) {
+                xsdResources.add(getXSDResource(xsd.trim()));
+            }
+        }
+
+        XsdValidator validator = new XsdValidator();
+        try {
+            validator.setXSDResources(xsdResources);
+        } catch (SAXException e) {
+            throw new SmooksConfigurationException("Failed to compile input validation XSDs '" + inputValidationXSD + "'.", e);
+        }
+
+        return validator;
+    }
+
+    private URL getXSDResource(String xsd) {
+        URI xsdURI = new URIResourceLocator().resolveURI(xsd);
+        String scheme = xsdURI.getScheme();
+
+        try {
+            if(scheme == null || scheme.equals(URIResourceLocator.SCHEME_CLASSPATH)) {
+                List<URL> classpathResources = ClassUtil.getResources(xsdURI.getPath(), getClass());
+                if(!classpathResources.isEmpty()) {
+                    return classpathResources.get(0);
+                }
+
+                File xsdFile = new File(xsd);
+                if(xsdFile.exists()) {
+                    return xsdFile.toURI().toURL();
+                }
+                throw new SmooksConfigurationException("Failed to locate input validation XSD '" + xsd + "' on the classpath or file system.");
+            }
+
+            return xsdURI.toURL();
+        } catch (IOException e) {
+            throw new SmooksConfigurationException("Failed to locate input validation XSD '" + xsd + "'.", e);
+        }
+    }
+
+    private <T extends ContentHandler> void compileSelectors(List<ContentHandlerConfigMap<T>> mappings) {
+        if(mappings != null) {
+            for(ContentHandlerConfigMap<T> mapping : mappings) {
+                selectorAutomaton.add(mapping.getResourceConfig());
+            }
+        }
+    }
+
     public void assertSelectorsNotAccessingText() {
         assertSelectorsNotAccessingText(visitBefores);
         assertSelectorsNotAccessingText(childVisitors);
@@ -404,4 +545,28 @@ public class SAXContentDeliveryConfig extends AbstractContentDeliveryConfig {
 	public boolean isTerminateOnVisitorException() {
 		return terminateOnVisitorException;
 	}
+
+    /**
+     * Get the output flush policy.
+     * @return The output flush policy.
+     */
+    public OutputFlushPolicy getOutputFlushPolicy() {
+        return outputFlushPolicy;
+    }
+
+    /**
+     * Get the output flush selector.
+     * @return The output flush selector config, or null if the {@link OutputFlushPolicy#FRAGMENT} flush policy is not configured.
+     */
+    public SmooksResourceConfiguration getOutputFlushSelector() {
+        return outputFlushSelector;
+    }
+
+    /**
+     * Get the input validator.
+     * @return The input validator, or null if {@link Filter#INPUT_VALIDATION_XSD input validation} is not configured.
+     */
+    public XsdValidator getInputValidator() {
+        return inputValidator;
+    }
 }
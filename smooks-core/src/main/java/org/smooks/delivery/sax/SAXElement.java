@@ -93,11 +93,14 @@ public class SAXElement {
 
     private QName name;
     private AttributesImpl attributes;
+    private Attributes sharedAttributes;
     private SAXElement parent;
     private Writer writer;
     private List<SAXText> text;
     private StringWriter textAccumulator;
+    private boolean textAccumulated;
     private String accumulatedText;
+    private TextArena textArena;
 
     /**
      * We use a "level 1" cache so as to avoid creating the HashMap
@@ -108,6 +111,13 @@ public class SAXElement {
     private SAXVisitor l1CacheOwner;
     private Map<SAXVisitor, Object> l2Caches;
 
+    /**
+     * Package-private constructor for elements that are {@link #reuse(QName, Attributes, SAXElement) reused}
+     * by the {@link SAXHandler}.
+     */
+    SAXElement() {
+    }
+
     /**
      * Public constructor.
      *
@@ -155,7 +165,7 @@ public class SAXElement {
      */
     public SAXElement(String namespaceURI, String localName, String qName, Attributes attributes, SAXElement parent) {
         this.name = SAXUtil.toQName(namespaceURI, localName, qName);
-        this.attributes = copyAttributes(attributes);
+        copyAttributes(attributes);
         this.parent = parent;
     }
 
@@ -170,23 +180,79 @@ public class SAXElement {
      */
     public SAXElement(QName name, Attributes attributes, SAXElement parent) {
         this.name = name;
-        this.attributes = copyAttributes(attributes);
+        copyAttributes(attributes);
+        this.parent = parent;
+    }
+
+    /**
+     * Reinitialize this instance for a new element.
+     * <p/>
+     * The supplied attributes are not copied up front.  They are only copied if they
+     * are accessed, or when the {@link SAXHandler} {@link #detachAttributes() detaches} them
+     * before the SAX parser reuses the {@link Attributes} instance for the next start element
+     * event.  All other element state (writer, text, caches) is cleared.
+     *
+     * @param name       The element {@link QName}.
+     * @param attributes The attributes attached to the element, as supplied by the SAX parser.
+     * @param parent     Parent element, or null if the element is the document root element.
+     */
+    void reuse(QName name, Attributes attributes, SAXElement parent) {
+        this.name = name;
+        this.sharedAttributes = attributes;
+        if(this.attributes != null) {
+            this.attributes.clear();
+        }
         this.parent = parent;
+        writer = null;
+        text = null;
+        textAccumulated = false;
+        accumulatedText = null;
+        l1Cache = null;
+        l1CacheOwner = null;
+        if(l2Caches != null) {
+            l2Caches.clear();
+        }
+    }
+
+    /**
+     * Make sure this element holds its own copy of the attributes supplied by the SAX parser.
+     */
+    void detachAttributes() {
+        if(sharedAttributes != null) {
+            copyAttributes(sharedAttributes);
+        }
     }
 
     /**
      * Create a copy of the attributes.
      * <p/>
      * This needs to be done because some SAX parsers reuse the same {@link Attributes} instance
-     * across SAX events.
+     * across SAX events.  The copy is made into this element's own {@link AttributesImpl}
+     * instance, which is reused if the element is {@link #reuse(QName, Attributes, SAXElement) reused}.
      *
      * @param attributes The attributes to copy.
-     * @return The new {@link Attributes} instance with a copy of the attributes.
      */
-    private AttributesImpl copyAttributes(Attributes attributes) {
-        AttributesImpl attributesCopy = new AttributesImpl();
-        attributesCopy.setAttributes(attributes);
-        return attributesCopy;
+    private void copyAttributes(Attributes attributes) {
+        if(attributes == this.attributes) {
+            return;
+        } else if(this.attributes == null) {
+            this.attributes = new AttributesImpl();
+        } else {
+            this.attributes.clear();
+        }
+
+        int attributeCount = attributes.getLength();
+        for(int i = 0; i < attributeCount; i++) {
+            this.attributes.addAttribute(attributes.getURI(i), attributes.getLocalName(i), attributes.getQName(i), attributes.getType(i), attributes.getValue(i));
+        }
+        sharedAttributes = null;
+    }
+
+    private AttributesImpl attributes() {
+        if(sharedAttributes != null) {
+            copyAttributes(sharedAttributes);
+        }
+        return attributes;
     }
 
     /**
@@ -197,16 +263,7 @@ public class SAXElement {
      */
     public void accumulateText() {
         if(text == null) {
-            text = new ArrayList<SAXText>() {
-                public boolean add(SAXText saxText) {
-                    if(textAccumulator != null) {
-                        // Clear the accumulatedText object so as any subsequent calls to the
-                        // getTextAsString method will recreate the buffer from scratch...
-                        accumulatedText = null;
-                    }
-                    return super.add((SAXText) saxText.clone());
-                }
-            };
+            text = new TextList();
         }
     }
 
@@ -248,7 +305,8 @@ public class SAXElement {
         if(this.text == null) {
             accumulateText();
         }
-        this.text.add(new SAXText(text, type));
+        // The new SAXText has its own copy of the characters, so no need to copy them again...
+        ((TextList) this.text).addUncopied(new SAXText(text, type));
     }
 
     /**
@@ -268,15 +326,48 @@ public class SAXElement {
      * @see TextConsumer
      */
     public String getTextContent() throws SmooksException {
+        if(accumulatedText == null) {
+            accumulatedText = getTextContentSequence().toString();
+        }
+
+        return accumulatedText;
+    }
+
+    /**
+     * Get the {@link SAXText} objects associated with this {@link SAXElement},
+     * as an {@link #accumulateText() accumulated} {@link CharSequence}.
+     * <p/>
+     * Produces the same text as {@link #getTextContent()}, without materializing a String.  Where the
+     * element has a single {@link TextType#TEXT} child, the returned sequence is a view of the accumulated
+     * characters and no characters are copied.  The returned sequence should not be cached.  It is only
+     * valid until more text is added to the element.
+     *
+     * @return The {@link SAXText} objects associated with this {@link SAXElement},
+     * as an {@link #accumulateText() accumulated} CharSequence.
+     * @throws SmooksException This {@link SAXElement} instance does not have
+     * {@link #accumulateText() text accumulation} turned on.
+     * @see #accumulateText()
+     * @see TextConsumer
+     */
+    public CharSequence getTextContentSequence() throws SmooksException {
         if(text == null) {
             throw new SmooksException("Illegal call to getTextContent().  SAXElement instance not accumulating SAXText Objects.  You must call SAXElement.accumulateText(), or annotate the Visitor implementation class with the @TextConsumer annotation.");
         }
 
+        if(accumulatedText != null) {
+            return accumulatedText;
+        }
+        if(text.isEmpty()) {
+            return "";
+        }
+        if(text.size() == 1 && text.get(0).getType() == TextType.TEXT) {
+            return text.get(0).getCharSequence();
+        }
+
         if(textAccumulator == null) {
             textAccumulator = new StringWriter();
         }
-
-        if(accumulatedText == null) {
+        if(!textAccumulated) {
             textAccumulator.getBuffer().setLength(0);
             for(SAXText textObj : text) {
                 try {
@@ -285,11 +376,18 @@ public class SAXElement {
                     throw new RuntimeException("Unexpected IOException.", e);
                 }
             }
-
-            accumulatedText = textAccumulator.toString();
+            textAccumulated = true;
         }
 
-        return accumulatedText;
+        return textAccumulator.getBuffer();
+    }
+
+    /**
+     * Set the {@link TextArena} into which {@link SAXText} added to this element is copied.
+     * @param textArena The text arena, or null if each {@link SAXText} is to be cloned.
+     */
+    void setTextArena(TextArena textArena) {
+        this.textArena = textArena;
     }
 
     /**
@@ -366,7 +464,7 @@ public class SAXElement {
      * @return Element attributes.
      */
     public Attributes getAttributes() {
-        return attributes;
+        return attributes();
     }
 
     /**
@@ -376,7 +474,7 @@ public class SAXElement {
      */
     public void setAttributes(Attributes attributes) {
         AssertArgument.isNotNull(attributes, "attributes");
-        this.attributes = copyAttributes(attributes);
+        copyAttributes(attributes);
     }
 
     /**
@@ -385,7 +483,7 @@ public class SAXElement {
      * @return The attribute value, or an empty string if the attribute is not specified.
      */
     public String getAttribute(String attribute) {
-        return SAXUtil.getAttribute(attribute, attributes);
+        return SAXUtil.getAttribute(attribute, attributes());
     }
 
     /**
@@ -395,7 +493,7 @@ public class SAXElement {
      * @return The attribute value, or an empty string if the attribute is not specified.
      */
     public String getAttributeNS(String namespaceURI, String attribute) {
-        return SAXUtil.getAttribute(namespaceURI, attribute, attributes, "");
+        return SAXUtil.getAttribute(namespaceURI, attribute, attributes(), "");
     }
 
     /**
@@ -416,6 +514,7 @@ public class SAXElement {
     public void setAttributeNS(String namespaceURI, String name, String value) {
         removeAttributeNS(namespaceURI, name);
 
+        AttributesImpl attributes = attributes();
         int prefixIndex = name.indexOf(":");
         if(prefixIndex != -1) {
             attributes.addAttribute(namespaceURI, name.substring(prefixIndex + 1), name, "CDATA", value);
@@ -438,6 +537,7 @@ public class SAXElement {
      * @param name The attribute name.
      */
     public void removeAttributeNS(String namespaceURI, String name) {
+        AttributesImpl attributes = attributes();
         int attribCount = attributes.getLength();
         for(int i = 0; i < attribCount; i++) {
             if(namespaceURI.equals(attributes.getURI(i))) {
@@ -538,6 +638,7 @@ public class SAXElement {
             element = document.createElement(name.getLocalPart());
         }
 
+        AttributesImpl attributes = attributes();
         int attributeCount = attributes.getLength();
         for(int i = 0; i < attributeCount; i++) {
             String namespace = attributes.getURI(i);
@@ -563,4 +664,28 @@ public class SAXElement {
 
         return element;
     }
+
+    /**
+     * Accumulated text list.  Text added to the list is copied (into the element's {@link TextArena},
+     * if it has one), because {@link SAXText} instances supplied by the {@link SAXHandler} reference
+     * the SAX parser's character buffer.
+     */
+    private class TextList extends ArrayList<SAXText> {
+
+        public boolean add(SAXText saxText) {
+            if(textArena != null) {
+                return addUncopied(textArena.copy(saxText));
+            } else {
+                return addUncopied((SAXText) saxText.clone());
+            }
+        }
+
+        private boolean addUncopied(SAXText saxText) {
+            // Clear the accumulated text so as any subsequent calls to the
+            // getTextContent methods will recreate it from scratch...
+            textAccumulated = false;
+            accumulatedText = null;
+            return super.add(saxText);
+        }
+    }
 }
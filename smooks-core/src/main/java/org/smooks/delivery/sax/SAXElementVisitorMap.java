@@ -52,7 +52,9 @@ import org.smooks.cdr.xpath.SelectorStep;
 
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * SAXElement visitor Map.
@@ -67,6 +69,7 @@ public class SAXElementVisitorMap {
     private List<ContentHandlerConfigMap<VisitLifecycleCleanable>> visitCleanables;
     private boolean accumulateText = false;
     private SAXVisitor acquireWriterFor = null;
+    private volatile TargetingIndex targetingIndex;
 
     public List<ContentHandlerConfigMap<SAXVisitBefore>> getVisitBefores() {
         return visitBefores;
@@ -74,6 +77,7 @@ public class SAXElementVisitorMap {
 
     public void setVisitBefores(List<ContentHandlerConfigMap<SAXVisitBefore>> visitBefores) {
         this.visitBefores = visitBefores;
+        this.targetingIndex = null;
     }
 
     public List<ContentHandlerConfigMap<SAXVisitChildren>> getChildVisitors() {
@@ -82,6 +86,7 @@ public class SAXElementVisitorMap {
 
     public void setChildVisitors(List<ContentHandlerConfigMap<SAXVisitChildren>> childVisitors) {
         this.childVisitors = childVisitors;
+        this.targetingIndex = null;
     }
 
     public List<ContentHandlerConfigMap<SAXVisitAfter>> getVisitAfters() {
@@ -90,6 +95,7 @@ public class SAXElementVisitorMap {
 
     public void setVisitAfters(List<ContentHandlerConfigMap<SAXVisitAfter>> visitAfters) {
         this.visitAfters = visitAfters;
+        this.targetingIndex = null;
     }
 
     public List<ContentHandlerConfigMap<VisitLifecycleCleanable>> getVisitCleanables() {
@@ -98,6 +104,7 @@ public class SAXElementVisitorMap {
 
     public void setVisitCleanables(List<ContentHandlerConfigMap<VisitLifecycleCleanable>> visitCleanables) {
         this.visitCleanables = visitCleanables;
+        this.targetingIndex = null;
     }
 
     public boolean accumulateText() {
@@ -178,6 +185,26 @@ public class SAXElementVisitorMap {
         return merge;
     }
 
+    /**
+     * Get the targeting index for the visitor lists in this map.
+     * <p/>
+     * The index assigns an index to each distinct resource configuration in the visitor lists,
+     * allowing the {@link SAXHandler} to memoize (per element) whether or not each configuration
+     * is targeted at the element.
+     *
+     * @return The targeting index.
+     */
+    TargetingIndex getTargetingIndex() {
+        TargetingIndex index = targetingIndex;
+
+        if(index == null) {
+            index = new TargetingIndex(this);
+            targetingIndex = index;
+        }
+
+        return index;
+    }
+
 	private <T extends SAXVisitor> T getAnnotatedHandler(List<ContentHandlerConfigMap<T>> handlerMaps, Class<? extends Annotation> annotationClass, boolean checkFields) {
 		if(handlerMaps == null) {
 			return null;
@@ -194,4 +221,89 @@ public class SAXElementVisitorMap {
 		
 		return null;
 	}
+
+    /**
+     * Resource configuration targeting index.
+     * <p/>
+     * Maps the entries of each of the visitor lists onto the distinct resource configurations
+     * in the map.  A resource configuration that is mapped to a number of visitor lists (e.g. a
+     * {@link SAXVisitBefore} that's also a {@link SAXVisitAfter}) is only evaluated once per element.
+     */
+    static class TargetingIndex {
+
+        private final List<SmooksResourceConfiguration> resourceConfigs = new ArrayList<SmooksResourceConfiguration>();
+        private final boolean[] memoizable;
+        private final int[] visitBefores;
+        private final int[] childVisitors;
+        private final int[] visitAfters;
+        private final int[] visitCleanables;
+
+        private TargetingIndex(SAXElementVisitorMap visitorMap) {
+            Map<SmooksResourceConfiguration, Integer> indexes = new IdentityHashMap<SmooksResourceConfiguration, Integer>();
+
+            visitBefores = index(visitorMap.visitBefores, indexes);
+            childVisitors = index(visitorMap.childVisitors, indexes);
+            visitAfters = index(visitorMap.visitAfters, indexes);
+            visitCleanables = index(visitorMap.visitCleanables, indexes);
+
+            memoizable = new boolean[resourceConfigs.size()];
+            for(int i = 0; i < memoizable.length; i++) {
+                SmooksResourceConfiguration resourceConfig = resourceConfigs.get(i);
+
+                // A targeting decision can't be reused if it depends on the element text (which is
+                // only complete at the end of the element), or on a condition (which depends on the
+                // state of the execution context at the time of the event)...
+                memoizable[i] = (resourceConfig.getConditionEvaluator() == null && !resourceConfig.getSelectorStep().accessesText());
+            }
+        }
+
+        private int[] index(List<? extends ContentHandlerConfigMap<?>> mappings, Map<SmooksResourceConfiguration, Integer> indexes) {
+            if(mappings == null) {
+                return new int[0];
+            }
+
+            int[] mappingIndexes = new int[mappings.size()];
+            for(int i = 0; i < mappingIndexes.length; i++) {
+                SmooksResourceConfiguration resourceConfig = mappings.get(i).getResourceConfig();
+                Integer index = indexes.get(resourceConfig);
+
+                if(index == null) {
+                    index = resourceConfigs.size();
+                    resourceConfigs.add(resourceConfig);
+                    indexes.put(resourceConfig, index);
+                }
+                mappingIndexes[i] = index;
+            }
+
+            return mappingIndexes;
+        }
+
+        int getResourceConfigCount() {
+            return resourceConfigs.size();
+        }
+
+        SmooksResourceConfiguration getResourceConfig(int index) {
+            return resourceConfigs.get(index);
+        }
+
+        boolean isMemoizable(int index) {
+            return memoizable[index];
+        }
+
+        int getVisitBeforeIndex(int mappingIndex) {
+            return visitBefores[mappingIndex];
+        }
+
+        int getChildVisitorIndex(int mappingIndex) {
+            return childVisitors[mappingIndex];
+        }
+
+        int getVisitAfterIndex(int mappingIndex) {
+            return visitAfters[mappingIndex];
+        }
+
+        int getVisitCleanableIndex(int mappingIndex) {
+            return visitCleanables[mappingIndex];
+        }
+    }
 }
@@ -0,0 +1,91 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.delivery.sax;
+
+import org.smooks.namespace.NamespaceDeclarationStack;
+import org.xml.sax.XMLReader;
+
+/**
+ * Reusable SAX filter pipeline.
+ * <p/>
+ * Bundles the {@link XMLReader}, {@link SAXHandler} (and its {@link DefaultSAXElementSerializer})
+ * and {@link NamespaceDeclarationStack} used to filter a single message, so the complete pipeline
+ * can be reset and pooled on the {@link SAXContentDeliveryConfig} instead of being rebuilt on every
+ * {@link org.smooks.Smooks#filterSource(javax.xml.transform.Source, javax.xml.transform.Result...) filterSource}
+ * call.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ * @see SAXContentDeliveryConfig#getFilterPipelinePool()
+ */
+public final class SAXFilterPipeline {
+
+    private final XMLReader reader;
+    private final SAXHandler handler;
+    private final NamespaceDeclarationStack namespaceDeclarationStack;
+
+    SAXFilterPipeline(XMLReader reader, SAXHandler handler, NamespaceDeclarationStack namespaceDeclarationStack) {
+        this.reader = reader;
+        this.handler = handler;
+        this.namespaceDeclarationStack = namespaceDeclarationStack;
+    }
+
+    XMLReader getReader() {
+        return reader;
+    }
+
+    SAXHandler getHandler() {
+        return handler;
+    }
+
+    NamespaceDeclarationStack getNamespaceDeclarationStack() {
+        return namespaceDeclarationStack;
+    }
+
+    /**
+     * Release all references to the last execution, readying the pipeline for the pool.
+     */
+    void recycle() {
+        handler.recycle();
+        namespaceDeclarationStack.clear();
+    }
+}
@@ -42,6 +42,7 @@
  */
 package org.smooks.delivery.sax;
 
+import org.smooks.OutputFlushPolicy;
 import org.smooks.SmooksException;
 import org.smooks.cdr.SmooksConfigurationException;
 import org.smooks.cdr.SmooksResourceConfiguration;
@@ -65,6 +66,8 @@ import org.xml.sax.SAXException;
 import javax.xml.namespace.QName;
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
 
@@ -88,12 +91,27 @@ public class SAXHandler extends SmooksContentHandler {
     private boolean defaultSerializationOn;
     private boolean maintainElementStack;
     private boolean reverseVisitOrderOnVisitAfter;
+    private OutputFlushPolicy outputFlushPolicy;
+    private SmooksResourceConfiguration outputFlushSelector;
     private boolean terminateOnVisitorException;
     private DefaultSAXElementSerializer defaultSerializer = new DefaultSAXElementSerializer();
     private static ContentHandlerConfigMap defaultSerializerMapping;
     private ExecutionEventListener eventListener;
+    private VisitorMetrics visitorMetrics;
     private DynamicSAXElementVisitorList dynamicVisitorList;
+    private boolean ownsDynamicVisitorList;
     private StringBuilder cdataNodeBuilder = new StringBuilder();
+    private QNameCache qNameCache = new QNameCache();
+    /**
+     * Element processor frames, indexed by element depth.  The frames (and the elements they
+     * hold) are recycled across elements at the same depth.
+     */
+    private ElementProcessor[] processorStack = new ElementProcessor[16];
+    private int processorDepth;
+    private SelectorAutomaton selectorAutomaton;
+    private SelectorAutomaton.Matcher selectorMatcher;
+    private ParallelRecordDispatcher recordDispatcher;
+    private final TextArena textArena = new TextArena();
 
     static {
         // Configure the default handler mapping...
@@ -110,14 +128,9 @@ public class SAXHandler extends SmooksContentHandler {
     public SAXHandler(ExecutionContext executionContext, Writer writer, SmooksContentHandler parentContentHandler) {
         super(executionContext, parentContentHandler);
 
-        this.execContext = executionContext;
-        this.writer = writer;
-        eventListener = executionContext.getEventListener();
-
         deliveryConfig = ((SAXContentDeliveryConfig)executionContext.getDeliveryConfig());
         visitorConfigMap = deliveryConfig.getOptimizedVisitorConfig();
 
-        SAXContentDeliveryConfig contentDeliveryConfig = (SAXContentDeliveryConfig) executionContext.getDeliveryConfig();
         SAXElementVisitorMap starVisitorConfigs = visitorConfigMap.get("*");
         SAXElementVisitorMap starStarVisitorConfigs = visitorConfigMap.get("**");
 
@@ -127,41 +140,183 @@ public class SAXHandler extends SmooksContentHandler {
             globalVisitorConfig = starStarVisitorConfigs;
         }
 
-        rewriteEntities = contentDeliveryConfig.isRewriteEntities();
+        rewriteEntities = deliveryConfig.isRewriteEntities();
         defaultSerializer.setRewriteEntities(rewriteEntities);
+        maintainElementStack = deliveryConfig.isMaintainElementStack();
+        reverseVisitOrderOnVisitAfter = deliveryConfig.isReverseVisitOrderOnVisitAfter();
+        outputFlushPolicy = deliveryConfig.getOutputFlushPolicy();
+        outputFlushSelector = deliveryConfig.getOutputFlushSelector();
+
+        selectorAutomaton = deliveryConfig.getSelectorAutomaton();
+        if(maintainElementStack && selectorAutomaton.getSelectorCount() > 0) {
+            selectorMatcher = selectorAutomaton.newMatcher();
+        }
+
+        init(executionContext, writer);
+    }
+
+    /**
+     * Reset this handler for reuse on a new filter execution.
+     * <p/>
+     * The execution context must be associated with the same {@link SAXContentDeliveryConfig}
+     * as the one the handler was created for.
+     *
+     * @param executionContext The execution context.
+     * @param writer The output writer.
+     */
+    void reset(ExecutionContext executionContext, Writer writer) {
+        if(executionContext.getDeliveryConfig() != deliveryConfig) {
+            throw new IllegalArgumentException("Cannot reset SAXHandler with an ExecutionContext associated with a different ContentDeliveryConfig.");
+        }
+        super.reset(executionContext);
+        init(executionContext, writer);
+    }
+
+    protected void recycle() {
+        super.recycle();
+        if(ownsDynamicVisitorList) {
+            execContext.removeAttribute(DynamicSAXElementVisitorList.class);
+            dynamicVisitorList.clear();
+        } else {
+            dynamicVisitorList = null;
+        }
+        execContext = null;
+        writer = null;
+        eventListener = null;
+        visitorMetrics = null;
+        recordDispatcher = null;
+        currentProcessor = null;
+        currentTextType = TextType.TEXT;
+        cdataNodeBuilder.setLength(0);
+        // Drop all element state, including recyclable elements (they reference the old writer)...
+        for(ElementProcessor processor : processorStack) {
+            if(processor != null) {
+                processor.clear();
+                processor.recyclableElement = null;
+            }
+        }
+        processorDepth = 0;
+    }
+
+    private void init(ExecutionContext executionContext, Writer writer) {
+        this.execContext = executionContext;
+        this.writer = writer;
+        eventListener = executionContext.getEventListener();
+        visitorMetrics = VisitorMetrics.getMetrics(executionContext);
+        currentProcessor = null;
+        processorDepth = 0;
+        if(selectorMatcher != null) {
+            selectorMatcher.reset();
+        }
+        currentTextType = TextType.TEXT;
+        cdataNodeBuilder.setLength(0);
 
         defaultSerializationOn = executionContext.isDefaultSerializationOn();
         if(defaultSerializationOn) {
             // If it's not explicitly configured off, we auto turn it off if the NullWriter is configured...
             defaultSerializationOn = !(writer instanceof NullWriter);
         }
-        maintainElementStack = contentDeliveryConfig.isMaintainElementStack();
 
-        reverseVisitOrderOnVisitAfter = contentDeliveryConfig.isReverseVisitOrderOnVisitAfter();
-        if(!(executionContext.getEventListener() instanceof AbstractReportGenerator)) {
-            terminateOnVisitorException = contentDeliveryConfig.isTerminateOnVisitorException();
+        if(!(eventListener instanceof AbstractReportGenerator)) {
+            terminateOnVisitorException = deliveryConfig.isTerminateOnVisitorException();
         } else {
             terminateOnVisitorException = false;
         }
 
-        dynamicVisitorList = DynamicSAXElementVisitorList.getList(executionContext);
-        if(dynamicVisitorList == null) {
+        DynamicSAXElementVisitorList contextVisitorList = DynamicSAXElementVisitorList.getList(executionContext);
+        if(contextVisitorList != null) {
+            dynamicVisitorList = contextVisitorList;
+            ownsDynamicVisitorList = false;
+        } else if(ownsDynamicVisitorList) {
+            // Reuse the list created on a previous execution...
+            dynamicVisitorList.attach(executionContext);
+        } else {
             dynamicVisitorList = new DynamicSAXElementVisitorList(executionContext);
+            ownsDynamicVisitorList = true;
         }
     }
 
     public void cleanup() {
     }
 
+    /**
+     * Set the {@link ParallelRecordDispatcher} to which record fragment events are diverted.
+     * @param recordDispatcher The record dispatcher, or null to process all events on this handler.
+     */
+    void setRecordDispatcher(ParallelRecordDispatcher recordDispatcher) {
+        this.recordDispatcher = recordDispatcher;
+    }
+
+    /**
+     * Notify the current element that a child fragment is being filtered outside this handler.
+     * <p/>
+     * The fragment's output is written after everything this handler has written up to this point, so
+     * the current element's start tag must be serialized now (as it would be for a child element event).
+     */
+    void onDetachedChildElement() {
+        if(currentProcessor != null && defaultSerializationOn && applyDefaultSerialization()) {
+            try {
+                defaultSerializer.writeStartElement(currentProcessor.element);
+            } catch (IOException e) {
+                throw new SmooksException("Unexpected exception applying defaultSerializer.", e);
+            }
+        }
+    }
+
+    /**
+     * Push a context element onto the element stack, without visiting or serializing it.
+     * <p/>
+     * Used to reconstruct the ancestors of a record fragment filtered on a worker handler, so that
+     * contextual selectors and {@link SAXElement#getParent()} behave as they would on the reader thread.
+     *
+     * @param startEvent The ancestor's start event.
+     */
+    void pushContextElement(StartElementEvent startEvent) throws SAXException {
+        getNamespaceDeclarationStack().pushNamespaces(startEvent.qName, startEvent.uri, startEvent.atts);
+
+        QName elementQName = qNameCache.get(startEvent.uri, startEvent.localName, startEvent.qName);
+        ElementProcessor processor = nextProcessor();
+        WriterManagedSAXElement element = newElement(processor, elementQName, startEvent.atts, (currentProcessor != null ? currentProcessor.element : null));
+
+        element.setWriter(writer);
+        element.detachAttributes();
+        processor.element = element;
+        processor.exposed = true;
+        pushProcessor(processor);
+        if(selectorMatcher != null) {
+            selectorMatcher.push(elementQName);
+        }
+    }
+
+    /**
+     * Replay a text event of the specified type.
+     * @param ch The characters.
+     * @param start The start offset.
+     * @param length The number of characters.
+     * @param textType The text type.
+     */
+    void replayText(char[] ch, int start, int length, TextType textType) {
+        currentTextType = textType;
+        try {
+            _characters(ch, start, length);
+        } finally {
+            currentTextType = TextType.TEXT;
+        }
+    }
+
     @SuppressWarnings("RedundantThrows")
     public void startElement(StartElementEvent startEvent) throws SAXException {
+        if(recordDispatcher != null && recordDispatcher.onStartElement(startEvent)) {
+            return;
+        }
+
         WriterManagedSAXElement element;
         boolean isRoot = (currentProcessor == null);
         SAXElementVisitorMap elementVisitorConfig;
         QName elementQName;
         String elementName;
 
-        elementQName = SAXUtil.toQName(startEvent.uri, startEvent.localName, startEvent.qName);
+        elementQName = qNameCache.get(startEvent.uri, startEvent.localName, startEvent.qName);
         elementName = elementQName != null ? elementQName.getLocalPart() : null;
 
         if(isRoot) {
@@ -175,24 +330,30 @@ public class SAXHandler extends SmooksContentHandler {
         }
 
         if(!maintainElementStack && elementVisitorConfig == null) {
-            ElementProcessor processor = new ElementProcessor();
+            ElementProcessor processor = nextProcessor();
 
             processor.isNullProcessor = true;
-            processor.parentProcessor = currentProcessor;
-            currentProcessor = processor;
-            // Register the "presence" of the element...
+            pushProcessor(processor);
+            // Register the "presence" of the element.  Only create an element for the event if
+            // there's a listener to receive it...
             if(eventListener != null) {
-                eventListener.onEvent(new ElementPresentEvent(new WriterManagedSAXElement(elementQName, startEvent.atts, currentProcessor.element)));
+                eventListener.onEvent(new ElementPresentEvent(new WriterManagedSAXElement(elementQName, startEvent.atts, null)));
             }
         } else {
+            ElementProcessor processor = nextProcessor();
+            // The element is "exposed" if anything other than this handler (and the default serializer)
+            // gets to see it, in which case it can't be recycled...
+            boolean exposed = (eventListener != null || elementVisitorConfig != null || !dynamicVisitorList.isEmpty());
+
             if(!isRoot) {
                 // Push the existing "current" processor onto the stack and create a new current
                 // based on this start event...
-                element = new WriterManagedSAXElement(elementQName, startEvent.atts, currentProcessor.element);
+                element = newElement(processor, elementQName, startEvent.atts, currentProcessor.element);
                 element.setWriter(getWriter());
+                exposed = exposed || currentProcessor.elementVisitorConfig != null;
                 onChildElement(element);
             } else {
-                element = new WriterManagedSAXElement(elementQName, startEvent.atts, null);
+                element = newElement(processor, elementQName, startEvent.atts, null);
                 element.setWriter(writer);
             }
 
@@ -201,12 +362,28 @@ public class SAXHandler extends SmooksContentHandler {
                 eventListener.onEvent(new ElementPresentEvent(element));
             }
 
-            visitBefore(element, elementVisitorConfig);
+            if(exposed) {
+                processor.exposed = true;
+                exposeAncestors(currentProcessor);
+            }
+            if(selectorMatcher != null) {
+                selectorMatcher.push(elementQName);
+            }
+            visitBefore(processor, element, elementVisitorConfig);
+
+            // The reader is free to reuse its Attributes instance once the start event has been
+            // processed, so the element needs its own copy from here on.  The copy is made into
+            // the element's (recycled) attribute buffer...
+            element.detachAttributes();
         }
     }
 
     @SuppressWarnings("RedundantThrows")
     public void endElement(EndElementEvent endEvent) throws SAXException {
+        if(recordDispatcher != null && recordDispatcher.onEndElement(endEvent)) {
+            return;
+        }
+
         boolean flush = false;
 
         // Apply the dynamic visitors...
@@ -226,19 +403,16 @@ public class SAXHandler extends SmooksContentHandler {
             List<ContentHandlerConfigMap<SAXVisitAfter>> visitAfterMappings = currentProcessor.elementVisitorConfig.getVisitAfters();
 
             if(visitAfterMappings != null) {
+                int mappingCount = visitAfterMappings.size();
+
                 if(reverseVisitOrderOnVisitAfter) {
                     // We work through the mappings in reverse order on the end element event...
-                    int mappingCount = visitAfterMappings.size();
-                    ContentHandlerConfigMap<SAXVisitAfter> mapping;
-
                     for(int i = mappingCount - 1; i >= 0; i--) {
-                        mapping = visitAfterMappings.get(i);
-                        visitAfter(mapping);
+                        visitAfter(visitAfterMappings.get(i), i);
                     }
                 } else {
-                    for (final ContentHandlerConfigMap<SAXVisitAfter> visitAfterMapping : visitAfterMappings)
-                    {
-                        visitAfter(visitAfterMapping);
+                    for(int i = 0; i < mappingCount; i++) {
+                        visitAfter(visitAfterMappings.get(i), i);
                     }
                 }
             }
@@ -257,7 +431,7 @@ public class SAXHandler extends SmooksContentHandler {
             flush = true;
         }
 
-        if(flush) {
+        if(isFlushElement(flush)) {
             flushCurrentWriter();
         }
 
@@ -266,24 +440,103 @@ public class SAXHandler extends SmooksContentHandler {
             List<ContentHandlerConfigMap<VisitLifecycleCleanable>> visitCleanables = currentProcessor.elementVisitorConfig.getVisitCleanables();
 
             if(visitCleanables != null) {
-                for (final ContentHandlerConfigMap<VisitLifecycleCleanable> visitCleanable : visitCleanables)
+                int mappingCount = visitCleanables.size();
+
+                for (int i = 0; i < mappingCount; i++)
                 {
+                    final ContentHandlerConfigMap<VisitLifecycleCleanable> visitCleanable = visitCleanables.get(i);
                     final boolean targetedAtElement
-                        = visitCleanable.getResourceConfig().isTargetedAtElement(currentProcessor.element, execContext);
+                        = isTargetedAtCurrentElement(currentProcessor.targetingIndex.getVisitCleanableIndex(i));
 
                     if (targetedAtElement)
                     {
+                        long startNanos = (visitorMetrics != null ? System.nanoTime() : 0L);
                         visitCleanable.getContentHandler().executeVisitLifecycleCleanup(new Fragment(currentProcessor.element), execContext);
+                        if (visitorMetrics != null)
+                        {
+                            visitorMetrics.record(visitCleanable.getResourceConfig(), VisitSequence.CLEAN, startNanos);
+                        }
                     }
                 }
             }
         }
 
-        ElementProcessor parentProcessor = currentProcessor.parentProcessor;
-        currentProcessor.element = null;
-        currentProcessor.elementVisitorConfig = null;
-        currentProcessor.parentProcessor = null;
-        currentProcessor = parentProcessor;
+        popProcessor();
+    }
+
+    /**
+     * Get the processor frame for the next element depth.
+     * @return The processor frame.
+     */
+    private ElementProcessor nextProcessor() {
+        if(processorDepth == processorStack.length) {
+            processorStack = Arrays.copyOf(processorStack, processorDepth * 2);
+        }
+
+        ElementProcessor processor = processorStack[processorDepth];
+        if(processor == null) {
+            processor = new ElementProcessor();
+            processorStack[processorDepth] = processor;
+        }
+
+        return processor;
+    }
+
+    private void pushProcessor(ElementProcessor processor) {
+        processor.parentProcessor = currentProcessor;
+        currentProcessor = processor;
+        processorDepth++;
+    }
+
+    private void popProcessor() {
+        ElementProcessor processor = currentProcessor;
+        WriterManagedSAXElement element = processor.element;
+
+        if(element != null) {
+            if(processor.exposed || !dynamicVisitorList.isEmpty()) {
+                // The element may be retained beyond this event (cache, bean binding, replay etc),
+                // so it must not be recycled...
+                exposeAncestors(processor.parentProcessor);
+            } else {
+                processor.recyclableElement = element;
+            }
+        }
+
+        if(element != null && selectorMatcher != null) {
+            selectorMatcher.pop();
+        }
+        currentProcessor = processor.parentProcessor;
+        processor.clear();
+        processorDepth--;
+    }
+
+    private WriterManagedSAXElement newElement(ElementProcessor processor, QName name, Attributes attributes, SAXElement parent) {
+        WriterManagedSAXElement element = processor.recyclableElement;
+
+        if(element != null) {
+            processor.recyclableElement = null;
+        } else {
+            element = new WriterManagedSAXElement();
+        }
+        element.reuse(name, attributes, parent);
+        element.setTextArena(textArena);
+
+        return element;
+    }
+
+    /**
+     * Mark the elements of the supplied processor and its ancestors as exposed.  They are
+     * reachable from an exposed element via {@link SAXElement#getParent()}.
+     * @param processor The processor.
+     */
+    private void exposeAncestors(ElementProcessor processor) {
+        if(!maintainElementStack) {
+            return;
+        }
+        while(processor != null && !processor.exposed) {
+            processor.exposed = true;
+            processor = processor.parentProcessor;
+        }
     }
 
     private Writer getWriter() {
@@ -302,16 +555,15 @@ public class SAXHandler extends SmooksContentHandler {
         return null;
     }
 
-    private void visitBefore(WriterManagedSAXElement element, SAXElementVisitorMap elementVisitorConfig) {
+    private void visitBefore(ElementProcessor processor, WriterManagedSAXElement element, SAXElementVisitorMap elementVisitorConfig) {
 
-        // Now create the new "current" processor...
-        ElementProcessor processor = new ElementProcessor();
-
-        processor.parentProcessor = currentProcessor;
+        // Now make it the new "current" processor...
         processor.element = element;
         processor.elementVisitorConfig = elementVisitorConfig;
-
-        currentProcessor = processor;
+        processor.targetingIndex = (elementVisitorConfig != null ? elementVisitorConfig.getTargetingIndex() : null);
+        processor.targetingEvaluated.clear();
+        processor.targeted.clear();
+        pushProcessor(processor);
         if(currentProcessor.elementVisitorConfig != null) {
             // And visit it with the targeted visitor...
             List<ContentHandlerConfigMap<SAXVisitBefore>> visitBeforeMappings = currentProcessor.elementVisitorConfig.getVisitBefores();
@@ -325,13 +577,21 @@ public class SAXHandler extends SmooksContentHandler {
             }
 
             if(visitBeforeMappings != null) {
-                for (final ContentHandlerConfigMap<SAXVisitBefore> mapping : visitBeforeMappings)
+                int mappingCount = visitBeforeMappings.size();
+
+                for (int i = 0; i < mappingCount; i++)
                 {
+                    final ContentHandlerConfigMap<SAXVisitBefore> mapping = visitBeforeMappings.get(i);
                     try
                     {
-                        if (mapping.getResourceConfig().isTargetedAtElement(currentProcessor.element, execContext))
+                        if (isTargetedAtCurrentElement(currentProcessor.targetingIndex.getVisitBeforeIndex(i)))
                         {
+                            long startNanos = (visitorMetrics != null ? System.nanoTime() : 0L);
                             mapping.getContentHandler().visitBefore(currentProcessor.element, execContext);
+                            if (visitorMetrics != null)
+                            {
+                                visitorMetrics.record(mapping.getResourceConfig(), VisitSequence.BEFORE, startNanos);
+                            }
                             // Register the targeting event.  No need to register this event again on the visitAfter...
                             if (eventListener != null)
                             {
@@ -379,9 +639,12 @@ public class SAXHandler extends SmooksContentHandler {
             List<ContentHandlerConfigMap<SAXVisitChildren>> visitChildMappings = currentProcessor.elementVisitorConfig.getChildVisitors();
 
             if(visitChildMappings != null) {
-                for (final ContentHandlerConfigMap<SAXVisitChildren> mapping : visitChildMappings)
+                int mappingCount = visitChildMappings.size();
+
+                for (int i = 0; i < mappingCount; i++)
                 {
-                    if (mapping.getResourceConfig().isTargetedAtElement(currentProcessor.element, execContext))
+                    final ContentHandlerConfigMap<SAXVisitChildren> mapping = visitChildMappings.get(i);
+                    if (isTargetedAtCurrentElement(currentProcessor.targetingIndex.getChildVisitorIndex(i)))
                     {
                         try
                         {
@@ -419,11 +682,68 @@ public class SAXHandler extends SmooksContentHandler {
         }
     }
 
-    private void visitAfter(ContentHandlerConfigMap<SAXVisitAfter> afterMapping) {
+    /**
+     * Is the indexed resource configuration targeted at the current element.
+     * <p/>
+     * The targeting decision is made once per element and reused across the visitBefore, child,
+     * visitAfter and cleanup events, unless it depends on the element text or on a condition
+     * (see {@link SAXElementVisitorMap.TargetingIndex}).
+     *
+     * @param configIndex The resource configuration index in the current element's
+     * {@link SAXElementVisitorMap.TargetingIndex}.
+     * @return True if the resource configuration is targeted at the current element, otherwise false.
+     */
+    private boolean isTargetedAtCurrentElement(int configIndex) {
+        ElementProcessor processor = currentProcessor;
+        SAXElementVisitorMap.TargetingIndex targetingIndex = processor.targetingIndex;
+
+        if(!targetingIndex.isMemoizable(configIndex)) {
+            return isTargetedAtElement(targetingIndex.getResourceConfig(configIndex), processor.element);
+        }
+        if(processor.targetingEvaluated.get(configIndex)) {
+            return processor.targeted.get(configIndex);
+        }
+
+        boolean targetedAtElement = isTargetedAtElement(targetingIndex.getResourceConfig(configIndex), processor.element);
+        processor.targetingEvaluated.set(configIndex);
+        if(targetedAtElement) {
+            processor.targeted.set(configIndex);
+        }
+
+        return targetedAtElement;
+    }
+
+    /**
+     * Is the supplied resource configuration targeted at the current element.
+     * <p/>
+     * The context of selectors compiled into the {@link SelectorAutomaton} is checked against the
+     * automaton, instead of walking up through the element's ancestors.
+     *
+     * @param resourceConfig The resource configuration.
+     * @param element The current element.
+     * @return True if the resource configuration is targeted at the element, otherwise false.
+     */
+    private boolean isTargetedAtElement(SmooksResourceConfiguration resourceConfig, SAXElement element) {
+        if(selectorMatcher != null) {
+            int[] acceptNodes = selectorAutomaton.getAcceptNodes(resourceConfig);
+
+            if(acceptNodes != null) {
+                return selectorMatcher.isMatched(acceptNodes) && resourceConfig.isTargetedAtElement(element, execContext, false);
+            }
+        }
+
+        return resourceConfig.isTargetedAtElement(element, execContext);
+    }
+
+    private void visitAfter(ContentHandlerConfigMap<SAXVisitAfter> afterMapping, int mappingIndex) {
 
         try {
-            if(afterMapping.getResourceConfig().isTargetedAtElement(currentProcessor.element, execContext)) {
+            if(isTargetedAtCurrentElement(currentProcessor.targetingIndex.getVisitAfterIndex(mappingIndex))) {
+                long startNanos = (visitorMetrics != null ? System.nanoTime() : 0L);
                 afterMapping.getContentHandler().visitAfter(currentProcessor.element, execContext);
+                if(visitorMetrics != null) {
+                    visitorMetrics.record(afterMapping.getResourceConfig(), VisitSequence.AFTER, startNanos);
+                }
                 if(eventListener != null) {
                     eventListener.onEvent(new ElementVisitEvent(currentProcessor.element, afterMapping, VisitSequence.AFTER));
                 }
@@ -446,6 +766,9 @@ public class SAXHandler extends SmooksContentHandler {
 
     private StringBuilder entityBuilder = new StringBuilder(10);
     private void _characters(char[] ch, int start, int length) {
+        if(recordDispatcher != null && recordDispatcher.onText(ch, start, length, currentTextType)) {
+            return;
+        }
 
         if(!rewriteEntities && currentTextType == TextType.ENTITY) {
             entityBuilder.setLength(0);
@@ -473,11 +796,14 @@ public class SAXHandler extends SmooksContentHandler {
                     List<ContentHandlerConfigMap<SAXVisitChildren>> visitChildMappings = currentProcessor.elementVisitorConfig.getChildVisitors();
 
                     if(visitChildMappings != null) {
-                        for (final ContentHandlerConfigMap<SAXVisitChildren> mapping : visitChildMappings)
+                        int mappingCount = visitChildMappings.size();
+
+                        for (int i = 0; i < mappingCount; i++)
                         {
+                            final ContentHandlerConfigMap<SAXVisitChildren> mapping = visitChildMappings.get(i);
                             try
                             {
-                                if (mapping.getResourceConfig().isTargetedAtElement(currentProcessor.element, execContext))
+                                if (isTargetedAtCurrentElement(currentProcessor.targetingIndex.getChildVisitorIndex(i)))
                                 {
                                     mapping.getContentHandler().onChildText(currentProcessor.element, textWrapper, execContext);
                                 }
@@ -523,6 +849,26 @@ public class SAXHandler extends SmooksContentHandler {
         return (currentProcessor.element.writerOwner == defaultSerializer || currentProcessor.element.writerOwner == null);
     }
 
+    private boolean isFlushElement(boolean elementWritten) {
+        switch (outputFlushPolicy) {
+            case ELEMENT:
+                return elementWritten;
+            case FRAGMENT:
+                SAXElement element = currentProcessor.element;
+                if(element == null) {
+                    return false;
+                }
+                String targetElement = outputFlushSelector.getTargetElement();
+                if(!targetElement.equals("*") && !targetElement.equals(element.getName().getLocalPart())) {
+                    return false;
+                }
+                return outputFlushSelector.isTargetedAtElement(element, execContext);
+            default:
+                // The output is flushed by the filter...
+                return false;
+        }
+    }
+
     private void flushCurrentWriter() {
         Writer writer = getWriter();
         if(writer != null) {
@@ -593,6 +939,22 @@ public class SAXHandler extends SmooksContentHandler {
         private boolean isNullProcessor = false;
         private WriterManagedSAXElement element;
         private SAXElementVisitorMap elementVisitorConfig;
+        private SAXElementVisitorMap.TargetingIndex targetingIndex;
+        private final BitSet targetingEvaluated = new BitSet();
+        private final BitSet targeted = new BitSet();
+        private boolean exposed;
+        private WriterManagedSAXElement recyclableElement;
+
+        private void clear() {
+            parentProcessor = null;
+            isNullProcessor = false;
+            element = null;
+            elementVisitorConfig = null;
+            targetingIndex = null;
+            targetingEvaluated.clear();
+            targeted.clear();
+            exposed = false;
+        }
     }
 
     private void processVisitorException(SAXElement element, Throwable error, ContentHandlerConfigMap configMapping, VisitSequence visitSequence, String errorMsg) throws SmooksException {
@@ -625,10 +987,18 @@ public class SAXHandler extends SmooksContentHandler {
 
         private SAXVisitor writerOwner;
 
+        private WriterManagedSAXElement() {
+        }
+
         private WriterManagedSAXElement(QName qName, Attributes attributes, SAXElement parent) {
             super(qName, attributes, parent);
         }
 
+        void reuse(QName name, Attributes attributes, SAXElement parent) {
+            super.reuse(name, attributes, parent);
+            writerOwner = null;
+        }
+
         public Writer getWriter(SAXVisitor visitor) throws SAXWriterAccessException {
             if(writerOwner == null) {
                 writerOwner = visitor;
@@ -51,10 +51,12 @@ import javax.xml.transform.Source;
 
 import org.smooks.container.ExecutionContext;
 import org.smooks.delivery.AbstractParser;
-import org.smooks.delivery.ContentDeliveryConfig;
 import org.smooks.delivery.XMLReaderHierarchyChangeListener;
 import org.smooks.namespace.NamespaceDeclarationStack;
+import org.smooks.payload.JavaSource;
+import org.smooks.util.BoundedObjectPool;
 import org.smooks.xml.NamespaceMappings;
+import org.smooks.xml.XsdValidator;
 import org.smooks.xml.hierarchy.HierarchyChangeReader;
 import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
@@ -68,6 +70,8 @@ import org.xml.sax.XMLReader;
 public class SAXParser extends AbstractParser {
 
     private SAXHandler saxHandler;
+    private SAXFilterPipeline pipeline;
+    private Writer outputWriter;
 
     public SAXParser(ExecutionContext execContext) {
         super(execContext);
@@ -76,26 +80,59 @@ public class SAXParser extends AbstractParser {
     protected Writer parse(Source source, Result result, ExecutionContext executionContext) throws SAXException, IOException {
 
         Writer writer = getWriter(result, executionContext);
-        ContentDeliveryConfig deliveryConfig = executionContext.getDeliveryConfig();
+        outputWriter = writer;
+        ParallelRecordDispatcher recordDispatcher = null;
+        Writer handlerWriter = writer;
+        SAXContentDeliveryConfig deliveryConfig = (SAXContentDeliveryConfig) executionContext.getDeliveryConfig();
+        BoundedObjectPool<SAXFilterPipeline> pipelinePool = deliveryConfig.getFilterPipelinePool();
         XMLReader saxReader = getXMLReader(executionContext);
+        NamespaceDeclarationStack namespaceDeclarationStack;
 
-        saxHandler = new SAXHandler(getExecContext(), writer);
+        // Only top level parses of non Java sources can be pooled.  The reader used
+        // for a JavaSource depends on the source, not just the config...
+        boolean poolable = (saxReader == null && pipelinePool.isEnabled() && !(source instanceof JavaSource));
+        if(poolable) {
+            pipeline = pipelinePool.borrow();
+        }
 
-        try {
-            if(saxReader == null) {
-                saxReader = deliveryConfig.getXMLReader();
+        if(executionContext != null && getXMLReader(executionContext) == null) {
+            // Parallel record processing is only supported on a top level parse...
+            recordDispatcher = ParallelRecordDispatcher.newDispatcher(executionContext, writer);
+            if(recordDispatcher != null) {
+                handlerWriter = recordDispatcher.getWriter();
             }
+        }
+
+        if(pipeline != null) {
+            saxReader = pipeline.getReader();
+            saxHandler = pipeline.getHandler();
+            saxHandler.reset(getExecContext(), handlerWriter);
+            namespaceDeclarationStack = pipeline.getNamespaceDeclarationStack();
+        } else {
+            saxHandler = new SAXHandler(getExecContext(), handlerWriter);
+            namespaceDeclarationStack = new NamespaceDeclarationStack();
+        }
+        if(recordDispatcher != null) {
+            recordDispatcher.attach(saxHandler);
+        }
+
+        boolean completed = false;
+        try {
             if(saxReader == null) {
                 saxReader = createXMLReader();
             }
 
-            NamespaceDeclarationStack namespaceDeclarationStack = new NamespaceDeclarationStack();
             NamespaceMappings.setNamespaceDeclarationStack(namespaceDeclarationStack, executionContext);
 
             attachNamespaceDeclarationStack(saxReader, executionContext);
             attachXMLReader(saxReader, executionContext);
 
-            configureReader(saxReader, saxHandler, executionContext, source);
+            XsdValidator inputValidator = deliveryConfig.getInputValidator();
+            if(inputValidator != null) {
+                configureReader(saxReader, new SAXValidationHandler(inputValidator.newValidatorHandler(), saxHandler), executionContext, source);
+            } else {
+                configureReader(saxReader, saxHandler, executionContext, source);
+            }
             if(executionContext != null) {
                 if(saxReader instanceof HierarchyChangeReader) {
                     ((HierarchyChangeReader)saxReader).setHierarchyChangeListener(new XMLReaderHierarchyChangeListener(executionContext));
@@ -104,6 +141,10 @@ public class SAXParser extends AbstractParser {
             } else {
                 saxReader.parse(createInputSource(source, Charset.defaultCharset().name()));
             }
+            if(recordDispatcher != null) {
+                recordDispatcher.finish();
+            }
+            completed = true;
         } finally {
             try {
                 if(executionContext != null && saxReader instanceof HierarchyChangeReader) {
@@ -112,14 +153,20 @@ public class SAXParser extends AbstractParser {
             } finally {
                 try {
                     if(saxReader != null) {
-                        try {
-                            detachXMLReader(executionContext);
-                        } finally {
-                            deliveryConfig.returnXMLReader(saxReader);
-                        }
+                        detachXMLReader(executionContext);
                     }
                 } finally {
+                    if(recordDispatcher != null) {
+                        recordDispatcher.shutdown();
+                    }
                     saxHandler.detachHandler();
+                    if(poolable && completed && pipeline == null) {
+                        // A clean parse... keep the pipeline so it can be returned to the pool on cleanup...
+                        pipeline = new SAXFilterPipeline(saxReader, saxHandler, namespaceDeclarationStack);
+                    } else if(!completed) {
+                        // Don't pool a pipeline that may have been left in an inconsistent state...
+                        pipeline = null;
+                    }
                 }
             }
         }
@@ -127,9 +174,25 @@ public class SAXParser extends AbstractParser {
         return writer;
     }
 
+    /**
+     * Get the output writer used by the last parse.
+     * @return The output writer, or null if nothing has been parsed.
+     */
+    Writer getOutputWriter() {
+        return outputWriter;
+    }
+
     public void cleanup() {
         if(saxHandler != null) {
             saxHandler.cleanup();
         }
+        if(pipeline != null) {
+            SAXContentDeliveryConfig deliveryConfig = (SAXContentDeliveryConfig) getExecContext().getDeliveryConfig();
+
+            pipeline.recycle();
+            deliveryConfig.getFilterPipelinePool().release(pipeline);
+            pipeline = null;
+            saxHandler = null;
+        }
     }
 }
@@ -49,6 +49,7 @@ import org.smooks.SmooksException;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.CharBuffer;
 
 /**
  * SAX Text.
@@ -101,6 +102,19 @@ public class SAXText {
         return new String(characters, offset, length);
     }
 
+    /**
+     * Get the raw text, unwrapped, as a {@link CharSequence} view of the underlying
+     * {@link #getCharacters() character buffer}.
+     * <p/>
+     * Unlike {@link #getText()}, no characters are copied.  The same caching restrictions apply
+     * to the returned view as apply to this SAXText instance.
+     *
+     * @return The raw (unwrapped) text.
+     */
+    public CharSequence getCharSequence() {
+        return CharBuffer.wrap(characters, offset, length);
+    }
+
     /**
      * Get the text type (comment, cdata etc).
      *
@@ -119,7 +133,7 @@ public class SAXText {
      * @return The "wrapped" text String.
      */
     public String toString() {
-        StringWriter writer = new StringWriter(characters.length + 12);
+        StringWriter writer = new StringWriter(length + 12);
         try {
             toWriter(writer);
         } catch (IOException e) {
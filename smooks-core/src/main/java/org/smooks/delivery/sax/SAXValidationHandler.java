@@ -0,0 +1,175 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.delivery.sax;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.ext.DefaultHandler2;
+
+import javax.xml.validation.ValidatorHandler;
+
+/**
+ * Inline input validation handler.
+ * <p/>
+ * Tees the SAX event stream into a {@link ValidatorHandler} ahead of the {@link SAXHandler}, so
+ * the input is validated as it is filtered, instead of being parsed a second time for validation.
+ * Each event is validated before it is filtered, so filtering stops on the first invalid event.
+ * <p/>
+ * The {@link ValidatorHandler} is not given a downstream content handler, so schema processing
+ * (e.g. attribute defaulting) does not alter the events seen by the {@link SAXHandler}.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ * @see org.smooks.delivery.Filter#INPUT_VALIDATION_XSD
+ */
+final class SAXValidationHandler extends DefaultHandler2 {
+
+    private final ValidatorHandler validatorHandler;
+    private final SAXHandler saxHandler;
+
+    SAXValidationHandler(ValidatorHandler validatorHandler, SAXHandler saxHandler) {
+        this.validatorHandler = validatorHandler;
+        this.saxHandler = saxHandler;
+    }
+
+    @Override
+    public void setDocumentLocator(Locator locator) {
+        validatorHandler.setDocumentLocator(locator);
+        saxHandler.setDocumentLocator(locator);
+    }
+
+    @Override
+    public void startDocument() throws SAXException {
+        validatorHandler.startDocument();
+        saxHandler.startDocument();
+    }
+
+    @Override
+    public void endDocument() throws SAXException {
+        validatorHandler.endDocument();
+        saxHandler.endDocument();
+    }
+
+    @Override
+    public void startPrefixMapping(String prefix, String uri) throws SAXException {
+        validatorHandler.startPrefixMapping(prefix, uri);
+        saxHandler.startPrefixMapping(prefix, uri);
+    }
+
+    @Override
+    public void endPrefixMapping(String prefix) throws SAXException {
+        validatorHandler.endPrefixMapping(prefix);
+        saxHandler.endPrefixMapping(prefix);
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+        validatorHandler.startElement(uri, localName, qName, attributes);
+        saxHandler.startElement(uri, localName, qName, attributes);
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        validatorHandler.endElement(uri, localName, qName);
+        saxHandler.endElement(uri, localName, qName);
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) throws SAXException {
+        validatorHandler.characters(ch, start, length);
+        saxHandler.characters(ch, start, length);
+    }
+
+    @Override
+    public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+        validatorHandler.ignorableWhitespace(ch, start, length);
+        saxHandler.ignorableWhitespace(ch, start, length);
+    }
+
+    @Override
+    public void processingInstruction(String target, String data) throws SAXException {
+        validatorHandler.processingInstruction(target, data);
+        saxHandler.processingInstruction(target, data);
+    }
+
+    @Override
+    public void skippedEntity(String name) throws SAXException {
+        validatorHandler.skippedEntity(name);
+        saxHandler.skippedEntity(name);
+    }
+
+    @Override
+    public void startDTD(String name, String publicId, String systemId) throws SAXException {
+        saxHandler.startDTD(name, publicId, systemId);
+    }
+
+    @Override
+    public void endDTD() throws SAXException {
+        saxHandler.endDTD();
+    }
+
+    @Override
+    public void startEntity(String name) throws SAXException {
+        saxHandler.startEntity(name);
+    }
+
+    @Override
+    public void endEntity(String name) throws SAXException {
+        saxHandler.endEntity(name);
+    }
+
+    @Override
+    public void startCDATA() throws SAXException {
+        saxHandler.startCDATA();
+    }
+
+    @Override
+    public void endCDATA() throws SAXException {
+        saxHandler.endCDATA();
+    }
+
+    @Override
+    public void comment(char[] ch, int start, int length) throws SAXException {
+        saxHandler.comment(ch, start, length);
+    }
+}
@@ -0,0 +1,489 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.delivery.sax;
+
+import org.smooks.cdr.SmooksResourceConfiguration;
+import org.smooks.cdr.xpath.SelectorStep;
+import org.smooks.cdr.xpath.evaluators.PassThruEvaluator;
+import org.smooks.cdr.xpath.evaluators.PredicatesEvaluator;
+import org.smooks.cdr.xpath.evaluators.XPathExpressionEvaluator;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled contextual selector automaton.
+ * <p/>
+ * Compiles the {@link SelectorStep} chains of the contextual selectors (e.g. "a/b/c", "a/**&#47;c")
+ * of a {@link SAXContentDeliveryConfig} into a single trie shaped NFA over element names.  The
+ * {@link SAXHandler} advances a {@link Matcher} on every start and end element event, so testing
+ * whether the context of the current element matches a compiled selector is a bit test, as
+ * opposed to a walk up through the element's ancestors for every visitor mapping.
+ * <p/>
+ * Only selectors whose context steps are "name only" (no predicates) are compiled.  Selectors
+ * using "#document" tokens, rooted selectors using "**" tokens, selectors with more than one
+ * "**" token (ignoring a leading "**") and selectors with multiple steps ahead of a "**" token
+ * (e.g. "a/b/**&#47;c") are not compiled because their outcome depends on the order in which
+ * {@link SmooksResourceConfiguration#isTargetedAtElement(SAXElement, org.smooks.container.ExecutionContext)}
+ * resolves the steps against the ancestor elements.  The visitor mappings for these selectors
+ * continue to be matched by walking the ancestor elements.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class SelectorAutomaton {
+
+    private static final int START = 0;
+    private static final int ROOTED_START = 1;
+
+    private List<Node> nodes = new ArrayList<Node>();
+    private Map<SmooksResourceConfiguration, int[]> acceptNodes = new IdentityHashMap<SmooksResourceConfiguration, int[]>();
+
+    public SelectorAutomaton() {
+        nodes.add(new Node(false));
+        nodes.add(new Node(false));
+    }
+
+    /**
+     * Compile the selector of the supplied resource configuration into the automaton.
+     *
+     * @param resourceConfig The resource configuration.
+     * @return True if the selector was compiled, otherwise false.
+     */
+    public boolean add(SmooksResourceConfiguration resourceConfig) {
+        if(acceptNodes.containsKey(resourceConfig)) {
+            return true;
+        } else if(!resourceConfig.isSelectorContextual()) {
+            return false;
+        }
+
+        SelectorStep[] steps = getCompilableSteps(resourceConfig.getSelectorSteps());
+        if(steps == null) {
+            return false;
+        }
+
+        int acceptNode = addSteps((steps[0].isRooted() ? ROOTED_START : START), steps, 0);
+        int rootShortcutStep = getRootShortcutStep(steps);
+
+        if(rootShortcutStep != -1) {
+            acceptNodes.put(resourceConfig, new int[] {acceptNode, addSteps(ROOTED_START, steps, rootShortcutStep)});
+        } else {
+            acceptNodes.put(resourceConfig, new int[] {acceptNode});
+        }
+
+        return true;
+    }
+
+    /**
+     * Get the automaton nodes at which the selector of the supplied resource configuration is matched.
+     *
+     * @param resourceConfig The resource configuration.
+     * @return The accept nodes, or null if the resource configuration selector is not compiled
+     * into the automaton.
+     */
+    public int[] getAcceptNodes(SmooksResourceConfiguration resourceConfig) {
+        return acceptNodes.get(resourceConfig);
+    }
+
+    /**
+     * Get the number of selectors compiled into the automaton.
+     * @return The number of compiled selectors.
+     */
+    public int getSelectorCount() {
+        return acceptNodes.size();
+    }
+
+    /**
+     * Get the number of nodes in the automaton.
+     * @return The number of nodes.
+     */
+    public int getNodeCount() {
+        return nodes.size();
+    }
+
+    /**
+     * Create a new {@link Matcher} for this automaton.
+     * <p/>
+     * Matchers are not thread safe.  Selectors must not be added to the automaton after
+     * the first matcher has been created.
+     * @return The matcher.
+     */
+    Matcher newMatcher() {
+        return new Matcher(nodes.toArray(new Node[nodes.size()]));
+    }
+
+    private SelectorStep[] getCompilableSteps(SelectorStep[] steps) {
+        if(steps.length > 2 && steps[0].isStarStar()) {
+            // A leading "**" token followed by more than one step places no constraint on the context...
+            steps = Arrays.copyOfRange(steps, 1, steps.length);
+        }
+
+        boolean isRooted = false;
+        boolean hasStarStar = false;
+        for(int i = 0; i < steps.length; i++) {
+            SelectorStep step = steps[i];
+
+            if(step.getTargetElement().getLocalPart().equals(SmooksResourceConfiguration.DOCUMENT_FRAGMENT_SELECTOR)) {
+                return null;
+            }
+            // The predicates on the target step are evaluated by the resource configuration...
+            if(i < steps.length - 1 && hasPredicates(step)) {
+                return null;
+            }
+            if(step.isStarStar() && i > 0) {
+                // Only a single step is allowed ahead of a "**" token (i.e. "a/**/b", not "x/a/**/b")...
+                if(hasStarStar || i > 1) {
+                    return null;
+                }
+                hasStarStar = true;
+            }
+            isRooted = isRooted || step.isRooted();
+        }
+
+        if(isRooted && hasStarStar) {
+            return null;
+        }
+
+        return steps;
+    }
+
+    /**
+     * Get the index of the step from which the selector is also matched if that step
+     * matches the document root element.
+     * <p/>
+     * When walking the ancestors of an element, {@link SmooksResourceConfiguration} accepts
+     * the element if it runs out of ancestors just after matching a context step that follows the
+     * rooted step or a "**" token.  E.g. "/a/b/c" and "a/**&#47;b/c" both match "c" when
+     * "b" is the document root element.  That is the same as a rooted selector starting at that step.
+     *
+     * @param steps The compilable steps.
+     * @return The step index, or -1 if there is no such step.
+     */
+    private int getRootShortcutStep(SelectorStep[] steps) {
+        int lastStep = steps.length - 1;
+
+        if(steps[0].isRooted() && lastStep > 1) {
+            return 1;
+        } else if(steps[1].isStarStar() && lastStep > 2) {
+            return 2;
+        }
+
+        return -1;
+    }
+
+    private int addSteps(int from, SelectorStep[] steps, int fromStep) {
+        int node = from;
+
+        for(int i = fromStep; i < steps.length; i++) {
+            node = addTransition(node, steps[i]);
+        }
+
+        return node;
+    }
+
+    private boolean hasPredicates(SelectorStep step) {
+        XPathExpressionEvaluator evaluator = step.getPredicatesEvaluator();
+
+        if(evaluator == null || evaluator == PassThruEvaluator.INSTANCE) {
+            return false;
+        } else if(evaluator instanceof PredicatesEvaluator) {
+            return !((PredicatesEvaluator) evaluator).getEvaluators().isEmpty();
+        }
+
+        return true;
+    }
+
+    private int addTransition(int from, SelectorStep step) {
+        Node node = nodes.get(from);
+
+        if(step.isStarStar()) {
+            if(node.starStar == -1) {
+                node.starStar = newNode(true);
+            }
+            return node.starStar;
+        } else if(step.isStar()) {
+            if(node.star == -1) {
+                node.star = newNode(false);
+            }
+            return node.star;
+        }
+
+        QName targetElement = step.getTargetElement();
+        String name = fold(targetElement.getLocalPart());
+        String namespace = targetElement.getNamespaceURI();
+
+        if(namespace == null || namespace.equals(XMLConstants.NULL_NS_URI)) {
+            // Matches any namespace...
+            namespace = null;
+        }
+
+        if(node.named == null) {
+            node.named = new HashMap<String, NamedTransition[]>();
+        }
+
+        NamedTransition[] transitions = node.named.get(name);
+        if(transitions == null) {
+            transitions = new NamedTransition[0];
+        }
+        for(NamedTransition transition : transitions) {
+            if(namespace == null ? transition.namespace == null : namespace.equals(transition.namespace)) {
+                return transition.to;
+            }
+        }
+
+        NamedTransition transition = new NamedTransition(namespace, newNode(false));
+        transitions = Arrays.copyOf(transitions, transitions.length + 1);
+        transitions[transitions.length - 1] = transition;
+        node.named.put(name, transitions);
+
+        return transition.to;
+    }
+
+    private int newNode(boolean selfLoop) {
+        nodes.add(new Node(selfLoop));
+        return nodes.size() - 1;
+    }
+
+    /**
+     * Fold an element name for case insensitive matching.
+     * <p/>
+     * Folding is consistent with {@link String#equalsIgnoreCase(String)}, which is how
+     * {@link SelectorStep} matches element names.
+     *
+     * @param name The name.
+     * @return The folded name.
+     */
+    static String fold(String name) {
+        int length = name.length();
+
+        for(int i = 0; i < length; i++) {
+            char c = name.charAt(i);
+
+            if(Character.toLowerCase(Character.toUpperCase(c)) != c) {
+                char[] folded = name.toCharArray();
+                for(int ii = i; ii < length; ii++) {
+                    folded[ii] = Character.toLowerCase(Character.toUpperCase(folded[ii]));
+                }
+                return new String(folded);
+            }
+        }
+
+        return name;
+    }
+
+    private static class Node {
+        private Map<String, NamedTransition[]> named;
+        private int star = -1;
+        private int starStar = -1;
+        /**
+         * "**" nodes loop back on themselves, consuming any number of additional elements.
+         */
+        private boolean selfLoop;
+
+        private Node(boolean selfLoop) {
+            this.selfLoop = selfLoop;
+        }
+    }
+
+    private static class NamedTransition {
+        private String namespace;
+        private int to;
+
+        private NamedTransition(String namespace, int to) {
+            this.namespace = namespace;
+            this.to = to;
+        }
+    }
+
+    /**
+     * Automaton matcher.
+     * <p/>
+     * Tracks the set of active automaton nodes for each element on the current element stack.
+     * The node sets are recycled across elements at the same depth, so advancing the matcher
+     * does not allocate once the document depth has been reached.
+     */
+    static final class Matcher {
+
+        private static final int MAX_FOLDED_NAMES = 1024;
+
+        private Node[] nodes;
+        private int depth;
+        private int[][] levelNodes = new int[16][];
+        private int[] levelCounts = new int[16];
+        private long[][] levelBits = new long[16][];
+        private Map<String, String> foldedNames = new HashMap<String, String>();
+
+        private Matcher(Node[] nodes) {
+            this.nodes = nodes;
+        }
+
+        /**
+         * Reset the matcher for a new document.
+         */
+        void reset() {
+            depth = 0;
+        }
+
+        /**
+         * Advance the matcher for a start element event.
+         * @param name The element name.
+         */
+        void push(QName name) {
+            int level = depth++;
+
+            if(level == levelNodes.length) {
+                levelNodes = Arrays.copyOf(levelNodes, level * 2);
+                levelCounts = Arrays.copyOf(levelCounts, level * 2);
+                levelBits = Arrays.copyOf(levelBits, level * 2);
+            }
+            clearLevel(level);
+
+            String localName = foldedName(name.getLocalPart());
+            String namespace = name.getNamespaceURI();
+
+            advance(START, localName, namespace, level);
+            if(level == 0) {
+                advance(ROOTED_START, localName, namespace, level);
+            } else {
+                int[] parentNodes = levelNodes[level - 1];
+                int parentCount = levelCounts[level - 1];
+
+                for(int i = 0; i < parentCount; i++) {
+                    advance(parentNodes[i], localName, namespace, level);
+                }
+            }
+        }
+
+        /**
+         * Step the matcher back for an end element event.
+         */
+        void pop() {
+            depth--;
+        }
+
+        /**
+         * Is any of the supplied accept nodes active for the current element.
+         * @param acceptNodes The accept nodes.
+         * @return True if one of the nodes is active, otherwise false.
+         */
+        boolean isMatched(int[] acceptNodes) {
+            long[] bits = levelBits[depth - 1];
+
+            for(int acceptNode : acceptNodes) {
+                if((bits[acceptNode >> 6] & (1L << acceptNode)) != 0) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        private void advance(int from, String localName, String namespace, int level) {
+            Node node = nodes[from];
+
+            if(node.named != null) {
+                NamedTransition[] transitions = node.named.get(localName);
+                if(transitions != null) {
+                    for(NamedTransition transition : transitions) {
+                        if(transition.namespace == null || transition.namespace.equals(namespace)) {
+                            activate(transition.to, level);
+                        }
+                    }
+                }
+            }
+            if(node.star != -1) {
+                activate(node.star, level);
+            }
+            if(node.starStar != -1) {
+                activate(node.starStar, level);
+            }
+            if(node.selfLoop) {
+                activate(from, level);
+            }
+        }
+
+        private void activate(int node, int level) {
+            long[] bits = levelBits[level];
+            long mask = (1L << node);
+
+            if((bits[node >> 6] & mask) == 0) {
+                bits[node >> 6] |= mask;
+                levelNodes[level][levelCounts[level]++] = node;
+            }
+        }
+
+        private void clearLevel(int level) {
+            if(levelBits[level] == null) {
+                levelBits[level] = new long[(nodes.length >> 6) + 1];
+                levelNodes[level] = new int[nodes.length];
+            } else {
+                long[] bits = levelBits[level];
+                int[] activeNodes = levelNodes[level];
+                int count = levelCounts[level];
+
+                for(int i = 0; i < count; i++) {
+                    bits[activeNodes[i] >> 6] = 0;
+                }
+            }
+            levelCounts[level] = 0;
+        }
+
+        private String foldedName(String localName) {
+            String folded = foldedNames.get(localName);
+
+            if(folded == null) {
+                folded = fold(localName);
+                if(foldedNames.size() < MAX_FOLDED_NAMES) {
+                    foldedNames.put(localName, folded);
+                }
+            }
+
+            return folded;
+        }
+    }
+}
@@ -42,6 +42,7 @@
  */
 package org.smooks.delivery.sax;
 
+import org.smooks.OutputFlushPolicy;
 import org.smooks.SmooksException;
 import org.smooks.cdr.ParameterAccessor;
 import org.smooks.container.ExecutionContext;
@@ -60,7 +61,7 @@ import javax.xml.transform.Source;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
-import java.io.Writer;
+import java.io.IOException;
 
 /**
  * Smooks SAX Filter.
@@ -75,11 +76,13 @@ public class SmooksSAXFilter extends Filter {
     private SAXParser parser;
     private boolean closeSource;
     private boolean closeResult;
+    private OutputFlushPolicy outputFlushPolicy;
 
     public SmooksSAXFilter(ExecutionContext executionContext) {
         this.executionContext = executionContext;
         closeSource = ParameterAccessor.getBoolParameter(Filter.CLOSE_SOURCE, true, executionContext.getDeliveryConfig());
         closeResult = ParameterAccessor.getBoolParameter(Filter.CLOSE_RESULT, true, executionContext.getDeliveryConfig());
+        outputFlushPolicy = ((SAXContentDeliveryConfig) executionContext.getDeliveryConfig()).getOutputFlushPolicy();
         parser = new SAXParser(executionContext);
     }
 
@@ -108,10 +111,12 @@ public class SmooksSAXFilter extends Filter {
             }
         }
 
+        boolean flushOutput = false;
         try {
-            Writer writer = parser.parse(source, result, executionContext);
-            writer.flush();
+            parser.parse(source, result, executionContext);
+            flushOutput = true;
         } catch (TerminateException e) {
+            flushOutput = true;
             if(LOGGER.isDebugEnabled()) {
             	if(e.isTerminateBefore()) {
             		LOGGER.debug("Terminated filtering on visitBefore of element '" + SAXUtil.getXPath(e.getElement()) + "'.");
@@ -122,11 +127,21 @@ public class SmooksSAXFilter extends Filter {
         } catch (Exception e) {
             throw new SmooksException("Failed to filter source.", e);
         } finally {
-            if(closeSource) {
-                close(source);
-            }
-            if(closeResult) {
-                close(result);
+            try {
+                if(flushOutput) {
+                    flushOutput(parser.getOutputWriter(), outputFlushPolicy);
+                } else {
+                    releaseOutput(parser.getOutputWriter());
+                }
+            } catch (IOException e) {
+                throw new SmooksException("Failed to flush filter output.", e);
+            } finally {
+                if(closeSource) {
+                    close(source);
+                }
+                if(closeResult) {
+                    close(result);
+                }
             }
         }
     }
@@ -0,0 +1,99 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.delivery.sax;
+
+/**
+ * Rolling character arena for accumulated {@link SAXText}.
+ * <p/>
+ * The SAX parser reuses its character buffer between events, so {@link SAXText} that is accumulated on
+ * a {@link SAXElement} must be copied out of it.  Rather than allocating a new char array per text event,
+ * the text is appended to a shared block and the accumulated {@link SAXText} references a slice of it.
+ * The arena is append only.  Once a block is full, a new block is started and the old block stays alive
+ * only as long as slices referencing it are reachable.  Text larger than half a block gets its own array.
+ * <p/>
+ * One arena is used per {@link SAXHandler} i.e. per filter.  Not thread safe.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+final class TextArena {
+
+    static final int DEFAULT_BLOCK_SIZE = 8192;
+
+    private final int blockSize;
+    private char[] block;
+    private int position;
+
+    TextArena() {
+        this(DEFAULT_BLOCK_SIZE);
+    }
+
+    TextArena(int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Copy the supplied text into the arena.
+     * @param text The text.  Typically references the SAX parser's character buffer.
+     * @return A {@link SAXText} instance referencing the arena copy of the text.
+     */
+    SAXText copy(SAXText text) {
+        int length = text.getLength();
+        SAXText copy = new SAXText();
+
+        if(length > (blockSize >> 1)) {
+            char[] characters = new char[length];
+            System.arraycopy(text.getCharacters(), text.getOffset(), characters, 0, length);
+            copy.setText(characters, 0, length, text.getType());
+        } else {
+            if(block == null || blockSize - position < length) {
+                block = new char[blockSize];
+                position = 0;
+            }
+            System.arraycopy(text.getCharacters(), text.getOffset(), block, position, length);
+            copy.setText(block, position, length, text.getType());
+            position += length;
+        }
+
+        return copy;
+    }
+}
@@ -90,6 +90,7 @@ public abstract class AbstractReportGenerator extends BasicExecutionEventListene
 
     protected AbstractReportGenerator(ReportConfiguration reportConfiguration) {
         AssertArgument.isNotNull(reportConfiguration, "reportConfiguration");
+        AssertArgument.isNotNull(reportConfiguration.getOutputWriter(), "reportConfiguration.outputWriter");
         this.reportConfiguration = reportConfiguration;
         setFilterEvents(reportConfiguration.getFilterEvents());
     }
@@ -199,9 +200,25 @@ public abstract class AbstractReportGenerator extends BasicExecutionEventListene
             mapMessageNodeVists(report.getProcessings());
         }
 
+        report.setResults(createResultNodes(executionContext));
+
+        try {
+            applyTemplate(report);
+        } finally {
+            Writer writer = reportConfiguration.getOutputWriter();
+            try {
+                writer.flush();
+            } finally {
+                if(reportConfiguration.autoCloseWriter()) {
+                    writer.close();
+                }
+            }
+        }
+    }
+
+    static List<ResultNode> createResultNodes(ExecutionContext executionContext) {
         List<ResultNode> resultNodes = new ArrayList<ResultNode>();
         Result[] results = FilterResult.getResults(executionContext);
-        report.setResults(resultNodes);
         if(results != null) {
             for(Result result : results) {
                 if(result != null) {
@@ -219,19 +236,7 @@ public abstract class AbstractReportGenerator extends BasicExecutionEventListene
                 }
             }
         }
-
-        try {
-            applyTemplate(report);
-        } finally {
-            Writer writer = reportConfiguration.getOutputWriter();
-            try {
-                writer.flush();
-            } finally {
-                if(reportConfiguration.autoCloseWriter()) {
-                    writer.close();
-                }
-            }
-        }
+        return resultNodes;
     }
 
     private void processNewElementEvent(ReportNode node) {
@@ -310,23 +315,26 @@ public abstract class AbstractReportGenerator extends BasicExecutionEventListene
                 ElementVisitEvent visitEvent = (ElementVisitEvent) event;
 
                 if (visitEvent.getSequence() == visitSequence) {
-                    ReportInfoNode reportInfoNode = new ReportInfoNode();
-                    ContentHandlerConfigMap configMapping = ((ElementVisitEvent) event).getConfigMapping();
-
-                    messageNode.addExecInfoNode(reportInfoNode);
-
-                    reportInfoNode.setNodeId(reportInfoNodeCounter);
-                    reportInfoNode.setSummary(configMapping.getContentHandler().getClass().getSimpleName() + ": " + visitEvent.getReportSummary());
-                    reportInfoNode.setDetail(visitEvent.getReportDetail());
-                    reportInfoNode.setResourceXML(configMapping.getResourceConfig().toXML());
-                    reportInfoNode.setContextState(visitEvent.getExecutionContextState());
-
+                    messageNode.addExecInfoNode(createReportInfoNode(visitEvent, reportInfoNodeCounter));
                     reportInfoNodeCounter++;
                 }
             }
         }
     }
 
+    static ReportInfoNode createReportInfoNode(ElementVisitEvent visitEvent, int nodeId) {
+        ReportInfoNode reportInfoNode = new ReportInfoNode();
+        ContentHandlerConfigMap configMapping = visitEvent.getConfigMapping();
+
+        reportInfoNode.setNodeId(nodeId);
+        reportInfoNode.setSummary(configMapping.getContentHandler().getClass().getSimpleName() + ": " + visitEvent.getReportSummary());
+        reportInfoNode.setDetail(visitEvent.getReportDetail());
+        reportInfoNode.setResourceXML(configMapping.getResourceConfig().toXML());
+        reportInfoNode.setContextState(visitEvent.getExecutionContextState());
+
+        return reportInfoNode;
+    }
+
     public abstract void applyTemplate(Report report) throws IOException;
 
     private ReportNode getReportNode(Object element) {
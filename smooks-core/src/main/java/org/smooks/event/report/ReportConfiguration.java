@@ -67,6 +67,10 @@ public class ReportConfiguration {
     private Class<? extends ExecutionEvent>[] filterEvents;
     private boolean autoCloseWriter = true;
     private File tempOutDir = TEMP_DIR;
+    private File outputDir;
+    private int messageSampleRate = 1;
+    private int maxElements = Integer.MAX_VALUE;
+    private int maxElementEvents = Integer.MAX_VALUE;
 
     @SuppressWarnings("unchecked")
     public ReportConfiguration(Writer outputWriter) {
@@ -75,6 +79,20 @@ public class ReportConfiguration {
         filterEvents = new Class[] {ConfigBuilderEvent.class, ElementVisitEvent.class};
     }
 
+    /**
+     * Create a configuration for writing one report file per reported message into the specified directory.
+     * <p/>
+     * Only supported by the {@link StreamingReportGenerator streaming report generators}.
+     *
+     * @param outputDir The report output directory.
+     */
+    @SuppressWarnings("unchecked")
+    public ReportConfiguration(File outputDir) {
+        AssertArgument.isNotNull(outputDir, "outputDir");
+        this.outputDir = outputDir;
+        filterEvents = new Class[] {ConfigBuilderEvent.class, ElementVisitEvent.class};
+    }
+
     public void setOutputWriter(Writer outputWriter) {
         this.outputWriter = outputWriter;
     }
@@ -147,4 +165,68 @@ public class ReportConfiguration {
     public void setTempOutDir(File tempOutDir) {
         this.tempOutDir = tempOutDir;
     }
+
+    /**
+     * Get the report output directory.
+     * @return The report output directory, or null if the reports are written to the
+     * {@link #getOutputWriter() output writer}.
+     */
+    public File getOutputDir() {
+        return outputDir;
+    }
+
+    public int getMessageSampleRate() {
+        return messageSampleRate;
+    }
+
+    /**
+     * Only report every Nth message (filter execution).
+     * <p/>
+     * Default 1 i.e. report every message.  Only supported by the
+     * {@link StreamingReportGenerator streaming report generators}.
+     *
+     * @param messageSampleRate The sample rate.
+     */
+    public void setMessageSampleRate(int messageSampleRate) {
+        if(messageSampleRate < 1) {
+            throw new IllegalArgumentException("Invalid 'messageSampleRate' value '" + messageSampleRate + "'.  Must be 1 or greater.");
+        }
+        this.messageSampleRate = messageSampleRate;
+    }
+
+    public int getMaxElements() {
+        return maxElements;
+    }
+
+    /**
+     * Only report the first N elements of each message (per filtering phase).
+     * <p/>
+     * Default is no limit.  Only supported by the {@link StreamingReportGenerator streaming report generators}.
+     *
+     * @param maxElements The maximum number of elements reported.
+     */
+    public void setMaxElements(int maxElements) {
+        if(maxElements < 0) {
+            throw new IllegalArgumentException("Invalid 'maxElements' value '" + maxElements + "'.  Must be zero or greater.");
+        }
+        this.maxElements = maxElements;
+    }
+
+    public int getMaxElementEvents() {
+        return maxElementEvents;
+    }
+
+    /**
+     * Cap the number of visit events retained (and reported) per element.
+     * <p/>
+     * Default is no limit.  Only supported by the {@link StreamingReportGenerator streaming report generators}.
+     *
+     * @param maxElementEvents The maximum number of visit events retained per element.
+     */
+    public void setMaxElementEvents(int maxElementEvents) {
+        if(maxElementEvents < 0) {
+            throw new IllegalArgumentException("Invalid 'maxElementEvents' value '" + maxElementEvents + "'.  Must be zero or greater.");
+        }
+        this.maxElementEvents = maxElementEvents;
+    }
 }
@@ -0,0 +1,120 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.event.report;
+
+import org.smooks.event.report.model.MessageNode;
+import org.smooks.event.report.model.ReportInfoNode;
+import org.smooks.event.report.model.ResultNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Streaming Flat (text) Execution Report generating {@link org.smooks.event.ExecutionEventListener}.
+ * <p/>
+ * Writes a line per element start/end, followed by a line per visitor applied to the element
+ * (see {@link StreamingReportGenerator}).
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class StreamingFlatReportGenerator extends StreamingReportGenerator {
+
+    public StreamingFlatReportGenerator(Writer outputWriter) {
+        this(new ReportConfiguration(outputWriter));
+    }
+
+    /**
+     * Public constructor.
+     * @param outputDir The directory to which the reports are written, one file per reported message.
+     */
+    public StreamingFlatReportGenerator(File outputDir) {
+        this(new ReportConfiguration(outputDir));
+    }
+
+    public StreamingFlatReportGenerator(ReportConfiguration reportConfiguration) {
+        super(reportConfiguration);
+    }
+
+    protected MessageReport createMessageReport(final Writer writer, final long messageNumber) throws IOException {
+        return new MessageReport() {
+            protected void start() throws IOException {
+                writer.write("STARTED (message " + messageNumber + ")\n");
+            }
+
+            protected void addMessageNode(MessageNode messageNode) throws IOException {
+                indent(messageNode.getDepth());
+                writer.write(messageNode.isVisitBefore() ? "<" : "</");
+                writer.write(messageNode.getElementName());
+                writer.write(">\n");
+                for(ReportInfoNode infoNode : messageNode.getExecInfoNodes()) {
+                    indent(messageNode.getDepth() + 1);
+                    writer.write(infoNode.getSummary());
+                    writer.write('\n');
+                }
+            }
+
+            protected void finish(List<ResultNode> results, long skippedElements, long skippedEvents) throws IOException {
+                if(skippedElements > 0 || skippedEvents > 0) {
+                    writer.write("Report limits reached: " + skippedElements + " element(s) and " + skippedEvents + " visit event(s) not reported.\n");
+                }
+                writer.write("FINISHED\n");
+                for(ResultNode result : results) {
+                    writer.write(result.getSummary());
+                    writer.write('\n');
+                }
+            }
+
+            private void indent(int depth) throws IOException {
+                for(int i = 0; i < depth; i++) {
+                    writer.write("    ");
+                }
+            }
+        };
+    }
+
+    protected String getReportFileName(long messageNumber) {
+        return "report-" + messageNumber + ".txt";
+    }
+}
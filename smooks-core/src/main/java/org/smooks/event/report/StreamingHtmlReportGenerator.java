@@ -0,0 +1,186 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.event.report;
+
+import freemarker.template.utility.HtmlEscape;
+import org.smooks.event.report.model.MessageNode;
+import org.smooks.event.report.model.ResultNode;
+import org.smooks.util.FreeMarkerTemplate;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming HTML Execution Report generating {@link org.smooks.event.ExecutionEventListener}.
+ * <p/>
+ * Produces the same report layout as the {@link HtmlReportGenerator} (SAX report), but writes the
+ * report as the message is filtered (see {@link StreamingReportGenerator}).  The element visitor summaries
+ * and details are spooled to temporary files in the {@link ReportConfiguration#getTempOutDir() temp output directory}
+ * and appended to the report when the message is finished.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class StreamingHtmlReportGenerator extends StreamingReportGenerator {
+
+    private static final FreeMarkerTemplate template = new FreeMarkerTemplate("html/template-sax-streaming.html", HtmlReportGenerator.class);
+    private static final HtmlEscape htmlEscape = new HtmlEscape();
+
+    public StreamingHtmlReportGenerator(Writer outputWriter) {
+        this(new ReportConfiguration(outputWriter));
+    }
+
+    /**
+     * Public constructor.
+     * @param outputDir The directory to which the reports are written, one file per reported message.
+     */
+    public StreamingHtmlReportGenerator(File outputDir) {
+        this(new ReportConfiguration(outputDir));
+        getReportConfiguration().setTempOutDir(outputDir);
+    }
+
+    public StreamingHtmlReportGenerator(ReportConfiguration reportConfiguration) {
+        super(reportConfiguration);
+    }
+
+    protected MessageReport createMessageReport(Writer writer, long messageNumber) throws IOException {
+        return new HtmlMessageReport(writer);
+    }
+
+    protected String getReportFileName(long messageNumber) {
+        return "report-" + messageNumber + ".html";
+    }
+
+    private class HtmlMessageReport extends MessageReport {
+
+        private final Writer writer;
+        private File summariesFile;
+        private File detailsFile;
+        private Writer summariesWriter;
+        private Writer detailsWriter;
+
+        private HtmlMessageReport(Writer writer) {
+            this.writer = writer;
+        }
+
+        protected void start() throws IOException {
+            File tempOutDir = getReportConfiguration().getTempOutDir();
+
+            if(!tempOutDir.exists() && !tempOutDir.mkdirs()) {
+                throw new IOException("Failed to create report temp output directory '" + tempOutDir.getAbsolutePath() + "'.");
+            }
+            summariesFile = File.createTempFile("smooks-report-summaries-", ".html", tempOutDir);
+            detailsFile = File.createTempFile("smooks-report-details-", ".html", tempOutDir);
+            summariesWriter = new BufferedWriter(new FileWriter(summariesFile));
+            detailsWriter = new BufferedWriter(new FileWriter(detailsFile));
+
+            applySection("start", new HashMap<String, Object>(), writer);
+        }
+
+        protected void addMessageNode(MessageNode messageNode) throws IOException {
+            applyNodeSection("node", messageNode, writer);
+            if(!messageNode.getExecInfoNodes().isEmpty()) {
+                applyNodeSection("summary", messageNode, summariesWriter);
+                applyNodeSection("detail", messageNode, detailsWriter);
+            }
+        }
+
+        protected void finish(List<ResultNode> results, long skippedElements, long skippedEvents) throws IOException {
+            try {
+                summariesWriter.close();
+                detailsWriter.close();
+
+                Map<String, Object> templateModel = new HashMap<String, Object>();
+                templateModel.put("skippedElements", skippedElements);
+                templateModel.put("skippedEvents", skippedEvents);
+                applySection("summariesStart", templateModel, writer);
+                copy(summariesFile, writer);
+                applySection("detailsStart", new HashMap<String, Object>(), writer);
+                copy(detailsFile, writer);
+
+                templateModel.clear();
+                templateModel.put("results", results);
+                applySection("end", templateModel, writer);
+            } finally {
+                summariesFile.delete();
+                detailsFile.delete();
+            }
+        }
+
+        private void applyNodeSection(String section, MessageNode messageNode, Writer writer) {
+            Map<String, Object> templateModel = new HashMap<String, Object>();
+
+            templateModel.put("messageNodes", Collections.singletonList(messageNode));
+            applySection(section, templateModel, writer);
+        }
+
+        private void applySection(String section, Map<String, Object> templateModel, Writer writer) {
+            templateModel.put("section", section);
+            templateModel.put("htmlEscape", htmlEscape);
+            template.apply(templateModel, writer);
+        }
+
+        private void copy(File file, Writer writer) throws IOException {
+            Reader reader = new FileReader(file);
+
+            try {
+                char[] buffer = new char[4096];
+                int count;
+
+                while((count = reader.read(buffer)) != -1) {
+                    writer.write(buffer, 0, count);
+                }
+            } finally {
+                reader.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,444 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.event.report;
+
+import org.smooks.SmooksException;
+import org.smooks.assertion.AssertArgument;
+import org.smooks.container.ExecutionContext;
+import org.smooks.delivery.Filter;
+import org.smooks.delivery.VisitSequence;
+import org.smooks.delivery.sax.SAXElement;
+import org.smooks.event.BasicExecutionEventListener;
+import org.smooks.event.ExecutionEvent;
+import org.smooks.event.ResourceBasedEvent;
+import org.smooks.event.report.model.MessageNode;
+import org.smooks.event.report.model.ResultNode;
+import org.smooks.event.types.DOMFilterLifecycleEvent;
+import org.smooks.event.types.ElementPresentEvent;
+import org.smooks.event.types.ElementVisitEvent;
+import org.smooks.event.types.FilterLifecycleEvent;
+import org.smooks.xml.DomUtils;
+import org.w3c.dom.Element;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Stack;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Abstract streaming execution report generator.
+ * <p/>
+ * Unlike the {@link AbstractReportGenerator}, which holds every event (and every element) of the
+ * message in memory until the filter finishes, a streaming report generator only holds the events
+ * of the elements currently open (the element ancestor stack).  An element's {@link MessageNode MessageNodes}
+ * are handed to the {@link MessageReport} as soon as the element is closed (or its first child element opens),
+ * so the memory footprint is bounded by the message depth rather than the message size.
+ * <p/>
+ * The generator also supports the following {@link ReportConfiguration} limits:
+ * <ul>
+ *     <li>{@link ReportConfiguration#setMessageSampleRate(int) messageSampleRate}: Only report every Nth message.
+ *         Use {@link #attach(ExecutionContext)} to add the generator to the {@link ExecutionContext}, so that
+ *         the (expensive) events are not even created for messages that are not reported.</li>
+ *     <li>{@link ReportConfiguration#setMaxElements(int) maxElements}: Only report the first N elements.</li>
+ *     <li>{@link ReportConfiguration#setMaxElementEvents(int) maxElementEvents}: Cap the number of visit events
+ *         retained per element.</li>
+ * </ul>
+ * Reports are written to the {@link ReportConfiguration#getOutputWriter() output writer} or, if the configuration
+ * has an {@link ReportConfiguration#getOutputDir() output directory}, to a file per reported message.  When writing
+ * to the output writer, concurrent executions must not share the generator.
+ * <p/>
+ * DOM filter phases (assembly, processing and serialization) are reported one after the other, in the
+ * same report.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public abstract class StreamingReportGenerator extends BasicExecutionEventListener {
+
+    private final ReportConfiguration reportConfiguration;
+    private final AtomicLong messageCounter = new AtomicLong();
+    private final ThreadLocal<ReportState> currentState = new ThreadLocal<ReportState>();
+
+    protected StreamingReportGenerator(ReportConfiguration reportConfiguration) {
+        AssertArgument.isNotNull(reportConfiguration, "reportConfiguration");
+        if(reportConfiguration.getOutputWriter() == null && reportConfiguration.getOutputDir() == null) {
+            throw new IllegalArgumentException("ReportConfiguration must specify an output writer or an output directory.");
+        }
+        this.reportConfiguration = reportConfiguration;
+        setFilterEvents(reportConfiguration.getFilterEvents());
+    }
+
+    public ReportConfiguration getReportConfiguration() {
+        return reportConfiguration;
+    }
+
+    /**
+     * Get the number of messages (filter executions) seen by the generator.
+     * @return The message count.
+     */
+    public long getMessageCount() {
+        return messageCounter.get();
+    }
+
+    /**
+     * Attach the generator to the supplied {@link ExecutionContext}, if the message is to be reported
+     * (see {@link ReportConfiguration#setMessageSampleRate(int)}).
+     *
+     * @param executionContext The execution context.
+     * @return True if the generator was set as the {@link ExecutionContext} event listener, otherwise false.
+     */
+    public boolean attach(ExecutionContext executionContext) {
+        ReportState state = sample(executionContext);
+
+        if(state.report != null) {
+            executionContext.setEventListener(this);
+            return true;
+        }
+
+        return false;
+    }
+
+    public void onEvent(ExecutionEvent event) {
+        AssertArgument.isNotNull(event, "event");
+
+        if(ignoreEvent(event)) {
+            return;
+        }
+
+        ReportState state;
+        if(event instanceof FilterLifecycleEvent && ((FilterLifecycleEvent) event).getEventType() == FilterLifecycleEvent.EventType.STARTED) {
+            ExecutionContext executionContext = Filter.getCurrentExecutionContext();
+
+            state = sample(executionContext);
+            executionContext.removeAttribute(ReportState.class);
+            // The execution context is no longer bound to the thread when the FINISHED event is fired, so
+            // the state is bound to the thread (not the execution context) for the duration of the filter...
+            state.parent = currentState.get();
+            currentState.set(state);
+        } else {
+            state = currentState.get();
+            if(state == null) {
+                // Not seen the start of the message...
+                return;
+            }
+        }
+
+        if(state.report == null) {
+            // Message not sampled...
+            if(event instanceof FilterLifecycleEvent && ((FilterLifecycleEvent) event).getEventType() == FilterLifecycleEvent.EventType.FINISHED) {
+                endState(state);
+            }
+            return;
+        }
+
+        try {
+            if(event instanceof FilterLifecycleEvent) {
+                processLifecycleEvent((FilterLifecycleEvent) event, state);
+            } else if(event instanceof ElementPresentEvent) {
+                processElementPresentEvent((ElementPresentEvent) event, state);
+            } else if(event instanceof ElementVisitEvent) {
+                processElementVisitEvent((ElementVisitEvent) event, state);
+            }
+        } catch (IOException e) {
+            throw new SmooksException("Failed to write report.", e);
+        }
+    }
+
+    protected boolean ignoreEvent(ExecutionEvent event) {
+        if(!super.ignoreEvent(event)) {
+            if (event instanceof ResourceBasedEvent) {
+                if (!reportConfiguration.showDefaultAppliedResources()) {
+                    return ((ResourceBasedEvent) event).getResourceConfig().isDefaultResource();
+                }
+            }
+
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Create the {@link MessageReport} for a reported message.
+     *
+     * @param writer The report output writer.
+     * @param messageNumber The message number (1 based).
+     * @return The {@link MessageReport}.
+     * @throws IOException Error creating the report.
+     */
+    protected abstract MessageReport createMessageReport(Writer writer, long messageNumber) throws IOException;
+
+    /**
+     * Get the report file name for a reported message, when writing to an
+     * {@link ReportConfiguration#getOutputDir() output directory}.
+     *
+     * @param messageNumber The message number (1 based).
+     * @return The report file name.
+     */
+    protected abstract String getReportFileName(long messageNumber);
+
+    private ReportState sample(ExecutionContext executionContext) {
+        ReportState state = (ReportState) executionContext.getAttribute(ReportState.class);
+
+        if(state == null) {
+            long messageNumber = messageCounter.incrementAndGet();
+
+            state = new ReportState(executionContext);
+            if((messageNumber - 1) % reportConfiguration.getMessageSampleRate() == 0) {
+                try {
+                    state.report = createMessageReport(openWriter(state, messageNumber), messageNumber);
+                } catch (IOException e) {
+                    throw new SmooksException("Failed to create report for message " + messageNumber + ".", e);
+                }
+            }
+            executionContext.setAttribute(ReportState.class, state);
+        }
+
+        return state;
+    }
+
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    private Writer openWriter(ReportState state, long messageNumber) throws IOException {
+        File outputDir = reportConfiguration.getOutputDir();
+
+        if(outputDir != null) {
+            outputDir.mkdirs();
+            state.writer = new FileWriter(new File(outputDir, getReportFileName(messageNumber)));
+            state.closeWriter = true;
+        } else {
+            state.writer = reportConfiguration.getOutputWriter();
+            state.closeWriter = reportConfiguration.autoCloseWriter();
+        }
+
+        return state.writer;
+    }
+
+    private void endState(ReportState state) {
+        if(state.parent != null) {
+            currentState.set(state.parent);
+        } else {
+            currentState.remove();
+        }
+    }
+
+    private void processLifecycleEvent(FilterLifecycleEvent event, ReportState state) throws IOException {
+        if(event instanceof DOMFilterLifecycleEvent) {
+            // Next DOM filtering phase...
+            closeNodes(Integer.MIN_VALUE, state);
+            state.elementCount = 0;
+        } else if(event.getEventType() == FilterLifecycleEvent.EventType.STARTED) {
+            state.report.start();
+        } else if(event.getEventType() == FilterLifecycleEvent.EventType.FINISHED) {
+            try {
+                closeNodes(Integer.MIN_VALUE, state);
+                state.report.finish(AbstractReportGenerator.createResultNodes(state.executionContext), state.skippedElements, state.skippedEvents);
+            } finally {
+                endState(state);
+                try {
+                    state.writer.flush();
+                } finally {
+                    if(state.closeWriter) {
+                        state.writer.close();
+                    }
+                }
+            }
+        }
+    }
+
+    private void processElementPresentEvent(ElementPresentEvent event, ReportState state) throws IOException {
+        int depth = event.getDepth();
+
+        // Close the nodes of the elements that have ended...
+        closeNodes(depth, state);
+
+        if(state.elementCount >= reportConfiguration.getMaxElements()) {
+            state.skippedElements++;
+            return;
+        }
+        state.elementCount++;
+
+        if(!state.openNodes.isEmpty()) {
+            // The parent's visitBefore is complete...
+            writeVisitBefore(state.openNodes.peek(), state);
+        }
+        state.openNodes.push(new OpenNode(event.getElement(), depth));
+    }
+
+    private void processElementVisitEvent(ElementVisitEvent event, ReportState state) {
+        Object element = event.getElement();
+        Stack<OpenNode> openNodes = state.openNodes;
+
+        for(int i = openNodes.size() - 1; i >= 0; i--) {
+            OpenNode node = openNodes.get(i);
+
+            if(node.element == element) {
+                if(node.eventCount >= reportConfiguration.getMaxElementEvents() || (event.getSequence() == VisitSequence.BEFORE && node.visitBeforeWritten)) {
+                    state.skippedEvents++;
+                } else {
+                    if(event.getSequence() == VisitSequence.BEFORE) {
+                        node.visitBeforeEvents.add(event);
+                    } else {
+                        node.visitAfterEvents.add(event);
+                    }
+                    node.eventCount++;
+                }
+                return;
+            }
+        }
+    }
+
+    private void closeNodes(int depth, ReportState state) throws IOException {
+        Stack<OpenNode> openNodes = state.openNodes;
+
+        while(!openNodes.isEmpty() && openNodes.peek().depth >= depth) {
+            OpenNode node = openNodes.pop();
+
+            writeVisitBefore(node, state);
+            state.report.addMessageNode(createMessageNode(node, false, node.visitAfterEvents, state));
+            node.visitAfterEvents = null;
+        }
+    }
+
+    private void writeVisitBefore(OpenNode node, ReportState state) throws IOException {
+        if(!node.visitBeforeWritten) {
+            state.report.addMessageNode(createMessageNode(node, true, node.visitBeforeEvents, state));
+            node.visitBeforeEvents = null;
+            node.visitBeforeWritten = true;
+        }
+    }
+
+    private MessageNode createMessageNode(OpenNode node, boolean visitBefore, List<ElementVisitEvent> events, ReportState state) {
+        MessageNode messageNode = new MessageNode();
+
+        messageNode.setNodeId(state.messageNodeCounter++);
+        messageNode.setElementName(node.getElementName());
+        messageNode.setVisitBefore(visitBefore);
+        messageNode.setDepth(node.depth);
+        for(ElementVisitEvent event : events) {
+            messageNode.addExecInfoNode(AbstractReportGenerator.createReportInfoNode(event, state.reportInfoNodeCounter++));
+        }
+
+        return messageNode;
+    }
+
+    /**
+     * Report for a single message.
+     * <p/>
+     * Receives the report {@link MessageNode MessageNodes} in document order, as they are completed.
+     */
+    protected static abstract class MessageReport {
+
+        /**
+         * Start the report.
+         * @throws IOException Error writing the report.
+         */
+        protected abstract void start() throws IOException;
+
+        /**
+         * Add a completed {@link MessageNode} to the report.
+         * @param messageNode The message node.
+         * @throws IOException Error writing the report.
+         */
+        protected abstract void addMessageNode(MessageNode messageNode) throws IOException;
+
+        /**
+         * Finish the report.
+         * @param results The filter result nodes.
+         * @param skippedElements The number of elements not reported because of the
+         * {@link ReportConfiguration#setMaxElements(int) maxElements} limit.
+         * @param skippedEvents The number of visit events not reported because of the
+         * {@link ReportConfiguration#setMaxElementEvents(int) maxElementEvents} limit.
+         * @throws IOException Error writing the report.
+         */
+        protected abstract void finish(List<ResultNode> results, long skippedElements, long skippedEvents) throws IOException;
+    }
+
+    /**
+     * Per message report state.
+     */
+    private static class ReportState {
+        private final ExecutionContext executionContext;
+        private ReportState parent;
+        private MessageReport report;
+        private Writer writer;
+        private boolean closeWriter;
+        private final Stack<OpenNode> openNodes = new Stack<OpenNode>();
+        private int elementCount;
+        private long skippedElements;
+        private long skippedEvents;
+        private int messageNodeCounter;
+        private int reportInfoNodeCounter;
+
+        private ReportState(ExecutionContext executionContext) {
+            this.executionContext = executionContext;
+        }
+    }
+
+    /**
+     * Open (not yet ended) element.
+     */
+    private static class OpenNode {
+        private final Object element;
+        private final int depth;
+        private List<ElementVisitEvent> visitBeforeEvents = new ArrayList<ElementVisitEvent>();
+        private List<ElementVisitEvent> visitAfterEvents = new ArrayList<ElementVisitEvent>();
+        private boolean visitBeforeWritten;
+        private int eventCount;
+
+        private OpenNode(Object element, int depth) {
+            this.element = element;
+            this.depth = depth;
+        }
+
+        private String getElementName() {
+            if(element instanceof SAXElement) {
+                return ((SAXElement) element).getName().getLocalPart();
+            } else {
+                return DomUtils.getName((Element) element);
+            }
+        }
+    }
+}
@@ -46,11 +46,16 @@ import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.apache.commons.lang.ClassUtils;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.smooks.cdr.SmooksConfigurationException;
 import org.mvel2.DataConversion;
 import org.mvel2.MVEL;
+import org.mvel2.ParserContext;
+import org.mvel2.integration.VariableResolverFactory;
 import org.mvel2.integration.impl.MapVariableResolverFactory;
+import org.mvel2.optimizers.OptimizerFactory;
+import org.smooks.assertion.AssertArgument;
 
 /**
  * <a href="http://mvel.codehaus.org/">MVEL</a> expression evaluator.
@@ -60,16 +65,51 @@ import org.mvel2.integration.impl.MapVariableResolverFactory;
  */
 public class MVELExpressionEvaluator implements ExpressionEvaluator {
 
-    private static final String MVEL_VARIABLES_VARIABLE_NAME = "VARS";
+    /**
+     * System property for the global MVEL optimizer selection.  One of "ASM", "reflective" or "dynamic"
+     * (the MVEL default).
+     * @see #setOptimizer(String)
+     */
+    public static final String OPTIMIZER = "smooks.mvel.optimizer";
+
+    protected static final String MVEL_VARIABLES_VARIABLE_NAME = "VARS";
+
+	private static final String[] NO_INPUTS = new String[0];
 
 	private String expression;
 
     private Serializable compiled;
 
+	private String[] inputs = NO_INPUTS;
+
 	private boolean containsVariablesVariable;
 
     private Class<?> toType;
 
+    private Class<?> boxedToType;
+
+    static {
+        String optimizer = System.getProperty(OPTIMIZER);
+        if(optimizer != null && optimizer.trim().length() > 0) {
+            setOptimizer(optimizer.trim());
+        }
+    }
+
+    /**
+     * Set the MVEL optimizer used for all expressions (globally).
+     * <p/>
+     * The "ASM" optimizer generates bytecode for expression property accessors, making expressions
+     * that are evaluated many times faster, at the cost of class generation.  The "reflective" optimizer
+     * uses reflection only.  The "dynamic" optimizer (the MVEL default) starts reflective and switches to
+     * ASM for hot expressions.  Can also be set through the {@link #OPTIMIZER} system property.
+     *
+     * @param optimizer The optimizer name.
+     */
+    public static void setOptimizer(String optimizer) {
+        AssertArgument.isNotNullAndNotEmpty(optimizer, "optimizer");
+        OptimizerFactory.setDefaultOptimizer(optimizer);
+    }
+
     public MVELExpressionEvaluator() {
 	}
 
@@ -79,7 +119,11 @@ public class MVELExpressionEvaluator implements ExpressionEvaluator {
 
     public ExpressionEvaluator setExpression(String expression) throws SmooksConfigurationException {
         this.expression = expression.trim();
-        compiled = MVEL.compileExpression(this.expression);
+
+        // Compile with a parser context so as to capture the expression's input variables...
+        ParserContext parserContext = new ParserContext();
+        compiled = MVEL.compileExpression(this.expression, parserContext);
+        inputs = parserContext.getInputs().keySet().toArray(new String[parserContext.getInputs().size()]);
 
         containsVariablesVariable = this.expression.contains(MVEL_VARIABLES_VARIABLE_NAME);
 
@@ -90,8 +134,26 @@ public class MVELExpressionEvaluator implements ExpressionEvaluator {
         return expression;
     }
 
+	/**
+	 * Get the names of the input variables referenced by the expression, as resolved when the
+	 * expression was compiled.  Does not include variables declared within the expression.
+	 * @return The input variable names.
+	 */
+	public String[] getInputs() {
+		return inputs;
+	}
+
+	/**
+	 * Does the expression reference the {@link MVELVariables} ("VARS") variable.
+	 * @return True if the expression references the "VARS" variable, otherwise false.
+	 */
+	protected boolean containsVariablesVariable() {
+		return containsVariablesVariable;
+	}
+
 	public void setToType(Class<?> toType) {
 		this.toType = toType;
+		boxedToType = (toType != null ? ClassUtils.primitiveToWrapper(toType) : null);
 	}
 
 	public boolean eval(Object contextObject) throws ExpressionEvaluationException {
@@ -114,30 +176,50 @@ public class MVELExpressionEvaluator implements ExpressionEvaluator {
 		        	// do look in the variables of the resolver factory
 		        	rootResolverFactory.createVariable(MVEL_VARIABLES_VARIABLE_NAME, new MVELVariables(rootResolverFactory));
 
-		        	if(toType != null) {
-		        		return  DataConversion.convert(MVEL.executeExpression(compiled, rootResolverFactory), toType);
-		        	} else {
-		        		return  MVEL.executeExpression(compiled, rootResolverFactory);
-		        	}
+		        	return convert(MVEL.executeExpression(compiled, rootResolverFactory));
 	        	} else {
-		        	if(toType != null) {
-		        		return DataConversion.convert(MVEL.executeExpression(compiled, contextObject, new MapVariableResolverFactory(variableMap)), toType);
-		        	} else {
-		        		return MVEL.executeExpression(compiled, contextObject, new MapVariableResolverFactory(variableMap));
-		        	}
+		        	return convert(MVEL.executeExpression(compiled, contextObject, new MapVariableResolverFactory(variableMap)));
 	        	}
 
 	        } catch(Exception e) {
-	        	String msg = "Error evaluating MVEL expression '" + expression + "' against object type '" + contextObject.getClass().getName() + "'. " +
-	            				"Common issues include:" +
-	            				"\n\t\t1. Referencing a variable that is not bound into the context." +
-	            				" In this case use the 'isdef' operator to check if the variable is bound in the context." +
-	            				"\n\t\t2. Invalid expression reference to a List/Array based variable token.  Example List/Array referencing expression token: 'order.orderItems[0].productId'.";
-
-	            throw new ExpressionEvaluationException(msg, e);
+	        	throw newEvaluationException(contextObject, e);
 	        }
 	}
 
+	/**
+	 * Execute the expression against the supplied context object, resolving variables through the
+	 * supplied {@link VariableResolverFactory}.
+	 * @param contextObject The context object.
+	 * @param variableResolverFactory The variable resolver factory.
+	 * @return The expression value, converted to the {@link #setToType(Class) to type}, if set.
+	 * @throws ExpressionEvaluationException Error evaluating the expression.
+	 */
+	protected Object executeExpression(Object contextObject, VariableResolverFactory variableResolverFactory) throws ExpressionEvaluationException {
+		try {
+			return convert(MVEL.executeExpression(compiled, contextObject, variableResolverFactory));
+		} catch(Exception e) {
+			throw newEvaluationException(contextObject, e);
+		}
+	}
+
+	private Object convert(Object value) {
+		if(toType == null || boxedToType.isInstance(value)) {
+			// No conversion needed...
+			return value;
+		}
+		return DataConversion.convert(value, toType);
+	}
+
+	private ExpressionEvaluationException newEvaluationException(Object contextObject, Exception e) {
+		String msg = "Error evaluating MVEL expression '" + expression + "' against object type '" + (contextObject != null ? contextObject.getClass().getName() : null) + "'. " +
+						"Common issues include:" +
+						"\n\t\t1. Referencing a variable that is not bound into the context." +
+						" In this case use the 'isdef' operator to check if the variable is bound in the context." +
+						"\n\t\t2. Invalid expression reference to a List/Array based variable token.  Example List/Array referencing expression token: 'order.orderItems[0].productId'.";
+
+		return new ExpressionEvaluationException(msg, e);
+	}
+
 	public Object exec(final Object contextObject) throws ExpressionEvaluationException {
         return exec(contextObject, new HashMap<String, Object>());
     }
@@ -50,25 +50,29 @@ import org.smooks.javabean.lifecycle.BeanContextLifecycleObserver;
 import org.smooks.javabean.lifecycle.BeanLifecycle;
 import org.smooks.javabean.repository.BeanId;
 import org.smooks.util.MultiLineToStringBuilder;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.util.Map.Entry;
 
+/**
+ * Standalone {@link BeanContext} implementation.
+ * <p/>
+ * Beans are held in a dense array of slots indexed by {@link BeanId#getIndex()}.  The
+ * {@link #getBeanMap() bean Map} is a view onto those slots and is only created when asked for.
+ * Lifecycle events are only created when there are observers to notify.
+ * <p/>
+ * If a bean Map is supplied at construction time (e.g. the {@link org.smooks.payload.JavaResult}
+ * result Map), the beans it contains are added to the context and all bean changes are written through
+ * to it.
+ */
 public class StandaloneBeanContext implements BeanContext {
 
-	private static final Logger LOGGER = LoggerFactory.getLogger(StandaloneBeanContext.class);
-
 	private final ExecutionContext executionContext;
 
-	private final Map<String, Object> beanMap;
-
-	private final ArrayList<ContextEntry> entries;
-
 	private final BeanIdStore beanIdStore;
 
-	private BeanContextMapAdapter repositoryBeanMapAdapter = new BeanContextMapAdapter();
+	private final Slots slots;
+
+	private BeanContextMapAdapter repositoryBeanMapAdapter;
 
 	private List<BeanContextLifecycleObserver> lifecycleObservers = new ArrayList<BeanContextLifecycleObserver>();
 	private List<BeanContextLifecycleObserver> addObserversQueue = new ArrayList<BeanContextLifecycleObserver>();
@@ -83,28 +87,25 @@ public class StandaloneBeanContext implements BeanContext {
 	 * @param beanIdStore
 	 *            The {@link BeanIdStore} to which this object is bound to.
 	 * @param beanMap
-	 *            The {@link Map} in which the bean's will be set. It is
-	 *            important not to modify this map outside of the
-	 *            BeanRepository! It is only provided as constructor parameter
-	 *            because in some situations we need to control which
-	 *            {@link Map} is used.
+	 *            The {@link Map} to which the bean's will be written through,
+	 *            or null if there's no such Map. It is important not to modify
+	 *            this map outside of the BeanRepository! It is only provided as
+	 *            constructor parameter because in some situations we need to
+	 *            control which {@link Map} is used.
 	 */
 	public StandaloneBeanContext(ExecutionContext executionContext,
 			BeanIdStore beanIdStore, Map<String, Object> beanMap) {
 		this.executionContext = executionContext;
 		this.beanIdStore = beanIdStore;
-		this.beanMap = beanMap;
 
-		entries = new ArrayList<ContextEntry>(beanIdStore.size());
-
-		updateBeanMap();
+		slots = new Slots(beanMap);
+		syncBeanIds();
 	}
 
     private StandaloneBeanContext(ExecutionContext executionContext, StandaloneBeanContext parentContext) {
         this.executionContext = executionContext;
         this.beanIdStore = parentContext.beanIdStore;
-        this.beanMap = parentContext.beanMap;
-        this.entries = parentContext.entries;
+        this.slots = parentContext.slots;
         this.repositoryBeanMapAdapter = parentContext.repositoryBeanMapAdapter;
         this.lifecycleObservers = parentContext.lifecycleObservers;
         this.addObserversQueue = parentContext.addObserversQueue;
@@ -120,28 +121,31 @@ public class StandaloneBeanContext implements BeanContext {
 		AssertArgument.isNotNull(beanId, "beanId");
 		AssertArgument.isNotNull(bean, "bean");
 
+		int index = beanId.getIndex();
+
 		// If there's already an instance of this bean, notify observers of it's
 		// removal (removal by being overwritten)...
 		Object currentInstance = getBean(beanId);
-		if (currentInstance != null) {
+		if (currentInstance != null && hasObservers()) {
 			notifyObservers(new BeanContextLifecycleEvent(executionContext,
 					source, BeanLifecycle.REMOVE, beanId, currentInstance));
 		}
 
-		// Check if the BeanIdList has new BeanIds and if so then
-		// add those new entries to the Map. This ensures we always
-		// have an up to date Map.
-		checkUpdatedBeanIdList();
-
-		int index = beanId.getIndex();
-		ContextEntry repoEntry = entries.get(index);
+		// Check if the BeanIdStore has new BeanIds and if so then
+		// grow the slots. This ensures we always have a slot for the
+		// BeanId.
+		if (index >= slots.ids.length) {
+			syncBeanIds();
+		}
 
-		clean(index);
-		repoEntry.setValue(bean);
+		clean(index, false);
+		slots.setValue(index, bean);
 
 		// Add the bean to the context...
-		notifyObservers(new BeanContextLifecycleEvent(executionContext, source,
-				BeanLifecycle.ADD, beanId, bean));
+		if (hasObservers()) {
+			notifyObservers(new BeanContextLifecycleEvent(executionContext, source,
+					BeanLifecycle.ADD, beanId, bean));
+		}
 	}
 
     public void addBean(String beanId, Object bean) {
@@ -166,9 +170,7 @@ public class StandaloneBeanContext implements BeanContext {
 	public boolean containsBean(BeanId beanId) {
 		AssertArgument.isNotNull(beanId, "beanId");
 
-		int index = beanId.getIndex();
-
-		return entries.size() > index && entries.get(index).getValue() != null;
+		return slots.getValue(beanId.getIndex()) != null;
 	}
 
 	/*
@@ -197,13 +199,7 @@ public class StandaloneBeanContext implements BeanContext {
 	public Object getBean(BeanId beanId) {
 		AssertArgument.isNotNull(beanId, "beanId");
 
-		int index = beanId.getIndex();
-
-		if (entries.size() <= index) {
-			return null;
-		}
-
-		return entries.get(index).getValue();
+		return slots.getValue(beanId.getIndex());
 	}
 
 	/*
@@ -212,7 +208,13 @@ public class StandaloneBeanContext implements BeanContext {
 	 * @see org.smooks.javabean.context.BeanContext#getBean(java.lang.String)
 	 */
 	public Object getBean(String beanId) {
-		return beanMap.get(beanId);
+		BeanId beanIdObj = beanIdStore.getBeanId(beanId);
+
+		if (beanIdObj == null) {
+			return null;
+		}
+
+		return slots.getValue(beanIdObj.getIndex());
 	}
 
 	/*
@@ -221,7 +223,15 @@ public class StandaloneBeanContext implements BeanContext {
 	 * @see org.smooks.javabean.context.BeanContext#getBean(java.lang.Class)
 	 */
 	public <T> T getBean(Class<T> beanType) {
-		return getBean(beanType, beanMap);
+		Object[] values = slots.values;
+
+		for (int i = 0; i < values.length; i++) {
+			if (beanType.isInstance(values[i])) {
+				return beanType.cast(values[i]);
+			}
+		}
+
+		return null;
 	}
 
 	public static <T> T getBean(Class<T> beanType, Map<String, Object> beanMap) {
@@ -251,11 +261,13 @@ public class StandaloneBeanContext implements BeanContext {
 
 		int index = beanId.getIndex();
 
-		if (entries.size() > index && entries.get(index).getValue() != null) {
-			entries.get(index).setValue(bean);
+		if (slots.getValue(index) != null) {
+			slots.setValue(index, bean);
 
-			notifyObservers(new BeanContextLifecycleEvent(executionContext,
-					source, BeanLifecycle.CHANGE, beanId, bean));
+			if (hasObservers()) {
+				notifyObservers(new BeanContextLifecycleEvent(executionContext,
+						source, BeanLifecycle.CHANGE, beanId, bean));
+			}
 		} else {
 			throw new IllegalStateException("The bean '" + beanId
 					+ "' can't be changed because it isn't in the repository.");
@@ -272,14 +284,21 @@ public class StandaloneBeanContext implements BeanContext {
 	public Object removeBean(BeanId beanId, Fragment source) {
 		AssertArgument.isNotNull(beanId, "beanId");
 
-		ContextEntry repositoryEntry = entries.get(beanId.getIndex());
-		Object old = repositoryEntry.getValue();
+		int index = beanId.getIndex();
 
-		repositoryEntry.clean();
-		repositoryEntry.setValue(null);
+		if (index >= slots.ids.length) {
+			syncBeanIds();
+		}
+
+		Object old = slots.getValue(index);
 
-		notifyObservers(new BeanContextLifecycleEvent(executionContext, source,
-				BeanLifecycle.REMOVE, beanId, getBean(beanId)));
+		clean(index, false);
+		slots.setValue(index, null);
+
+		if (hasObservers()) {
+			notifyObservers(new BeanContextLifecycleEvent(executionContext, source,
+					BeanLifecycle.REMOVE, beanId, getBean(beanId)));
+		}
 
 		return old;
 	}
@@ -305,9 +324,10 @@ public class StandaloneBeanContext implements BeanContext {
 	 * @see org.smooks.javabean.context.BeanContext#clear()
 	 */
 	public void clear() {
+		int slotCount = slots.ids.length;
 
-		for (ContextEntry entry : entries) {
-			entry.setValue(null);
+		for (int i = 0; i < slotCount; i++) {
+			slots.setValue(i, null);
 		}
 	}
 
@@ -317,71 +337,54 @@ public class StandaloneBeanContext implements BeanContext {
 	 * @see org.smooks.javabean.context.BeanContext#getBeanMap()
 	 */
 	public Map<String, Object> getBeanMap() {
+		if (repositoryBeanMapAdapter == null) {
+			repositoryBeanMapAdapter = new BeanContextMapAdapter();
+		}
 		return repositoryBeanMapAdapter;
 	}
 
 	/**
-	 * Checks if the repository is still in sync with then {@link BeanIdStore}.
+	 * Syncs the slots with the {@link BeanIdStore}. Slots are added for
+	 * all BeanIds registered since the last sync.  It is not possible to
+	 * remove BeanIds from the BeanIdStore, so the slots only ever grow.
 	 */
-	private void checkUpdatedBeanIdList() {
-
-		// We only check if the size is difference because it
-		// is not possible to remove BeanIds from the BeanIdList
-		if (entries.size() != beanIdStore.size()) {
-
-			updateBeanMap();
-
+	private void syncBeanIds() {
+		if (slots.ids.length < beanIdStore.size()) {
+			slots.grow(beanIdStore.getBeanIdMap());
 		}
 	}
 
 	/**
-	 * Sync's the BeanRepositories bean map with the bean map from the
-	 * {@link BeanIdStore}. All missing keys that are in the BeanIdList's map
-	 * are added to the BeanRepositories map.
+	 * Remove all bean instances of the associating BeanId's of the
+	 * BeanId. The integer index is directly used for performance reasons.
+	 *
+	 * @param index
+	 *            The index of the BeanId.
+	 * @param nullifyValue
+	 *            Remove the bean instance of the BeanId itself.
 	 */
-	private void updateBeanMap() {
-
-		Map<String, BeanId> beanIdMap = beanIdStore.getBeanIdMap();
-
-		int largestBeanIdIndex = -1;
-		for (Entry<String, BeanId> beanIdEntry : beanIdMap.entrySet()) {
-			String beanIdName = beanIdEntry.getKey();
-			BeanId beanId = beanIdEntry.getValue();
-			if (!beanMap.containsKey(beanIdName)) {
-				beanMap.put(beanIdName, null);
-			}
-			if (largestBeanIdIndex < beanId.getIndex()) {
-				largestBeanIdIndex = beanId.getIndex();
-			}
-		}
-		if(largestBeanIdIndex >= 0) {
-			int newEntries = (largestBeanIdIndex - entries.size()) + 1;
-			entries.addAll(Collections.nCopies(newEntries, (ContextEntry) null));
-
-			for (Entry<String, Object> beanMapEntry : beanMap.entrySet()) {
-
-				BeanId beanId = beanIdMap.get(beanMapEntry.getKey());
-
-				int index = beanId.getIndex();
-				if (entries.get(index) == null) {
-
-					entries.set(index, new ContextEntry(beanId, beanMapEntry));
+	private void clean(int index, boolean nullifyValue) {
+		// Clean the slot if it's not already cleaning and the bean is not
+		// in context...
+		if (index >= slots.ids.length || slots.cleaning[index] || !slots.outOfContext[index]) {
+			return;
+		}
+
+		slots.cleaning[index] = true;
+		try {
+			int[] associations = slots.lifecycleAssociations[index];
+			if (associations != null) {
+				int associationCount = slots.lifecycleAssociationCounts[index];
+				for (int i = 0; i < associationCount; i++) {
+					clean(associations[i], true);
 				}
+				slots.lifecycleAssociationCounts[index] = 0;
 			}
-		}
-	}
-
-	/**
-	 * Remove all bean instances of the associating BeanId's of the parent bean
-	 * id. The integer index is directly used for performance reasons.
-	 *
-	 * @param beanId
-	 *            The index of the parent BeanId.
-	 */
-	private void clean(int beanId) {
-		ContextEntry entry = entries.get(beanId);
-		if (entry != null) {
-			entry.clean();
+		} finally {
+			if (nullifyValue) {
+				slots.setValue(index, null);
+			}
+			slots.cleaning[index] = false;
 		}
 	}
 
@@ -393,17 +396,13 @@ public class StandaloneBeanContext implements BeanContext {
 	 * .repository.BeanId, boolean)
 	 */
 	public void setBeanInContext(BeanId beanId, boolean inContext) {
-		ContextEntry repositoryEntry = entries.get(beanId.getIndex());
-		if (repositoryEntry != null) {
-			repositoryEntry.setBeanInContext(inContext);
+		int index = beanId.getIndex();
+
+		if (index < slots.ids.length) {
+			slots.outOfContext[index] = !inContext;
 		}
 	}
 
-	/*
-	 * (non-Javadoc)
-	 *
-	 * @see java.lang.Object#toString()
-	 */
 	/*
 	 * (non-Javadoc)
 	 *
@@ -418,110 +417,133 @@ public class StandaloneBeanContext implements BeanContext {
         return new StandaloneBeanContext(executionContext, this);
     }
 
-    /**
-	 * Repository Entry
+	/**
+	 * Bean slots.
 	 * <p/>
-	 * Represents an entry of a BeanId and provides an platform of all the
-	 * objects that needed for that entry
-	 *
-	 * @author <a
-	 *         href="mailto:maurice.zeijen@smies.com">maurice.zeijen@smies.com
-	 *         </a>
-	 *
+	 * Dense per {@link BeanId} state, indexed by {@link BeanId#getIndex()}.
+	 * Shared between a bean context and its sub contexts.
 	 */
-	private class ContextEntry {
+	private static final class Slots {
+
+		private static final int[][] NO_ASSOCIATIONS = new int[0][];
+
+		private final Map<String, Object> beanMap;
 
-		private final BeanId beanId;
+		private BeanId[] ids = new BeanId[0];
 
-		private final Entry<String, Object> entry;
+		private Object[] values = new Object[0];
 
-		private final List<Integer> lifecycleAssociation = new ArrayList<Integer>();
+		private boolean[] outOfContext = new boolean[0];
 
-		private boolean cleaning = false;
+		private boolean[] cleaning = new boolean[0];
 
-		private boolean beanInContext = true;
+		private int[][] lifecycleAssociations = NO_ASSOCIATIONS;
+
+		private int[] lifecycleAssociationCounts = new int[0];
 
 		/**
-		 * @param entry
+		 * @param beanMap
+		 *            The Map to which bean changes are written through, or null.
 		 */
-		public ContextEntry(BeanId beanId, Entry<String, Object> entry) {
-			this.beanId = beanId;
-			this.entry = entry;
+		private Slots(Map<String, Object> beanMap) {
+			this.beanMap = beanMap;
 		}
 
-		public Object getValue() {
-			return entry.getValue();
-		}
+		private Object getValue(int index) {
+			Object[] currentValues = values;
 
-		public void setValue(Object value) {
-			if (value == null) {
-				value = null;
+			if (index >= currentValues.length) {
+				return null;
 			}
-			entry.setValue(value);
+			return currentValues[index];
 		}
 
-		public void clean() {
-			clean(false);
+		private void setValue(int index, Object value) {
+			values[index] = value;
+			if (beanMap != null) {
+				beanMap.put(ids[index].getName(), value);
+			}
 		}
 
-		private void clean(boolean nullifyValue) {
-			// Clean the repo entry if it's not already cleaning and the bean is
-			// not
-			// in context...
-			if (cleaning || beanInContext) {
+		private void grow(Map<String, BeanId> beanIdMap) {
+			int slotCount = beanIdMap.size();
+			int oldSlotCount = ids.length;
+
+			if (slotCount <= oldSlotCount) {
 				return;
 			}
 
-			setCleaning(true);
-			try {
-				if (lifecycleAssociation.size() > 0) {
-					for (Integer associationId : lifecycleAssociation) {
-						ContextEntry association = entries.get(associationId);
+			BeanId[] newIds = Arrays.copyOf(ids, slotCount);
+			Object[] newValues = Arrays.copyOf(values, slotCount);
+
+			for (BeanId beanId : beanIdMap.values()) {
+				int index = beanId.getIndex();
 
-						association.clean(true);
+				if (index >= oldSlotCount) {
+					newIds[index] = beanId;
+					if (beanMap != null) {
+						// Pick up any bean already in the supplied Map...
+						newValues[index] = beanMap.get(beanId.getName());
+						if (newValues[index] == null) {
+							beanMap.put(beanId.getName(), null);
+						}
 					}
-					lifecycleAssociation.clear();
 				}
-			} finally {
-				if (nullifyValue) {
-					setValue(null);
-				}
-				setCleaning(false);
 			}
+
+			outOfContext = Arrays.copyOf(outOfContext, slotCount);
+			cleaning = Arrays.copyOf(cleaning, slotCount);
+			lifecycleAssociations = Arrays.copyOf(lifecycleAssociations, slotCount);
+			lifecycleAssociationCounts = Arrays.copyOf(lifecycleAssociationCounts, slotCount);
+			values = newValues;
+			ids = newIds;
 		}
+	}
 
-		/**
-		 * Is this repo entry being cleaned.
-		 *
-		 * @return True if the entry is being cleaned, otherwise false.
-		 */
-		public boolean isCleaning() {
-			return cleaning;
+	/**
+	 * Bean Map entry.  A live view onto a bean slot.
+	 */
+	private final class SlotEntry implements Map.Entry<String, Object> {
+
+		private final int index;
+
+		private SlotEntry(int index) {
+			this.index = index;
 		}
 
-		/**
-		 * Mark this repo entry as being cleaned.
-		 *
-		 * @param cleaning
-		 *            True if the entry is being cleaned, otherwise false.
-		 */
-		public void setCleaning(boolean cleaning) {
-			this.cleaning = cleaning;
+		public String getKey() {
+			return slots.ids[index].getName();
+		}
+
+		public Object getValue() {
+			return slots.getValue(index);
+		}
+
+		public Object setValue(Object value) {
+			Object old = slots.getValue(index);
+			slots.setValue(index, value);
+			return old;
 		}
 
-		public boolean isBeanInContext() {
-			return beanInContext;
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Map.Entry)) {
+				return false;
+			}
+			Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+			Object value = getValue();
+			return getKey().equals(other.getKey()) && (value == null ? other.getValue() == null : value.equals(other.getValue()));
 		}
 
-		public void setBeanInContext(boolean beanInContext) {
-			this.beanInContext = beanInContext;
+		@Override
+		public int hashCode() {
+			Object value = getValue();
+			return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
 		}
 
+		@Override
 		public String toString() {
-			return ContextEntry.class.getSimpleName() + ": Idx ("
-					+ beanId.getIndex() + "), Name (" + beanId.getName()
-					+ "), Num Associations (" + lifecycleAssociation.size()
-					+ ").";
+			return getKey() + "=" + getValue();
 		}
 	}
 
@@ -534,7 +556,7 @@ public class StandaloneBeanContext implements BeanContext {
 	 * performance of the BeanRepository because it needs to find or register
 	 * the BeanId every time. The read performance are as good as any normal
 	 * Map.</li>
-	 * <li>The {@link #entrySet()} method returns an UnmodifiableSet</li>
+	 * <li>The {@link #entrySet()} method returns an unmodifiable view</li>
 	 * <li>When a bean gets removed from the BeanRepository then only the value
 	 * of the map entry is set to null. This means that null values should be
 	 * regarded as deleted beans. That is also why the size() of the bean map
@@ -549,13 +571,49 @@ public class StandaloneBeanContext implements BeanContext {
 	 *         </a>
 	 *
 	 */
-	private class BeanContextMapAdapter implements Map<String, Object> {
+	private class BeanContextMapAdapter extends AbstractMap<String, Object> {
+
+		private final Set<Map.Entry<String, Object>> entrySet = new AbstractSet<Map.Entry<String, Object>>() {
+
+			@Override
+			public Iterator<Map.Entry<String, Object>> iterator() {
+				syncBeanIds();
+
+				final int slotCount = slots.ids.length;
+
+				return new Iterator<Map.Entry<String, Object>>() {
+
+					private int index = 0;
+
+					public boolean hasNext() {
+						return index < slotCount;
+					}
+
+					public Map.Entry<String, Object> next() {
+						if (index >= slotCount) {
+							throw new NoSuchElementException();
+						}
+						return new SlotEntry(index++);
+					}
+
+					public void remove() {
+						throw new UnsupportedOperationException();
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return BeanContextMapAdapter.this.size();
+			}
+		};
 
 		/*
 		 * (non-Javadoc)
 		 *
 		 * @see java.util.Map#clear()
 		 */
+		@Override
 		public void clear() {
 			StandaloneBeanContext.this.clear();
 		}
@@ -565,17 +623,9 @@ public class StandaloneBeanContext implements BeanContext {
 		 *
 		 * @see java.util.Map#containsKey(java.lang.Object)
 		 */
+		@Override
 		public boolean containsKey(Object key) {
-			return beanMap.containsKey(key);
-		}
-
-		/*
-		 * (non-Javadoc)
-		 *
-		 * @see java.util.Map#containsValue(java.lang.Object)
-		 */
-		public boolean containsValue(Object value) {
-			return beanMap.containsValue(value);
+			return key instanceof String && beanIdStore.containsBeanId((String) key);
 		}
 
 		/*
@@ -583,8 +633,9 @@ public class StandaloneBeanContext implements BeanContext {
 		 *
 		 * @see java.util.Map#entrySet()
 		 */
-		public Set<java.util.Map.Entry<String, Object>> entrySet() {
-			return Collections.unmodifiableSet(beanMap.entrySet());
+		@Override
+		public Set<Map.Entry<String, Object>> entrySet() {
+			return entrySet;
 		}
 
 		/*
@@ -592,8 +643,12 @@ public class StandaloneBeanContext implements BeanContext {
 		 *
 		 * @see java.util.Map#get(java.lang.Object)
 		 */
+		@Override
 		public Object get(Object key) {
-			return beanMap.get(key);
+			if (key instanceof String == false) {
+				return null;
+			}
+			return getBean((String) key);
 		}
 
 		/*
@@ -601,17 +656,9 @@ public class StandaloneBeanContext implements BeanContext {
 		 *
 		 * @see java.util.Map#isEmpty()
 		 */
+		@Override
 		public boolean isEmpty() {
-			return beanMap.isEmpty();
-		}
-
-		/*
-		 * (non-Javadoc)
-		 *
-		 * @see java.util.Map#keySet()
-		 */
-		public Set<String> keySet() {
-			return beanMap.keySet();
+			return size() == 0;
 		}
 
 		/*
@@ -619,6 +666,7 @@ public class StandaloneBeanContext implements BeanContext {
 		 *
 		 * @see java.util.Map#put(java.lang.Object, java.lang.Object)
 		 */
+		@Override
 		public Object put(String key, Object value) {
 			AssertArgument.isNotNull(key, "key");
 
@@ -641,6 +689,7 @@ public class StandaloneBeanContext implements BeanContext {
 		 *
 		 * @see java.util.Map#putAll(java.util.Map)
 		 */
+		@Override
 		public void putAll(Map<? extends String, ? extends Object> map) {
 			AssertArgument.isNotNull(map, "map");
 
@@ -657,6 +706,7 @@ public class StandaloneBeanContext implements BeanContext {
 		 *
 		 * @see java.util.Map#remove(java.lang.Object)
 		 */
+		@Override
 		public Object remove(Object key) {
 			AssertArgument.isNotNull(key, "key");
 
@@ -673,19 +723,11 @@ public class StandaloneBeanContext implements BeanContext {
 		 *
 		 * @see java.util.Map#size()
 		 */
+		@Override
 		public int size() {
-			return beanMap.size();
-		}
-
-		/*
-		 * (non-Javadoc)
-		 *
-		 * @see java.util.Map#values()
-		 */
-		public Collection<Object> values() {
-			return beanMap.values();
+			syncBeanIds();
+			return slots.ids.length;
 		}
-
 	}
 
 	/*
@@ -771,6 +813,18 @@ public class StandaloneBeanContext implements BeanContext {
 		}
 	}
 
+	/**
+	 * Are there observers that need to be notified of lifecycle events.
+	 * <p/>
+	 * Events raised while observers are being notified are always queued.
+	 *
+	 * @return True if a lifecycle event needs to be created and notified,
+	 *         otherwise false.
+	 */
+	private boolean hasObservers() {
+		return lifecycleObservers == null || !lifecycleObservers.isEmpty();
+	}
+
 	private void syncObserverList() {
 		int addObserverCount = addObserversQueue.size();
 		if (addObserverCount > 0) {
@@ -42,7 +42,6 @@
  */
 package org.smooks.javabean.context;
 
-import java.util.HashMap;
 import java.util.Map;
 
 import javax.xml.transform.Result;
@@ -85,7 +84,8 @@ public class StandaloneBeanContextFactory  {
 	/**
 	 * Returns the BeanMap which must be used by the {@link BeanContext}. If
 	 * a JavaResult or a JavaSource is used with the {@link ExecutionContext} then
-	 * those are used in the creation of the Bean map.
+	 * those are used in the creation of the Bean map.  Otherwise there's no
+	 * Bean map (null) and the {@link BeanContext} holds the beans on its own.
 	 *
 	 * Bean's that are already in the JavaResult or JavaSource map are given
 	 * a {@link BeanId} in the {@link BeanIdStore}.
@@ -117,9 +117,7 @@ public class StandaloneBeanContextFactory  {
 		    }
 		}
 
-		if(beanMap == null) {
-			beanMap = new HashMap<String, Object>();
-		} else {
+		if(beanMap != null) {
 
 			for(String beanId : beanMap.keySet()) {
 
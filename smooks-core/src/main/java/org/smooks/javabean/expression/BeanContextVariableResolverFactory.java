@@ -0,0 +1,253 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.javabean.expression;
+
+import org.mvel2.integration.VariableResolver;
+import org.mvel2.integration.VariableResolverFactory;
+import org.mvel2.integration.impl.BaseVariableResolverFactory;
+import org.mvel2.integration.impl.SimpleValueResolver;
+import org.smooks.expression.MVELVariables;
+import org.smooks.javabean.context.BeanContext;
+import org.smooks.javabean.context.BeanIdStore;
+import org.smooks.javabean.repository.BeanId;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * MVEL {@link VariableResolverFactory} that resolves expression variables directly
+ * from a {@link BeanContext}.
+ * <p/>
+ * The input variable names of the expression are known at compile time.  They are resolved to
+ * their {@link BeanId} (on first use, once the bean id is registered in the {@link BeanIdStore})
+ * and the beans are then looked up by {@link BeanId} index, avoiding the bean Map.  An instance is
+ * reused for every evaluation of an expression on a thread and is {@link #bind(BeanContext, BeanIdStore) bound}
+ * to the {@link BeanContext} of the current evaluation.  Not thread safe.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+class BeanContextVariableResolverFactory extends BaseVariableResolverFactory {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String[] inputs;
+	private final String variablesVariableName;
+	private final BeanIdResolver[] inputResolvers;
+	private final Map<String, VariableResolver> locals = new HashMap<String, VariableResolver>();
+	private final SimpleValueResolver variablesResolver;
+
+	private BeanContext beanContext;
+	private BeanIdStore beanIdStore;
+	private boolean bound;
+
+	/**
+	 * Constructor.
+	 * @param inputs The input variable names of the expression.
+	 * @param variablesVariableName The name of the {@link MVELVariables} variable, or null if the
+	 * expression does not reference it.
+	 */
+	BeanContextVariableResolverFactory(String[] inputs, String variablesVariableName) {
+		this.inputs = inputs;
+		this.variablesVariableName = variablesVariableName;
+		this.inputResolvers = new BeanIdResolver[inputs.length];
+		for (int i = 0; i < inputs.length; i++) {
+			inputResolvers[i] = new BeanIdResolver(inputs[i]);
+		}
+		if (variablesVariableName != null) {
+			variablesResolver = new SimpleValueResolver(new MVELVariables(this));
+		} else {
+			variablesResolver = null;
+		}
+	}
+
+	/**
+	 * Bind the factory to the {@link BeanContext} for the next evaluation.
+	 * @param beanContext The bean context.
+	 * @param beanIdStore The {@link BeanIdStore} of the application context.
+	 */
+	void bind(BeanContext beanContext, BeanIdStore beanIdStore) {
+		if (beanIdStore != this.beanIdStore) {
+			// Different application context. Resolve the BeanIds again...
+			for (BeanIdResolver inputResolver : inputResolvers) {
+				inputResolver.beanId = null;
+			}
+			this.beanIdStore = beanIdStore;
+		}
+		this.beanContext = beanContext;
+		bound = true;
+	}
+
+	/**
+	 * Release the {@link BeanContext} after an evaluation.
+	 */
+	void unbind() {
+		beanContext = null;
+		locals.clear();
+		bound = false;
+	}
+
+	/**
+	 * Is the factory currently bound to a {@link BeanContext} i.e. is an evaluation in progress.
+	 * @return True if the factory is bound, otherwise false.
+	 */
+	boolean isBound() {
+		return bound;
+	}
+
+	public VariableResolver createVariable(String name, Object value) {
+		VariableResolver resolver = locals.get(name);
+
+		if (resolver == null) {
+			resolver = new SimpleValueResolver(value);
+			locals.put(name, resolver);
+		} else {
+			resolver.setValue(value);
+		}
+
+		return resolver;
+	}
+
+	public VariableResolver createVariable(String name, Object value, Class<?> type) {
+		return createVariable(name, value);
+	}
+
+	public boolean isTarget(String name) {
+		return locals.containsKey(name);
+	}
+
+	public boolean isResolveable(String name) {
+		if (locals.containsKey(name) || name.equals(variablesVariableName)) {
+			return true;
+		}
+
+		BeanIdResolver inputResolver = getInputResolver(name);
+		if (inputResolver != null) {
+			BeanId beanId = inputResolver.getBeanId();
+			if (beanId != null) {
+				return beanContext.containsBean(beanId);
+			}
+		}
+
+		return beanContext.getBean(name) != null;
+	}
+
+	@Override
+	public VariableResolver getVariableResolver(String name) {
+		VariableResolver resolver = locals.get(name);
+
+		if (resolver != null) {
+			return resolver;
+		} else if (name.equals(variablesVariableName)) {
+			return variablesResolver;
+		}
+
+		resolver = getInputResolver(name);
+		if (resolver != null) {
+			return resolver;
+		}
+
+		// Not an input known at compile time e.g. a name passed to VARS.get()...
+		return new SimpleValueResolver(beanContext.getBean(name));
+	}
+
+	private BeanIdResolver getInputResolver(String name) {
+		for (int i = 0; i < inputs.length; i++) {
+			if (inputs[i].equals(name)) {
+				return inputResolvers[i];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * {@link VariableResolver} for a bean in the bound {@link BeanContext}.
+	 * <p/>
+	 * Assigning a value shadows the bean with an expression local variable, as was
+	 * the case when the bean Map was supplied as the context object.
+	 */
+	private class BeanIdResolver implements VariableResolver {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String name;
+		private BeanId beanId;
+
+		private BeanIdResolver(String name) {
+			this.name = name;
+		}
+
+		private BeanId getBeanId() {
+			if (beanId == null && beanIdStore != null) {
+				beanId = beanIdStore.getBeanId(name);
+			}
+			return beanId;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public Class getType() {
+			return Object.class;
+		}
+
+		public void setStaticType(Class type) {
+		}
+
+		public int getFlags() {
+			return 0;
+		}
+
+		public Object getValue() {
+			BeanId beanId = getBeanId();
+			if (beanId != null) {
+				return beanContext.getBean(beanId);
+			}
+			return beanContext.getBean(name);
+		}
+
+		public void setValue(Object value) {
+			createVariable(name, value);
+		}
+	}
+}
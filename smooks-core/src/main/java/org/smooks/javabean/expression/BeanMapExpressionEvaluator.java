@@ -45,9 +45,11 @@ package org.smooks.javabean.expression;
 import org.smooks.cdr.SmooksConfigurationException;
 import org.smooks.container.ExecutionContext;
 import org.smooks.expression.ExecutionContextExpressionEvaluator;
+import org.smooks.expression.ExpressionEvaluator;
 import org.smooks.expression.ExpressionEvaluationException;
 import org.smooks.expression.MVELExpressionEvaluator;
 import org.smooks.javabean.context.BeanContext;
+import org.smooks.javabean.context.BeanIdStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -64,6 +66,10 @@ import java.util.Map;
  * via the {@link BeanContext}.
  * <p/>
  * The special EC variable gives access to the EditingContext.
+ * <p/>
+ * By default, the beans referenced by the expression are resolved through their
+ * {@link org.smooks.javabean.repository.BeanId} (see {@link #setBeanIdResolution(boolean)}),
+ * using a resolver factory that is reused across evaluations on the same thread.
  *
  * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
  */
@@ -74,8 +80,18 @@ public class BeanMapExpressionEvaluator extends MVELExpressionEvaluator implemen
 	 */
 	public static final String MVEL_EXECUTION_CONTEXT_KEY = "EC";
 
+    /**
+     * System property for turning off {@link #setBeanIdResolution(boolean) bean id resolution} globally.
+     * Default "true".
+     */
+    public static final String BEAN_ID_RESOLUTION = "smooks.mvel.beanIdResolution";
+
 	private static final Logger LOGGER = LoggerFactory.getLogger(BeanMapExpressionEvaluator.class);
 
+    private boolean beanIdResolution = !"false".equalsIgnoreCase(System.getProperty(BEAN_ID_RESOLUTION));
+
+    private ThreadLocal<BeanContextVariableResolverFactory> resolverFactories;
+
     public BeanMapExpressionEvaluator() {
     }
 
@@ -83,14 +99,44 @@ public class BeanMapExpressionEvaluator extends MVELExpressionEvaluator implemen
         super(expression);
     }
 
+    @Override
+    public ExpressionEvaluator setExpression(String expression) throws SmooksConfigurationException {
+        super.setExpression(expression);
+        // The input variables may have changed...
+        resolverFactories = new ThreadLocal<BeanContextVariableResolverFactory>();
+        return this;
+    }
+
+    /**
+     * Resolve the beans referenced by the expression through their {@link org.smooks.javabean.repository.BeanId}
+     * in the {@link BeanContext}, instead of through the {@link BeanContext#getBeanMap() bean Map}.
+     * <p/>
+     * Avoids allocating variable resolver factories and a variable Map on every evaluation.
+     * @param beanIdResolution True to resolve beans by BeanId (the default), false to evaluate against the bean Map.
+     * @see #BEAN_ID_RESOLUTION
+     */
+    public void setBeanIdResolution(boolean beanIdResolution) {
+        if(beanIdResolution != this.beanIdResolution && getExpression() != null) {
+            // MVEL caches the variable access strategy in the compiled expression, so recompile...
+            setExpression(getExpression());
+        }
+        this.beanIdResolution = beanIdResolution;
+    }
+
     public boolean eval(ExecutionContext context) throws ExpressionEvaluationException {
         return (Boolean) getValue(context);
     }
 
     public Object getValue(ExecutionContext context) throws ExpressionEvaluationException {
-    	Map<String, Object> beans = context.getBeanContext().getBeanMap();
+        BeanContext beanContext = context.getBeanContext();
+    	Map<String, Object> beans = beanContext.getBeanMap();
+        Object value;
 
-        Object value = exec(beans);
+        if(beanIdResolution) {
+            value = execBound(beanContext, context.getContext().getBeanIdStore(), beans);
+        } else {
+            value = exec(beans);
+        }
 
         if(LOGGER.isDebugEnabled()) {
             LOGGER.debug("Expression value evaluation:===============================================================");
@@ -103,4 +149,24 @@ public class BeanMapExpressionEvaluator extends MVELExpressionEvaluator implemen
         return value;
     }
 
+    private Object execBound(BeanContext beanContext, BeanIdStore beanIdStore, Map<String, Object> beans) throws ExpressionEvaluationException {
+        BeanContextVariableResolverFactory resolverFactory = resolverFactories.get();
+
+        if(resolverFactory == null || resolverFactory.isBound()) {
+            // First evaluation on this thread, or a nested evaluation of the same expression...
+            BeanContextVariableResolverFactory newFactory = new BeanContextVariableResolverFactory(getInputs(), (containsVariablesVariable() ? MVEL_VARIABLES_VARIABLE_NAME : null));
+            if(resolverFactory == null) {
+                resolverFactories.set(newFactory);
+            }
+            resolverFactory = newFactory;
+        }
+
+        resolverFactory.bind(beanContext, beanIdStore);
+        try {
+            // The bean Map remains the context object, for names not resolved through the factory...
+            return executeExpression(beans, resolverFactory);
+        } finally {
+            resolverFactory.unbind();
+        }
+    }
 }
@@ -0,0 +1,199 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.util;
+
+import freemarker.ext.dom.NodeModel;
+import freemarker.template.ObjectWrapper;
+import freemarker.template.SimpleCollection;
+import freemarker.template.TemplateCollectionModel;
+import freemarker.template.TemplateHashModelEx;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+import org.smooks.assertion.AssertArgument;
+import org.smooks.container.ExecutionContext;
+import org.smooks.delivery.DOMModel;
+import org.smooks.javabean.context.BeanContext;
+import org.w3c.dom.Element;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Live FreeMarker model view onto the {@link BeanContext} and {@link DOMModel} of an {@link ExecutionContext}.
+ * <p/>
+ * Unlike {@link FreeMarkerUtils#getMergedModel(ExecutionContext)}, nothing is copied when the model is
+ * created.  Keys are resolved against the {@link DOMModel} first (DOM models hide beans of the same name),
+ * and then against the {@link BeanContext}, when FreeMarker asks for them.
+ * <p/>
+ * Wrapped models are cached per key.  A cached model is only reused while the key still resolves to the same
+ * bean instance (or DOM model {@link Element}), so replaced beans are never served stale.  The model does not
+ * observe the {@link BeanContext}, so it doesn't cause bean lifecycle events to be created.
+ * <p/>
+ * Instances are bound to a single {@link ExecutionContext} and are not thread-safe.  Use
+ * {@link FreeMarkerUtils#getTemplateModel(ExecutionContext)} to get the model for an {@link ExecutionContext}.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class FreeMarkerContextModel implements TemplateHashModelEx {
+
+    private final ExecutionContext executionContext;
+    private final ObjectWrapper objectWrapper;
+    private final Map<String, CachedModel> beanModels = new HashMap<String, CachedModel>();
+    private final Map<String, CachedModel> domModels = new HashMap<String, CachedModel>();
+    private BeanContext beanContext;
+
+    /**
+     * Public constructor.
+     * @param executionContext The execution context.
+     * @param objectWrapper The FreeMarker {@link ObjectWrapper} used to wrap the beans.
+     */
+    public FreeMarkerContextModel(ExecutionContext executionContext, ObjectWrapper objectWrapper) {
+        AssertArgument.isNotNull(executionContext, "executionContext");
+        AssertArgument.isNotNull(objectWrapper, "objectWrapper");
+        this.executionContext = executionContext;
+        this.objectWrapper = objectWrapper;
+    }
+
+    public TemplateModel get(String key) throws TemplateModelException {
+        Map<String, Element> elements = DOMModel.getModel(executionContext).getModels();
+
+        if(!elements.isEmpty()) {
+            Element element = elements.get(key);
+            if(element != null) {
+                return getNodeModel(key, element);
+            }
+        }
+
+        Object bean = getBeanContext().getBean(key);
+        if(bean == null) {
+            return null;
+        }
+
+        return getBeanModel(key, bean);
+    }
+
+    public int size() throws TemplateModelException {
+        return getKeys().size();
+    }
+
+    public boolean isEmpty() throws TemplateModelException {
+        return DOMModel.getModel(executionContext).getModels().isEmpty() && getBeanContext().getBeanMap().isEmpty();
+    }
+
+    public TemplateCollectionModel keys() throws TemplateModelException {
+        return new SimpleCollection(getKeys(), objectWrapper);
+    }
+
+    public TemplateCollectionModel values() throws TemplateModelException {
+        Set<String> keys = getKeys();
+        List<TemplateModel> values = new ArrayList<TemplateModel>(keys.size());
+
+        for(String key : keys) {
+            values.add(get(key));
+        }
+
+        return new SimpleCollection(values, objectWrapper);
+    }
+
+    private Set<String> getKeys() {
+        Set<String> keys = new LinkedHashSet<String>();
+
+        keys.addAll(DOMModel.getModel(executionContext).getModels().keySet());
+        for(Map.Entry<String, Object> bean : getBeanContext().getBeanMap().entrySet()) {
+            if(bean.getValue() != null) {
+                keys.add(bean.getKey());
+            }
+        }
+
+        return keys;
+    }
+
+    private TemplateModel getNodeModel(String key, Element element) {
+        CachedModel cachedModel = domModels.get(key);
+
+        if(cachedModel == null || cachedModel.source != element) {
+            // New element with the same name...
+            cachedModel = new CachedModel(element, NodeModel.wrap(element));
+            domModels.put(key, cachedModel);
+        }
+
+        return cachedModel.model;
+    }
+
+    private TemplateModel getBeanModel(String key, Object bean) throws TemplateModelException {
+        CachedModel cachedModel = beanModels.get(key);
+
+        if(cachedModel == null || cachedModel.source != bean) {
+            cachedModel = new CachedModel(bean, objectWrapper.wrap(bean));
+            beanModels.put(key, cachedModel);
+        }
+
+        return cachedModel.model;
+    }
+
+    private BeanContext getBeanContext() {
+        BeanContext currentBeanContext = executionContext.getBeanContext();
+
+        if(currentBeanContext != beanContext) {
+            // First access, or the BeanContext has been swapped on the ExecutionContext...
+            beanModels.clear();
+            beanContext = currentBeanContext;
+        }
+
+        return currentBeanContext;
+    }
+
+    private static class CachedModel {
+        private final Object source;
+        private final TemplateModel model;
+
+        private CachedModel(Object source, TemplateModel model) {
+            this.source = source;
+            this.model = model;
+        }
+    }
+}
@@ -43,6 +43,9 @@
 package org.smooks.util;
 
 import freemarker.ext.dom.NodeModel;
+import freemarker.template.Configuration;
+import freemarker.template.DefaultObjectWrapperBuilder;
+import freemarker.template.ObjectWrapper;
 import org.smooks.container.ExecutionContext;
 import org.smooks.delivery.DOMModel;
 import org.smooks.javabean.context.BeanContext;
@@ -58,6 +61,30 @@ import java.util.Set;
  */
 public abstract class FreeMarkerUtils {
 
+    private static final ObjectWrapper DEFAULT_OBJECT_WRAPPER = new DefaultObjectWrapperBuilder(Configuration.VERSION_2_3_30).build();
+
+    /**
+     * Get the live FreeMarker templating model for the supplied {@link ExecutionContext}.
+     * <p/>
+     * The model is a read-through view onto the {@link BeanContext} and {@link DOMModel}
+     * associated with the {@link ExecutionContext}.  Unlike {@link #getMergedModel(ExecutionContext)},
+     * nothing is copied, so the same model instance can be used for every template application in
+     * the execution (see {@link FreeMarkerContextModel}).
+     *
+     * @param executionContext The current execution context.
+     * @return The templating model.
+     */
+    public static FreeMarkerContextModel getTemplateModel(ExecutionContext executionContext) {
+        FreeMarkerContextModel model = (FreeMarkerContextModel) executionContext.getAttribute(FreeMarkerContextModel.class);
+
+        if(model == null) {
+            model = new FreeMarkerContextModel(executionContext, DEFAULT_OBJECT_WRAPPER);
+            executionContext.setAttribute(FreeMarkerContextModel.class, model);
+        }
+
+        return model;
+    }
+
     /**
      * Get a "merged" model for FreeMarker templating.
      * <p/>
@@ -66,6 +93,10 @@ public abstract class FreeMarkerUtils {
      * current {@link ExecutionContext}, with the contents of the {@link DOMModel}
      * associated with the current {@link ExecutionContext}.  This is very useful
      * for templating with FreeMarker.
+     * <p/>
+     * The beans are copied into a new {@link Map} on every call if the {@link DOMModel} is not empty.
+     * Prefer {@link #getTemplateModel(ExecutionContext)} when the model is used for repeated template
+     * applications.
      *
      * @param executionContext The current execution context.
      * @return A merged templating model.
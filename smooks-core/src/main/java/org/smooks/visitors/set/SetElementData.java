@@ -215,7 +215,7 @@ public class SetElementData extends DefaultSAXElementSerializer implements DOMVi
         }
 
         if(!attributes.isEmpty()) {
-            Map<String, Object> beans = Filter.getCurrentExecutionContext().getBeanContext().getBeanMap();
+            Map<String, Object> beans = executionContext.getBeanContext().getBeanMap();
             Set<Map.Entry<QName, FreeMarkerTemplate>> attributeSet = attributes.entrySet();
 
             for(Map.Entry<QName, FreeMarkerTemplate> attributeConfig : attributeSet) {
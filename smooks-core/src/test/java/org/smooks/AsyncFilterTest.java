@@ -0,0 +1,308 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks;
+
+import org.junit.Test;
+import org.smooks.container.ExecutionContext;
+import org.smooks.delivery.sax.SAXElement;
+import org.smooks.delivery.sax.SAXVisitBefore;
+import org.smooks.payload.StringResult;
+import org.smooks.payload.StringSource;
+
+import javax.xml.transform.Result;
+import javax.xml.transform.Source;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class AsyncFilterTest {
+
+    @Test
+    public void test_filterAsync() throws Exception {
+        Smooks smooks = new Smooks();
+        List<CompletableFuture<ExecutionContext>> futures = new ArrayList<CompletableFuture<ExecutionContext>>();
+        List<StringResult> results = new ArrayList<StringResult>();
+
+        smooks.setFilterSettings(FilterSettings.newSAXSettings());
+        smooks.setMaxInFlightFilters(4);
+        try {
+            for(int i = 0; i < 50; i++) {
+                StringResult result = new StringResult();
+                results.add(result);
+                futures.add(smooks.filterAsync(new StringSource("<a><b>" + i + "</b></a>"), result));
+            }
+            for(int i = 0; i < 50; i++) {
+                assertNotNull(futures.get(i).get(10, TimeUnit.SECONDS));
+                assertEquals("<a><b>" + i + "</b></a>", results.get(i).getResult());
+            }
+
+            AsyncFilterMetrics metrics = smooks.getAsyncFilterMetrics();
+            assertEquals(50, metrics.getSubmittedCount());
+            assertEquals(50, metrics.getCompletedCount());
+            assertEquals(0, metrics.getFailedCount());
+            assertEquals(0, metrics.getInFlightCount());
+            assertTrue(metrics.getPeakInFlightCount() <= 4);
+        } finally {
+            smooks.close();
+        }
+    }
+
+    @Test
+    public void test_filterAsync_failure() throws Exception {
+        Smooks smooks = new Smooks();
+
+        smooks.addVisitor(new FailingVisitor(), "b");
+        try {
+            smooks.filterAsync(new StringSource("<a><b/></a>"), new StringResult()).get(10, TimeUnit.SECONDS);
+            fail("Expected ExecutionException");
+        } catch(ExecutionException e) {
+            assertTrue(e.getCause() instanceof SmooksException);
+            assertEquals(1, smooks.getAsyncFilterMetrics().getFailedCount());
+        } finally {
+            smooks.close();
+        }
+    }
+
+    @Test
+    public void test_backpressure() throws Exception {
+        final Smooks smooks = new Smooks();
+        final BlockingVisitor visitor = new BlockingVisitor();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        smooks.addVisitor(visitor, "a");
+        smooks.setAsyncFilterExecutor(executor);
+        smooks.setMaxInFlightFilters(2);
+        try {
+            smooks.filterAsync(new StringSource("<a/>"));
+            smooks.filterAsync(new StringSource("<a/>"));
+
+            Thread submitter = new Thread() {
+                public void run() {
+                    smooks.filterAsync(new StringSource("<a/>"));
+                }
+            };
+            submitter.start();
+
+            AsyncFilterMetrics metrics = smooks.getAsyncFilterMetrics();
+            long timeout = System.currentTimeMillis() + 10000;
+            while(metrics.getWaitingCount() == 0 && System.currentTimeMillis() < timeout) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, metrics.getWaitingCount());
+            assertEquals(2, metrics.getInFlightCount());
+
+            visitor.release.countDown();
+            submitter.join(10000);
+            assertFalse(submitter.isAlive());
+        } finally {
+            visitor.release.countDown();
+            executor.shutdown();
+            smooks.close();
+        }
+    }
+
+    @Test
+    public void test_filterBatch() throws Exception {
+        Smooks smooks = new Smooks();
+        final List<StringResult> results = new ArrayList<StringResult>();
+        CountingVisitor visitor = new CountingVisitor();
+
+        for(int i = 0; i < 100; i++) {
+            results.add(new StringResult());
+        }
+        smooks.addVisitor(visitor, "b");
+        smooks.setMaxInFlightFilters(3);
+        try {
+            Stream<StringSource> sources = IntStream.range(0, 100).mapToObj(new IntFunction<StringSource>() {
+                public StringSource apply(int i) {
+                    return new IndexedSource(i);
+                }
+            });
+            CompletableFuture<Long> batch = smooks.filterBatch(sources, new Function<Source, Result[]>() {
+                public Result[] apply(Source source) {
+                    return new Result[] {results.get(((IndexedSource) source).index)};
+                }
+            });
+
+            assertEquals(Long.valueOf(100), batch.get(10, TimeUnit.SECONDS));
+            assertEquals(100, visitor.count.get());
+            for(int i = 0; i < 100; i++) {
+                assertEquals("<a><b>" + i + "</b></a>", results.get(i).getResult());
+            }
+            assertEquals(100, smooks.getAsyncFilterMetrics().getCompletedCount());
+            assertTrue(smooks.getAsyncFilterMetrics().getPeakInFlightCount() <= 3);
+        } finally {
+            smooks.close();
+        }
+    }
+
+    @Test
+    public void test_filterBatch_failure() throws Exception {
+        Smooks smooks = new Smooks();
+
+        smooks.addVisitor(new FailingVisitor(), "b");
+        try {
+            smooks.filterBatch(Stream.of(new StringSource("<a/>"), new StringSource("<a><b/></a>"))).get(10, TimeUnit.SECONDS);
+            fail("Expected ExecutionException");
+        } catch(ExecutionException e) {
+            assertTrue(e.getCause() instanceof SmooksException);
+        } finally {
+            smooks.close();
+        }
+    }
+
+    @Test
+    public void test_configure_after_submit() throws Exception {
+        Smooks smooks = new Smooks();
+
+        try {
+            smooks.filterAsync(new StringSource("<a/>")).get(10, TimeUnit.SECONDS);
+            smooks.setMaxInFlightFilters(10);
+            fail("Expected UnsupportedOperationException");
+        } catch(UnsupportedOperationException e) {
+            // expected
+        } finally {
+            smooks.close();
+        }
+    }
+
+    @Test
+    public void test_configure_after_getAsyncFilterMetrics() throws Exception {
+        Smooks smooks = new Smooks();
+
+        try {
+            AsyncFilterMetrics metrics = smooks.getAsyncFilterMetrics();
+            assertEquals(0, metrics.getSubmittedCount());
+
+            smooks.setMaxInFlightFilters(10);
+            smooks.filterAsync(new StringSource("<a/>")).get(10, TimeUnit.SECONDS);
+            assertSame(metrics, smooks.getAsyncFilterMetrics());
+            assertEquals(1, metrics.getCompletedCount());
+        } finally {
+            smooks.close();
+        }
+    }
+
+    @Test
+    public void test_filterBatch_in_flight_limit() throws Exception {
+        Smooks smooks = new Smooks();
+        BlockingVisitor visitor = new BlockingVisitor();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        smooks.addVisitor(visitor, "a");
+        smooks.setAsyncFilterExecutor(executor);
+        smooks.setMaxInFlightFilters(2);
+        try {
+            CompletableFuture<ExecutionContext> single = smooks.filterAsync(new StringSource("<a/>"));
+            CompletableFuture<Long> batch = smooks.filterBatch(Stream.of(new StringSource("<a/>"), new StringSource("<a/>"), new StringSource("<a/>")));
+
+            AsyncFilterMetrics metrics = smooks.getAsyncFilterMetrics();
+            long timeout = System.currentTimeMillis() + 10000;
+            while(metrics.getInFlightCount() < 2 && System.currentTimeMillis() < timeout) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(100);
+            assertEquals(2, metrics.getInFlightCount());
+
+            visitor.release.countDown();
+            single.get(10, TimeUnit.SECONDS);
+            assertEquals(Long.valueOf(3), batch.get(10, TimeUnit.SECONDS));
+            assertEquals(2, metrics.getPeakInFlightCount());
+        } finally {
+            visitor.release.countDown();
+            executor.shutdown();
+            smooks.close();
+        }
+    }
+
+    private static class IndexedSource extends StringSource {
+        private final int index;
+
+        private IndexedSource(int index) {
+            super("<a><b>" + index + "</b></a>");
+            this.index = index;
+        }
+    }
+
+    private static class FailingVisitor implements SAXVisitBefore {
+        public void visitBefore(SAXElement element, ExecutionContext executionContext) throws SmooksException, IOException {
+            throw new SmooksException("Failed.");
+        }
+    }
+
+    private static class CountingVisitor implements SAXVisitBefore {
+        private final AtomicInteger count = new AtomicInteger();
+
+        public void visitBefore(SAXElement element, ExecutionContext executionContext) throws SmooksException, IOException {
+            count.incrementAndGet();
+        }
+    }
+
+    private static class BlockingVisitor implements SAXVisitBefore {
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        public void visitBefore(SAXElement element, ExecutionContext executionContext) throws SmooksException, IOException {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new SmooksException("Interrupted.", e);
+            }
+        }
+    }
+}
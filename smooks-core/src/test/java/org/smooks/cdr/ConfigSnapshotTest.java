@@ -0,0 +1,213 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.cdr;
+
+import org.junit.Test;
+import org.smooks.Smooks;
+import org.smooks.delivery.condition.TestExecutionContextExpressionEvaluator;
+import org.smooks.io.StreamUtils;
+import org.w3c.dom.Element;
+import org.xml.sax.SAXException;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class ConfigSnapshotTest {
+
+    @Test
+    public void test_write_and_restore() throws IOException, SAXException {
+        File snapshotDir = Files.createTempDirectory("smooks-snapshots").toFile();
+
+        Smooks smooks = new Smooks();
+        smooks.addConfigurations("/org/smooks/cdr/testconfig3.cdrl", snapshotDir);
+        assertResourceConfigOK(getLastList(smooks));
+
+        File[] snapshots = snapshotDir.listFiles();
+        assertEquals(1, snapshots.length);
+        assertTrue(snapshots[0].getName().endsWith(ConfigSnapshot.FILE_EXTENSION));
+        long lastModified = snapshots[0].lastModified();
+
+        // Second time around, the list is restored from the snapshot...
+        Smooks restored = new Smooks();
+        restored.addConfigurations("/org/smooks/cdr/testconfig3.cdrl", snapshotDir);
+        SmooksResourceConfigurationList restoredList = getLastList(restored);
+        assertResourceConfigOK(restoredList);
+        assertEquals(1, restoredList.getSourceResourceURIs().size());
+        assertEquals(1, snapshotDir.listFiles().length);
+        assertEquals(lastModified, snapshots[0].lastModified());
+    }
+
+    @Test
+    public void test_conditions_profiles_and_params() throws IOException, SAXException, URISyntaxException {
+        byte[] config = ("<smooks-resource-list xmlns=\"https://www.smooks.org/xsd/smooks-1.2.xsd\">\n" +
+                "    <profiles>\n" +
+                "        <profile base-profile=\"profileA\" sub-profiles=\"profile1,profile2\" />\n" +
+                "    </profiles>\n" +
+                "    <resource-config selector=\"a\" target-profile=\"profileA\">\n" +
+                "        <resource>org.smooks.delivery.SAXAndDOMVisitor</resource>\n" +
+                "        <condition evaluator=\"" + TestExecutionContextExpressionEvaluator.class.getName() + "\">true</condition>\n" +
+                "        <param name=\"p1\" type=\"bool\">true</param>\n" +
+                "        <param name=\"p2\"><mapping name=\"m\"/></param>\n" +
+                "        <param name=\"p2\">second</param>\n" +
+                "    </resource-config>\n" +
+                "</smooks-resource-list>").getBytes("UTF-8");
+        SmooksResourceConfigurationList configList = XMLConfigDigester.digestConfig(new ByteArrayInputStream(config), "./");
+        String key = ConfigSnapshot.createKey("./", config);
+        File snapshotFile = new File(Files.createTempDirectory("smooks-snapshots").toFile(), "config" + ConfigSnapshot.FILE_EXTENSION);
+
+        assertTrue(ConfigSnapshot.write(configList, key, snapshotFile));
+        assertNull(ConfigSnapshot.read(snapshotFile, ConfigSnapshot.createKey("../", config)));
+
+        SmooksResourceConfigurationList restoredList = ConfigSnapshot.read(snapshotFile, key);
+        assertNotNull(restoredList);
+
+        assertEquals(1, restoredList.getProfiles().size());
+        assertEquals("profileA", restoredList.getProfiles().get(0).getBaseProfile());
+        assertTrue(restoredList.getProfiles().get(0).isMember("profile2"));
+
+        assertEquals(1, restoredList.size());
+        SmooksResourceConfiguration resourceConfig = restoredList.get(0);
+        assertEquals("a", resourceConfig.getSelector());
+        assertEquals("profileA", resourceConfig.getTargetProfile());
+        assertEquals("org.smooks.delivery.SAXAndDOMVisitor", resourceConfig.getResource());
+        assertTrue(resourceConfig.getConditionEvaluator() instanceof TestExecutionContextExpressionEvaluator);
+        assertEquals("true", resourceConfig.getConditionEvaluator().getExpression());
+        assertEquals("bool", resourceConfig.getParameter("p1").getType());
+
+        List<?> p2 = resourceConfig.getParameters("p2");
+        assertEquals(2, p2.size());
+        assertEquals("second", ((Parameter) p2.get(1)).getValue());
+
+        Element mapping = (Element) ((Parameter) p2.get(0)).getXml().getElementsByTagNameNS("https://www.smooks.org/xsd/smooks-1.2.xsd", "mapping").item(0);
+        assertNotNull(mapping);
+        assertEquals("m", mapping.getAttribute("name"));
+    }
+
+    @Test
+    public void test_stale_import() throws IOException, SAXException {
+        File configDir = Files.createTempDirectory("smooks-config").toFile();
+        File snapshotDir = new File(configDir, "snapshots");
+        File importFile = new File(configDir, "import.xml");
+        File mainFile = new File(configDir, "main.xml");
+
+        writeFile(mainFile, "<smooks-resource-list xmlns=\"https://www.smooks.org/xsd/smooks-1.2.xsd\">\n" +
+                "    <import file=\"import.xml\" />\n" +
+                "</smooks-resource-list>");
+        writeFile(importFile, "<smooks-resource-list xmlns=\"https://www.smooks.org/xsd/smooks-1.2.xsd\">\n" +
+                "    <resource-config selector=\"a\"><resource type=\"txt\">v1</resource></resource-config>\n" +
+                "</smooks-resource-list>");
+
+        Smooks smooks = new Smooks();
+        smooks.addConfigurations(mainFile.toURI().toString(), snapshotDir);
+        assertEquals("v1", getLastList(smooks).get(0).getResource());
+        assertEquals(1, snapshotDir.listFiles().length);
+
+        // Change the import.  The snapshot (same key, as the main config is unchanged) must not be used...
+        writeFile(importFile, "<smooks-resource-list xmlns=\"https://www.smooks.org/xsd/smooks-1.2.xsd\">\n" +
+                "    <resource-config selector=\"a\"><resource type=\"txt\">v2</resource></resource-config>\n" +
+                "</smooks-resource-list>");
+
+        InputStream mainStream = mainFile.toURI().toURL().openStream();
+        try {
+            String key = ConfigSnapshot.createKey(configDir.toURI().toString(), StreamUtils.readStream(mainStream));
+            assertNull(ConfigSnapshot.read(ConfigSnapshot.getSnapshotFile(snapshotDir, key), key));
+        } finally {
+            mainStream.close();
+        }
+
+        smooks = new Smooks();
+        smooks.addConfigurations(mainFile.toURI().toString(), snapshotDir);
+        assertEquals("v2", getLastList(smooks).get(0).getResource());
+    }
+
+    private SmooksResourceConfigurationList getLastList(Smooks smooks) {
+        Iterator<SmooksResourceConfigurationList> listIt = smooks.getApplicationContext().getStore().getSmooksResourceConfigurationLists();
+        SmooksResourceConfigurationList list = null;
+
+        while(listIt.hasNext()) {
+            list = listIt.next();
+        }
+
+        return list;
+    }
+
+    private void assertResourceConfigOK(SmooksResourceConfigurationList resList) {
+        assertEquals(3, resList.size());
+
+        assertEquals("a", resList.get(0).getSelector());
+        assertEquals("xxx", resList.get(0).getProfileTargetingExpressions()[0].getExpression());
+        assertEquals("x.txt", resList.get(0).getResource());
+        assertEquals("https://www.smooks.org", resList.get(0).getSelectorNamespaceURI());
+
+        assertEquals("b", resList.get(1).getSelector());
+        assertEquals("yyy", resList.get(1).getProfileTargetingExpressions()[0].getExpression());
+        assertEquals("ytext", resList.get(1).getResourceType());
+        assertEquals("https://www.smooks.org-default", resList.get(1).getSelectorNamespaceURI());
+        assertEquals("param1Val", resList.get(1).getStringParameter("param1"));
+        assertEquals(true, resList.get(1).getBoolParameter("param2", false));
+
+        assertEquals("abc", resList.get(2).getResourceType());
+        assertEquals("Howya", new String(resList.get(2).getBytes()));
+    }
+
+    private void writeFile(File file, String content) throws IOException {
+        FileOutputStream output = new FileOutputStream(file);
+        try {
+            output.write(content.getBytes("UTF-8"));
+        } finally {
+            output.close();
+        }
+    }
+}
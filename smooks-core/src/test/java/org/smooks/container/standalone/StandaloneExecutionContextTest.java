@@ -50,7 +50,9 @@ import org.junit.Before;
 import org.junit.Test;
 import org.smooks.Smooks;
 import org.smooks.SmooksUtil;
+import org.smooks.container.ExecutionContext;
 import org.smooks.profile.DefaultProfileSet;
+import org.smooks.profile.UnknownProfileMemberException;
 
 /**
  * Unit test for {@link StandaloneExecutionContext}
@@ -74,6 +76,33 @@ public class StandaloneExecutionContextTest
         assertTrue( attributes.contains( value ) );
 	}
 	
+	@Test
+	public void createFromTemplate()
+	{
+        Smooks smooks = new Smooks();
+        SmooksUtil.registerProfileSet(DefaultProfileSet.create("device1", new String[] {"profile1"}), smooks);
+
+        ExecutionContext context1 = smooks.createExecutionContext( "device1" );
+        ExecutionContext context2 = smooks.createExecutionContext( "device1" );
+
+        assertNotSame( context1, context2 );
+        assertSame( context1.getDeliveryConfig(), context2.getDeliveryConfig() );
+        assertSame( context1.getTargetProfiles(), context2.getTargetProfiles() );
+        assertTrue( context1.getTargetProfiles().isMember( "profile1" ) );
+        assertEquals( "UTF-8", context2.getContentEncoding() );
+        assertTrue( context2.isDefaultSerializationOn() );
+
+        context1.setAttribute( "testKey", "testValue" );
+        assertNull( context2.getAttribute( "testKey" ) );
+
+        try {
+            smooks.createExecutionContext( "device2" );
+            fail( "Expected UnknownProfileMemberException" );
+        } catch ( UnknownProfileMemberException e ) {
+            // expected
+        }
+	}
+
 	@Before
 	public void setup()
 	{
@@ -0,0 +1,291 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.db;
+
+import org.hsqldb.jdbcDriver;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import org.smooks.Smooks;
+import org.smooks.payload.StringSource;
+import org.smooks.util.HsqlServer;
+
+import java.io.ByteArrayInputStream;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * Unit test for {@link PooledDataSource}.
+ *
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class PooledDataSourceTest {
+
+    private HsqlServer hsqlServer;
+
+    @Before
+    public void setUp() throws Exception {
+        hsqlServer = new HsqlServer(9335);
+        hsqlServer.execScript(new ByteArrayInputStream("drop table pooled_test if exists; create table pooled_test (val varchar(20));".getBytes()));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        hsqlServer.stop();
+    }
+
+    @Test
+    public void test_filter_lifecycle() throws Exception {
+        Smooks smooks = new Smooks(getClass().getResourceAsStream("pooled-ds-lifecycle.xml"));
+
+        try {
+            for (int i = 0; i < 5; i++) {
+                smooks.filterSource(new StringSource("<a v='" + i + "'/>"));
+            }
+        } finally {
+            smooks.close();
+        }
+
+        // All inserts committed...
+        assertEquals(5, countRows());
+    }
+
+    @Test
+    public void test_pooling_and_statement_cache() throws SQLException {
+        PooledDataSource dataSource = newDataSource(600000);
+
+        for (int i = 0; i < 5; i++) {
+            Connection connection = dataSource.getConnection();
+            PreparedStatement statement = connection.prepareStatement("insert into pooled_test (val) values (?)");
+
+            statement.setString(1, "v" + i);
+            statement.executeUpdate();
+            statement.close();
+            assertTrue(statement.isClosed());
+            connection.close();
+            assertTrue(connection.isClosed());
+        }
+
+        ConnectionPoolMetrics metrics = dataSource.getMetrics();
+        assertEquals(5, countRows());
+        assertEquals(1, metrics.getCreatedCount());
+        assertEquals(5, metrics.getBorrowCount());
+        assertEquals(1, metrics.getStatementCacheMisses());
+        assertEquals(4, metrics.getStatementCacheHits());
+        assertEquals(0, metrics.getActiveCount());
+        assertEquals(1, metrics.getIdleCount());
+
+        dataSource.closePool();
+        assertEquals(0, metrics.getIdleCount());
+        assertEquals(1, metrics.getDestroyedCount());
+    }
+
+    @Test
+    public void test_max_pool_size() throws SQLException {
+        PooledDataSource dataSource = newDataSource(600000);
+        Connection connection1 = dataSource.getConnection();
+        Connection connection2 = dataSource.getConnection();
+
+        assertNotSame(connection1, connection2);
+        assertEquals(2, dataSource.getMetrics().getActiveCount());
+        try {
+            dataSource.getConnection();
+            fail("Expected SQLException");
+        } catch (SQLException e) {
+            assertEquals("Timed out waiting 100ms for a connection from the pool for DataSource 'pooledDS'.  Pool max size is 2.", e.getMessage());
+        }
+        assertEquals(1, dataSource.getMetrics().getTimeoutCount());
+        assertEquals(0, dataSource.getMetrics().getWaitingCount());
+
+        connection1.close();
+        try {
+            connection1.createStatement();
+            fail("Expected SQLException");
+        } catch (SQLException e) {
+            assertEquals("Connection is closed (returned to the pool for DataSource 'pooledDS').", e.getMessage());
+        }
+
+        Connection connection3 = dataSource.getConnection();
+        assertEquals(2, dataSource.getMetrics().getCreatedCount());
+
+        connection2.close();
+        connection3.close();
+        dataSource.closePool();
+        assertEquals(2, dataSource.getMetrics().getDestroyedCount());
+    }
+
+    @Test
+    public void test_idle_timeout() throws Exception {
+        PooledDataSource dataSource = newDataSource(1);
+
+        Connection connection1 = dataSource.getConnection();
+        Connection connection2 = dataSource.getConnection();
+        connection1.close();
+        Thread.sleep(10);
+        connection2.close();
+
+        // connection1 was idle beyond the timeout when connection2 was returned...
+        assertEquals(1, dataSource.getMetrics().getIdleCount());
+        assertEquals(1, dataSource.getMetrics().getDestroyedCount());
+        dataSource.closePool();
+    }
+
+    @Test
+    public void test_fill_failure_closes_opened_connections() throws SQLException {
+        PooledDataSource dataSource = new PooledDataSource();
+
+        FailingDriver.reset(3);
+        dataSource.setName("pooledDS");
+        dataSource.setDriver(FailingDriver.class);
+        dataSource.setUrl(FailingDriver.URL_PREFIX + hsqlServer.getUrl());
+        dataSource.setUsername(hsqlServer.getUsername());
+        dataSource.setPassword(hsqlServer.getPassword());
+        dataSource.setMinPoolSize(4).setMaxPoolSize(4);
+        try {
+            dataSource.registerDriver();
+            fail("Expected SQLException");
+        } catch (SQLException e) {
+            assertEquals("Connect 3 failed.", e.getMessage());
+        }
+
+        // The 2 connections opened before the failure are closed...
+        assertEquals(2, FailingDriver.connections.size());
+        for (Connection connection : FailingDriver.connections) {
+            assertTrue(connection.isClosed());
+        }
+        assertEquals(2, dataSource.getMetrics().getCreatedCount());
+        assertEquals(2, dataSource.getMetrics().getDestroyedCount());
+        assertEquals(0, dataSource.getMetrics().getIdleCount());
+    }
+
+    private PooledDataSource newDataSource(long idleTimeout) throws SQLException {
+        PooledDataSource dataSource = new PooledDataSource();
+
+        dataSource.setName("pooledDS");
+        dataSource.setDriver(jdbcDriver.class);
+        dataSource.setUrl(hsqlServer.getUrl());
+        dataSource.setUsername(hsqlServer.getUsername());
+        dataSource.setPassword(hsqlServer.getPassword());
+        dataSource.setMaxPoolSize(2).setMaxWait(100).setIdleTimeout(idleTimeout).setStatementCacheSize(10).setValidationQuery("select count(*) from pooled_test");
+        dataSource.registerDriver();
+
+        return dataSource;
+    }
+
+    /**
+     * Delegates to the HSQL driver, but fails on the Nth connect.
+     */
+    public static class FailingDriver implements Driver {
+
+        private static final String URL_PREFIX = "jdbc:failing:";
+        private static final List<Connection> connections = new ArrayList<Connection>();
+        private static int failOnConnect;
+
+        private static void reset(int failOnConnect) {
+            FailingDriver.failOnConnect = failOnConnect;
+            connections.clear();
+        }
+
+        public Connection connect(String url, Properties info) throws SQLException {
+            if(!acceptsURL(url)) {
+                return null;
+            }
+            if(connections.size() + 1 == failOnConnect) {
+                throw new SQLException("Connect " + failOnConnect + " failed.");
+            }
+
+            Connection connection = new jdbcDriver().connect(url.substring(URL_PREFIX.length()), info);
+            connections.add(connection);
+
+            return connection;
+        }
+
+        public boolean acceptsURL(String url) {
+            return url.startsWith(URL_PREFIX);
+        }
+
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+    }
+
+    private int countRows() throws SQLException {
+        Statement statement = hsqlServer.getConnection().createStatement();
+        try {
+            ResultSet resultSet = statement.executeQuery("select count(*) from pooled_test");
+            resultSet.next();
+            return resultSet.getInt(1);
+        } finally {
+            statement.close();
+        }
+    }
+}
@@ -47,6 +47,7 @@ import org.junit.Test;
 
 import org.apache.xerces.parsers.SAXParser;
 import org.smooks.container.ExecutionContext;
+import org.smooks.delivery.sax.SAXContentDeliveryConfig;
 import org.smooks.payload.StringSource;
 import org.smooks.FilterSettings;
 import org.smooks.GenericReaderConfigurator;
@@ -94,6 +95,12 @@ public class AbstractParserTest {
     	smooks.filterSource(new StringSource("<x/>"));
     	smooks.filterSource(new StringSource("<x/>"));    	
     	assertEquals(3, PooledSAXParser.numSetHandlerCalls);
+
+    	// The complete filter pipeline (reader + handler) is pooled...
+    	SAXContentDeliveryConfig deliveryConfig = (SAXContentDeliveryConfig) smooks.createExecutionContext().getDeliveryConfig();
+    	assertEquals(1, deliveryConfig.getFilterPipelinePool().getMissCount());
+    	assertEquals(2, deliveryConfig.getFilterPipelinePool().getHitCount());
+    	assertEquals(1, deliveryConfig.getFilterPipelinePool().getIdleCount());
     }
    
     @Test 
@@ -129,8 +136,8 @@ public class AbstractParserTest {
 			if(this != lastParserInstance) {
 				fail("Should only be 1 parser instanse (pooled).");
 			}
-			if(handler == lastHandlerInstance) {
-				fail("Shouldn't be just 1 handler instanse (pooled or unpooled).");
+			if(lastHandlerInstance != null && handler != lastHandlerInstance) {
+				fail("Should only be 1 handler instanse (pooled).");
 			}
 			numSetHandlerCalls++;
 			lastParserInstance = this;
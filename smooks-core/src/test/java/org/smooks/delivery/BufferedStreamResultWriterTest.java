@@ -0,0 +1,178 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.delivery;
+
+import org.junit.Test;
+import org.smooks.FilterSettings;
+import org.smooks.OutputFlushPolicy;
+import org.smooks.Smooks;
+import org.smooks.SmooksException;
+import org.smooks.container.ExecutionContext;
+import org.smooks.delivery.sax.SAXElement;
+import org.smooks.delivery.sax.SAXVisitBefore;
+
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class BufferedStreamResultWriterTest {
+
+    private static final String TEXT = "<a x=\"1\">ascii \u00e9\u00fc \u20ac \ud83d\ude00 \u4e2d\u6587</a>";
+    private static final String MESSAGE = "<a><b>1</b><b>2</b><c>3</c></a>";
+
+    @Test
+    public void test_encodings() throws IOException {
+        test_encoding("UTF-8");
+        test_encoding("ISO-8859-1");
+        test_encoding("US-ASCII");
+        test_encoding("UTF-16");
+    }
+
+    @Test
+    public void test_split_surrogate_pair() throws IOException {
+        FlushCountingOutputStream outputStream = new FlushCountingOutputStream();
+        Writer writer = new BufferedStreamResultWriter(outputStream, Charset.forName("UTF-8"), 16, false);
+
+        writer.write("x\ud83d");
+        writer.flush();
+        writer.write('\ude00');
+        writer.close();
+
+        assertEquals("x\ud83d\ude00", new String(outputStream.toByteArray(), "UTF-8"));
+    }
+
+    @Test
+    public void test_flush_on_full_buffer() throws IOException {
+        FlushCountingOutputStream outputStream = new FlushCountingOutputStream();
+        BufferedStreamResultWriter writer = new BufferedStreamResultWriter(outputStream, Charset.forName("UTF-8"), 16, true);
+
+        for(int i = 0; i < 10; i++) {
+            writer.write("0123456789");
+        }
+        // 100 bytes through a 16 byte buffer...
+        assertEquals(96, outputStream.size());
+        assertEquals(6, outputStream.flushCount);
+
+        writer.release();
+        assertEquals(100, outputStream.size());
+        assertEquals(6, outputStream.flushCount);
+    }
+
+    @Test
+    public void test_flush_policies() {
+        // The default policy only flushes at the end of the filter...
+        assertEquals(1, filter(new FilterSettings(org.smooks.StreamFilterType.SAX)));
+        assertEquals(1, filter(new FilterSettings(org.smooks.StreamFilterType.DOM)));
+        assertEquals(0, filter(new FilterSettings(org.smooks.StreamFilterType.SAX).setOutputFlushPolicy(OutputFlushPolicy.NEVER)));
+        // Once for each "b" fragment and again at the end of the filter...
+        assertEquals(3, filter(new FilterSettings(org.smooks.StreamFilterType.SAX).setOutputFlushSelector("b")));
+        assertEquals(5, filter(new FilterSettings(org.smooks.StreamFilterType.SAX).setOutputFlushPolicy(OutputFlushPolicy.ELEMENT)));
+    }
+
+    @Test
+    public void test_filter_error_releases_buffer() {
+        Smooks smooks = new Smooks();
+        FlushCountingOutputStream outputStream = new FlushCountingOutputStream();
+
+        smooks.setFilterSettings(FilterSettings.newSAXSettings().setCloseResult(false));
+        smooks.addVisitor(new SAXVisitBefore() {
+            public void visitBefore(SAXElement element, ExecutionContext executionContext) throws SmooksException, IOException {
+                throw new SmooksException("c failed");
+            }
+        }, "c");
+        try {
+            smooks.filterSource(new StreamSource(new StringReader(MESSAGE)), new StreamResult(outputStream));
+            fail("Expected SmooksException");
+        } catch (SmooksException e) {
+            // expected
+        }
+
+        // The output buffered before the failure is written when the buffer is released...
+        assertTrue(outputStream.toString().startsWith("<a><b>1</b><b>2</b>"));
+        assertEquals(0, outputStream.flushCount);
+    }
+
+    private int filter(FilterSettings filterSettings) {
+        Smooks smooks = new Smooks();
+        FlushCountingOutputStream outputStream = new FlushCountingOutputStream();
+
+        smooks.setFilterSettings(filterSettings.setCloseResult(false));
+        smooks.filterSource(new StreamSource(new StringReader(MESSAGE)), new StreamResult(outputStream));
+        assertEquals(MESSAGE, outputStream.toString());
+
+        return outputStream.flushCount;
+    }
+
+    private void test_encoding(String encoding) throws IOException {
+        FlushCountingOutputStream outputStream = new FlushCountingOutputStream();
+        Writer writer = new BufferedStreamResultWriter(outputStream, Charset.forName(encoding), 16, false);
+
+        writer.write(TEXT.toCharArray(), 0, 5);
+        writer.write(TEXT, 5, TEXT.length() - 5);
+        writer.write(TEXT);
+        for(int i = 0; i < TEXT.length(); i++) {
+            writer.write(TEXT.charAt(i));
+        }
+        writer.close();
+
+        byte[] expected = (TEXT + TEXT + TEXT).getBytes(encoding);
+        assertEquals(encoding, new String(expected, encoding), new String(outputStream.toByteArray(), encoding));
+    }
+
+    private static class FlushCountingOutputStream extends ByteArrayOutputStream {
+        private int flushCount;
+
+        public void flush() throws IOException {
+            flushCount++;
+        }
+    }
+}
@@ -51,10 +51,13 @@ import org.smooks.delivery.dom.DOMContentDeliveryConfig;
 import org.smooks.delivery.sax.SAXContentDeliveryConfig;
 import org.smooks.delivery.sax.SAXVisitor01;
 import org.smooks.io.StreamUtils;
+import org.smooks.profile.Profile;
+import org.smooks.profile.ProfileSet;
 import org.xml.sax.SAXException;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 
@@ -159,4 +162,31 @@ public class ContentDeliveryConfigBuilderTest {
             assertEquals(expected.toLowerCase(), actual.toLowerCase());
         }
     }
+
+	@Test
+    public void test_config_table() throws IOException, SAXException {
+        Smooks smooks = new Smooks(getClass().getResourceAsStream("smooks-config-sax.xml"));
+        ProfileSet profileSet = smooks.getApplicationContext().getProfileStore().getProfileSet(Profile.DEFAULT_PROFILE);
+        ContentDeliveryConfigTable configTable = ContentDeliveryConfigTable.getInstance(smooks.getApplicationContext());
+        VisitorConfigMap extendedVisitorConfigMap = new VisitorConfigMap(smooks.getApplicationContext());
+
+        assertNull(configTable.getMetrics(Profile.DEFAULT_PROFILE));
+
+        ContentDeliveryConfig config = ContentDeliveryConfigBuilder.getConfig(profileSet, smooks.getApplicationContext(), null);
+        assertSame(config, ContentDeliveryConfigBuilder.getConfig(profileSet, smooks.getApplicationContext(), null));
+        // The Smooks instance's own visitor config map is another key...
+        assertNotSame(config, smooks.createExecutionContext().getDeliveryConfig());
+
+        // A different extended visitor config map gets its own config...
+        ContentDeliveryConfig extendedConfig = ContentDeliveryConfigBuilder.getConfig(profileSet, smooks.getApplicationContext(), extendedVisitorConfigMap);
+        assertNotSame(config, extendedConfig);
+        assertSame(extendedConfig, ContentDeliveryConfigBuilder.getConfig(profileSet, smooks.getApplicationContext(), extendedVisitorConfigMap));
+
+        ContentDeliveryConfigMetrics metrics = configTable.getMetrics(Profile.DEFAULT_PROFILE);
+        assertEquals(Profile.DEFAULT_PROFILE, metrics.getProfile());
+        assertEquals(3, metrics.getMissCount());
+        assertEquals(2, metrics.getHitCount());
+        assertTrue(metrics.getBuildTime(TimeUnit.NANOSECONDS) > 0);
+        assertSame(metrics, configTable.getMetrics().get(Profile.DEFAULT_PROFILE));
+    }
 }
@@ -0,0 +1,208 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.delivery;
+
+import org.junit.Test;
+import org.smooks.FilterSettings;
+import org.smooks.Smooks;
+import org.smooks.SmooksException;
+import org.smooks.StreamFilterType;
+import org.smooks.container.ExecutionContext;
+import org.smooks.delivery.dom.DOMVisitAfter;
+import org.smooks.delivery.sax.SAXElement;
+import org.smooks.delivery.sax.SAXVisitAfter;
+import org.smooks.delivery.sax.annotation.TextConsumer;
+import org.smooks.xml.DocumentPool;
+import org.w3c.dom.Element;
+
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class DOMWindowVisitorTest {
+
+    private static final String MESSAGE = "<order id=\"1\"><header><customer>joe</customer></header><items><item qty=\"1\">a</item><item qty=\"2\">b<!--c--></item></items></order>";
+
+    @Test
+    public void test_dom_visitor_applied_to_windows() {
+        Smooks smooks = new Smooks();
+        UpperCaseVisitor visitor = new UpperCaseVisitor();
+
+        smooks.setFilterSettings(new FilterSettings().setDomWindows(true));
+        smooks.addVisitor(visitor, "item");
+
+        assertEquals("<order id=\"1\"><header><customer>joe</customer></header><items><item qty=\"1\" visited=\"true\">A</item><item qty=\"2\" visited=\"true\">B<!--c--></item></items></order>", filter(smooks));
+
+        // Each window only contains the "shell" ancestors and the current item...
+        assertEquals(2, visitor.fragmentSizes.size());
+        assertEquals(Integer.valueOf(1), visitor.fragmentSizes.get(0));
+        assertEquals(Integer.valueOf(1), visitor.fragmentSizes.get(1));
+        assertEquals("items", visitor.parentNames.get(0));
+    }
+
+    @Test
+    public void test_contextual_selector_and_sax_visitor() {
+        Smooks smooks = new Smooks();
+        SAXCustomerVisitor saxVisitor = new SAXCustomerVisitor();
+
+        smooks.setFilterSettings(new FilterSettings().setDomWindows(true));
+        smooks.addVisitor(new UpperCaseVisitor(), "order/header");
+        smooks.addVisitor(saxVisitor, "customer");
+
+        assertEquals("<order id=\"1\"><header visited=\"true\"><customer>JOE</customer></header><items><item qty=\"1\">a</item><item qty=\"2\">b<!--c--></item></items></order>", filter(smooks));
+        // The SAX visitor sees the element on the SAX stream, before the window is filtered...
+        assertEquals("joe", saxVisitor.text);
+    }
+
+    @Test
+    public void test_nested_targets_share_window() {
+        Smooks smooks = new Smooks();
+        UpperCaseVisitor itemsVisitor = new UpperCaseVisitor();
+        UpperCaseVisitor itemVisitor = new UpperCaseVisitor();
+
+        smooks.setFilterSettings(new FilterSettings().setDomWindows(true));
+        smooks.addVisitor(itemsVisitor, "items");
+        smooks.addVisitor(itemVisitor, "item");
+
+        filter(smooks);
+
+        // One window for "items", containing both items...
+        assertEquals(1, itemsVisitor.fragmentSizes.size());
+        assertEquals(2, itemVisitor.fragmentSizes.size());
+        assertEquals("order", itemsVisitor.parentNames.get(0));
+    }
+
+    @Test
+    public void test_root_window() {
+        Smooks smooks = new Smooks();
+
+        smooks.setFilterSettings(new FilterSettings().setDomWindows(true));
+        smooks.addVisitor(new UpperCaseVisitor(), "order");
+
+        assertEquals("<order id=\"1\" visited=\"true\"><header><customer>JOE</customer></header><items><item qty=\"1\">a</item><item qty=\"2\">b<!--c--></item></items></order>", filter(smooks));
+    }
+
+    @Test
+    public void test_document_recycling_opt_in() {
+        DocumentPool pool = DocumentPool.getInstance();
+        Smooks smooks = new Smooks();
+        long recycledBefore = pool.getRecycleCount();
+
+        smooks.setFilterSettings(new FilterSettings().setDomWindows(true));
+        smooks.addVisitor(new UpperCaseVisitor(), "item");
+        filter(smooks);
+
+        // Visitors may keep references to the window nodes, so the windows are not recycled by default...
+        assertEquals(recycledBefore, pool.getRecycleCount());
+
+        smooks = new Smooks();
+        smooks.setFilterSettings(new FilterSettings().setDomWindows(true).setRecycleDomWindowDocuments(true));
+        smooks.addVisitor(new UpperCaseVisitor(), "item");
+        filter(smooks);
+
+        assertEquals(recycledBefore + 2, pool.getRecycleCount());
+    }
+
+    @Test
+    public void test_dom_filter_type_not_allowed() {
+        Smooks smooks = new Smooks();
+
+        smooks.setFilterSettings(new FilterSettings().setDomWindows(true).setFilterType(StreamFilterType.DOM));
+        smooks.addVisitor(new UpperCaseVisitor(), "item");
+
+        try {
+            filter(smooks);
+            fail("Expected SmooksException");
+        } catch(SmooksException e) {
+            assertTrue(e.getMessage().contains(Filter.DOM_WINDOWS));
+        }
+    }
+
+    private String filter(Smooks smooks) {
+        StringWriter result = new StringWriter();
+        smooks.filterSource(new StreamSource(new StringReader(MESSAGE)), new StreamResult(result));
+        return result.toString();
+    }
+
+    private static class UpperCaseVisitor implements DOMVisitAfter {
+
+        private List<Integer> fragmentSizes = new ArrayList<Integer>();
+        private List<String> parentNames = new ArrayList<String>();
+
+        public void visitAfter(Element element, ExecutionContext executionContext) throws SmooksException {
+            fragmentSizes.add(element.getParentNode().getChildNodes().getLength());
+            parentNames.add(element.getParentNode().getNodeName());
+            element.setAttribute("visited", "true");
+            upperCaseText(element);
+        }
+
+        private void upperCaseText(Element element) {
+            if(element.getChildNodes().getLength() == 1 && element.getFirstChild() instanceof org.w3c.dom.Text) {
+                element.getFirstChild().setNodeValue(element.getFirstChild().getNodeValue().toUpperCase());
+            } else if(element.getFirstChild() instanceof Element) {
+                upperCaseText((Element) element.getFirstChild());
+            } else if(element.getFirstChild() != null) {
+                element.getFirstChild().setNodeValue(element.getFirstChild().getNodeValue().toUpperCase());
+            }
+        }
+    }
+
+    @TextConsumer
+    private static class SAXCustomerVisitor implements SAXVisitAfter {
+
+        private String text;
+
+        public void visitAfter(SAXElement element, ExecutionContext executionContext) throws SmooksException, IOException {
+            text = element.getTextContent();
+        }
+    }
+}
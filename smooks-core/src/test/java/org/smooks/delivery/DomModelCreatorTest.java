@@ -48,15 +48,22 @@ import org.junit.Test;
 import static org.junit.Assert.*;
 
 import org.smooks.Smooks;
+import org.smooks.SmooksException;
+import org.smooks.cdr.SmooksResourceConfiguration;
 import org.smooks.FilterSettings;
 import org.smooks.container.ExecutionContext;
+import org.smooks.delivery.sax.SAXElement;
+import org.smooks.delivery.sax.SAXVisitAfter;
 import org.smooks.io.StreamUtils;
+import org.smooks.xml.DocumentPool;
 import org.smooks.xml.XmlUtil;
 import org.xml.sax.SAXException;
 
 import javax.xml.transform.stream.StreamSource;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
@@ -276,4 +283,36 @@ public class DomModelCreatorTest {
                 XmlUtil.serialize(ModelCatcher.elements.get(1), true)));
     }
 
+
+	@Test
+    public void test_sax_recycle() throws IOException, SAXException {
+        Smooks smooks = new Smooks();
+        final List<String> orderItems = new ArrayList<String>();
+        DocumentPool pool = DocumentPool.getInstance();
+        long recycledBefore = pool.getRecycleCount();
+        long hitsBefore = pool.getHitCount();
+
+        SmooksResourceConfiguration config = new SmooksResourceConfiguration("order-item", DomModelCreator.class.getName());
+        config.setParameter("recycleDocuments", "true");
+        smooks.addConfiguration(config);
+        smooks.addVisitor(new SAXVisitAfter() {
+            public void visitAfter(SAXElement element, ExecutionContext executionContext) throws SmooksException, IOException {
+                orderItems.add(XmlUtil.serialize(DOMModel.getModel(executionContext).getModels().get("order-item"), false));
+            }
+        }, "order-item");
+        smooks.setFilterSettings(FilterSettings.DEFAULT_SAX);
+
+        ExecutionContext executionContext = smooks.createExecutionContext();
+        smooks.filterSource(executionContext, new StreamSource(getClass().getResourceAsStream("order-message.xml")), null);
+
+        // The model is available to the fragment's visitors...
+        assertEquals(2, orderItems.size());
+        assertTrue(orderItems.get(0).contains("<product>111</product>"));
+        assertTrue(orderItems.get(1).contains("<product>222</product>"));
+
+        // ... but is removed (and its Document recycled) at the end of the fragment visit...
+        assertNull(DOMModel.getModel(executionContext).getModels().get("order-item"));
+        assertEquals(recycledBefore + 2, pool.getRecycleCount());
+        assertTrue(pool.getHitCount() > hitsBefore);
+    }
 }
@@ -0,0 +1,137 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.delivery;
+
+import org.junit.Test;
+import org.smooks.FilterSettings;
+import org.smooks.Smooks;
+import org.smooks.cdr.SmooksResourceConfiguration;
+
+import javax.xml.transform.stream.StreamSource;
+import java.io.StringReader;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class VisitorMetricsTest {
+
+    private static final String MESSAGE = "<a><b/><b/><c/></a>";
+
+    @Test
+    public void test_disabled() {
+        Smooks smooks = new Smooks();
+
+        smooks.addVisitor(new SAXAndDOMVisitor(), "b");
+        smooks.filterSource(new StreamSource(new StringReader(MESSAGE)));
+        assertNull(smooks.getVisitorMetrics());
+
+        smooks.setVisitorMetricsEnabled(true);
+        assertNotNull(smooks.getVisitorMetrics());
+        smooks.setVisitorMetricsEnabled(false);
+        assertNull(smooks.getVisitorMetrics());
+    }
+
+    @Test
+    public void test_sax() {
+        test_filter(FilterSettings.DEFAULT_SAX);
+    }
+
+    @Test
+    public void test_dom() {
+        test_filter(FilterSettings.DEFAULT_DOM);
+    }
+
+    private void test_filter(FilterSettings filterSettings) {
+        Smooks smooks = new Smooks();
+
+        smooks.setFilterSettings(filterSettings);
+        SmooksResourceConfiguration bConfig = smooks.addVisitor(new SAXAndDOMVisitor(), "b");
+        SmooksResourceConfiguration cConfig = smooks.addVisitor(new SAXAndDOMVisitor(), "c");
+        smooks.setVisitorMetricsEnabled(true);
+
+        smooks.filterSource(new StreamSource(new StringReader(MESSAGE)));
+        smooks.filterSource(new StreamSource(new StringReader(MESSAGE)));
+
+        VisitorMetrics metrics = smooks.getVisitorMetrics();
+        assertEquals(2, metrics.getFilterCount());
+        assertTrue(metrics.getFilterNanos() > 0);
+        assertEquals(4, metrics.getResourceMetrics(bConfig).getTiming(VisitSequence.BEFORE).getCount());
+        assertEquals(4, metrics.getResourceMetrics(bConfig).getTiming(VisitSequence.AFTER).getCount());
+        assertEquals(2, metrics.getResourceMetrics(cConfig).getTiming(VisitSequence.BEFORE).getCount());
+        assertEquals(2, metrics.getResourceMetrics(cConfig).getTiming(VisitSequence.AFTER).getCount());
+
+        Map<String, Map<String, Long>> snapshot = metrics.getSnapshot();
+        assertEquals(2, snapshot.size());
+        Map<String, Long> bSnapshot = snapshot.get(bConfig.getResource() + " @ b");
+        assertNotNull(bSnapshot);
+        assertEquals(Long.valueOf(4), bSnapshot.get("visitBefore.count"));
+        assertEquals(Long.valueOf(0), bSnapshot.get("cleanup.count"));
+        assertTrue(bSnapshot.get("visitAfter.p99Nanos") <= bSnapshot.get("visitAfter.maxNanos"));
+
+        metrics.reset();
+        assertEquals(0, metrics.getFilterCount());
+        assertTrue(metrics.getSnapshot().isEmpty());
+    }
+
+    @Test
+    public void test_percentiles() {
+        VisitorMetrics.Timing timing = new VisitorMetrics().getResourceMetrics(new SmooksResourceConfiguration("x")).getTiming(VisitSequence.BEFORE);
+
+        assertEquals(0, timing.getPercentileNanos(0.5));
+        for(int i = 0; i < 99; i++) {
+            timing.record(100);
+        }
+        timing.record(5000);
+
+        assertEquals(100, timing.getCount());
+        assertEquals(14900, timing.getTotalNanos());
+        assertEquals(5000, timing.getMaxNanos());
+        // 100ns falls in the 64 - 127 bucket...
+        assertEquals(127, timing.getPercentileNanos(0.5));
+        assertEquals(127, timing.getPercentileNanos(0.99));
+        assertEquals(5000, timing.getPercentileNanos(1.0));
+    }
+}
@@ -0,0 +1,227 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.delivery.sax;
+
+import org.junit.Test;
+import org.smooks.FilterSettings;
+import org.smooks.Smooks;
+import org.smooks.SmooksException;
+import org.smooks.container.ExecutionContext;
+import org.smooks.delivery.Filter;
+import org.smooks.payload.StringResult;
+import org.smooks.payload.StringSource;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class ParallelRecordFilterTest {
+
+    @Test
+    public void test_output_order() {
+        String message = createMessage(500);
+        ItemVisitor sequentialVisitor = new ItemVisitor();
+        ItemVisitor parallelVisitor = new ItemVisitor();
+
+        String sequentialResult = filter(message, FilterSettings.newSAXSettings(), sequentialVisitor);
+        String parallelResult = filter(message, FilterSettings.newSAXSettings().setRecordSelector("orders/order").setRecordWorkers(4).setRecordMaxInFlight(8), parallelVisitor);
+
+        assertTrue(sequentialResult.contains("<item>{{0}}</item>"));
+        assertEquals(sequentialResult, parallelResult);
+        assertEquals(500, sequentialVisitor.count.get());
+        assertEquals(500, parallelVisitor.count.get());
+        assertFalse(parallelVisitor.threads.contains(Thread.currentThread().getName()));
+    }
+
+    @Test
+    public void test_selector_not_matched() {
+        String message = createMessage(10);
+        ItemVisitor visitor = new ItemVisitor();
+
+        String result = filter(message, FilterSettings.newSAXSettings().setRecordSelector("other/order"), visitor);
+
+        assertEquals(filter(message, FilterSettings.newSAXSettings(), new ItemVisitor()), result);
+        assertEquals(Collections.singleton(Thread.currentThread().getName()), visitor.threads);
+    }
+
+    @Test
+    public void test_record_error() {
+        Smooks smooks = new Smooks();
+
+        smooks.setFilterSettings(FilterSettings.newSAXSettings().setRecordSelector("order").setRecordWorkers(2));
+        smooks.addVisitor(new FailingVisitor(), "order");
+        try {
+            smooks.filterSource(new StringSource(createMessage(20)), new StringResult());
+            fail("Expected SmooksException");
+        } catch(SmooksException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void test_record_beans() {
+        Smooks smooks = new Smooks();
+        StringResult result = new StringResult();
+        RecordBeanVisitor recordVisitor = new RecordBeanVisitor();
+
+        smooks.setFilterSettings(FilterSettings.newSAXSettings().setRecordSelector("orders/order").setRecordWorkers(2));
+        smooks.addVisitor(new HeaderBeanVisitor(), "orders/header");
+        smooks.addVisitor(recordVisitor, "orders/order/item");
+        smooks.filterSource(new StringSource(createMessage(20)), result);
+
+        assertEquals(20, recordVisitor.count.get());
+        assertEquals(Collections.singleton("h"), recordVisitor.headers);
+        // Each record is filtered through its own Filter instance...
+        assertEquals(20, recordVisitor.filters.size());
+    }
+
+    @Test
+    public void test_worker_pool_shared() {
+        Smooks smooks = new Smooks();
+
+        smooks.setFilterSettings(FilterSettings.newSAXSettings().setRecordSelector("orders/order").setRecordWorkers(2));
+        smooks.addVisitor(new ItemVisitor(), "orders/order/item");
+        smooks.filterSource(new StringSource(createMessage(10)), new StringResult());
+
+        SAXContentDeliveryConfig deliveryConfig = (SAXContentDeliveryConfig) smooks.createExecutionContext().getDeliveryConfig();
+        RecordWorkerPool workerPool = deliveryConfig.getRecordWorkerPool(2);
+
+        smooks.filterSource(new StringSource(createMessage(10)), new StringResult());
+        assertSame(workerPool, deliveryConfig.getRecordWorkerPool(2));
+        assertNotSame(workerPool, deliveryConfig.getRecordWorkerPool(3));
+
+        smooks.close();
+        try {
+            workerPool.submit(new Callable<CharArrayWriter>() {
+                public CharArrayWriter call() {
+                    return null;
+                }
+            });
+            fail("Expected RejectedExecutionException");
+        } catch(RejectedExecutionException e) {
+            // expected
+        }
+    }
+
+    private String filter(String message, FilterSettings filterSettings, ItemVisitor visitor) {
+        Smooks smooks = new Smooks();
+        StringResult result = new StringResult();
+
+        smooks.setFilterSettings(filterSettings);
+        smooks.addVisitor(new VisitAfterWrittingVisitor(), "orders/order/item");
+        smooks.addVisitor(visitor, "orders/order/item");
+        smooks.filterSource(new StringSource(message), result);
+
+        return result.getResult();
+    }
+
+    private String createMessage(int records) {
+        StringBuilder message = new StringBuilder("<orders><header a=\"1\">h</header>\n");
+
+        for(int i = 0; i < records; i++) {
+            message.append("<order id=\"").append(i).append("\"><item>").append(i).append("</item>");
+            message.append("<!--c").append(i).append("--><note><![CDATA[<x>]]>&amp;</note></order>\n");
+        }
+        message.append("<footer/></orders>");
+
+        return message.toString();
+    }
+
+    private static class ItemVisitor implements SAXVisitAfter {
+
+        private final AtomicInteger count = new AtomicInteger();
+        private final Set<String> threads = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+        public void visitAfter(SAXElement element, ExecutionContext executionContext) throws SmooksException, IOException {
+            assertEquals("order", element.getParent().getName().getLocalPart());
+            count.incrementAndGet();
+            threads.add(Thread.currentThread().getName());
+        }
+    }
+
+    private static class HeaderBeanVisitor implements SAXVisitBefore, SAXVisitAfter {
+
+        public void visitBefore(SAXElement element, ExecutionContext executionContext) throws SmooksException, IOException {
+            element.accumulateText();
+        }
+
+        public void visitAfter(SAXElement element, ExecutionContext executionContext) throws SmooksException, IOException {
+            // A registered bean ID with no bean bound...
+            executionContext.getBeanContext().getBeanId("unusedBean");
+            executionContext.getBeanContext().addBean("header", element.getTextContent());
+        }
+    }
+
+    private static class RecordBeanVisitor implements SAXVisitAfter {
+
+        private final AtomicInteger count = new AtomicInteger();
+        private final Set<Object> headers = Collections.newSetFromMap(new ConcurrentHashMap<Object, Boolean>());
+        private final Set<Filter> filters = Collections.newSetFromMap(new ConcurrentHashMap<Filter, Boolean>());
+
+        public void visitAfter(SAXElement element, ExecutionContext executionContext) throws SmooksException, IOException {
+            assertNull(executionContext.getBeanContext().getBean("unusedBean"));
+            headers.add(executionContext.getBeanContext().getBean("header"));
+            filters.add(Filter.getFilter());
+            count.incrementAndGet();
+        }
+    }
+
+    private static class FailingVisitor implements SAXVisitBefore {
+
+        public void visitBefore(SAXElement element, ExecutionContext executionContext) throws SmooksException, IOException {
+            if("7".equals(element.getAttribute("id"))) {
+                throw new SmooksException("Record 7 failed.");
+            }
+        }
+    }
+}
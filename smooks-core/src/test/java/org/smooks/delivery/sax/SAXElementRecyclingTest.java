@@ -0,0 +1,120 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.delivery.sax;
+
+import org.junit.Test;
+import org.smooks.FilterSettings;
+import org.smooks.Smooks;
+import org.smooks.SmooksException;
+import org.smooks.container.ExecutionContext;
+import org.smooks.payload.StringResult;
+import org.smooks.payload.StringSource;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class SAXElementRecyclingTest {
+
+    private static final String MESSAGE = "<a><b x=\"1\"><c y=\"1\" /></b><b x=\"2\"><c y=\"2\" /></b><b x=\"3\"><c y=\"3\" /></b></a>";
+
+    @Test
+    public void test_retained_elements() {
+        Smooks smooks = new Smooks();
+        RetainingVisitor visitor = new RetainingVisitor();
+
+        smooks.setFilterSettings(FilterSettings.newSAXSettings().setReaderPoolSize(1));
+        smooks.addVisitor(visitor, "c");
+
+        for(int run = 0; run < 2; run++) {
+            StringResult result = new StringResult();
+
+            visitor.elements.clear();
+            smooks.filterSource(new StringSource(MESSAGE), result);
+            assertEquals(MESSAGE, result.getResult());
+
+            // The retained elements (and their parents) must not have been recycled...
+            assertEquals(3, visitor.elements.size());
+            for(int i = 0; i < 3; i++) {
+                SAXElement c = visitor.elements.get(i);
+
+                assertEquals("c", c.getName().getLocalPart());
+                assertEquals(Integer.toString(i + 1), c.getAttribute("y"));
+                assertEquals("b", c.getParent().getName().getLocalPart());
+                assertEquals(Integer.toString(i + 1), c.getParent().getAttribute("x"));
+                assertEquals("a", c.getParent().getParent().getName().getLocalPart());
+            }
+            assertNotSame(visitor.elements.get(0), visitor.elements.get(1));
+            assertNotSame(visitor.elements.get(0).getParent(), visitor.elements.get(1).getParent());
+        }
+    }
+
+    @Test
+    public void test_unvisited_elements() {
+        Smooks smooks = new Smooks();
+        StringBuilder message = new StringBuilder("<a>");
+
+        for(int i = 0; i < 100; i++) {
+            message.append("<b x=\"").append(i).append("\"><c>").append(i).append("</c></b>");
+        }
+        message.append("</a>");
+
+        StringResult result = new StringResult();
+        smooks.filterSource(new StringSource(message.toString()), result);
+        assertEquals(message.toString(), result.getResult());
+    }
+
+    private static class RetainingVisitor implements SAXVisitAfter {
+
+        private List<SAXElement> elements = new ArrayList<SAXElement>();
+
+        public void visitAfter(SAXElement element, ExecutionContext executionContext) throws SmooksException, IOException {
+            elements.add(element);
+        }
+    }
+}
@@ -47,6 +47,8 @@ import static org.junit.Assert.*;
 import org.smooks.SmooksException;
 import org.xml.sax.helpers.AttributesImpl;
 
+import javax.xml.namespace.QName;
+
 
 /**
  * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
@@ -97,6 +99,37 @@ public class SAXElementTest {
         }
     }
 
+	@Test
+    public void test_reuse() {
+        AttributesImpl readerAttributes = new AttributesImpl();
+        SAXElement saxElement = new SAXElement();
+        SAXVisitor visitor = new SAXVisitBeforeVisitor();
+
+        readerAttributes.addAttribute("", "a", "a", "CDATA", "1");
+        saxElement.reuse(new QName("x"), readerAttributes, null);
+        saxElement.setCache(visitor, "cached");
+        saxElement.detachAttributes();
+
+        // The reader reuses its attributes instance...
+        readerAttributes.clear();
+        readerAttributes.addAttribute("", "b", "b", "CDATA", "2");
+        assertEquals("1", saxElement.getAttribute("a"));
+        assertEquals("", saxElement.getAttribute("b"));
+
+        saxElement.reuse(new QName("y"), readerAttributes, null);
+        assertEquals("y", saxElement.getName().getLocalPart());
+        assertNull(saxElement.getCache(visitor));
+        assertNull(saxElement.getText());
+        assertEquals(1, saxElement.getAttributes().getLength());
+        assertEquals("2", saxElement.getAttribute("b"));
+
+        // Modifying the element must not modify the reader attributes...
+        saxElement.reuse(new QName("z"), readerAttributes, null);
+        saxElement.setAttribute("c", "3");
+        assertEquals(1, readerAttributes.getLength());
+        assertEquals(2, saxElement.getAttributes().getLength());
+    }
+
 	@Test
     public void test_attributes() {
         AttributesImpl attributes = new AttributesImpl();
@@ -144,4 +177,44 @@ public class SAXElementTest {
         // Check saxElement2 OK...
         assertEquals("XXXXXX<![CDATA[yyyyyyyy]]>", saxElement2.getTextContent());
     }
+
+    @Test
+    public void test_text_content_sequence() {
+        SAXElement saxElement = new SAXElement(null, "a", "a", new AttributesImpl(), null);
+        char[] parserBuffer = "xxhelloxx".toCharArray();
+
+        saxElement.accumulateText();
+        saxElement.setTextArena(new TextArena(16));
+        saxElement.getText().add(new SAXText(parserBuffer, 2, 5, TextType.TEXT));
+
+        // The parser reuses its buffer...
+        parserBuffer[3] = 'X';
+        assertEquals("hello", saxElement.getTextContentSequence().toString());
+        assertEquals("hello", saxElement.getTextContent());
+
+        saxElement.addText("c", TextType.CDATA);
+        assertEquals("hello<![CDATA[c]]>", saxElement.getTextContentSequence().toString());
+        assertEquals("hello<![CDATA[c]]>", saxElement.getTextContent());
+    }
+
+    @Test
+    public void test_text_arena() {
+        TextArena arena = new TextArena(8);
+        char[] parserBuffer = "abcdefghij".toCharArray();
+
+        SAXText text1 = arena.copy(new SAXText(parserBuffer, 0, 3, TextType.TEXT));
+        SAXText text2 = arena.copy(new SAXText(parserBuffer, 3, 3, TextType.COMMENT));
+        SAXText text3 = arena.copy(new SAXText(parserBuffer, 6, 3, TextType.TEXT));
+        SAXText large = arena.copy(new SAXText(parserBuffer, 0, 10, TextType.TEXT));
+
+        // The first two share a block.  The third doesn't fit, so starts a new block...
+        assertSame(text1.getCharacters(), text2.getCharacters());
+        assertNotSame(text2.getCharacters(), text3.getCharacters());
+        assertEquals(10, large.getCharacters().length);
+
+        assertEquals("abc", text1.getText());
+        assertEquals("<!--def-->", text2.toString());
+        assertEquals("ghi", text3.getCharSequence().toString());
+        assertEquals("abcdefghij", large.getText());
+    }
 }
@@ -0,0 +1,131 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.delivery.sax;
+
+import org.junit.Test;
+import org.smooks.FilterSettings;
+import org.smooks.Smooks;
+import org.smooks.SmooksException;
+import org.smooks.cdr.SmooksResourceConfiguration;
+import org.smooks.container.ExecutionContext;
+import org.smooks.delivery.ContentHandlerConfigMap;
+import org.smooks.delivery.VisitLifecycleCleanable;
+
+import javax.xml.transform.stream.StreamSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class SAXElementVisitorMapTest {
+
+    @Test
+    public void test_targeting_index() throws Exception {
+        SAXElementVisitorMap visitorMap = new SAXElementVisitorMap();
+        SmooksResourceConfiguration config1 = new SmooksResourceConfiguration("a");
+        SmooksResourceConfiguration config2 = new SmooksResourceConfiguration("a[text() = 'x']");
+        EventRecorder visitor = new EventRecorder();
+
+        config2.getSelectorStep().buildPredicatesEvaluator(new Properties());
+        visitorMap.setVisitBefores(Arrays.asList(new ContentHandlerConfigMap<SAXVisitBefore>(visitor, config1)));
+        visitorMap.setChildVisitors(Arrays.asList(new ContentHandlerConfigMap<SAXVisitChildren>(visitor, config1)));
+        visitorMap.setVisitAfters(Arrays.asList(new ContentHandlerConfigMap<SAXVisitAfter>(visitor, config2), new ContentHandlerConfigMap<SAXVisitAfter>(visitor, config1)));
+        visitorMap.setVisitCleanables(new ArrayList<ContentHandlerConfigMap<VisitLifecycleCleanable>>());
+
+        SAXElementVisitorMap.TargetingIndex index = visitorMap.getTargetingIndex();
+        assertSame(index, visitorMap.getTargetingIndex());
+        assertEquals(2, index.getResourceConfigCount());
+        assertEquals(0, index.getVisitBeforeIndex(0));
+        assertEquals(0, index.getChildVisitorIndex(0));
+        assertEquals(1, index.getVisitAfterIndex(0));
+        assertEquals(0, index.getVisitAfterIndex(1));
+        assertSame(config2, index.getResourceConfig(1));
+        assertTrue(index.isMemoizable(0));
+        assertFalse(index.isMemoizable(1));
+
+        // Changing a list resets the index...
+        visitorMap.setVisitAfters(null);
+        assertNotSame(index, visitorMap.getTargetingIndex());
+        assertEquals(1, visitorMap.getTargetingIndex().getResourceConfigCount());
+    }
+
+    @Test
+    public void test_memoized_targeting() {
+        Smooks smooks = new Smooks();
+        EventRecorder visitor = new EventRecorder();
+
+        smooks.setFilterSettings(FilterSettings.newSAXSettings());
+        smooks.addVisitor(visitor, "b[@x = '1']");
+        smooks.filterSource(new StreamSource(new StringReader("<a><b x=\"1\">t1<c/>t2</b><b x=\"2\">t3<c/>t4</b><b x=\"1\">t5</b></a>")));
+
+        assertEquals("[before:1, text:1, child:1, text:1, after:1, before:1, text:1, after:1]", visitor.events.toString());
+    }
+
+    private static class EventRecorder implements SAXElementVisitor {
+
+        private List<String> events = new ArrayList<String>();
+
+        public void visitBefore(SAXElement element, ExecutionContext executionContext) throws SmooksException, IOException {
+            events.add("before:" + element.getAttribute("x"));
+        }
+
+        public void onChildText(SAXElement element, SAXText childText, ExecutionContext executionContext) throws SmooksException, IOException {
+            events.add("text:" + element.getAttribute("x"));
+        }
+
+        public void onChildElement(SAXElement element, SAXElement childElement, ExecutionContext executionContext) throws SmooksException, IOException {
+            events.add("child:" + element.getAttribute("x"));
+        }
+
+        public void visitAfter(SAXElement element, ExecutionContext executionContext) throws SmooksException, IOException {
+            events.add("after:" + element.getAttribute("x"));
+        }
+    }
+}
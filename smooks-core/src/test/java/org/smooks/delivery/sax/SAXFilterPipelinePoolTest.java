@@ -0,0 +1,135 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.delivery.sax;
+
+import org.junit.Test;
+import org.smooks.FilterSettings;
+import org.smooks.Smooks;
+import org.smooks.payload.StringResult;
+import org.smooks.payload.StringSource;
+import org.smooks.util.BoundedObjectPool;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class SAXFilterPipelinePoolTest {
+
+    @Test
+    public void test_pooled_sequential() {
+        Smooks smooks = new Smooks();
+
+        smooks.setFilterSettings(FilterSettings.newSAXSettings().setReaderPoolSize(2));
+        for(int i = 0; i < 5; i++) {
+            StringResult result = new StringResult();
+            smooks.filterSource(new StringSource("<a><b x=\"" + i + "\">text</b></a>"), result);
+            assertEquals("<a><b x=\"" + i + "\">text</b></a>", result.getResult());
+        }
+
+        BoundedObjectPool<SAXFilterPipeline> pool = getPool(smooks);
+        assertEquals(1, pool.getMissCount());
+        assertEquals(4, pool.getHitCount());
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test
+    public void test_unpooled() {
+        Smooks smooks = new Smooks();
+
+        smooks.setFilterSettings(FilterSettings.newSAXSettings());
+        smooks.filterSource(new StringSource("<a/>"), new StringResult());
+        smooks.filterSource(new StringSource("<a/>"), new StringResult());
+
+        BoundedObjectPool<SAXFilterPipeline> pool = getPool(smooks);
+        assertFalse(pool.isEnabled());
+        assertEquals(0, pool.getHitCount());
+        assertEquals(0, pool.getIdleCount());
+    }
+
+    @Test
+    public void test_pooled_concurrent() throws InterruptedException {
+        final Smooks smooks = new Smooks();
+        final AtomicInteger errors = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(8);
+
+        smooks.setFilterSettings(FilterSettings.newSAXSettings().setReaderPoolSize(4));
+        for(int t = 0; t < 8; t++) {
+            final int threadNum = t;
+            new Thread() {
+                public void run() {
+                    try {
+                        for(int i = 0; i < 200; i++) {
+                            String message = "<a t=\"" + threadNum + "\"><b>" + i + "</b><!--c--></a>";
+                            StringResult result = new StringResult();
+
+                            smooks.filterSource(new StringSource(message), result);
+                            if(!message.equals(result.getResult())) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    } catch(Throwable t) {
+                        errors.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }.start();
+        }
+
+        done.await();
+        assertEquals(0, errors.get());
+
+        BoundedObjectPool<SAXFilterPipeline> pool = getPool(smooks);
+        assertEquals(1600, pool.getHitCount() + pool.getMissCount());
+        assertTrue(pool.getHitCount() > 0);
+        assertTrue(pool.getIdleCount() <= 4);
+    }
+
+    private BoundedObjectPool<SAXFilterPipeline> getPool(Smooks smooks) {
+        return ((SAXContentDeliveryConfig) smooks.createExecutionContext().getDeliveryConfig()).getFilterPipelinePool();
+    }
+}
@@ -0,0 +1,106 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.delivery.sax;
+
+import org.junit.Test;
+import org.smooks.FilterSettings;
+import org.smooks.Smooks;
+import org.smooks.SmooksException;
+import org.smooks.cdr.SmooksConfigurationException;
+import org.xml.sax.SAXParseException;
+
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class SAXInputValidationTest {
+
+    private static final String XSD = "/org/smooks/delivery/sax/input-validation.xsd";
+
+    @Test
+    public void test_valid_input() {
+        Smooks smooks = new Smooks();
+        StringWriter result = new StringWriter();
+
+        smooks.setFilterSettings(new FilterSettings().setInputValidationXSD(XSD));
+        smooks.filterSource(new StreamSource(new StringReader("<a><b>1</b><b>2</b></a>")), new StreamResult(result));
+
+        assertEquals("<a><b>1</b><b>2</b></a>", result.toString());
+    }
+
+    @Test
+    public void test_invalid_input() {
+        Smooks smooks = new Smooks();
+
+        smooks.setFilterSettings(new FilterSettings().setInputValidationXSD(XSD));
+        try {
+            smooks.filterSource(new StreamSource(new StringReader("<a><b>1</b><b>x</b></a>")), new StreamResult(new StringWriter()));
+            fail("Expected SmooksException");
+        } catch (SmooksException e) {
+            Throwable cause = e;
+            while (cause != null && !(cause instanceof SAXParseException)) {
+                cause = cause.getCause();
+            }
+            assertNotNull("Expected a SAXParseException cause", cause);
+        }
+    }
+
+    @Test
+    public void test_unknown_xsd() {
+        Smooks smooks = new Smooks();
+
+        smooks.setFilterSettings(new FilterSettings().setInputValidationXSD("/org/smooks/delivery/sax/no-such.xsd"));
+        try {
+            smooks.filterSource(new StreamSource(new StringReader("<a/>")), new StreamResult(new StringWriter()));
+            fail("Expected SmooksConfigurationException");
+        } catch (SmooksConfigurationException e) {
+            assertTrue(e.getMessage().contains("no-such.xsd"));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.delivery.sax;
+
+import org.junit.Test;
+import org.smooks.cdr.SmooksResourceConfiguration;
+import org.smooks.cdr.xpath.SelectorStep;
+import org.xml.sax.helpers.AttributesImpl;
+
+import javax.xml.namespace.QName;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class SelectorAutomatonTest {
+
+    private static final String[] COMPILED_SELECTORS = {
+            "a/b", "a/b/c", "b/a", "A/b", "a/*", "*/b", "*/*/c",
+            "/a/b", "/a/b/c", "/a/*/c", "/b/c/a",
+            "a/**", "*/**", "**/b", "**/a/b", "**/a/**/c",
+            "a/**/c", "a/**/b/c", "a/**/*/c", "b/**/a/b"
+    };
+
+    private static final String[] UNCOMPILED_SELECTORS = {
+            "x/a/**/c", "/a/**/b", "a/**/b/**/c", "a/b/**"
+    };
+
+    private static final String[] ELEMENT_NAMES = {"a", "b", "c", "A"};
+
+    @Test
+    public void test_compile() throws Exception {
+        SelectorAutomaton automaton = new SelectorAutomaton();
+
+        for(String selector : COMPILED_SELECTORS) {
+            assertTrue(selector, automaton.add(newConfig(selector)));
+        }
+        for(String selector : UNCOMPILED_SELECTORS) {
+            assertFalse(selector, automaton.add(newConfig(selector)));
+        }
+        // Not contextual...
+        assertFalse(automaton.add(newConfig("a")));
+        assertEquals(COMPILED_SELECTORS.length, automaton.getSelectorCount());
+    }
+
+    @Test
+    public void test_matches_element_context_check() throws Exception {
+        SelectorAutomaton automaton = new SelectorAutomaton();
+        List<SmooksResourceConfiguration> configs = new ArrayList<SmooksResourceConfiguration>();
+
+        for(String selector : COMPILED_SELECTORS) {
+            SmooksResourceConfiguration config = newConfig(selector);
+
+            automaton.add(config);
+            configs.add(config);
+        }
+
+        // Check the automaton against the element context check for every element path
+        // up to 6 elements deep...
+        assertEquals(5460, checkPaths(automaton, automaton.newMatcher(), configs, null, 0, 6));
+    }
+
+    private int checkPaths(SelectorAutomaton automaton, SelectorAutomaton.Matcher matcher, List<SmooksResourceConfiguration> configs, SAXElement parent, int depth, int maxDepth) {
+        int count = 0;
+
+        for(String elementName : ELEMENT_NAMES) {
+            SAXElement element = new SAXElement(new QName(elementName), new AttributesImpl(), parent);
+
+            matcher.push(element.getName());
+            for(SmooksResourceConfiguration config : configs) {
+                boolean expected = config.getSelectorStep().isTargetedAtElement(element) && config.isTargetedAtElement(element, null);
+
+                assertEquals("Selector '" + config.getSelector() + "' on '" + getPath(element) + "'.", expected, matcher.isMatched(automaton.getAcceptNodes(config)));
+            }
+            count++;
+            if(depth + 1 < maxDepth) {
+                count += checkPaths(automaton, matcher, configs, element, depth + 1, maxDepth);
+            }
+            matcher.pop();
+        }
+
+        return count;
+    }
+
+    private String getPath(SAXElement element) {
+        if(element.getParent() == null) {
+            return "/" + element.getName().getLocalPart();
+        }
+        return getPath(element.getParent()) + "/" + element.getName().getLocalPart();
+    }
+
+    private SmooksResourceConfiguration newConfig(String selector) throws Exception {
+        SmooksResourceConfiguration config = new SmooksResourceConfiguration(selector);
+
+        SelectorStep.setNamespaces(config.getSelectorSteps(), new Properties());
+
+        return config;
+    }
+}
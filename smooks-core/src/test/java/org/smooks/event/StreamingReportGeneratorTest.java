@@ -0,0 +1,207 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.event;
+
+import org.junit.Test;
+import org.smooks.FilterSettings;
+import org.smooks.Smooks;
+import org.smooks.SmooksException;
+import org.smooks.container.ExecutionContext;
+import org.smooks.delivery.sax.SAXElement;
+import org.smooks.delivery.sax.SAXVisitBefore;
+import org.smooks.event.report.ReportConfiguration;
+import org.smooks.event.report.StreamingFlatReportGenerator;
+import org.smooks.event.report.StreamingHtmlReportGenerator;
+import org.smooks.io.StreamUtils;
+import org.smooks.payload.StringResult;
+
+import javax.xml.transform.stream.StreamSource;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class StreamingReportGeneratorTest {
+
+    @Test
+    public void test_flat() {
+        Smooks smooks = createSmooks();
+        StringWriter reportWriter = new StringWriter();
+        ExecutionContext execContext = smooks.createExecutionContext();
+
+        execContext.setEventListener(new StreamingFlatReportGenerator(reportWriter));
+        filter(smooks, execContext);
+
+        assertEquals("STARTED (message 1)\n" +
+                "<root>\n" +
+                "    <a>\n" +
+                "    </a>\n" +
+                "    <b>\n" +
+                "        <c>\n" +
+                "            Visitor: null\n" +
+                "            <d>\n" +
+                "            </d>\n" +
+                "        </c>\n" +
+                "    </b>\n" +
+                "    <e>\n" +
+                "    </e>\n" +
+                "    <f>\n" +
+                "        <g>\n" +
+                "            <h>\n" +
+                "            </h>\n" +
+                "            <i>\n" +
+                "            </i>\n" +
+                "        </g>\n" +
+                "    </f>\n" +
+                "    <j>\n" +
+                "        Visitor: null\n" +
+                "    </j>\n" +
+                "</root>\n" +
+                "FINISHED\n" +
+                "This Smooks Filtering operation produced the following StreamResult.\n", reportWriter.toString());
+    }
+
+    @Test
+    public void test_limits() {
+        Smooks smooks = createSmooks();
+        StringWriter reportWriter = new StringWriter();
+        ReportConfiguration reportConfiguration = new ReportConfiguration(reportWriter);
+
+        reportConfiguration.setMaxElements(4);
+        reportConfiguration.setMaxElementEvents(0);
+
+        ExecutionContext execContext = smooks.createExecutionContext();
+        execContext.setEventListener(new StreamingFlatReportGenerator(reportConfiguration));
+        filter(smooks, execContext);
+
+        assertEquals("STARTED (message 1)\n" +
+                "<root>\n" +
+                "    <a>\n" +
+                "    </a>\n" +
+                "    <b>\n" +
+                "        <c>\n" +
+                "        </c>\n" +
+                "    </b>\n" +
+                "</root>\n" +
+                "Report limits reached: 7 element(s) and 1 visit event(s) not reported.\n" +
+                "FINISHED\n" +
+                "This Smooks Filtering operation produced the following StreamResult.\n", reportWriter.toString());
+    }
+
+    @Test
+    public void test_sampling() {
+        Smooks smooks = createSmooks();
+        StringWriter reportWriter = new StringWriter();
+        ReportConfiguration reportConfiguration = new ReportConfiguration(reportWriter);
+
+        reportConfiguration.setMessageSampleRate(2);
+        reportConfiguration.setAutoCloseWriter(false);
+
+        StreamingFlatReportGenerator generator = new StreamingFlatReportGenerator(reportConfiguration);
+        for(int i = 0; i < 5; i++) {
+            ExecutionContext execContext = smooks.createExecutionContext();
+
+            assertEquals(i % 2 == 0, generator.attach(execContext));
+            filter(smooks, execContext);
+        }
+
+        String report = reportWriter.toString();
+        assertEquals(5, generator.getMessageCount());
+        assertTrue(report.contains("STARTED (message 1)"));
+        assertFalse(report.contains("STARTED (message 2)"));
+        assertTrue(report.contains("STARTED (message 3)"));
+        assertFalse(report.contains("STARTED (message 4)"));
+        assertTrue(report.contains("STARTED (message 5)"));
+    }
+
+    @Test
+    public void test_html_output_dir() throws IOException {
+        Smooks smooks = createSmooks();
+        File outputDir = new File("target/streaming-report-test");
+        StreamingHtmlReportGenerator generator = new StreamingHtmlReportGenerator(outputDir);
+
+        ExecutionContext execContext = smooks.createExecutionContext();
+        assertTrue(generator.attach(execContext));
+        filter(smooks, execContext);
+
+        File reportFile = new File(outputDir, "report-1.html");
+        String report = StreamUtils.readStreamAsString(new FileInputStream(reportFile), "UTF-8");
+
+        assertTrue(report.contains("<h1>Smooks Execution Report</h1>"));
+        assertTrue(report.contains("id=\"messageNode-0\""));
+        assertTrue(report.contains("Visitor: null"));
+        assertTrue(report.contains("</html>"));
+        assertTrue(report.indexOf("id=\"righttop\"") < report.indexOf("block-details-link-0"));
+        assertTrue(report.indexOf("id=\"rightbottom\"") < report.indexOf("id=\"block-details-0\""));
+
+        // Temp files removed...
+        File[] files = outputDir.listFiles();
+        assertNotNull(files);
+        assertEquals(1, files.length);
+        reportFile.delete();
+    }
+
+    private Smooks createSmooks() {
+        Smooks smooks = new Smooks();
+
+        smooks.setFilterSettings(FilterSettings.DEFAULT_SAX);
+        smooks.addVisitor(new Visitor(), "c");
+        smooks.addVisitor(new Visitor(), "j");
+
+        return smooks;
+    }
+
+    private void filter(Smooks smooks, ExecutionContext execContext) {
+        smooks.filterSource(execContext, new StreamSource(getClass().getResourceAsStream("test-data-01.xml")), new StringResult());
+    }
+
+    public static class Visitor implements SAXVisitBefore {
+        public void visitBefore(SAXElement element, ExecutionContext executionContext) throws SmooksException, IOException {
+        }
+    }
+}
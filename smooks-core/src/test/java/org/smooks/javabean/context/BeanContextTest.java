@@ -215,6 +215,47 @@ public class BeanContextTest {
 		assertNull(BeanContext.getBean("bean4"));
 	}
 
+	@Test
+	public void test_supplied_bean_map() {
+		Object bean1 = new Object();
+		Object bean2 = new Object();
+		Map<String, Object> suppliedMap = new HashMap<String, Object>();
+
+		suppliedMap.put("bean1", bean1);
+		BeanId beanId1 = getBeanIdStore().register("bean1");
+
+		BeanContext beanContext = new StandaloneBeanContext(executionContext, getBeanIdStore(), suppliedMap);
+
+		assertSame(bean1, beanContext.getBean(beanId1));
+		assertSame(bean1, beanContext.getBean("bean1"));
+
+		// Changes are written through to the supplied map...
+		beanContext.addBean("bean2", bean2);
+		assertSame(bean2, suppliedMap.get("bean2"));
+		beanContext.removeBean("bean1", null);
+		assertTrue(suppliedMap.containsKey("bean1"));
+		assertNull(suppliedMap.get("bean1"));
+	}
+
+	@Test
+	public void test_observers() {
+		MockRepositoryBeanLifecycleObserver observer = new MockRepositoryBeanLifecycleObserver();
+		BeanId beanId1 = getBeanIdStore().register("bean1");
+		BeanContext beanContext = getBeanContext();
+
+		beanContext.addBean(beanId1, new Object(), null);
+		assertFalse(observer.isFired());
+
+		beanContext.addObserver(observer);
+		beanContext.addBean(beanId1, new Object(), null);
+		assertTrue(observer.isFired());
+
+		observer.reset();
+		beanContext.removeObserver(observer);
+		beanContext.removeBean(beanId1, null);
+		assertFalse(observer.isFired());
+	}
+
 	@Before
 	public void setUp() throws Exception {
 		executionContext = new MockExecutionContext();
@@ -44,6 +44,7 @@ package org.smooks.javabean.expression;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -55,6 +56,7 @@ import static org.junit.Assert.*;
 import org.smooks.Smooks;
 import org.smooks.container.ExecutionContext;
 import org.smooks.expression.ExpressionEvaluationException;
+import org.smooks.expression.MVELExpressionEvaluator;
 import org.xml.sax.SAXException;
 
 /**
@@ -99,4 +101,76 @@ public class BeanMapExpressionEvaluatorTest {
             assertTrue(e instanceof ExpressionEvaluationException);
         }
     }
+
+	@Test
+    public void test_beanId_resolution() {
+        ExecutionContext execContext = new Smooks().createExecutionContext();
+        Map<String, Object> bean = new HashMap<String, Object>();
+
+        bean.put("a", "hello");
+        execContext.getBeanContext().addBean("aBean", bean, null);
+
+        BeanMapExpressionEvaluator evaluator = new BeanMapExpressionEvaluator("aBean.a == 'hello'");
+        assertArrayEquals(new String[] {"aBean"}, evaluator.getInputs());
+        assertTrue(evaluator.eval(execContext));
+
+        // Reused resolver factory must see the changed bean...
+        bean.put("a", "goodbye");
+        assertFalse(evaluator.eval(execContext));
+        execContext.getBeanContext().addBean("aBean", new HashMap<String, Object>(bean), null);
+        assertFalse(evaluator.eval(execContext));
+
+        evaluator.setBeanIdResolution(false);
+        assertFalse(evaluator.eval(execContext));
+    }
+
+	@Test
+    public void test_beanId_resolution_vars_and_locals() {
+        ExecutionContext execContext = new Smooks().createExecutionContext();
+
+        execContext.getBeanContext().addBean("x", 2, null);
+
+        BeanMapExpressionEvaluator evaluator = new BeanMapExpressionEvaluator("VARS.isdef('x') && !VARS.isdef('y')");
+        assertTrue(evaluator.eval(execContext));
+
+        evaluator = new BeanMapExpressionEvaluator("x = x * 3; x");
+        assertEquals(6, evaluator.getValue(execContext));
+        // The assignment must not leak into the bean context or the next evaluation...
+        assertEquals(2, execContext.getBeanContext().getBean("x"));
+        assertEquals(6, evaluator.getValue(execContext));
+    }
+
+	@Test
+    public void test_beanId_resolution_unbound() {
+        ExecutionContext execContext = new Smooks().createExecutionContext();
+
+        try {
+            new BeanMapExpressionEvaluator("unboundBean.y").eval(execContext);
+            fail("Expected ExpressionEvaluationException");
+        } catch(ExpressionEvaluationException e) {
+            // expected
+        }
+    }
+
+	@Test
+    public void test_toType() {
+        ExecutionContext execContext = new Smooks().createExecutionContext();
+        BeanMapExpressionEvaluator evaluator = new BeanMapExpressionEvaluator("x + 1");
+
+        execContext.getBeanContext().addBean("x", 2, null);
+        evaluator.setToType(String.class);
+        assertEquals("3", evaluator.getValue(execContext));
+        evaluator.setToType(int.class);
+        assertEquals(3, evaluator.getValue(execContext));
+    }
+
+	@Test
+    public void test_optimizer() {
+        try {
+            MVELExpressionEvaluator.setOptimizer("reflective");
+            assertEquals(true, new MVELExpressionEvaluator("x > 1").getValue(Collections.singletonMap("x", 2)));
+        } finally {
+            MVELExpressionEvaluator.setOptimizer("dynamic");
+        }
+    }
 }
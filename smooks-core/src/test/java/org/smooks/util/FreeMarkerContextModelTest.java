@@ -0,0 +1,121 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Smooks Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.util;
+
+import freemarker.ext.dom.NodeModel;
+import freemarker.template.TemplateModel;
+import org.junit.Test;
+import org.smooks.Smooks;
+import org.smooks.container.ExecutionContext;
+import org.smooks.delivery.DOMModel;
+import org.smooks.xml.XmlUtil;
+import org.w3c.dom.Element;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
+ */
+public class FreeMarkerContextModelTest {
+
+    @Test
+    public void test_beans_and_dom_models() throws Exception {
+        ExecutionContext executionContext = new Smooks().createExecutionContext();
+        FreeMarkerContextModel model = FreeMarkerUtils.getTemplateModel(executionContext);
+        FreeMarkerTemplate template = new FreeMarkerTemplate("${name}-${customer.number}-${order.@id}");
+
+        assertSame(model, FreeMarkerUtils.getTemplateModel(executionContext));
+        assertTrue(model.isEmpty());
+
+        Map<String, Object> customer = new HashMap<String, Object>();
+        customer.put("number", 123);
+        executionContext.getBeanContext().addBean("name", "Joe");
+        executionContext.getBeanContext().addBean("customer", customer);
+
+        Element order = XmlUtil.createElement("order");
+        order.setAttribute("id", "1");
+        DOMModel.getModel(executionContext).getModels().put("order", order);
+
+        assertEquals("Joe-123-1", template.apply(model));
+        assertEquals(3, model.size());
+
+        // Bean and DOM model changes are picked up...
+        executionContext.getBeanContext().addBean("name", "Mike");
+        customer.put("number", 456);
+        Element nextOrder = XmlUtil.createElement("order");
+        nextOrder.setAttribute("id", "2");
+        DOMModel.getModel(executionContext).getModels().put("order", nextOrder);
+
+        assertEquals("Mike-456-2", template.apply(model));
+    }
+
+    @Test
+    public void test_cached_models() throws Exception {
+        ExecutionContext executionContext = new Smooks().createExecutionContext();
+        FreeMarkerContextModel model = FreeMarkerUtils.getTemplateModel(executionContext);
+        Object bean = new Object();
+
+        executionContext.getBeanContext().addBean("bean", bean);
+        TemplateModel beanModel = model.get("bean");
+        assertNotNull(beanModel);
+        assertSame(beanModel, model.get("bean"));
+
+        // Re-adding the same bean reuses the cached model, replacing it doesn't...
+        executionContext.getBeanContext().addBean("bean", bean);
+        assertSame(beanModel, model.get("bean"));
+        executionContext.getBeanContext().addBean("bean", new Object());
+        assertNotSame(beanModel, model.get("bean"));
+
+        // Beans removed from the BeanContext are not served from the cache...
+        executionContext.getBeanContext().clear();
+        assertNull(model.get("bean"));
+
+        // DOM models hide beans of the same name...
+        executionContext.getBeanContext().addBean("order", "bean");
+        DOMModel.getModel(executionContext).getModels().put("order", XmlUtil.createElement("order"));
+        assertTrue(model.get("order") instanceof NodeModel);
+    }
+}